@@ -0,0 +1,120 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package benchmark;
+
+import time.Constants;
+import time.TimeBudgetConstraint;
+import time.TimeControlPhase;
+
+/** The layouts of time control phases the benchmarks run with. The names are the values of the
+ * {@code layout} parameter of the benchmarks.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public final class Layouts {
+
+    /** One phase for the whole game: 90 minutes and an increment of 30 seconds. */
+    public static final String SINGLE = "single";
+    /** Classical tournament: 40 moves in 100 minutes, 20 moves in 50 minutes, 15 minutes for the
+     * rest of the game, an increment of 30 seconds, and a limit of 10 minutes per move. */
+    public static final String CLASSICAL = "classical";
+    /** Twenty phases of five moves each, then the rest of the game, with cumulative phases. */
+    public static final String MANY = "many";
+
+    private Layouts() {
+    }
+
+    /** Returns the phases of a layout.
+     *
+     * @since 1.0;
+     * @param layout Name of the layout.
+     * @return The phases.
+     * @throws IllegalArgumentException If there is no such layout.
+     */
+    public static TimeControlPhase[] getPhases(String layout) {
+        return switch (layout) {
+            case SINGLE ->
+                new TimeControlPhase[]{TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 5400, 30)};
+            case CLASSICAL ->
+                new TimeControlPhase[]{
+                    TimeControlPhase.makeNew((short) 40, 6000, 30),
+                    TimeControlPhase.makeNew((short) 20, 3000, 30),
+                    TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 900, 30)};
+            case MANY -> {
+                TimeControlPhase[] tcps = new TimeControlPhase[21];
+                for (int phase = 0; phase < tcps.length - 1; phase++) {
+                    tcps[phase] = TimeControlPhase.makeNew((short) 5, 300, 5);
+                }
+                tcps[tcps.length - 1] = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 600, 5);
+                yield tcps;
+            }
+            default ->
+                throw new IllegalArgumentException("No layout " + layout);
+        };
+    }
+
+    /** Returns the constraint of a layout.
+     *
+     * @since 1.0;
+     * @param layout Name of the layout.
+     * @return The constraint.
+     * @throws IllegalArgumentException If there is no such layout.
+     */
+    public static TimeBudgetConstraint getConstraint(String layout) {
+        return TimeBudgetConstraint.makeNew(getPhases(layout), getMoveTimeLimit(layout), 60 * Constants.NANOSEC_PER_SEC,
+                MANY.equals(layout)).get();
+    }
+
+    /** Returns the time limit per move of a layout.
+     *
+     * @since 1.0;
+     * @param layout Name of the layout.
+     * @return The time limit per move, in nanoseconds. Negative if there is none.
+     */
+    public static long getMoveTimeLimit(String layout) {
+        return CLASSICAL.equals(layout) ? 600 * Constants.NANOSEC_PER_SEC : -1;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package benchmark;
+
+import localization.EnglishLocalization;
+import localization.Loc;
+import localization.TimeChars;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import time.Constants;
+
+/** Benchmarks of formatting the times shown, with {@link Loc#getTimeStrings(long)} and with the
+ * allocation-free {@link Loc#formatTime(long, TimeChars, TimeChars)}. The time counts down from 90
+ * minutes in steps of a millisecond.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+@State(Scope.Thread)
+public class LocBenchmark {
+
+    /** Start of the count down, in nanoseconds. */
+    private static final long START = 5400 * Constants.NANOSEC_PER_SEC;
+    /** Step of the count down, in nanoseconds. */
+    private static final long STEP = Constants.NANOSEC_PER_SEC / 1000;
+
+    private Loc loc;
+    private final TimeChars minutesSeconds = new TimeChars();
+    private final TimeChars tenths = new TimeChars();
+    /** The time to be formatted next. */
+    private long time;
+
+    @Setup
+    public void setUp() {
+        loc = new EnglishLocalization();
+        time = START;
+    }
+
+    /** Returns the next time to be formatted.
+     *
+     * @since 1.0;
+     * @return The time, in nanoseconds.
+     */
+    private long nextTime() {
+        time = time > 0 ? time - STEP : START;
+        return time;
+    }
+
+    @Benchmark
+    public String[] getTimeStrings() {
+        return loc.getTimeStrings(nextTime());
+    }
+
+    @Benchmark
+    public void formatTime(Blackhole blackhole) {
+        loc.formatTime(nextTime(), minutesSeconds, tenths);
+        blackhole.consume(minutesSeconds);
+        blackhole.consume(tenths);
+    }
+}
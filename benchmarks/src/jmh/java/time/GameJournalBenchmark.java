@@ -0,0 +1,148 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import benchmark.Layouts;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/** Benchmarks of the {@link GameJournal game journal}: writing a record, as the signal clock does
+ * for each move, and rebuilding a whole game from a journal, as after a crash. The number of moves
+ * only matters for the rebuilding. Lives in the package {@code time} for reaching the package
+ * private methods.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+@State(Scope.Thread)
+public class GameJournalBenchmark {
+
+    /** Time between two moves of the journaled game, in nanoseconds. */
+    private static final long MOVE_TIME = 30 * Constants.NANOSEC_PER_SEC;
+    /** Moves recorded before the journal is started over with a new game, so that it never gets
+     * full. */
+    private static final int MOVES_PER_GAME = 100000;
+
+    @Param({"100", "1000"})
+    public int moves;
+
+    private TimeBudgetConstraint tbc;
+    /** Journal written by the benchmark. */
+    private GameJournal journal;
+    private Path journalFile;
+    /** Journal of a whole game, never closed, as left behind by a crash. */
+    private Path crashedFile;
+    /** Moves recorded in the current game of the journal written. */
+    private int recordedMoves;
+    /** The current moment. */
+    private long now;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        tbc = Layouts.getConstraint(Layouts.CLASSICAL);
+        journalFile = Files.createTempFile("benchmark", ".journal");
+        journal = GameJournal.makeNew(journalFile).get();
+        journal.recordSetup(now, tbc, tbc, true, true);
+
+        // a game with the progress recorded every second, copied before the journal is closed
+        Path file = Files.createTempFile("game", ".journal");
+        GameJournal game = GameJournal.makeNew(file).get();
+        long moment = 0;
+        game.recordSetup(moment, tbc, tbc, true, true);
+        for (int move = 0; move < moves; move++) {
+            for (long progress = GameJournal.PROGRESS_INTERVAL; progress < MOVE_TIME;
+                    progress += GameJournal.PROGRESS_INTERVAL) {
+                game.recordProgress(moment + progress);
+            }
+            moment += MOVE_TIME;
+            game.recordMove(moment);
+        }
+        crashedFile = Files.createTempFile("crashed", ".journal");
+        Files.copy(file, crashedFile, StandardCopyOption.REPLACE_EXISTING);
+        game.close();
+        Files.deleteIfExists(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        journal.close();
+        Files.deleteIfExists(journalFile);
+        Files.deleteIfExists(crashedFile);
+    }
+
+    /** Records a move, as the signal clock does.
+     *
+     * @since 1.0;
+     */
+    @Benchmark
+    public void recordMove() {
+        if (++recordedMoves == MOVES_PER_GAME) {
+            journal.recordSetup(now, tbc, tbc, true, true);
+            recordedMoves = 0;
+        }
+        now += MOVE_TIME;
+        journal.recordMove(now);
+    }
+
+    /** Rebuilds the whole game on a new time control.
+     *
+     * @since 1.0;
+     * @return Number of records replayed.
+     */
+    @Benchmark
+    public int replay() {
+        TimeControl timeControl = TimeControl.makeNew(null, VirtualTimeSource.makeNew().get()).get();
+        return GameJournal.replay(crashedFile, timeControl);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import benchmark.Layouts;
+import benchmark.MockDisplay;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Benchmarks of the {@link PlayerTimeControl player time control}: taking the time of a tick from
+ * the player, and ending a move, for each layout of phases, each kind of timekeeping, and with and
+ * without a display. Lives in the package {@code time} for reaching the package private methods.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+@State(Scope.Thread)
+public class PlayerTimeControlBenchmark {
+
+    /** Time between two ticks, in nanoseconds. */
+    private static final long TICK = 100;
+    /** Moves per game when ending moves. Then, a new game is set up, so that the phases are
+     * passed again and again. */
+    private static final int MOVES_PER_GAME = 120;
+
+    @Param({Layouts.SINGLE, Layouts.CLASSICAL, Layouts.MANY})
+    public String layout;
+
+    @Param({MockDisplay.NULL, MockDisplay.MOCK})
+    public String display;
+
+    @Param({"perTick", "lazy"})
+    public String timekeeping;
+
+    private TimeBudgetConstraint tbc;
+    private PlayerTimeControl ptc;
+    /** The current moment. */
+    private long now;
+    /** Moves made in the current game. */
+    private int moves;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        tbc = Layouts.getConstraint(layout);
+        ptc = new PlayerTimeControl();
+        ptc.setTimekeeping(Timekeeping.valueOf(timekeeping));
+        if (MockDisplay.MOCK.equals(display)) {
+            ptc.setDisplay(new MockDisplay());
+        }
+    }
+
+    /** Starts a new game in each iteration, so that the time never runs out.
+     *
+     * @since 1.0;
+     */
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        ptc.setupGameTiming(tbc);
+        ptc.setActiveAndRepaint(true);
+        now = 0;
+        moves = 0;
+        ptc.startRunning(now);
+    }
+
+    /** Takes the time of a tick from the player, as the time control does in each tick.
+     *
+     * @since 1.0;
+     * @return Is the time up?
+     */
+    @Benchmark
+    public boolean update() {
+        now += TICK;
+        return ptc.update(TICK, now);
+    }
+
+    /** Takes the time of a tick from the player, and refreshes the display if the player would see a
+     * difference.
+     *
+     * @since 1.0;
+     * @return Has the display been refreshed?
+     */
+    @Benchmark
+    public boolean updateAndRefresh() {
+        now += TICK;
+        ptc.update(TICK, now);
+        return ptc.refreshDisplay();
+    }
+
+    /** Ends a move, which adds the increment and may switch to the next phase. Every
+     * {@value #MOVES_PER_GAME} moves, a new game is set up.
+     *
+     * @since 1.0;
+     * @return The current phase.
+     */
+    @Benchmark
+    public int endMoveAndRepaint() {
+        ptc.endMoveAndRepaint();
+        if (++moves == MOVES_PER_GAME) {
+            moves = 0;
+            ptc.setupGameTiming(tbc);
+        }
+        return ptc.getCurrentPhase();
+    }
+}
@@ -2,4 +2,6 @@ module chessClockWork{
 	exports time;
 	requires java.desktop;
 	requires java.logging;
+	requires java.management;
+	requires jdk.jfr;
 }
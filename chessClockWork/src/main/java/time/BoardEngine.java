@@ -0,0 +1,483 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** Drives the time controls of many boards with a few threads, instead of one
+ * {@link SignalClock signal clock} thread per time control. Suitable for hosting a whole tournament
+ * hall on a single machine.
+ * <p>
+ * A single wheel thread keeps the boards in a hashed timer wheel, sorted by their next deadline.
+ * A board is only touched when one of its deadlines comes due, see
+ * {@link TimeControl#nanosToNextDeadline()}. Then the board is updated by one of the threads of a
+ * small pool, which is sized to the number of cores by default. Afterwards, the board is handed back
+ * to the wheel thread with its next deadline.
+ * <p>
+ * Deadlines are met with the precision of one slot of the wheel, that is
+ * {@value #SLOT_NANOS} nanoseconds.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public final class BoardEngine {
+
+    private static final Logger LOG = Logger.getLogger(BoardEngine.class.getName());
+    /** Time span covered by a slot of the wheel, in nanoseconds. */
+    static final long SLOT_NANOS = 1000000;
+    /** Number of slots of the wheel, as a power of two. */
+    private static final int WHEEL_BITS = 8;
+    /** Number of slots of the wheel. */
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    /** For mapping a slot count on a slot of the wheel. */
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    /** First board of each slot. The boards of a slot are linked with each other. */
+    private final Board[] slots = new Board[WHEEL_SIZE];
+    /** Boards which have to be (re)sorted into the wheel by the wheel thread. */
+    private final Queue<Board> reschedules = new ConcurrentLinkedQueue<>();
+    /** The threads that update the boards. */
+    private final ExecutorService pool;
+    /** The thread that runs the wheel. */
+    private final Thread wheelThread;
+    /** Moment the wheel started turning, in nanoseconds. */
+    private final long wheelStart;
+    /** Number of boards registered. */
+    private final AtomicInteger boardCount = new AtomicInteger();
+    /** Number of boards sorted into the wheel. Only accessed by the wheel thread. */
+    private int boardsInWheel;
+    /** Number of slots the wheel has turned so far. Only accessed by the wheel thread. */
+    private long currentSlot;
+    /** Is the wheel thread parking without a time limit, since there are no boards in the wheel? */
+    private volatile boolean idle;
+    /** Has the engine been shut down? */
+    private volatile boolean shutDown;
+
+    /** Generates.
+     *
+     * @since 1.0;
+     * @param threads Number of threads updating the boards.
+     */
+    private BoardEngine(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "BoardEngine-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        wheelStart = System.nanoTime();
+        wheelThread = new Thread(this::turnWheel, "BoardEngine-wheel");
+        wheelThread.setDaemon(true);
+        wheelThread.start();
+    }
+
+    /** Creates a new engine with as many threads updating the boards as there are cores.
+     *
+     * @since 1.0;
+     * @return An optional with the new instance.
+     */
+    public static Optional<BoardEngine> makeNew() {
+        return makeNew(Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Creates a new engine.
+     *
+     * @since 1.0;
+     * @param threads Number of threads updating the boards.
+     * @return An optional with the new instance. Empty if the number of threads is not positive.
+     */
+    public static Optional<BoardEngine> makeNew(int threads) {
+        if (threads < 1) {
+            return Optional.empty();
+        }
+        return Optional.of(new BoardEngine(threads));
+    }
+
+    /** Registers a new board. The board is driven by this engine until it is unregistered again.
+     * There is no need to call {@link TimeControl#startClock()} for the returned time control.
+     *
+     * @since 1.0;
+     * @param clockDisplay The clock display that is responsible for displaying the times of the board.
+     * @return An optional with the time control of the board. Empty if the engine has been shut down.
+     */
+    public Optional<TimeControl> register(ClockDisplay clockDisplay) {
+        if (shutDown) {
+            return Optional.empty();
+        }
+        Optional<TimeControl> optTimeControl = TimeControl.makeNew(clockDisplay, Board::new);
+        optTimeControl.ifPresent(timeControl -> boardCount.incrementAndGet());
+        return optTimeControl;
+    }
+
+    /** Unregisters a board. Its time control will not receive any timing signals anymore, and its
+     * {@link TimeControl#publishMetrics() published metrics} are withdrawn.
+     *
+     * @since 1.0;
+     * @param timeControl The time control of the board.
+     * @return {@code true} if the board has been registered with this engine before.
+     */
+    public boolean unregister(TimeControl timeControl) {
+        if (timeControl == null || !(timeControl.getSignalClock() instanceof Board board) || board.getEngine() != this) {
+            return false;
+        }
+        timeControl.getMetrics().unregister();
+        return board.endBoard();
+    }
+
+    /** Returns the number of boards registered.
+     *
+     * @since 1.0;
+     * @return The number of boards.
+     */
+    public int getBoardCount() {
+        return boardCount.get();
+    }
+
+    /** Stops the wheel and the threads updating the boards. The boards do not receive any timing
+     * signals anymore, and no new boards can be registered.
+     *
+     * @since 1.0;
+     */
+    public void shutdown() {
+        shutDown = true;
+        LockSupport.unpark(wheelThread);
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(1, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Hands a board over to the wheel thread, which sorts it into the wheel.
+     *
+     * @since 1.0;
+     * @param board The board.
+     * @param urgent Shall the wheel thread take care of the board right now?
+     */
+    private void reschedule(Board board, boolean urgent) {
+        reschedules.offer(board);
+        if (urgent || idle) {
+            LockSupport.unpark(wheelThread);
+        }
+    }
+
+    /** The loop of the wheel thread. In each turn, the boards handed over are sorted in, and the
+     * boards of all slots which have come due are passed to the pool.
+     *
+     * @since 1.0;
+     */
+    private void turnWheel() {
+        while (!shutDown) {
+            sortInBoards();
+            long now = System.nanoTime();
+            while (wheelStart + currentSlot * SLOT_NANOS <= now) {
+                expireSlot();
+                currentSlot++;
+            }
+            awaitSlot();
+        }
+        LOG.log(Level.INFO, "Board engine has ended");
+    }
+
+    /** Waits until the current slot is due, or until a board is handed over urgently. If there are
+     * no boards in the wheel, it waits until any board is handed over.
+     *
+     * @since 1.0;
+     */
+    private void awaitSlot() {
+        if (boardsInWheel == 0 && reschedules.isEmpty()) {
+            idle = true;
+            while (!shutDown && reschedules.isEmpty()) {
+                LockSupport.park(this);
+            }
+            idle = false;
+            // the wheel is empty, so the slots in between can be skipped
+            currentSlot = Math.max(currentSlot, (System.nanoTime() - wheelStart) / SLOT_NANOS);
+            return;
+        }
+
+        long left = wheelStart + currentSlot * SLOT_NANOS - System.nanoTime();
+        if (left > 0) {
+            LockSupport.parkNanos(this, left);
+        }
+    }
+
+    /** Sorts all boards handed over into the wheel, or passes them to the pool if they are due.
+     *
+     * @since 1.0;
+     */
+    private void sortInBoards() {
+        Board board;
+        while ((board = reschedules.poll()) != null) {
+            if (board.ticking) {
+                // the board hands itself over again when done
+                continue;
+            }
+            if (board.inWheel) {
+                unlink(board);
+            }
+            if (board.ended) {
+                continue;
+            }
+            if (board.nudged || board.holdOn) {
+                dispatch(board);
+                continue;
+            }
+            long slot = (board.deadline - wheelStart + SLOT_NANOS - 1) / SLOT_NANOS;
+            if (slot < currentSlot) {
+                dispatch(board);
+            } else {
+                link(board, slot);
+            }
+        }
+    }
+
+    /** Passes all boards of the current slot that are due in this turn of the wheel to the pool.
+     *
+     * @since 1.0;
+     */
+    private void expireSlot() {
+        Board board = slots[(int) (currentSlot & WHEEL_MASK)];
+        while (board != null) {
+            Board next = board.next;
+            if (board.rounds == 0) {
+                unlink(board);
+                dispatch(board);
+            } else {
+                board.rounds--;
+            }
+            board = next;
+        }
+    }
+
+    /** Passes a board to the pool for an update.
+     *
+     * @since 1.0;
+     * @param board The board.
+     */
+    private void dispatch(Board board) {
+        board.ticking = true;
+        pool.execute(board);
+    }
+
+    /** Puts a board into the wheel.
+     *
+     * @since 1.0;
+     * @param board The board.
+     * @param slot Number of the slot in which the board is due.
+     */
+    private void link(Board board, long slot) {
+        int index = (int) (slot & WHEEL_MASK);
+        board.rounds = (slot - currentSlot) >> WHEEL_BITS;
+        board.slot = index;
+        board.prev = null;
+        board.next = slots[index];
+        if (board.next != null) {
+            board.next.prev = board;
+        }
+        slots[index] = board;
+        board.inWheel = true;
+        boardsInWheel++;
+    }
+
+    /** Removes a board from the wheel.
+     *
+     * @since 1.0;
+     * @param board The board.
+     */
+    private void unlink(Board board) {
+        if (board.prev != null) {
+            board.prev.next = board.next;
+        } else {
+            slots[board.slot] = board.next;
+        }
+        if (board.next != null) {
+            board.next.prev = board.prev;
+        }
+        board.prev = board.next = null;
+        board.inWheel = false;
+        boardsInWheel--;
+    }
+
+    /** A board driven by the engine. It is the ticker of the board's time control.
+     *
+     * @author Dragonstb
+     * @since 1.0;
+     */
+    private final class Board implements Ticker, Runnable {
+
+        /** The time control of the board. */
+        private final TimeControl timeControl;
+        /** Do not update until told so. */
+        private volatile boolean holdOn = true;
+        /** Has the board been unregistered? */
+        private volatile boolean ended;
+        /** Shall the board be updated right now? */
+        private volatile boolean nudged;
+        /** Is the board being updated by the pool? */
+        private volatile boolean ticking;
+        /** Next deadline of the time control, in nanoseconds. */
+        private volatile long deadline;
+
+        /** Is the board in the wheel? Only accessed by the wheel thread. */
+        private boolean inWheel;
+        /** Index of the slot the board is in. Only accessed by the wheel thread. */
+        private int slot;
+        /** Number of turns of the wheel before the board is due. Only accessed by the wheel thread. */
+        private long rounds;
+        /** Previous board in the same slot. Only accessed by the wheel thread. */
+        private Board prev;
+        /** Next board in the same slot. Only accessed by the wheel thread. */
+        private Board next;
+
+        /** Generates as holding on.
+         *
+         * @since 1.0;
+         * @param timeControl The time control of the board.
+         */
+        private Board(TimeControl timeControl) {
+            this.timeControl = timeControl;
+        }
+
+        /** Updates the time control and hands the board back to the wheel thread.
+         *
+         * @since 1.0;
+         */
+        @Override
+        public void run() {
+            if (ended) {
+                ticking = false;
+                return;
+            }
+            if (holdOn && !nudged) {
+                timeControl.notifyStoppingClock();
+                ticking = false;
+                if (nudged && !ended) {
+                    // nudged while being updated
+                    reschedule(this, true);
+                }
+                return;
+            }
+
+            long now = System.nanoTime();
+            nudged = false;
+            timeControl.update(now);
+            deadline = now + timeControl.nanosToNextDeadline();
+            ticking = false;
+            if (!ended) {
+                reschedule(this, false);
+            }
+        }
+
+        /** Returns the engine the board belongs to.
+         *
+         * @since 1.0;
+         * @return The engine.
+         */
+        private BoardEngine getEngine() {
+            return BoardEngine.this;
+        }
+
+        /** Ends the board, unless it has ended before.
+         *
+         * @since 1.0;
+         * @return {@code true} if the board has not ended before.
+         */
+        private synchronized boolean endBoard() {
+            if (ended) {
+                return false;
+            }
+            ended = true;
+            boardCount.decrementAndGet();
+            reschedule(this, false);
+            return true;
+        }
+
+        @Override
+        public void start() {
+            // the engine is running already
+        }
+
+        @Override
+        public void end() {
+            endBoard();
+        }
+
+        @Override
+        public void flagHoldOn() {
+            holdOn = true;
+        }
+
+        @Override
+        public void callAwakening() {
+            // called while being updated, so the board is handed back to the wheel thread anyway
+            holdOn = false;
+        }
+
+        @Override
+        public void nudge() {
+            nudged = true;
+            reschedule(this, true);
+        }
+
+        @Override
+        public void setTickPolicy(TickPolicy tickPolicy) {
+            // the engine decides how to wait
+        }
+    }
+}
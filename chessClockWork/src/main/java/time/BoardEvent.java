@@ -0,0 +1,91 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/** Base of the Java Flight Recorder events of the clockwork, which tell the board and the side
+ * they belong to. All events are checked for being enabled before they are filled, so they cost
+ * next to nothing while no recording is running. A continuous recording, e.g. started with
+ * {@code -XX:StartFlightRecording}, allows to correlate a disputed flag fall with what the JVM,
+ * like the garbage collector, was doing at that time.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+@Category({"Chess Clock", "Clockwork"})
+@StackTrace(false)
+abstract class BoardEvent extends Event {
+
+    /** Value of the side if no player is concerned. */
+    static final String NO_SIDE = "none";
+
+    @Label("Board")
+    @Description("Id of the board, as in the name of the metrics MBean of its time control")
+    int board;
+
+    @Label("Side")
+    @Description("Side of the player concerned: left or right")
+    String side = NO_SIDE;
+
+    /** Sets the board and the side.
+     *
+     * @since 1.0;
+     * @param board Id of the board.
+     * @param player Index of the player, as in the {@link ClockFrame clock frame}.
+     */
+    final void setBoard(int board, int player) {
+        this.board = board;
+        side = switch (player) {
+            case ClockFrame.LEFT -> "left";
+            case ClockFrame.RIGHT -> "right";
+            default -> NO_SIDE;
+        };
+    }
+}
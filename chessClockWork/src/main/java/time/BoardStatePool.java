@@ -0,0 +1,541 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/** Keeps the clock states of many boards in primitive arrays, indexed by the board id, instead of
+ * in two {@link PlayerTimeControl player time controls} per board. Sweeping all boards with
+ * {@link #updateAll(long)} is a linear pass through a few arrays. Updating the time, ending a move,
+ * and switching to the next {@link TimeControlPhase time control phase} behave exactly as in the
+ * player time controls. Displays and the short-on-time warning are not part of the pool.
+ * <p>
+ * Each board takes {@link #BYTES_PER_BOARD} bytes, which is kept below
+ * {@link #MEMORY_BUDGET_PER_BOARD}. The constraints and their {@link PhaseProgram phase programs}
+ * are shared by all boards using them, and each distinct constraint in use takes another
+ * {@link #BYTES_PER_CONSTRAINT} bytes. A constraint is forgotten once the last board using it is
+ * released, so a board takes no more than both together, even if every board has a constraint of
+ * its own.
+ * <p>
+ * Not thread safe.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public final class BoardStatePool {
+
+    /** The largest number of bytes a board may take in the pool. */
+    public static final int MEMORY_BUDGET_PER_BOARD = 64;
+    /** The number of bytes a board takes in the pool: per player the time remaining, the time
+     * remaining for the move, the phase, the move within the phase and the move of the next change
+     * of the phase; per board the constraint, the state and an entry of the free list. */
+    public static final int BYTES_PER_BOARD = 2 * (Long.BYTES + Long.BYTES + Integer.BYTES + Short.BYTES + Short.BYTES)
+            + Integer.BYTES + Byte.BYTES + Integer.BYTES;
+    /** The number of bytes a distinct constraint in use takes in the pool, with compressed
+     * references: the references to the constraint and to its program, the move time limit, the
+     * reference count and an entry of the free list; plus the key and the value in the table of the
+     * identity map at a load of up to two thirds, and the boxed index of 16 bytes. */
+    public static final int BYTES_PER_CONSTRAINT = Integer.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES
+            + Integer.BYTES + 3 * 2 * Integer.BYTES + 16;
+    /** Index of the player with the white pieces. */
+    public static final int WHITE = 0;
+    /** Index of the player with the black pieces. */
+    public static final int BLACK = 1;
+
+    /** State bit: the board is in use. */
+    private static final byte IN_USE = 1;
+    /** State bit: the clock is running for the player in turn. */
+    private static final byte RUNNING = 2;
+    /** State bit: the flag has fallen. */
+    private static final byte FLAG_FALLEN = 4;
+    /** State bit: black is in turn. */
+    private static final byte BLACK_IN_TURN = 8;
+
+    /** Time remaining, in nanoseconds, indexed by {@code 2 * board + player}. */
+    private final long[] timeRemaining;
+    /** Time remaining for the move, in nanoseconds, indexed by {@code 2 * board + player}. */
+    private final long[] moveTimeRemaining;
+    /** Index of the current phase within the constraint, indexed by {@code 2 * board + player}. */
+    private final int[] currentPhase;
+    /** Current move within the phase, indexed by {@code 2 * board + player}. */
+    private final short[] move;
+    /** Last move of the current phase, indexed by {@code 2 * board + player}. */
+    private final short[] nextPhaseAfterMove;
+    /** Index of the constraint of each board. */
+    private final int[] constraint;
+    /** State bits of each board. */
+    private final byte[] state;
+    /** Stack of the ids of the boards not in use. */
+    private final int[] free;
+    /** Number of entries on the stack of free boards. */
+    private int freeCount;
+
+    /** Index of each constraint in use, by identity. */
+    private final Map<TimeBudgetConstraint, Integer> indices = new IdentityHashMap<>();
+    /** The constraints in use. {@code null} for free entries. */
+    private TimeBudgetConstraint[] constraints = new TimeBudgetConstraint[4];
+    /** The phase programs of the constraints in use. */
+    private PhaseProgram[] programs = new PhaseProgram[4];
+    /** Time limit for each move of each constraint, in nanoseconds. Not positive if there is none. */
+    private long[] moveTimeLimit = new long[4];
+    /** Number of boards using each constraint. */
+    private int[] references = new int[4];
+    /** Stack of the free entries below {@code constraintCount}. */
+    private int[] freeIndices = new int[4];
+    /** Number of entries on the stack of free entries. */
+    private int freeIndexCount;
+    /** Number of entries ever taken, in use or free. */
+    private int constraintCount;
+
+    /** Generates.
+     *
+     * @since 1.0;
+     * @param capacity Number of boards.
+     */
+    private BoardStatePool(int capacity) {
+        timeRemaining = new long[2 * capacity];
+        moveTimeRemaining = new long[2 * capacity];
+        currentPhase = new int[2 * capacity];
+        move = new short[2 * capacity];
+        nextPhaseAfterMove = new short[2 * capacity];
+        constraint = new int[capacity];
+        state = new byte[capacity];
+        free = new int[capacity];
+        for (int board = capacity - 1; board >= 0; board--) {
+            free[freeCount++] = board;
+        }
+    }
+
+    /** Creates a new pool.
+     *
+     * @since 1.0;
+     * @param capacity Number of boards the pool can hold.
+     * @return Optional with the pool. Empty if the capacity is less than one or too large.
+     */
+    public static Optional<BoardStatePool> makeNew(int capacity) {
+        if (capacity < 1 || capacity > Integer.MAX_VALUE / 2) {
+            return Optional.empty();
+        }
+        return Optional.of(new BoardStatePool(capacity));
+    }
+
+    /** Takes a board into use and sets it up for a new game under the given constraint. White is in
+     * turn, but the clock is not running yet.
+     *
+     * @since 1.0;
+     * @param tbc The constraint of the game.
+     * @return The id of the board. -1 if the constraint is {@code null} or the pool is full.
+     */
+    public int allocate(TimeBudgetConstraint tbc) {
+        if (tbc == null || freeCount == 0) {
+            return -1;
+        }
+        int board = free[--freeCount];
+        reset(board, tbc);
+        return board;
+    }
+
+    /** Releases a board, so that its id can be handed out again.
+     *
+     * @since 1.0;
+     * @param board The id of the board.
+     * @return {@code false} if the board is not in use.
+     */
+    public boolean release(int board) {
+        if (!isInUse(board)) {
+            return false;
+        }
+        state[board] = 0;
+        releaseConstraint(constraint[board]);
+        free[freeCount++] = board;
+        return true;
+    }
+
+    /** Sets a board in use up for a new game under the given constraint. White is in turn, but the
+     * clock is not running yet.
+     *
+     * @since 1.0;
+     * @param board The id of the board.
+     * @param tbc The constraint of the game.
+     * @return {@code false} if the board is not in use or the constraint is {@code null}.
+     */
+    public boolean setupGame(int board, TimeBudgetConstraint tbc) {
+        if (tbc == null || !isInUse(board)) {
+            return false;
+        }
+        reset(board, tbc);
+        return true;
+    }
+
+    /** Sets a board up for a new game, as {@link PlayerTimeControl#setupGameTiming(TimeBudgetConstraint)}
+     * does for each player.
+     *
+     * @since 1.0;
+     * @param board The id of the board.
+     * @param tbc The constraint of the game.
+     */
+    private void reset(int board, TimeBudgetConstraint tbc) {
+        int index = acquireConstraint(tbc);
+        if (isInUse(board)) {
+            releaseConstraint(constraint[board]);
+        }
+        constraint[board] = index;
+        state[board] = IN_USE;
+        for (int slot = 2 * board; slot < 2 * board + 2; slot++) {
+            timeRemaining[slot] = 0;
+            nextPhaseAfterMove[slot] = 0;
+            move[slot] = 1;
+            currentPhase[slot] = -1;
+            nextTCP(slot, index);
+        }
+    }
+
+    /** Starts or stops the clock of a board. The clock of a board whose flag has fallen cannot be
+     * started.
+     *
+     * @since 1.0;
+     * @param board The id of the board.
+     * @param running Shall the clock run?
+     */
+    public void setRunning(int board, boolean running) {
+        if (!isInUse(board)) {
+            return;
+        }
+        if (running && (state[board] & FLAG_FALLEN) == 0) {
+            state[board] |= RUNNING;
+        } else {
+            state[board] &= ~RUNNING;
+        }
+    }
+
+    /** Takes the given time from the player in turn on a board with a running clock, as
+     * {@link PlayerTimeControl#update(long)} does. Stops the clock if the flag falls.
+     *
+     * @since 1.0;
+     * @param board The id of the board.
+     * @param dt Time elapsed, in nanoseconds.
+     * @return Has the flag fallen in this update?
+     */
+    public boolean update(int board, long dt) {
+        if (!isInUse(board) || (state[board] & RUNNING) == 0) {
+            return false;
+        }
+        return charge(board, dt);
+    }
+
+    /** Takes the given time from the player in turn on every board with a running clock. This is a
+     * single pass through the arrays of the pool.
+     *
+     * @since 1.0;
+     * @param dt Time elapsed, in nanoseconds.
+     * @return The number of boards whose flag has fallen in this update.
+     */
+    public int updateAll(long dt) {
+        int flagFalls = 0;
+        for (int board = 0; board < state.length; board++) {
+            if ((state[board] & RUNNING) != 0 && charge(board, dt)) {
+                flagFalls++;
+            }
+        }
+        return flagFalls;
+    }
+
+    /** Takes the time from the player in turn. The board must be running.
+     *
+     * @since 1.0;
+     * @param board The id of the board.
+     * @param dt Time elapsed, in nanoseconds.
+     * @return Has the flag fallen?
+     */
+    private boolean charge(int board, long dt) {
+        int slot = 2 * board + ((state[board] & BLACK_IN_TURN) != 0 ? BLACK : WHITE);
+        timeRemaining[slot] -= dt;
+        moveTimeRemaining[slot] -= dt;
+
+        boolean timeHasRunOut = false;
+        if (timeRemaining[slot] <= 0) {
+            timeRemaining[slot] = 0;
+            timeHasRunOut = true;
+        } else if (moveTimeLimit[constraint[board]] > 0 && moveTimeRemaining[slot] <= 0) {
+            moveTimeRemaining[slot] = 0;
+            timeHasRunOut = true;
+        }
+
+        if (timeHasRunOut) {
+            state[board] = (byte) ((state[board] & ~RUNNING) | FLAG_FALLEN);
+        }
+        return timeHasRunOut;
+    }
+
+    /** Ends the move of the player in turn, as {@link PlayerTimeControl#endMoveAndRepaint()} does,
+     * and hands the turn to the other player.
+     *
+     * @since 1.0;
+     * @param board The id of the board.
+     * @return {@code false} if the board is not in use or its flag has fallen.
+     */
+    public boolean endMove(int board) {
+        if (!isInUse(board) || (state[board] & FLAG_FALLEN) != 0) {
+            return false;
+        }
+        int index = constraint[board];
+        int slot = 2 * board + ((state[board] & BLACK_IN_TURN) != 0 ? BLACK : WHITE);
+
+        timeRemaining[slot] += programs[index].getIncrement(currentPhase[slot]);
+        if (timeRemaining[slot] < 0) {
+            timeRemaining[slot] = Long.MAX_VALUE;
+        }
+        moveTimeRemaining[slot] = moveTimeLimit[index];
+        // an endless phase is -1, which compares as the largest number when unsigned
+        if (Short.compareUnsigned(move[slot], nextPhaseAfterMove[slot]) < 0) {
+            move[slot]++;
+        } else {
+            nextTCP(slot, index);
+            move[slot] = 1;
+        }
+
+        state[board] ^= BLACK_IN_TURN;
+        return true;
+    }
+
+    /** Switches a player to the next phase, as {@link PlayerTimeControl} does.
+     *
+     * @since 1.0;
+     * @param slot Index of the player in the arrays.
+     * @param index Index of the constraint.
+     */
+    private void nextTCP(int slot, int index) {
+        PhaseProgram program = programs[index];
+        int phase = currentPhase[slot] < 0 ? 0 : program.getNext(currentPhase[slot]);
+        if (phase == PhaseProgram.ENDLESS) {
+            return;
+        }
+
+        currentPhase[slot] = phase;
+        timeRemaining[slot] = program.enter(phase, timeRemaining[slot]);
+        nextPhaseAfterMove[slot] = (short) program.getMoves(phase);
+        moveTimeRemaining[slot] = moveTimeLimit[index];
+    }
+
+    /** Returns the index of the constraint for one more board using it, adding it to the
+     * constraints in use if it is new.
+     *
+     * @since 1.0;
+     * @param tbc The constraint.
+     * @return The index of the constraint.
+     */
+    private int acquireConstraint(TimeBudgetConstraint tbc) {
+        Integer known = indices.get(tbc);
+        if (known != null) {
+            references[known]++;
+            return known;
+        }
+
+        int index;
+        if (freeIndexCount > 0) {
+            index = freeIndices[--freeIndexCount];
+        } else {
+            if (constraintCount == constraints.length) {
+                int length = 2 * constraints.length;
+                constraints = Arrays.copyOf(constraints, length);
+                programs = Arrays.copyOf(programs, length);
+                moveTimeLimit = Arrays.copyOf(moveTimeLimit, length);
+                references = Arrays.copyOf(references, length);
+                freeIndices = Arrays.copyOf(freeIndices, length);
+            }
+            index = constraintCount++;
+        }
+        constraints[index] = tbc;
+        programs[index] = tbc.getProgram();
+        moveTimeLimit[index] = tbc.getMoveTimeLimit();
+        references[index] = 1;
+        indices.put(tbc, index);
+        return index;
+    }
+
+    /** Notes that one board less uses the constraint, and frees its entry if no board uses it
+     * anymore.
+     *
+     * @since 1.0;
+     * @param index The index of the constraint.
+     */
+    private void releaseConstraint(int index) {
+        if (--references[index] > 0) {
+            return;
+        }
+        indices.remove(constraints[index]);
+        constraints[index] = null;
+        programs[index] = null;
+        freeIndices[freeIndexCount++] = index;
+    }
+
+    /** Tells whether the board is in use.
+     *
+     * @since 1.0;
+     * @param board The id of the board.
+     * @return Is the board in use?
+     */
+    public boolean isInUse(int board) {
+        return board >= 0 && board < state.length && (state[board] & IN_USE) != 0;
+    }
+
+    /** Tells whether the clock of the board is running.
+     *
+     * @since 1.0;
+     * @param board The id of the board.
+     * @return Is the clock running?
+     */
+    public boolean isRunning(int board) {
+        return isInUse(board) && (state[board] & RUNNING) != 0;
+    }
+
+    /** Tells whether the flag of the board has fallen.
+     *
+     * @since 1.0;
+     * @param board The id of the board.
+     * @return Has the flag fallen?
+     */
+    public boolean hasFlagFallen(int board) {
+        return isInUse(board) && (state[board] & FLAG_FALLEN) != 0;
+    }
+
+    /** Returns the player in turn.
+     *
+     * @since 1.0;
+     * @param board The id of the board.
+     * @return {@link #WHITE} or {@link #BLACK}. -1 if the board is not in use.
+     */
+    public int getPlayerInTurn(int board) {
+        if (!isInUse(board)) {
+            return -1;
+        }
+        return (state[board] & BLACK_IN_TURN) != 0 ? BLACK : WHITE;
+    }
+
+    /** Returns the time remaining of a player.
+     *
+     * @since 1.0;
+     * @param board The id of the board.
+     * @param player {@link #WHITE} or {@link #BLACK}.
+     * @return The time remaining, in nanoseconds. -1 if the board is not in use or the player is
+     * unknown.
+     */
+    public long getTimeRemaining(int board, int player) {
+        return isInUse(board) && isPlayer(player) ? timeRemaining[2 * board + player] : -1;
+    }
+
+    /** Returns the time remaining for the move of a player.
+     *
+     * @since 1.0;
+     * @param board The id of the board.
+     * @param player {@link #WHITE} or {@link #BLACK}.
+     * @return The time remaining for the move, in nanoseconds. Meaningless if the constraint has no
+     * move time limit. -1 if the board is not in use or the player is unknown.
+     */
+    public long getMoveTimeRemaining(int board, int player) {
+        return isInUse(board) && isPlayer(player) ? moveTimeRemaining[2 * board + player] : -1;
+    }
+
+    /** Returns the index of the current phase of a player.
+     *
+     * @since 1.0;
+     * @param board The id of the board.
+     * @param player {@link #WHITE} or {@link #BLACK}.
+     * @return The index of the phase, beginning at 0. -1 if the board is not in use or the player is
+     * unknown.
+     */
+    public int getCurrentPhase(int board, int player) {
+        return isInUse(board) && isPlayer(player) ? currentPhase[2 * board + player] : -1;
+    }
+
+    /** Tells whether the index denotes a player.
+     *
+     * @since 1.0;
+     * @param player The index.
+     * @return Is it {@link #WHITE} or {@link #BLACK}?
+     */
+    private static boolean isPlayer(int player) {
+        return player == WHITE || player == BLACK;
+    }
+
+    /** Returns the number of boards the pool can hold.
+     *
+     * @since 1.0;
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return state.length;
+    }
+
+    /** Returns the number of boards in use.
+     *
+     * @since 1.0;
+     * @return The number of boards.
+     */
+    public int getBoardCount() {
+        return state.length - freeCount;
+    }
+
+    /** Returns the number of distinct constraints used by the boards in use.
+     *
+     * @since 1.0;
+     * @return The number of constraints.
+     */
+    public int getConstraintCount() {
+        return indices.size();
+    }
+
+    /** Returns the memory taken by the arrays of the boards and by the constraints in use.
+     *
+     * @since 1.0;
+     * @return The memory, in bytes.
+     */
+    public long getMemoryUsage() {
+        return (long) BYTES_PER_BOARD * state.length + (long) BYTES_PER_CONSTRAINT * indices.size();
+    }
+}
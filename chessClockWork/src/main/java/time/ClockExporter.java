@@ -0,0 +1,367 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** Writes the {@link MoveTimes move times} of games as clock annotations, one game after the other,
+ * for a single game as well as for a whole event. Nothing but the game being written is held in
+ * memory, and the games are written into reused buffers.
+ * <p>
+ * In the {@link Format#pgn PGN} format, each game is a PGN game with the tags given, and each move
+ * is followed by a comment with the commands {@code [%clk h:mm:ss]}, which is the time on the clock
+ * after the move, rounded up like on the clock, and {@code [%emt h:mm:ss]}, which is the time the
+ * move has taken, rounded down. The clock does not know the moves themselves. Unless they are
+ * given, each move is written as the null move {@code --}, and the annotations are merged with
+ * the moves by their numbers.
+ * <p>
+ * In the {@link Format#csv CSV} format, there is one line per move with the number of the game,
+ * the number of the move, the side, the time on the clock, and the time the move has taken, in
+ * seconds with three decimals. The first line names the columns. The tags are left out.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public final class ClockExporter {
+
+    private static final Logger LOG = Logger.getLogger(ClockExporter.class.getName());
+    /** Longest line of the move text, as recommended for the export format of PGN. */
+    static final int LINE_LENGTH = 79;
+    /** Names of the columns of the CSV format. */
+    static final String CSV_HEADER = "game,move,side,clock,elapsed";
+    /** Placeholder for a move that is not known. */
+    static final String NULL_MOVE = "--";
+    /** Tag of the result of a game. */
+    private static final String RESULT_TAG = "Result";
+    /** Result of a game that is not known. */
+    private static final String UNKNOWN_RESULT = "*";
+    private static final long NANOS_PER_MILLI = 1000000;
+    private static final int MILLIS_PER_SEC = 1000;
+    private static final int SEC_PER_HOUR = 3600;
+
+    public static enum Format {
+        /** Comments with clock commands in the move text of PGN games. */
+        pgn,
+        /** One line of comma separated values per move. */
+        csv
+    }
+
+    /** Receives the annotations. */
+    private final Writer out;
+    /** The format written. */
+    private final Format format;
+    /** Copy of the moves of white of the game being written. */
+    private final MoveTimes white = MoveTimes.makeNew().get();
+    /** Copy of the moves of black of the game being written. */
+    private final MoveTimes black = MoveTimes.makeNew().get();
+    /** The line being put together. */
+    private final StringBuilder line = new StringBuilder(2 * LINE_LENGTH);
+    /** The token being put together, which goes onto the line if it fits. */
+    private final StringBuilder token = new StringBuilder(LINE_LENGTH);
+    /** Passes the lines on to the writer. */
+    private char[] chars = new char[2 * LINE_LENGTH];
+    /** Games written so far. */
+    private long games;
+
+    /** Generates.
+     *
+     * @since 1.0;
+     * @param out Receives the annotations.
+     * @param format The format written.
+     */
+    private ClockExporter(Writer out, Format format) {
+        this.out = out;
+        this.format = format;
+    }
+
+    /** Creates a new exporter. The writer is neither flushed nor closed by the exporter.
+     *
+     * @since 1.0;
+     * @param out Receives the annotations.
+     * @param format The format written.
+     * @return Optional with the exporter. Empty if {@code null} is passed.
+     */
+    public static Optional<ClockExporter> makeNew(Writer out, Format format) {
+        if (out == null || format == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new ClockExporter(out, format));
+    }
+
+    /** Writes a game whose moves are not known.
+     *
+     * @since 1.0;
+     * @param tags Tags of the PGN game, like {@code Event}, {@code White}, or {@code Result}, in the
+     * order of writing. May be {@code null}.
+     * @param whiteTimes Move times of white.
+     * @param blackTimes Move times of black.
+     * @return {@code true} if the game has been written.
+     */
+    public boolean writeGame(Map<String, String> tags, MoveTimes whiteTimes, MoveTimes blackTimes) {
+        return writeGame(tags, null, whiteTimes, blackTimes);
+    }
+
+    /** Writes a game. The move times are copied first, so they may be recorded further meanwhile.
+     *
+     * @since 1.0;
+     * @param tags Tags of the PGN game, like {@code Event}, {@code White}, or {@code Result}, in the
+     * order of writing. May be {@code null}.
+     * @param moves The moves in standard algebraic notation, white's and black's in turns. Moves
+     * missing are written as null moves. May be {@code null}.
+     * @param whiteTimes Move times of white.
+     * @param blackTimes Move times of black.
+     * @return {@code true} if the game has been written. {@code false} if the move times are
+     * {@code null} or if the writer fails.
+     */
+    public boolean writeGame(Map<String, String> tags, List<String> moves, MoveTimes whiteTimes,
+            MoveTimes blackTimes) {
+        if (whiteTimes == null || blackTimes == null) {
+            return false;
+        }
+        whiteTimes.copyTo(white);
+        blackTimes.copyTo(black);
+        games++;
+        try {
+            if (format == Format.pgn) {
+                writePgn(tags, moves);
+            } else {
+                writeCsv();
+            }
+            return true;
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not write the clock annotations of game " + games, e);
+            return false;
+        }
+    }
+
+    /** Returns the number of games written so far.
+     *
+     * @since 1.0;
+     * @return Number of games.
+     */
+    public long getGameCount() {
+        return games;
+    }
+
+    /** Writes the game being exported as a PGN game.
+     *
+     * @since 1.0;
+     * @param tags Tags of the game. May be {@code null}.
+     * @param moves The moves. May be {@code null}.
+     * @throws IOException If the writer fails.
+     */
+    private void writePgn(Map<String, String> tags, List<String> moves) throws IOException {
+        String result = UNKNOWN_RESULT;
+        if (tags != null) {
+            for (Map.Entry<String, String> tag : tags.entrySet()) {
+                line.append('[').append(tag.getKey()).append(" \"");
+                appendEscaped(tag.getValue());
+                line.append("\"]\n");
+                writeLine();
+            }
+            result = tags.getOrDefault(RESULT_TAG, UNKNOWN_RESULT);
+        }
+        line.append('\n');
+        writeLine();
+
+        int whiteMoves = white.getMoveCount();
+        int plies = whiteMoves + Math.min(black.getMoveCount(), whiteMoves);
+        for (int ply = 0; ply < plies; ply++) {
+            int move = ply / 2;
+            MoveTimes times = ply % 2 == 0 ? white : black;
+            if (ply % 2 == 0) {
+                token.append(move + 1).append('.');
+                appendToken();
+            }
+            String san = moves != null && ply < moves.size() ? moves.get(ply) : null;
+            token.append(san != null ? san : NULL_MOVE);
+            appendToken();
+            token.append("{[%clk ");
+            // a move made after the flag has fallen leaves a negative time on the clock
+            appendHours(-Math.floorDiv(-Math.max(times.getClock(move), 0), Constants.NANOSEC_PER_SEC));
+            token.append(']');
+            appendToken();
+            token.append("[%emt ");
+            appendHours(Math.max(times.getElapsed(move), 0) / Constants.NANOSEC_PER_SEC);
+            token.append("]}");
+            appendToken();
+        }
+        token.append(result);
+        appendToken();
+        line.append("\n\n");
+        writeLine();
+    }
+
+    /** Writes the game being exported as lines of comma separated values.
+     *
+     * @since 1.0;
+     * @throws IOException If the writer fails.
+     */
+    private void writeCsv() throws IOException {
+        if (games == 1) {
+            line.append(CSV_HEADER).append('\n');
+            writeLine();
+        }
+        int whiteMoves = white.getMoveCount();
+        int blackMoves = Math.min(black.getMoveCount(), whiteMoves);
+        for (int move = 0; move < whiteMoves; move++) {
+            appendCsvLine(move, "white", white);
+            if (move < blackMoves) {
+                appendCsvLine(move, "black", black);
+            }
+        }
+    }
+
+    /** Writes the line of a move in the CSV format.
+     *
+     * @since 1.0;
+     * @param move Index of the move.
+     * @param side The side that has moved.
+     * @param times Move times of the side.
+     * @throws IOException If the writer fails.
+     */
+    private void appendCsvLine(int move, String side, MoveTimes times) throws IOException {
+        line.append(games).append(',').append(move + 1).append(',').append(side).append(',');
+        appendSeconds(times.getClock(move));
+        line.append(',');
+        appendSeconds(times.getElapsed(move));
+        line.append('\n');
+        writeLine();
+    }
+
+    /** Appends a time as {@code h:mm:ss} to the token.
+     *
+     * @since 1.0;
+     * @param seconds The time, in whole seconds.
+     */
+    private void appendHours(long seconds) {
+        long minutes = seconds % SEC_PER_HOUR / Constants.SEC_PER_MIN;
+        long secs = seconds % Constants.SEC_PER_MIN;
+        token.append(seconds / SEC_PER_HOUR).append(':');
+        if (minutes < 10) {
+            token.append('0');
+        }
+        token.append(minutes).append(':');
+        if (secs < 10) {
+            token.append('0');
+        }
+        token.append(secs);
+    }
+
+    /** Appends a time in seconds with three decimals to the line.
+     *
+     * @since 1.0;
+     * @param nanos The time, in nanoseconds.
+     */
+    private void appendSeconds(long nanos) {
+        long millis = Math.max(nanos, 0) / NANOS_PER_MILLI;
+        long fraction = millis % MILLIS_PER_SEC;
+        line.append(millis / MILLIS_PER_SEC).append('.');
+        if (fraction < 100) {
+            line.append('0');
+        }
+        if (fraction < 10) {
+            line.append('0');
+        }
+        line.append(fraction);
+    }
+
+    /** Appends the value of a tag to the line, with quotes and backslashes escaped.
+     *
+     * @since 1.0;
+     * @param value The value. {@code null} is written as an empty value.
+     */
+    private void appendEscaped(String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\');
+            }
+            line.append(c);
+        }
+    }
+
+    /** Moves the token onto the line of the move text, and writes the line first if the token does
+     * not fit anymore.
+     *
+     * @since 1.0;
+     * @throws IOException If the writer fails.
+     */
+    private void appendToken() throws IOException {
+        if (line.length() > 0 && line.length() + 1 + token.length() > LINE_LENGTH) {
+            line.append('\n');
+            writeLine();
+        }
+        if (line.length() > 0) {
+            line.append(' ');
+        }
+        line.append(token);
+        token.setLength(0);
+    }
+
+    /** Passes the line on to the writer and empties it.
+     *
+     * @since 1.0;
+     * @throws IOException If the writer fails.
+     */
+    private void writeLine() throws IOException {
+        int length = line.length();
+        if (chars.length < length) {
+            chars = new char[length];
+        }
+        line.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+        line.setLength(0);
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import java.util.Optional;
+
+/** A snapshot of everything a clock shows: the times of both players, who is at turn, the
+ * short-on-time warnings, the move number, whether the game is paused or a flag has fallen, and
+ * when the last input has been issued.
+ * Only primitive values are held, so that the time control can fill the same frame over and over
+ * without allocating. Players are indexed like in {@link TimeControl#setPlayerTimeDisplay(int,
+ * PlayerTimeDisplay)}: the left player is 0, the right one is 1.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public final class ClockFrame {
+
+    /** Index of the left player. */
+    public static final int LEFT = 0;
+    /** Index of the right player. */
+    public static final int RIGHT = 1;
+    /** Index used when no player is at turn. */
+    public static final int NOBODY = -1;
+
+    /** Number of the frame. Increases with each frame shown. */
+    private long sequence;
+    /** Time remaining of each player, in nanoseconds. */
+    private final long[] clockTimes = new long[2];
+    /** Time remaining for the move of each player, in nanoseconds. */
+    private final long[] moveTimes = new long[2];
+    /** Has each player a time limit for each move? */
+    private final boolean[] moveTimeLimits = new boolean[2];
+    /** Is the short-on-time warning on for each player? */
+    private final boolean[] warnings = new boolean[2];
+    /** Has the time run out for each player? */
+    private final boolean[] outOfTimes = new boolean[2];
+    /** Index of the player at turn, or {@link #NOBODY}. */
+    private int activePlayer = NOBODY;
+    /** Number of the current move. Negative if no game is running yet. */
+    private int moveNumber = -1;
+    /** Is the game paused? */
+    private boolean paused;
+    /** Moment the last input, like a move or a pause request, has been issued, in nanoseconds. */
+    private long inputStamp;
+    /** Moment the clockwork has taken up the last input, in nanoseconds. */
+    private long executionStamp;
+
+    /** Generates.
+     *
+     * @since 1.0;
+     */
+    private ClockFrame() {
+    }
+
+    /** Creates a new, empty frame. Displays may use it as a buffer to {@link #copyTo(ClockFrame)
+     * copy} the frames they receive into.
+     *
+     * @since 1.0;
+     * @return Optional with the frame.
+     */
+    public static Optional<ClockFrame> makeNew() {
+        return Optional.of(new ClockFrame());
+    }
+
+    /** Sets the values of a player.
+     *
+     * @since 1.0;
+     * @param player Index of the player.
+     * @param clockTime Time remaining, in nanoseconds.
+     * @param moveTime Time remaining for the move, in nanoseconds.
+     * @param moveTimeLimit Has the player a time limit for each move?
+     * @param warning Is the short-on-time warning on?
+     * @param outOfTime Has the time run out?
+     */
+    void setPlayer(int player, long clockTime, long moveTime, boolean moveTimeLimit, boolean warning,
+            boolean outOfTime) {
+        clockTimes[player] = clockTime;
+        moveTimes[player] = moveTime;
+        moveTimeLimits[player] = moveTimeLimit;
+        warnings[player] = warning;
+        outOfTimes[player] = outOfTime;
+    }
+
+    /** Sets the values of the game and advances the number of the frame.
+     *
+     * @since 1.0;
+     * @param activePlayer Index of the player at turn, or {@link #NOBODY}.
+     * @param moveNumber Number of the current move. Negative if no game is running yet.
+     * @param paused Is the game paused?
+     * @param inputStamp Moment the last input has been issued, in nanoseconds.
+     * @param executionStamp Moment the clockwork has taken up the last input, in nanoseconds.
+     */
+    void setGame(int activePlayer, int moveNumber, boolean paused, long inputStamp, long executionStamp) {
+        this.activePlayer = activePlayer;
+        this.moveNumber = moveNumber;
+        this.paused = paused;
+        this.inputStamp = inputStamp;
+        this.executionStamp = executionStamp;
+        sequence++;
+    }
+
+    /** Copies all values into another frame.
+     *
+     * @since 1.0;
+     * @param target The frame that receives the values. Nothing happens if {@code null}.
+     */
+    public void copyTo(ClockFrame target) {
+        if (target == null) {
+            return;
+        }
+        target.sequence = sequence;
+        System.arraycopy(clockTimes, 0, target.clockTimes, 0, 2);
+        System.arraycopy(moveTimes, 0, target.moveTimes, 0, 2);
+        System.arraycopy(moveTimeLimits, 0, target.moveTimeLimits, 0, 2);
+        System.arraycopy(warnings, 0, target.warnings, 0, 2);
+        System.arraycopy(outOfTimes, 0, target.outOfTimes, 0, 2);
+        target.activePlayer = activePlayer;
+        target.moveNumber = moveNumber;
+        target.paused = paused;
+        target.inputStamp = inputStamp;
+        target.executionStamp = executionStamp;
+    }
+
+    /** Returns the number of the frame, which increases with each frame shown. Displays may compare
+     * it to tell whether a frame is new.
+     *
+     * @since 1.0;
+     * @return The number of the frame. 0 if nothing has been shown yet.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /** Returns the time remaining of a player.
+     *
+     * @since 1.0;
+     * @param player Index of the player.
+     * @return The time remaining, in nanoseconds.
+     */
+    public long getClockTime(int player) {
+        return clockTimes[player];
+    }
+
+    /** Returns the time remaining for the move of a player. Only meaningful if the player has a
+     * time limit for each move.
+     *
+     * @since 1.0;
+     * @param player Index of the player.
+     * @return The time remaining for the move, in nanoseconds.
+     */
+    public long getMoveTime(int player) {
+        return moveTimes[player];
+    }
+
+    /** Tells whether a player has a time limit for each move.
+     *
+     * @since 1.0;
+     * @param player Index of the player.
+     * @return Time limit for each move?
+     */
+    public boolean hasMoveTimeLimit(int player) {
+        return moveTimeLimits[player];
+    }
+
+    /** Tells whether the short-on-time warning is on for a player.
+     *
+     * @since 1.0;
+     * @param player Index of the player.
+     * @return Warning on?
+     */
+    public boolean isWarning(int player) {
+        return warnings[player];
+    }
+
+    /** Tells whether the time has run out for a player.
+     *
+     * @since 1.0;
+     * @param player Index of the player.
+     * @return Time is up?
+     */
+    public boolean isOutOfTime(int player) {
+        return outOfTimes[player];
+    }
+
+    /** Returns the player at turn.
+     *
+     * @since 1.0;
+     * @return Index of the player, or {@link #NOBODY} if nobody is at turn yet.
+     */
+    public int getActivePlayer() {
+        return activePlayer;
+    }
+
+    /** Returns the number of the current move.
+     *
+     * @since 1.0;
+     * @return The number of the move. Negative if no game is running yet.
+     */
+    public int getMoveNumber() {
+        return moveNumber;
+    }
+
+    /** Tells whether the game is paused.
+     *
+     * @since 1.0;
+     * @return Game paused?
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /** Returns the moment the last input, like a move or a pause request, has been issued. Displays
+     * may compare it with the moment the frame appears on the screen to measure the latency.
+     *
+     * @since 1.0;
+     * @return The moment, as given by the time source of the time control, in nanoseconds.
+     */
+    public long getInputStamp() {
+        return inputStamp;
+    }
+
+    /** Returns the moment the clockwork has taken up the last input. The difference to the
+     * {@link #getInputStamp() input stamp} is the time the input has been waiting for the signal
+     * clock.
+     *
+     * @since 1.0;
+     * @return The moment, in nanoseconds. 0 if there has been no input yet.
+     */
+    public long getExecutionStamp() {
+        return executionStamp;
+    }
+}
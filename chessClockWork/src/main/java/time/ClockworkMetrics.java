@@ -0,0 +1,376 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/** Live metrics of a {@link TimeControl time control}, which can be published as a platform MBean
+ * for watching a clock from afar, e.g. with JConsole.
+ * <p>
+ * Events that may happen on several threads, like moves received, are counted in
+ * {@link LongAdder long adders}. Recording a tick must not slow the signal clock down, so the ticks
+ * and the times between them are recorded in plain fields by the thread updating the time control,
+ * which is a single thread at any time, and copied for the readers once per
+ * {@value #PUBLISH_INTERVAL} nanoseconds and whenever the clock stops. Thus, the tick metrics lag
+ * behind by up to a second.
+ * <p>
+ * Each time control has metrics of its own, published under a name of its own, so that the
+ * time controls of many boards driven by a {@link BoardEngine board engine} can be told apart.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public final class ClockworkMetrics implements ClockworkMetricsMBean {
+
+    private static final Logger LOG = Logger.getLogger(ClockworkMetrics.class.getName());
+    /** Domain of the names of the MBeans. */
+    public static final String DOMAIN = "time";
+    /** Interval the tick metrics are published in, in nanoseconds. */
+    static final long PUBLISH_INTERVAL = Constants.NANOSEC_PER_SEC;
+    /** Significant bits of the histogram of the tick intervals. */
+    private static final int SIGNIFICANT_BITS = 7;
+    /** Marks the absence of a previous tick. */
+    private static final long NO_TICK = Long.MIN_VALUE;
+
+    /** Frames sent to the frame display. */
+    private final LongAdder framesShown = new LongAdder();
+    /** Repaints of the player time displays. */
+    private final LongAdder displayUpdates = new LongAdder();
+    /** Calls to the displays. */
+    private final LongAdder displayCallbacks = new LongAdder();
+    /** Time spent in calls to the displays, in nanoseconds. */
+    private final LongAdder displayCallbackNanos = new LongAdder();
+    /** Moves received. */
+    private final LongAdder movesReceived = new LongAdder();
+    /** Moves that have changed the game. */
+    private final LongAdder movesApplied = new LongAdder();
+    /** Pauses of a running game. */
+    private final LongAdder pauses = new LongAdder();
+    /** Resumptions of a paused game. */
+    private final LongAdder resumes = new LongAdder();
+
+    /** Times between two ticks, in nanoseconds. Only accessed by the thread updating the time
+     * control. */
+    private final LogHistogram tickIntervals = LogHistogram.makeNew(SIGNIFICANT_BITS).get();
+    /** Ticks received. Only accessed by the thread updating the time control. */
+    private long ticks;
+    /** Moment of the previous tick, in nanoseconds. Only accessed by the thread updating the time
+     * control. */
+    private long lastTick = NO_TICK;
+    /** Moment of the last publication, in nanoseconds. Only accessed by the thread updating the time
+     * control. */
+    private long publishedAt = NO_TICK;
+    /** Ticks received at the last publication. Only accessed by the thread updating the time
+     * control. */
+    private long ticksAtPublication;
+
+    /** Copy of the times between two ticks for the readers, as of the last publication. Guarded by
+     * itself. */
+    private final LogHistogram publishedTickIntervals = tickIntervals.makeEmptyCopy();
+    /** Ticks received, as of the last publication. */
+    private volatile long publishedTicks;
+    /** Rate of the ticks between the last two publications, in ticks per second. */
+    private volatile double ticksPerSecond;
+    /** Id of the board the metrics belong to. */
+    private final int boardId;
+    /** Name the metrics are published under. {@code null} while unpublished. Guarded by this. */
+    private ObjectName objectName;
+
+    /** Generates.
+     *
+     * @since 1.0;
+     * @param boardId Id of the board the metrics belong to, which becomes part of their name.
+     */
+    ClockworkMetrics(int boardId) {
+        this.boardId = boardId;
+    }
+
+    /** Records a tick. Publishes the tick metrics if the last publication has been a while ago.
+     * Must only be called by the thread updating the time control.
+     *
+     * @since 1.0;
+     * @param now The moment of the tick, in nanoseconds.
+     */
+    void tick(long now) {
+        ticks++;
+        if (lastTick != NO_TICK) {
+            tickIntervals.record(now - lastTick);
+        } else {
+            publishedAt = now;
+            ticksAtPublication = ticks;
+        }
+        lastTick = now;
+        if (now - publishedAt >= PUBLISH_INTERVAL) {
+            publish(now);
+        }
+    }
+
+    /** Records that the clock stops, so that the time until the next tick is not counted as a tick
+     * interval. Publishes the tick metrics. Must only be called by the thread updating the time
+     * control.
+     *
+     * @since 1.0;
+     */
+    void clockStopped() {
+        if (lastTick != NO_TICK) {
+            publish(lastTick);
+        }
+        ticksPerSecond = 0;
+        lastTick = NO_TICK;
+        publishedAt = NO_TICK;
+    }
+
+    /** Copies the tick metrics for the readers.
+     *
+     * @since 1.0;
+     * @param now The current moment, in nanoseconds.
+     */
+    private void publish(long now) {
+        synchronized (publishedTickIntervals) {
+            publishedTickIntervals.clear();
+            publishedTickIntervals.merge(tickIntervals);
+        }
+        long span = now - publishedAt;
+        if (span > 0) {
+            ticksPerSecond = (double) (ticks - ticksAtPublication) * Constants.NANOSEC_PER_SEC / span;
+        }
+        publishedTicks = ticks;
+        publishedAt = now;
+        ticksAtPublication = ticks;
+    }
+
+    /** Records a frame sent to the frame display, and the time this took.
+     *
+     * @since 1.0;
+     * @param nanos The time, in nanoseconds.
+     */
+    void frameShown(long nanos) {
+        framesShown.increment();
+        displayCallback(nanos);
+    }
+
+    /** Records a repaint of a player time display.
+     *
+     * @since 1.0;
+     */
+    void displayUpdated() {
+        displayUpdates.increment();
+    }
+
+    /** Records a call to a display, and the time this took.
+     *
+     * @since 1.0;
+     * @param nanos The time, in nanoseconds.
+     */
+    void displayCallback(long nanos) {
+        displayCallbacks.increment();
+        displayCallbackNanos.add(nanos);
+    }
+
+    /** Records a move received.
+     *
+     * @since 1.0;
+     */
+    void moveReceived() {
+        movesReceived.increment();
+    }
+
+    /** Records a move that has changed the game.
+     *
+     * @since 1.0;
+     */
+    void moveApplied() {
+        movesApplied.increment();
+    }
+
+    /** Records the pause of a running game.
+     *
+     * @since 1.0;
+     */
+    void paused() {
+        pauses.increment();
+    }
+
+    /** Records the resumption of a paused game.
+     *
+     * @since 1.0;
+     */
+    void resumed() {
+        resumes.increment();
+    }
+
+    /** Publishes the metrics as an MBean on the platform MBean server, under a name of their own
+     * that contains the id of the board.
+     * Does nothing if they have been published already.
+     *
+     * @since 1.0;
+     * @return {@code true} if the metrics are published.
+     */
+    synchronized boolean register() {
+        if (objectName != null) {
+            return true;
+        }
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=TimeControl,id=" + boardId);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+            return true;
+        } catch (JMException | SecurityException e) {
+            LOG.log(Level.WARNING, "Could not publish the clockwork metrics: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /** Withdraws the metrics from the platform MBean server. Does nothing if they are not published.
+     *
+     * @since 1.0;
+     */
+    synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException | SecurityException e) {
+            LOG.log(Level.WARNING, "Could not withdraw the clockwork metrics: " + e.getMessage());
+        }
+        objectName = null;
+    }
+
+    /** Returns the name the metrics are published under. The name is given as a string, so that
+     * the public API of the clockwork does not depend on the JMX API.
+     *
+     * @since 1.0;
+     * @return An optional with the name, in the form of an {@code ObjectName}. Empty if the metrics
+     * are not published.
+     */
+    public synchronized Optional<String> getObjectName() {
+        return objectName != null ? Optional.of(objectName.getCanonicalName()) : Optional.empty();
+    }
+
+    @Override
+    public long getTicks() {
+        return publishedTicks;
+    }
+
+    @Override
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    @Override
+    public long getTickIntervalMin() {
+        synchronized (publishedTickIntervals) {
+            return publishedTickIntervals.getMin();
+        }
+    }
+
+    @Override
+    public long getTickIntervalMedian() {
+        synchronized (publishedTickIntervals) {
+            return publishedTickIntervals.getPercentile(50);
+        }
+    }
+
+    @Override
+    public long getTickIntervalP99() {
+        synchronized (publishedTickIntervals) {
+            return publishedTickIntervals.getPercentile(99);
+        }
+    }
+
+    @Override
+    public long getTickIntervalMax() {
+        synchronized (publishedTickIntervals) {
+            return publishedTickIntervals.getMax();
+        }
+    }
+
+    @Override
+    public long getFramesShown() {
+        return framesShown.sum();
+    }
+
+    @Override
+    public long getDisplayUpdates() {
+        return displayUpdates.sum();
+    }
+
+    @Override
+    public long getDisplayCallbacks() {
+        return displayCallbacks.sum();
+    }
+
+    @Override
+    public long getDisplayCallbackNanos() {
+        return displayCallbackNanos.sum();
+    }
+
+    @Override
+    public long getMovesReceived() {
+        return movesReceived.sum();
+    }
+
+    @Override
+    public long getMovesApplied() {
+        return movesApplied.sum();
+    }
+
+    @Override
+    public long getPauses() {
+        return pauses.sum();
+    }
+
+    @Override
+    public long getResumes() {
+        return resumes.sum();
+    }
+}
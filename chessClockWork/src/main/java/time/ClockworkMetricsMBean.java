@@ -0,0 +1,153 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+/** Management interface of the {@link ClockworkMetrics metrics} of a {@link TimeControl time control},
+ * as seen by JMX clients like JConsole or VisualVM. All times are in nanoseconds.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public interface ClockworkMetricsMBean {
+
+    /** Returns the number of ticks the time control has received.
+     *
+     * @since 1.0;
+     * @return The number of ticks, as of the last publication.
+     */
+    long getTicks();
+
+    /** Returns the rate of the ticks since the previous publication.
+     *
+     * @since 1.0;
+     * @return Ticks per second. 0 while the clock is stopped.
+     */
+    double getTicksPerSecond();
+
+    /** Returns the shortest time between two ticks.
+     *
+     * @since 1.0;
+     * @return The time, in nanoseconds.
+     */
+    long getTickIntervalMin();
+
+    /** Returns the median of the times between two ticks.
+     *
+     * @since 1.0;
+     * @return The time, in nanoseconds.
+     */
+    long getTickIntervalMedian();
+
+    /** Returns the 99th percentile of the times between two ticks.
+     *
+     * @since 1.0;
+     * @return The time, in nanoseconds.
+     */
+    long getTickIntervalP99();
+
+    /** Returns the longest time between two ticks.
+     *
+     * @since 1.0;
+     * @return The time, in nanoseconds.
+     */
+    long getTickIntervalMax();
+
+    /** Returns the number of frames sent to the frame display.
+     *
+     * @since 1.0;
+     * @return The number of frames.
+     */
+    long getFramesShown();
+
+    /** Returns the number of times the player time displays have been told to repaint themselves.
+     *
+     * @since 1.0;
+     * @return The number of display updates.
+     */
+    long getDisplayUpdates();
+
+    /** Returns the number of calls to the player time displays and the frame display.
+     *
+     * @since 1.0;
+     * @return The number of calls.
+     */
+    long getDisplayCallbacks();
+
+    /** Returns the time spent in calls to the player time displays and the frame display.
+     *
+     * @since 1.0;
+     * @return The time, in nanoseconds.
+     */
+    long getDisplayCallbackNanos();
+
+    /** Returns the number of moves, that is presses on the lever, received.
+     *
+     * @since 1.0;
+     * @return The number of moves.
+     */
+    long getMovesReceived();
+
+    /** Returns the number of moves received that have changed the game. Moves while the game is
+     * paused or after the flag has fallen are received, but not applied.
+     *
+     * @since 1.0;
+     * @return The number of moves.
+     */
+    long getMovesApplied();
+
+    /** Returns the number of times a running game has been paused.
+     *
+     * @since 1.0;
+     * @return The number of pauses.
+     */
+    long getPauses();
+
+    /** Returns the number of times a paused game has been resumed.
+     *
+     * @since 1.0;
+     * @return The number of resumptions.
+     */
+    long getResumes();
+}
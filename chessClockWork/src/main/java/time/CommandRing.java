@@ -0,0 +1,197 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** A bounded, lock-free ring of commands for a {@link TimeControl time control}. Any thread may
+ * offer commands, but only a single thread, the one giving the timing signals, may take them. Each
+ * command carries the moment it has been issued.
+ * <p>
+ * Each cell of the ring has a sequence number that tells whether the cell is free for the producer
+ * of a certain round, or filled for the consumer. Producers claim a cell by a compare and set on the
+ * tail counter, so there is no locking at all.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+final class CommandRing {
+
+    /** The kinds of commands. */
+    static enum Kind {
+        /** A move has been made. */
+        move,
+        /** Pausing has been requested, or resuming. */
+        pause,
+        /** A new game is set up. */
+        setup
+    }
+
+    /** Receives the commands taken from the ring.
+     *
+     * @author Dragonstb
+     * @since 1.0;
+     */
+    @FunctionalInterface
+    static interface Handler {
+
+        /** Handles a command.
+         *
+         * @since 1.0;
+         * @param kind The kind of the command.
+         * @param stamp The moment the command has been issued, in nanoseconds.
+         * @param payload Additional data of the command. May be {@code null}.
+         */
+        void handle(Kind kind, long stamp, Object payload);
+    }
+
+    /** For mapping a counter on a cell. */
+    private final int mask;
+    /** Sequence number of each cell. */
+    private final AtomicLongArray sequences;
+    /** Kind of the command in each cell. */
+    private final Kind[] kinds;
+    /** Moment of the command in each cell, in nanoseconds. */
+    private final long[] stamps;
+    /** Additional data of the command in each cell. */
+    private final Object[] payloads;
+    /** Counts the cells claimed by producers. */
+    private final AtomicLong tail = new AtomicLong();
+    /** Counts the cells taken by the consumer. Only accessed by the consumer. */
+    private long head;
+
+    /** Generates an empty ring.
+     *
+     * @since 1.0;
+     * @param capacity Maximum number of commands in the ring. Is rounded up to a power of two, and
+     * is at least 2.
+     */
+    CommandRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        mask = size - 1;
+        sequences = new AtomicLongArray(size);
+        for (int cell = 0; cell < size; cell++) {
+            sequences.set(cell, cell);
+        }
+        kinds = new Kind[size];
+        stamps = new long[size];
+        payloads = new Object[size];
+    }
+
+    /** Returns the maximum number of commands in the ring.
+     *
+     * @since 1.0;
+     * @return The capacity.
+     */
+    int getCapacity() {
+        return mask + 1;
+    }
+
+    /** Puts a command into the ring. May be called by any thread.
+     *
+     * @since 1.0;
+     * @param kind The kind of the command.
+     * @param stamp The moment the command has been issued, in nanoseconds.
+     * @param payload Additional data of the command. May be {@code null}.
+     * @return {@code false} if the ring is full, so the command has not been put in.
+     */
+    boolean offer(Kind kind, long stamp, Object payload) {
+        long position;
+        int cell;
+        while (true) {
+            position = tail.get();
+            cell = (int) (position & mask);
+            long difference = sequences.get(cell) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+            // otherwise, another producer has claimed the cell in the meantime
+        }
+        kinds[cell] = kind;
+        stamps[cell] = stamp;
+        payloads[cell] = payload;
+        sequences.set(cell, position + 1);
+        return true;
+    }
+
+    /** Takes all commands from the ring, in the order they have been put in, and passes them to
+     * the handler. Must only be called by the consumer.
+     *
+     * @since 1.0;
+     * @param handler Receives the commands.
+     * @return Number of commands taken.
+     */
+    int drain(Handler handler) {
+        int count = 0;
+        while (true) {
+            int cell = (int) (head & mask);
+            if (sequences.get(cell) != head + 1) {
+                return count;
+            }
+            Kind kind = kinds[cell];
+            long stamp = stamps[cell];
+            Object payload = payloads[cell];
+            payloads[cell] = null;
+            sequences.set(cell, head + mask + 1);
+            head++;
+            count++;
+            handler.handle(kind, stamp, payload);
+        }
+    }
+
+    /** Tells if there is a command waiting. Must only be called by the consumer.
+     *
+     * @since 1.0;
+     * @return {@code true} if there is no command in the ring.
+     */
+    boolean isEmpty() {
+        return sequences.get((int) (head & mask)) != head + 1;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/** The flag of a player has fallen.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+@Name("time.FlagFell")
+@Label("Flag Fell")
+@Description("The time of a player has run out")
+final class FlagFellEvent extends BoardEvent {
+
+    @Label("Move Number")
+    @Description("Number of the move in which the flag fell")
+    int moveNumber;
+
+    @Label("Phase")
+    @Description("Index of the phase in which the flag fell, beginning at 0")
+    int phase;
+
+    @Label("Detection Delay")
+    @Description("Time from the moment the flag fell until the clockwork noticed it")
+    @Timespan
+    long detectionDelay;
+
+    /** Records the event, if enabled.
+     *
+     * @since 1.0;
+     * @param board Id of the board.
+     * @param player Index of the player whose flag fell.
+     * @param moveNumber Number of the move.
+     * @param phase Index of the phase.
+     * @param detectionDelay Time from the moment the flag fell until it has been noticed, in
+     * nanoseconds.
+     */
+    static void emit(int board, int player, int moveNumber, int phase, long detectionDelay) {
+        FlagFellEvent event = new FlagFellEvent();
+        if (event.isEnabled()) {
+            event.setBoard(board, player);
+            event.moveNumber = moveNumber;
+            event.phase = phase;
+            event.detectionDelay = detectionDelay;
+            event.commit();
+        }
+    }
+}
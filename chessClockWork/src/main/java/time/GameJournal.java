@@ -0,0 +1,544 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/** An append-only journal of the game running on a {@link TimeControl time control}, from which the
+ * game can be rebuilt after the application has died, for example when the power was lost. It
+ * holds the setup of the game with the time budget constraints of both players, every move, every
+ * pause and resumption, and every flag fall, each with the moment it has been executed at. While
+ * the time is running, the progress is recorded once per {@value #PROGRESS_INTERVAL} nanoseconds,
+ * so no more than that is lost in a crash.
+ * <p>
+ * The journal is a file mapped into memory. The signal clock writes each record into the mapping,
+ * which costs no system call and survives the death of the process, as the pages belong to the
+ * operating system. A thread of the journal forces the pages written onto the disk every
+ * {@value #FORCE_INTERVAL} nanoseconds, so that all records since the last force are committed
+ * to the disk as a group, and the signal clock never waits for the disk.
+ * <p>
+ * Each record carries a checksum, and a record that has only partly reached the disk ends the
+ * journal. A new game starts the journal over, so the journal never holds more than one game. A
+ * journal that has been {@link #close() closed} tells that the application has been shut down
+ * properly, and there is nothing to rebuild.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public final class GameJournal {
+
+    private static final Logger LOG = Logger.getLogger(GameJournal.class.getName());
+    /** Default size of the journal, in bytes. Enough for more than a day of running time. */
+    public static final int DEFAULT_CAPACITY = 1 << 22;
+    /** Interval the progress of the running time is recorded in, in nanoseconds. */
+    static final long PROGRESS_INTERVAL = Constants.NANOSEC_PER_SEC;
+    /** Interval the records are forced onto the disk in, in nanoseconds. */
+    static final long FORCE_INTERVAL = Constants.NANOSEC_PER_TENS_OF_SEC;
+    /** Marks the file as a journal: "PCJ1". */
+    private static final int MAGIC = 0x50434A31;
+    /** Bytes before the first record. */
+    private static final int HEADER_SIZE = Integer.BYTES;
+    /** Bytes of a record without payload: its size, its type, its moment, and its checksum. */
+    private static final int RECORD_SIZE = Integer.BYTES + 1 + Long.BYTES + Integer.BYTES;
+    /** Bytes of a record that has been written and not lost in a crash. */
+    private static final int MIN_JOURNAL_SIZE = HEADER_SIZE + RECORD_SIZE;
+    /** Bytes kept free at the end of the journal for the record of {@link #close() closing}, as a
+     * full journal must still tell that the application has been shut down properly. */
+    private static final int CLOSING_RESERVE = RECORD_SIZE;
+
+    // types of the records, as written to the file; never change them
+    /** A new game, with the time budget constraints of both players. */
+    private static final byte SETUP = 1;
+    /** A move. */
+    private static final byte MOVE = 2;
+    /** A pause or resumption. */
+    private static final byte PAUSE = 3;
+    /** A flag fall. */
+    private static final byte FLAG = 4;
+    /** The time has been running up to this moment. */
+    private static final byte PROGRESS = 5;
+    /** The application has been shut down properly. */
+    private static final byte CLOSED = 6;
+
+    /** The file. */
+    private final Path file;
+    /** The file channel, kept open for the mapping. */
+    private final FileChannel channel;
+    /** The file, mapped into memory. */
+    private final MappedByteBuffer mapping;
+    /** Computes the checksums of the records. */
+    private final CRC32 checksum = new CRC32();
+    /** Forces the records onto the disk. */
+    private final Thread forcer;
+    /** A record is put together here before it is copied into the mapping. */
+    private byte[] scratch = new byte[256];
+    /** Wraps the scratch array. */
+    private ByteBuffer scratchBuffer = ByteBuffer.wrap(scratch);
+    /** Position of the next record in the mapping. Guarded by this. */
+    private int position = HEADER_SIZE;
+    /** Records written so far. Written only under the lock of this. */
+    private volatile long recorded;
+    /** Has the journal been found full? Guarded by this. */
+    private boolean full;
+    /** Has the journal been closed? */
+    private volatile boolean closed;
+
+    /** Generates.
+     *
+     * @since 1.0;
+     * @param file The file.
+     * @param channel The file channel, kept open for the mapping.
+     * @param mapping The file, mapped into memory.
+     */
+    private GameJournal(Path file, FileChannel channel, MappedByteBuffer mapping) {
+        this.file = file;
+        this.channel = channel;
+        this.mapping = mapping;
+        mapping.putInt(0, MAGIC);
+        mapping.putInt(HEADER_SIZE, 0); // no record yet
+        mapping.force();
+
+        forcer = new Thread(this::forceRecords, "GameJournal-forcer");
+        forcer.setDaemon(true);
+        forcer.start();
+    }
+
+    /** Creates a new, empty journal of the {@link #DEFAULT_CAPACITY default capacity}. A file that
+     * exists already is overwritten.
+     *
+     * @since 1.0;
+     * @param file The file.
+     * @return Optional with the journal. Empty if the file is {@code null} or cannot be written.
+     */
+    public static Optional<GameJournal> makeNew(Path file) {
+        return makeNew(file, DEFAULT_CAPACITY);
+    }
+
+    /** Creates a new, empty journal. A file that exists already is overwritten.
+     *
+     * @since 1.0;
+     * @param file The file.
+     * @param capacity Size of the file, in bytes. Records not fitting anymore are left out.
+     * @return Optional with the journal. Empty if the file is {@code null} or cannot be written, or
+     * if the capacity does not even hold a record besides the record of closing.
+     */
+    public static Optional<GameJournal> makeNew(Path file, int capacity) {
+        if (file == null || capacity < MIN_JOURNAL_SIZE + CLOSING_RESERVE + Integer.BYTES) {
+            return Optional.empty();
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            return Optional.of(new GameJournal(file, channel, mapping));
+        } catch (IOException | UnsupportedOperationException e) {
+            LOG.log(Level.WARNING, "Could not create the game journal " + file, e);
+            closeQuietly(channel);
+            return Optional.empty();
+        }
+    }
+
+    /** Records the setup of a new game, which starts the journal over. Called by the signal clock.
+     *
+     * @since 1.0;
+     * @param at The moment the game has been set up, in nanoseconds.
+     * @param dataLeft Left player's data.
+     * @param dataRight Right player's data.
+     * @param leftIsWhite Does the left player play with the white pieces?
+     * @param timeRunsInFirstMove Is the time ticking down also in the first move?
+     */
+    synchronized void recordSetup(long at, TimeBudgetConstraint dataLeft, TimeBudgetConstraint dataRight,
+            boolean leftIsWhite, boolean timeRunsInFirstMove) {
+        int size = RECORD_SIZE + 1 + constraintSize(dataLeft) + constraintSize(dataRight);
+        if (scratch.length < size) {
+            scratch = new byte[size];
+            scratchBuffer = ByteBuffer.wrap(scratch);
+        }
+        int offset = putHead(size, SETUP, at);
+        scratch[offset++] = (byte) ((leftIsWhite ? 1 : 0) | (timeRunsInFirstMove ? 2 : 0));
+        offset = putConstraint(offset, dataLeft);
+        putConstraint(offset, dataRight);
+        position = HEADER_SIZE;
+        full = false;
+        append(size, CLOSING_RESERVE);
+    }
+
+    /** Records a move. Called by the signal clock.
+     *
+     * @since 1.0;
+     * @param at The moment of the move, in nanoseconds.
+     */
+    synchronized void recordMove(long at) {
+        putHead(RECORD_SIZE, MOVE, at);
+        append(RECORD_SIZE, CLOSING_RESERVE);
+    }
+
+    /** Records a pause or a resumption. Called by the signal clock.
+     *
+     * @since 1.0;
+     * @param at The moment of the change, in nanoseconds.
+     */
+    synchronized void recordPause(long at) {
+        putHead(RECORD_SIZE, PAUSE, at);
+        append(RECORD_SIZE, CLOSING_RESERVE);
+    }
+
+    /** Records a flag fall. Called by the signal clock.
+     *
+     * @since 1.0;
+     * @param at The moment the fall of the flag has been detected, in nanoseconds.
+     */
+    synchronized void recordFlag(long at) {
+        putHead(RECORD_SIZE, FLAG, at);
+        append(RECORD_SIZE, CLOSING_RESERVE);
+    }
+
+    /** Records that the time has been running up to a moment. Called by the signal clock.
+     *
+     * @since 1.0;
+     * @param at The moment, in nanoseconds.
+     */
+    synchronized void recordProgress(long at) {
+        putHead(RECORD_SIZE, PROGRESS, at);
+        append(RECORD_SIZE, CLOSING_RESERVE);
+    }
+
+    /** Writes the size, the type, and the moment of a record into the scratch array.
+     *
+     * @since 1.0;
+     * @param size Size of the whole record, in bytes.
+     * @param type Type of the record.
+     * @param at The moment of the record, in nanoseconds.
+     * @return Offset of the payload in the scratch array.
+     */
+    private int putHead(int size, byte type, long at) {
+        scratchBuffer.putInt(0, size);
+        scratch[Integer.BYTES] = type;
+        scratchBuffer.putLong(Integer.BYTES + 1, at);
+        return Integer.BYTES + 1 + Long.BYTES;
+    }
+
+    /** Returns the bytes a time budget constraint takes up in a record.
+     *
+     * @since 1.0;
+     * @param tbc The constraint.
+     * @return Number of bytes.
+     */
+    private static int constraintSize(TimeBudgetConstraint tbc) {
+        return 2 * Long.BYTES + 1 + Short.BYTES
+                + tbc.getTCPs().length * (Short.BYTES + 2 * Integer.BYTES);
+    }
+
+    /** Writes a time budget constraint into the scratch array.
+     *
+     * @since 1.0;
+     * @param offset Where to write to.
+     * @param tbc The constraint.
+     * @return Offset behind the constraint.
+     */
+    private int putConstraint(int offset, TimeBudgetConstraint tbc) {
+        scratchBuffer.putLong(offset, tbc.getMoveTimeLimit());
+        offset += Long.BYTES;
+        scratchBuffer.putLong(offset, tbc.getWarningThreshold());
+        offset += Long.BYTES;
+        scratch[offset++] = (byte) (tbc.isCumulativePhases() ? 1 : 0);
+        TimeControlPhase[] tcps = tbc.getTCPs();
+        scratchBuffer.putShort(offset, (short) tcps.length);
+        offset += Short.BYTES;
+        for (TimeControlPhase tcp : tcps) {
+            scratchBuffer.putShort(offset, tcp.getMoves());
+            offset += Short.BYTES;
+            scratchBuffer.putInt(offset, tcp.getTime());
+            offset += Integer.BYTES;
+            scratchBuffer.putInt(offset, tcp.getIncrement());
+            offset += Integer.BYTES;
+        }
+        return offset;
+    }
+
+    /** Completes the record in the scratch array with its checksum and copies it into the mapping.
+     * The journal is ended behind the record before the record itself is written, so that the
+     * records of an earlier game behind it are never taken for a part of this game. Must be called
+     * with the lock of this.
+     *
+     * @since 1.0;
+     * @param size Size of the record, in bytes.
+     * @param reserve Bytes that have to stay free behind the record, in bytes.
+     */
+    private void append(int size, int reserve) {
+        if (closed) {
+            return;
+        }
+        if (position + size + Integer.BYTES + reserve > mapping.capacity()) {
+            if (!full) {
+                full = true;
+                LOG.log(Level.WARNING, "The game journal " + file + " is full");
+            }
+            return;
+        }
+        int payloadEnd = size - Integer.BYTES;
+        checksum.reset();
+        checksum.update(scratch, 0, payloadEnd);
+        scratchBuffer.putInt(payloadEnd, (int) checksum.getValue());
+
+        mapping.putInt(position + size, 0);
+        mapping.put(position, scratch, 0, size);
+        position += size;
+        recorded++;
+    }
+
+    /** Forces the records onto the disk once in a while, as long as the journal is open. Run by the
+     * forcing thread.
+     *
+     * @since 1.0;
+     */
+    private void forceRecords() {
+        long forced = 0;
+        while (!closed) {
+            LockSupport.parkNanos(this, FORCE_INTERVAL);
+            long written = recorded;
+            if (written != forced) {
+                mapping.force();
+                forced = written;
+            }
+        }
+    }
+
+    /** Marks the journal as closed, so that the game is not rebuilt from it, and forces it onto the
+     * disk. Call this when the application is shut down properly. Records coming in afterwards are
+     * left out.
+     *
+     * @since 1.0;
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        putHead(RECORD_SIZE, CLOSED, 0);
+        // the record of closing always fits, as the other records leave room for it
+        append(RECORD_SIZE, 0);
+        closed = true;
+        LockSupport.unpark(forcer);
+        mapping.force();
+        closeQuietly(channel);
+    }
+
+    /** Returns the number of bytes the journal takes up so far, the header included.
+     *
+     * @since 1.0;
+     * @return Number of bytes.
+     */
+    synchronized int getSize() {
+        return position;
+    }
+
+    /** Returns the number of records written since the journal has been created.
+     *
+     * @since 1.0;
+     * @return Number of records.
+     */
+    public long getRecordCount() {
+        return recorded;
+    }
+
+    /** Rebuilds the last game of a journal on a time control, unless the journal has been closed.
+     * The records are replayed in their order on the time control, moved in time so that the last
+     * one happens now. If the time is running after the last record, the game is paused right
+     * there, so that no time is taken from anybody for the time the application has been down,
+     * and the arbiter resumes the game. If a journal is set on the time control, the records
+     * replayed are written into it again.
+     * <p>
+     * Must be called before the signal clock of the time control is started, or, with a
+     * {@link VirtualTimeSource virtual time source}, by the thread advancing the time.
+     *
+     * @since 1.0;
+     * @param file The file of the journal.
+     * @param timeControl The time control.
+     * @return Number of records replayed. 0 if there is no game to rebuild, or if the file cannot be
+     * read.
+     */
+    public static int replay(Path file, TimeControl timeControl) {
+        if (file == null || timeControl == null || !Files.isRegularFile(file)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < MIN_JOURNAL_SIZE) {
+                return 0;
+            }
+            MappedByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return replay(content, timeControl);
+        } catch (IOException | UnsupportedOperationException e) {
+            LOG.log(Level.WARNING, "Could not read the game journal " + file, e);
+            return 0;
+        }
+    }
+
+    /** Rebuilds the last game of a journal on a time control, see {@link #replay(Path, TimeControl)}.
+     *
+     * @since 1.0;
+     * @param content The content of the journal.
+     * @param timeControl The time control.
+     * @return Number of records replayed.
+     */
+    private static int replay(ByteBuffer content, TimeControl timeControl) {
+        if (content.getInt(0) != MAGIC) {
+            return 0;
+        }
+
+        // find the end, and the setup of the last game
+        CRC32 crc = new CRC32();
+        int setupAt = -1;
+        int end = HEADER_SIZE;
+        long lastMoment = 0;
+        boolean closed = false;
+        while (end + Integer.BYTES <= content.capacity()) {
+            int size = content.getInt(end);
+            if (size < RECORD_SIZE || size > content.capacity() - end) {
+                break;
+            }
+            crc.reset();
+            crc.update(content.slice(end, size - Integer.BYTES));
+            if ((int) crc.getValue() != content.getInt(end + size - Integer.BYTES)) {
+                break;
+            }
+            byte type = content.get(end + Integer.BYTES);
+            if (type == CLOSED) {
+                closed = true;
+            } else {
+                lastMoment = content.getLong(end + Integer.BYTES + 1);
+                if (type == SETUP) {
+                    setupAt = end;
+                    closed = false;
+                }
+            }
+            end += size;
+        }
+        if (setupAt < 0 || closed) {
+            return 0;
+        }
+
+        // replay, with the last record happening now
+        long offset = timeControl.getTimeSource().nanoTime() - lastMoment;
+        int replayed = 0;
+        for (int at = setupAt; at < end; at += content.getInt(at)) {
+            byte type = content.get(at + Integer.BYTES);
+            long moment = content.getLong(at + Integer.BYTES + 1) + offset;
+            switch (type) {
+                case SETUP -> {
+                    ByteBuffer payload = content.slice(at + RECORD_SIZE - Integer.BYTES,
+                            content.getInt(at) - RECORD_SIZE);
+                    byte flags = payload.get();
+                    Optional<TimeBudgetConstraint> dataLeft = getConstraint(payload);
+                    Optional<TimeBudgetConstraint> dataRight = getConstraint(payload);
+                    if (dataLeft.isEmpty() || dataRight.isEmpty()) {
+                        return 0;
+                    }
+                    timeControl.replaySetup(moment, dataLeft.get(), dataRight.get(), (flags & 1) != 0,
+                            (flags & 2) != 0);
+                }
+                case MOVE ->
+                    timeControl.replayMove(moment);
+                case PAUSE ->
+                    timeControl.replayPause(moment);
+                case FLAG, PROGRESS ->
+                    timeControl.replayProgress(moment);
+                default -> {
+                    // unknown records carry nothing to rebuild
+                }
+            }
+            replayed++;
+        }
+        timeControl.holdReplayedGame(lastMoment + offset);
+        return replayed;
+    }
+
+    /** Reads a time budget constraint from the payload of a setup record.
+     *
+     * @since 1.0;
+     * @param payload The payload, positioned at the constraint.
+     * @return Optional with the constraint. Empty if it has no phases.
+     */
+    private static Optional<TimeBudgetConstraint> getConstraint(ByteBuffer payload) {
+        long moveTimeLimit = payload.getLong();
+        long warningThreshold = payload.getLong();
+        boolean cumulativePhases = payload.get() != 0;
+        TimeControlPhase[] tcps = new TimeControlPhase[payload.getShort()];
+        for (int i = 0; i < tcps.length; i++) {
+            short moves = payload.getShort();
+            int time = payload.getInt();
+            int increment = payload.getInt();
+            tcps[i] = TimeControlPhase.makeNew(moves, time, increment);
+        }
+        return TimeBudgetConstraint.makeNew(tcps, moveTimeLimit, warningThreshold, cumulativePhases);
+    }
+
+    /** Closes a channel, if there is one, and logs a failure.
+     *
+     * @since 1.0;
+     * @param channel The channel. May be {@code null}.
+     */
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not close the game journal", e);
+        }
+    }
+}
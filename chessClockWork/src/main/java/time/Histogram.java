@@ -0,0 +1,234 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/** Counts values in buckets of equal width, and derives percentiles from the counts. Recording a
+ * value does not allocate any memory. Values beyond the last bucket are counted in the last bucket,
+ * negative values in the first one.
+ * <p>
+ * Not thread safe. Threads that record concurrently should use a histogram each and
+ * {@link #merge(Histogram) merge} them afterwards.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public final class Histogram {
+
+    /** Width of each bucket. */
+    private final long bucketWidth;
+    /** Number of values in each bucket. */
+    private final long[] counts;
+    /** Number of values recorded. */
+    private long count;
+    /** Sum of all values recorded. A double, as the sum of many large values exceeds a long. */
+    private double sum;
+    /** Smallest value recorded. */
+    private long min = Long.MAX_VALUE;
+    /** Largest value recorded. */
+    private long max = Long.MIN_VALUE;
+
+    /** Generates.
+     *
+     * @since 1.0;
+     * @param bucketWidth Width of each bucket.
+     * @param bucketCount Number of buckets.
+     */
+    private Histogram(long bucketWidth, int bucketCount) {
+        this.bucketWidth = bucketWidth;
+        counts = new long[bucketCount];
+    }
+
+    /** Creates a new, empty histogram.
+     *
+     * @since 1.0;
+     * @param bucketWidth Width of each bucket.
+     * @param bucketCount Number of buckets.
+     * @return An optional with the new instance. Empty if either argument is not positive.
+     */
+    public static Optional<Histogram> makeNew(long bucketWidth, int bucketCount) {
+        if (bucketWidth < 1 || bucketCount < 1) {
+            return Optional.empty();
+        }
+        return Optional.of(new Histogram(bucketWidth, bucketCount));
+    }
+
+    /** Creates a new, empty histogram with the same buckets as this one.
+     *
+     * @since 1.0;
+     * @return The new instance.
+     */
+    public Histogram makeEmptyCopy() {
+        return new Histogram(bucketWidth, counts.length);
+    }
+
+    /** Records a value.
+     *
+     * @since 1.0;
+     * @param value The value.
+     */
+    public void record(long value) {
+        long bucket = Math.max(value / bucketWidth, 0);
+        counts[(int) Math.min(bucket, counts.length - 1)]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /** Adds all values of another histogram to this one.
+     *
+     * @since 1.0;
+     * @param other The other histogram.
+     * @return {@code false} if the buckets of the other histogram differ from the ones of this one,
+     * so that nothing has been added.
+     */
+    public boolean merge(Histogram other) {
+        if (other == null || other.bucketWidth != bucketWidth || other.counts.length != counts.length) {
+            return false;
+        }
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            counts[bucket] += other.counts[bucket];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return true;
+    }
+
+    /** Removes all values.
+     *
+     * @since 1.0;
+     */
+    public void clear() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+    }
+
+    /** Returns the value below which the given share of all values lies. The result is exact up to
+     * the width of a bucket, and never exceeds the largest value recorded. Percentiles in the last
+     * bucket, which also holds all values beyond the range, are the largest value recorded.
+     *
+     * @since 1.0;
+     * @param percentile The share, in percent, from 0 to 100.
+     * @return The upper bound of the bucket containing the percentile. 0 if no value has been recorded.
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * count);
+        rank = Math.max(rank, 1);
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                // the last bucket also holds all values beyond it
+                return bucket < counts.length - 1 ? Math.min((bucket + 1) * bucketWidth - 1, max) : max;
+            }
+        }
+        return max;
+    }
+
+    /** Returns the number of values recorded.
+     *
+     * @since 1.0;
+     * @return The number of values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /** Returns the mean of all values recorded.
+     *
+     * @since 1.0;
+     * @return The mean. 0 if no value has been recorded.
+     */
+    public double getMean() {
+        return count > 0 ? sum / count : 0;
+    }
+
+    /** Returns the smallest value recorded.
+     *
+     * @since 1.0;
+     * @return The smallest value. 0 if no value has been recorded.
+     */
+    public long getMin() {
+        return count > 0 ? min : 0;
+    }
+
+    /** Returns the largest value recorded.
+     *
+     * @since 1.0;
+     * @return The largest value. 0 if no value has been recorded.
+     */
+    public long getMax() {
+        return count > 0 ? max : 0;
+    }
+
+    /** Returns the width of each bucket.
+     *
+     * @since 1.0;
+     * @return The width.
+     */
+    public long getBucketWidth() {
+        return bucketWidth;
+    }
+
+    /** Returns the number of buckets.
+     *
+     * @since 1.0;
+     * @return The number of buckets.
+     */
+    public int getBucketCount() {
+        return counts.length;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+/** Passes all calls on to a {@link PlayerTimeDisplay player time display}, and records the number
+ * of the calls and the time spent in them in the {@link ClockworkMetrics metrics} of the time
+ * control. The time is taken with {@link System#nanoTime()}, whatever the time source of the time
+ * control is, as it is the real time the signal clock loses. The time control only calls its
+ * displays when something visible has changed, so this costs nothing on the ticks in between.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+final class MeteredPlayerTimeDisplay implements PlayerTimeDisplay {
+
+    /** Receives the calls. */
+    private final PlayerTimeDisplay display;
+    /** Records the calls. */
+    private final ClockworkMetrics metrics;
+
+    /** Generates.
+     *
+     * @since 1.0;
+     * @param display Receives the calls.
+     * @param metrics Records the calls.
+     */
+    MeteredPlayerTimeDisplay(PlayerTimeDisplay display, ClockworkMetrics metrics) {
+        this.display = display;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void setClockTime(long time) {
+        long start = System.nanoTime();
+        display.setClockTime(time);
+        metrics.displayCallback(System.nanoTime() - start);
+    }
+
+    @Override
+    public void setMoveTime(long time) {
+        long start = System.nanoTime();
+        display.setMoveTime(time);
+        metrics.displayCallback(System.nanoTime() - start);
+    }
+
+    @Override
+    public void setActive(boolean active) {
+        long start = System.nanoTime();
+        display.setActive(active);
+        metrics.displayCallback(System.nanoTime() - start);
+    }
+
+    @Override
+    public void useWarningColor(boolean use) {
+        long start = System.nanoTime();
+        display.useWarningColor(use);
+        metrics.displayCallback(System.nanoTime() - start);
+    }
+
+    @Override
+    public void setupForGame(boolean withMoveTimeLimit) {
+        long start = System.nanoTime();
+        display.setupForGame(withMoveTimeLimit);
+        metrics.displayCallback(System.nanoTime() - start);
+    }
+
+    @Override
+    public void setOutOfTime() {
+        long start = System.nanoTime();
+        display.setOutOfTime();
+        metrics.displayCallback(System.nanoTime() - start);
+    }
+
+    @Override
+    public void updateDisplay() {
+        long start = System.nanoTime();
+        display.updateDisplay();
+        metrics.displayCallback(System.nanoTime() - start);
+        metrics.displayUpdated();
+    }
+}
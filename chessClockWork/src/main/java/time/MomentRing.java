@@ -0,0 +1,154 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import java.lang.invoke.VarHandle;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Remembers the latest moments of some recurring event, like the ticks of the signal clock or the
+ * frames of a display, so that rates and jitter can be derived from them. One thread records,
+ * while any other thread may read the moments at any time. Neither side locks or allocates, and
+ * recording costs a plain store and an ordered store of the count.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public final class MomentRing {
+
+    /** Largest capacity. */
+    public static final int MAX_CAPACITY = 1 << 20;
+
+    /** The moments, as a ring. */
+    private final long[] moments;
+    /** For mapping a count on an index of the ring. */
+    private final int mask;
+    /** Number of moments recorded so far. Only increased by the recording thread, after the moment
+     * has been stored. */
+    private final AtomicLong count = new AtomicLong();
+
+    /** Generates.
+     *
+     * @since 1.0;
+     * @param capacity Number of moments remembered. A power of two.
+     */
+    private MomentRing(int capacity) {
+        moments = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /** Creates a new, empty ring.
+     *
+     * @since 1.0;
+     * @param capacity Number of moments remembered.
+     * @return An optional with the new instance. Empty if the capacity is not a power of two from 1
+     * to {@link #MAX_CAPACITY}.
+     */
+    public static Optional<MomentRing> makeNew(int capacity) {
+        if (capacity < 1 || capacity > MAX_CAPACITY || Integer.bitCount(capacity) != 1) {
+            return Optional.empty();
+        }
+        return Optional.of(new MomentRing(capacity));
+    }
+
+    /** Records a moment, replacing the oldest one if the ring is full. Must always be called by the
+     * same thread, or by threads handing over to each other.
+     *
+     * @since 1.0;
+     * @param moment The moment, in nanoseconds.
+     */
+    public void record(long moment) {
+        long recorded = count.getPlain();
+        // the slot must not be overwritten before the moment stored last is counted
+        VarHandle.storeStoreFence();
+        moments[(int) (recorded & mask)] = moment;
+        count.setRelease(recorded + 1);
+    }
+
+    /** Copies the latest moments, the oldest first. Moments that the recording thread overwrites
+     * during the copying are left out. Once the ring is full, the oldest moment remembered is always
+     * left out, as the recording thread may be about to overwrite it. May be called by any thread.
+     *
+     * @since 1.0;
+     * @param target Receives the moments. At most as many moments as fit are copied.
+     * @return Number of moments copied.
+     */
+    public int copyLatest(long[] target) {
+        long recorded = count.getAcquire();
+        int copied = (int) Math.min(Math.min(recorded, moments.length), target.length);
+        long first = recorded - copied;
+        for (int i = 0; i < copied; i++) {
+            target[i] = moments[(int) ((first + i) & mask)];
+        }
+        // the moments recorded in the meantime have replaced the oldest ones, and the slot after the
+        // newest one may be being written right now
+        VarHandle.acquireFence();
+        long replaced = count.getAcquire() + 1 - moments.length - first;
+        if (replaced <= 0) {
+            return copied;
+        }
+        int valid = (int) Math.max(copied - replaced, 0);
+        System.arraycopy(target, copied - valid, target, 0, valid);
+        return valid;
+    }
+
+    /** Returns the number of moments recorded since the ring has been created.
+     *
+     * @since 1.0;
+     * @return The number of moments.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /** Returns the number of moments the ring remembers.
+     *
+     * @since 1.0;
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return moments.length;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import java.util.SplittableRandom;
+
+/** Draws the time a simulated player thinks about a move, see {@link TimeControlSimulator}.
+ * Implementations are called once per simulated move, possibly by many threads at once, so they
+ * must be stateless and should not allocate any memory.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+@FunctionalInterface
+public interface MoveTimeDistribution {
+
+    /** Draws the time for a move.
+     *
+     * @since 1.0;
+     * @param move Number of the move, beginning at 1.
+     * @param timeRemaining Time the player has left before the move, in nanoseconds.
+     * @param random The source of randomness to draw from.
+     * @return The time for the move, in nanoseconds.
+     */
+    long sample(int move, long timeRemaining, SplittableRandom random);
+
+    /** A distribution where every move takes the same time.
+     *
+     * @since 1.0;
+     * @param nanos Time of each move, in nanoseconds.
+     * @return The distribution.
+     */
+    public static MoveTimeDistribution constant(long nanos) {
+        return (move, timeRemaining, random) -> nanos;
+    }
+
+    /** A distribution where the time of a move is uniformly distributed.
+     *
+     * @since 1.0;
+     * @param minNanos Shortest time of a move, in nanoseconds.
+     * @param maxNanos Longest time of a move, in nanoseconds.
+     * @return The distribution.
+     */
+    public static MoveTimeDistribution uniform(long minNanos, long maxNanos) {
+        long width = Math.max(maxNanos - minNanos, 0) + 1;
+        return (move, timeRemaining, random) -> minNanos + random.nextLong(width);
+    }
+
+    /** A distribution where the time of a move is exponentially distributed.
+     *
+     * @since 1.0;
+     * @param meanNanos Mean time of a move, in nanoseconds.
+     * @return The distribution.
+     */
+    public static MoveTimeDistribution exponential(long meanNanos) {
+        return (move, timeRemaining, random) -> (long) (-meanNanos * Math.log(1 - random.nextDouble()));
+    }
+
+    /** A distribution where the time of a move is log-normally distributed. This is the classic
+     * model of human thinking times: most moves are quick, but there are a few long thinks.
+     *
+     * @since 1.0;
+     * @param medianNanos Median time of a move, in nanoseconds.
+     * @param sigma Spread, as the standard deviation of the logarithm of the time.
+     * @return The distribution.
+     */
+    public static MoveTimeDistribution logNormal(long medianNanos, double sigma) {
+        double mu = Math.log(medianNanos);
+        return (move, timeRemaining, random) -> (long) Math.exp(mu + sigma * random.nextGaussian());
+    }
+
+    /** Derives a distribution where players under time pressure speed up: no move takes more than
+     * the given share of the time remaining.
+     *
+     * @since 1.0;
+     * @param share The largest share of the time remaining a move may take, between 0 and 1.
+     * @return The distribution.
+     */
+    public default MoveTimeDistribution withTimePressure(double share) {
+        return (move, timeRemaining, random) -> Math.min(sample(move, timeRemaining, random),
+                (long) (share * timeRemaining));
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/** The times of the moves of one player in one game: the time on the clock after each move, the
+ * increment included, and the time the move has taken. The times are kept in primitive arrays,
+ * which grow with the game up to {@value #MAX_MOVES} moves. Further moves are not recorded.
+ * <p>
+ * The player time controls record the moves on the signal clock, while an
+ * {@link ClockExporter exporter} may read them on any thread, so all methods are synchronized.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public final class MoveTimes {
+
+    /** Most moves recorded, far more than in any game ever played. */
+    public static final int MAX_MOVES = 1 << 16;
+    /** Moves the arrays have room for at first. */
+    private static final int INITIAL_CAPACITY = 128;
+
+    /** Time on the clock after each move, in nanoseconds. */
+    private long[] clocks = new long[INITIAL_CAPACITY];
+    /** Time each move has taken, in nanoseconds. */
+    private long[] elapsed = new long[INITIAL_CAPACITY];
+    /** Number of moves recorded. */
+    private int moves;
+
+    /** Generates.
+     *
+     * @since 1.0;
+     */
+    private MoveTimes() {
+    }
+
+    /** Creates a new instance without moves.
+     *
+     * @since 1.0;
+     * @return Optional with the new instance.
+     */
+    public static Optional<MoveTimes> makeNew() {
+        return Optional.of(new MoveTimes());
+    }
+
+    /** Records a move. Ignored once {@value #MAX_MOVES} moves have been recorded.
+     *
+     * @since 1.0;
+     * @param clock The time on the clock after the move, in nanoseconds.
+     * @param moveTime The time the move has taken, in nanoseconds.
+     */
+    public synchronized void record(long clock, long moveTime) {
+        if (moves == clocks.length) {
+            if (moves == MAX_MOVES) {
+                return;
+            }
+            int capacity = Math.min(2 * moves, MAX_MOVES);
+            clocks = Arrays.copyOf(clocks, capacity);
+            elapsed = Arrays.copyOf(elapsed, capacity);
+        }
+        clocks[moves] = clock;
+        elapsed[moves] = moveTime;
+        moves++;
+    }
+
+    /** Forgets all moves, for a new game. The arrays are kept.
+     *
+     * @since 1.0;
+     */
+    synchronized void clear() {
+        moves = 0;
+    }
+
+    /** Returns the number of moves recorded.
+     *
+     * @since 1.0;
+     * @return Number of moves.
+     */
+    public synchronized int getMoveCount() {
+        return moves;
+    }
+
+    /** Returns the time on the clock after a move.
+     *
+     * @since 1.0;
+     * @param move Index of the move, beginning at 0.
+     * @return The time, in nanoseconds. -1 if there is no such move.
+     */
+    public synchronized long getClock(int move) {
+        return move >= 0 && move < moves ? clocks[move] : -1;
+    }
+
+    /** Returns the time a move has taken.
+     *
+     * @since 1.0;
+     * @param move Index of the move, beginning at 0.
+     * @return The time, in nanoseconds. -1 if there is no such move.
+     */
+    public synchronized long getElapsed(int move) {
+        return move >= 0 && move < moves ? elapsed[move] : -1;
+    }
+
+    /** Copies all moves into another instance, replacing its moves, so that they can be read while
+     * this instance goes on recording.
+     *
+     * @since 1.0;
+     * @param target The instance receiving the moves.
+     */
+    public synchronized void copyTo(MoveTimes target) {
+        if (target == this) {
+            return;
+        }
+        target.replace(clocks, elapsed, moves);
+    }
+
+    /** Replaces the moves with the first moves of the given arrays.
+     *
+     * @since 1.0;
+     * @param sourceClocks Time on the clock after each move.
+     * @param sourceElapsed Time each move has taken.
+     * @param count Number of moves.
+     */
+    private synchronized void replace(long[] sourceClocks, long[] sourceElapsed, int count) {
+        if (clocks.length < count) {
+            clocks = new long[sourceClocks.length];
+            elapsed = new long[sourceElapsed.length];
+        }
+        System.arraycopy(sourceClocks, 0, clocks, 0, count);
+        System.arraycopy(sourceElapsed, 0, elapsed, 0, count);
+        moves = count;
+    }
+}
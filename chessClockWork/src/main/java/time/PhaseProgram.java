@@ -0,0 +1,217 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import java.util.Optional;
+
+/** A {@link TimeBudgetConstraint time budget constraint} compiled into a flat table, with one entry
+ * per phase. Each entry tells how many moves the phase lasts, how much time is added when the phase
+ * is entered, whether the time left over from the phase before is kept, the increment per move, and
+ * which entry follows once the phase is over. A player moves through the table by following the
+ * entries, without looking at the {@link TimeControlPhase time control phases} again.
+ * <p>
+ * As the following entry is part of the table, phases may also repeat. For example, an entry of 20
+ * moves in five minutes that drops the time left over and is followed by itself is Canadian
+ * overtime, and an entry of a single move in 30 seconds that does the same is a byo-yomi period.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+final class PhaseProgram {
+
+    /** Moves of a phase that lasts for the rest of the game, and the following entry of such a
+     * phase. */
+    static final int ENDLESS = -1;
+    /** Mask that keeps the time left over from the phase before. */
+    private static final long CARRY = -1L;
+    /** Mask that drops the time left over from the phase before. */
+    private static final long DROP = 0L;
+
+    /** Number of moves of each phase, or {@link #ENDLESS}. */
+    private final int[] moves;
+    /** Time added when entering each phase, in nanoseconds. */
+    private final long[] nanosAdded;
+    /** Increment per move in each phase, in nanoseconds. */
+    private final long[] increments;
+    /** Mask applied to the time left over when entering each phase. */
+    private final long[] carryMasks;
+    /** Index of the entry following each phase, or {@link #ENDLESS}. */
+    private final int[] next;
+
+    private PhaseProgram(int[] moves, long[] nanosAdded, long[] increments, long[] carryMasks, int[] next) {
+        this.moves = moves;
+        this.nanosAdded = nanosAdded;
+        this.increments = increments;
+        this.carryMasks = carryMasks;
+        this.next = next;
+    }
+
+    /** Compiles a sequence of time control phases. Each phase is followed by the next one in the
+     * sequence. The last phase, and phases lasting for the remainder of the game, last endlessly.
+     *
+     * @since 1.0;
+     * @param tcps The phases. Must contain at least one phase.
+     * @param cumulative Is the time left over from a phase added to the time of the next one?
+     * @return The program.
+     */
+    static PhaseProgram compile(TimeControlPhase[] tcps, boolean cumulative) {
+        int length = tcps.length;
+        int[] moves = new int[length];
+        long[] nanosAdded = new long[length];
+        long[] increments = new long[length];
+        long[] carryMasks = new long[length];
+        int[] next = new int[length];
+
+        for (int phase = 0; phase < length; phase++) {
+            TimeControlPhase tcp = tcps[phase];
+            boolean last = phase == length - 1 || tcp.getMoves() == TimeControlPhase.REMAINDER;
+            moves[phase] = last ? ENDLESS : tcp.getMoves();
+            nanosAdded[phase] = tcp.getTime() * Constants.NANOSEC_PER_SEC;
+            increments[phase] = tcp.getIncrement() * Constants.NANOSEC_PER_SEC;
+            carryMasks[phase] = cumulative ? CARRY : DROP;
+            next[phase] = last ? ENDLESS : phase + 1;
+        }
+        return new PhaseProgram(moves, nanosAdded, increments, carryMasks, next);
+    }
+
+    /** Creates a program from the columns of its table, for phases beyond a plain sequence. The
+     * arrays are copied. {@link TimeBudgetConstraint Time budget constraints} only compile plain
+     * sequences, so such programs are built by tests only.
+     *
+     * @since 1.0;
+     * @param moves Number of moves of each phase, or {@link #ENDLESS}.
+     * @param nanosAdded Time added when entering each phase, in nanoseconds.
+     * @param increments Increment per move in each phase, in nanoseconds.
+     * @param carry Is the time left over from the phase before kept when entering each phase?
+     * @param next Index of the entry following each phase, or {@link #ENDLESS}.
+     * @return Optional with the program. Empty if any array is {@code null} or empty, if the arrays
+     * differ in length, if a phase has less than one move without being endless or more moves than
+     * a {@code short} holds, or if a following entry does not exist.
+     */
+    static Optional<PhaseProgram> makeNew(int[] moves, long[] nanosAdded, long[] increments, boolean[] carry,
+            int[] next) {
+        if (moves == null || nanosAdded == null || increments == null || carry == null || next == null) {
+            return Optional.empty();
+        }
+        int length = moves.length;
+        if (length < 1 || nanosAdded.length != length || increments.length != length || carry.length != length
+                || next.length != length) {
+            return Optional.empty();
+        }
+
+        long[] carryMasks = new long[length];
+        for (int phase = 0; phase < length; phase++) {
+            if ((moves[phase] < 1 && moves[phase] != ENDLESS) || moves[phase] > Short.MAX_VALUE) {
+                return Optional.empty();
+            }
+            if (next[phase] < ENDLESS || next[phase] >= length) {
+                return Optional.empty();
+            }
+            carryMasks[phase] = carry[phase] ? CARRY : DROP;
+        }
+        return Optional.of(new PhaseProgram(moves.clone(), nanosAdded.clone(), increments.clone(), carryMasks,
+                next.clone()));
+    }
+
+    /** Returns the number of entries.
+     *
+     * @since 1.0;
+     * @return The number of entries.
+     */
+    int getLength() {
+        return moves.length;
+    }
+
+    /** Returns the number of moves of a phase.
+     *
+     * @since 1.0;
+     * @param phase Index of the entry.
+     * @return The number of moves, or {@link #ENDLESS}.
+     */
+    int getMoves(int phase) {
+        return moves[phase];
+    }
+
+    /** Returns the time added when entering a phase.
+     *
+     * @since 1.0;
+     * @param phase Index of the entry.
+     * @return The time, in nanoseconds.
+     */
+    long getNanosAdded(int phase) {
+        return nanosAdded[phase];
+    }
+
+    /** Returns the increment per move in a phase.
+     *
+     * @since 1.0;
+     * @param phase Index of the entry.
+     * @return The increment, in nanoseconds.
+     */
+    long getIncrement(int phase) {
+        return increments[phase];
+    }
+
+    /** Returns the time remaining after entering a phase.
+     *
+     * @since 1.0;
+     * @param phase Index of the entry.
+     * @param timeRemaining Time left over from the phase before, in nanoseconds.
+     * @return The time remaining in the new phase, in nanoseconds.
+     */
+    long enter(int phase, long timeRemaining) {
+        return (timeRemaining & carryMasks[phase]) + nanosAdded[phase];
+    }
+
+    /** Returns the entry following a phase.
+     *
+     * @since 1.0;
+     * @param phase Index of the entry.
+     * @return Index of the following entry, or {@link #ENDLESS}.
+     */
+    int getNext(int phase) {
+        return next[phase];
+    }
+}
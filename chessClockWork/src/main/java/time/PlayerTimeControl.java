@@ -44,14 +44,22 @@
  */
 package time;
 
-/** Time control for a single player.
+import java.lang.invoke.VarHandle;
+
+/** Time control for a single player. All methods must be called by the signal clock only, except
+ * {@link #getPublishedTimeRemaining(long)}, which may be called by any thread.
  *
  * @author Dragonstb
  * @since 1.0;
  */
 final class PlayerTimeControl {
 
-    private static final byte ENDLESS_PHASE = -1;
+    /** Board id of player time controls that do not belong to a board, like the ones of the
+     * {@link TimeControlSimulator simulator}. */
+    private static final int NO_BOARD = 0;
+    /** Published instead of the moment the clock started running while the time remaining is not
+     * derived from that moment. */
+    private static final long NOT_RUNNING = Long.MIN_VALUE;
 
     private static final PlayerTimeDisplay NULL_DISPLAY = new PlayerTimeDisplay() {
 
@@ -85,8 +93,6 @@ final class PlayerTimeControl {
 
     };
 
-    /** The player's time control phases. */
-    private TimeControlPhase[] tcps;
     /** Time left in his/her current phase, in nanoseconds. */
     private long timeRemaining;
     /** Time limit for a move. */
@@ -97,12 +103,12 @@ final class PlayerTimeControl {
     private boolean hasMoveTimeLimit;
     /** Current increment per move, in nanoseconds. */
     private long increment;
-    /** Index (of arrays {@code tcps}) of time control phase the player is currently in. */
+    /** The time control phases, compiled into a table. */
+    private PhaseProgram program;
+    /** Index (of the entries of {@code program}) of time control phase the player is currently in. */
     private int currentPhase;
     /** First move in the player's next time control phase. */
     private int nextPhaseAfterMove;
-    /** Are time phases additive for the player? */
-    private boolean additive;
     /** The player time display that receives the data to be displayed. */
     private PlayerTimeDisplay display = NULL_DISPLAY;
     /** Warning threshold for the player, in nanoseconds. */
@@ -111,10 +117,65 @@ final class PlayerTimeControl {
     private boolean useWarningColor;
     /** Current move. */
     private int move;
+    /** How the remaining time is kept track of. */
+    private Timekeeping timekeeping = Timekeeping.perTick;
+    /** Is the clock running for this player? */
+    private boolean running;
+    /** Moment the clock started running for this player, in nanoseconds. */
+    private long runningSince;
+    /** Time remaining at the moment the clock started running, in nanoseconds. */
+    private long timeRemainingSince;
+    /** Time remaining for the move at the moment the clock started running, in nanoseconds. */
+    private long moveTimeRemainingSince;
+    /** Moment the flag falls if the player does not move before, in nanoseconds. */
+    private long flagFallsAt;
+    /** With lazy timekeeping, the moment the remaining times are derived next, which is the next
+     * moment something visible happens, but never after the flag falls, in nanoseconds. */
+    private long nextLazyUpdate;
+    /** Time remaining last sent to the display, in tenths of a second, rounded up. */
+    private long shownClockTenths;
+    /** Time remaining for the move last sent to the display, in tenths of a second, rounded up. */
+    private long shownMoveTenths;
+    /** Has the display been told about a change that has not been repainted yet? */
+    private boolean displayDirty;
+    /** Number of times the display has been refreshed while the clock is running. */
+    private long refreshes;
+    /** Number of calls to the display made by these refreshes. */
+    private long displayCalls;
+    /** Is the player at turn? */
+    private boolean active;
+    /** Id of the board this belongs to, for the events of the flight recorder. */
+    private int board = NO_BOARD;
+    /** Index of the player on the board, as in the {@link ClockFrame clock frame}. */
+    private int player = ClockFrame.NOBODY;
+    /** The times of the moves of the current game. */
+    private final MoveTimes moveTimes = MoveTimes.makeNew().get();
+    /** Time remaining when the current move began, in nanoseconds. */
+    private long moveStartRemaining;
+    /** Counts the publications of the time remaining for other threads. Odd while a publication is
+     * underway. */
+    private volatile int publication;
+    /** Published moment the clock started running with lazy timekeeping, in nanoseconds, or
+     * {@link #NOT_RUNNING}. */
+    private long publishedSince = NOT_RUNNING;
+    /** Published time remaining, at the published moment if there is one, in nanoseconds. */
+    private long publishedRemaining;
 
     PlayerTimeControl() {
     }
 
+    /** Tells the board and the side this belongs to, which the events of the flight recorder
+     * report. Player time controls without a board do not record any events.
+     *
+     * @since 1.0;
+     * @param board Id of the board.
+     * @param player Index of the player, as in the {@link ClockFrame clock frame}.
+     */
+    void identify(int board, int player) {
+        this.board = board;
+        this.player = player;
+    }
+
     /** Sets the receiver of the data.
      *
      * @since 1.0;
@@ -124,6 +185,26 @@ final class PlayerTimeControl {
         this.display = (display != null) ? display : NULL_DISPLAY;
     }
 
+    /** Sets how the remaining time is kept track of.
+     *
+     * @since 1.0;
+     * @param timekeeping The kind of timekeeping. Ignored if {@code null}.
+     */
+    void setTimekeeping(Timekeeping timekeeping) {
+        if (timekeeping != null) {
+            this.timekeeping = timekeeping;
+        }
+    }
+
+    /** Returns how the remaining time is kept track of.
+     *
+     * @since 1.0;
+     * @return The kind of timekeeping.
+     */
+    Timekeeping getTimekeeping() {
+        return timekeeping;
+    }
+
     /** Resets and sets the constraints.
      *
      * @since 1.0;
@@ -132,9 +213,11 @@ final class PlayerTimeControl {
     void setupGameTiming(TimeBudgetConstraint tbc) {
         clearForNewGame(tbc);
         nextTCP();
+        moveStartRemaining = timeRemaining;
 
         display.setupForGame(hasMoveTimeLimit);
         updateTimePanelAndRepaint();
+        publish();
     }
 
     /** Sets all values as stated in the constraint.
@@ -144,15 +227,17 @@ final class PlayerTimeControl {
      */
     private void clearForNewGame(TimeBudgetConstraint tbc) {
         timeRemaining = 0;
-        tcps = tbc.getTCPs();
+        program = tbc.getProgram();
         moveTime = tbc.getMoveTimeLimit();
         hasMoveTimeLimit = moveTime > 0;
-        additive = tbc.isCumulativePhases();
         warningThreshold = tbc.getWarningThreshold();
         nextPhaseAfterMove = 0;
         useWarningColor = false;
         move = 1;
         currentPhase = -1;
+        running = false;
+        active = false;
+        moveTimes.clear();
     }
 
     /** Sents the timing data to the display.
@@ -161,9 +246,11 @@ final class PlayerTimeControl {
      */
     private void updateTimePanel() {
         display.setClockTime(timeRemaining);
+        shownClockTenths = toShownTenths(timeRemaining);
 
         if (hasMoveTimeLimit) {
             display.setMoveTime(moveTimeRemaining);
+            shownMoveTenths = toShownTenths(moveTimeRemaining);
         }
     }
 
@@ -174,37 +261,111 @@ final class PlayerTimeControl {
     void updateTimePanelAndRepaint() {
         updateTimePanel();
         display.updateDisplay();
+        displayDirty = false;
     }
 
-    /** Switches to the next {@link TimeControlPhase time control phase} for the <i>left</i> player.
-     * Increases the phase counter. Sets the remaining time and adds {@code timeRemaining} to it if
-     * phases are additive. Sets the half move counter for the next phase change. If no further
-     * phase change is supposed to occur, the next move value is set to -1. Resets the time
-     * remaining for a single move.
+    /** Sends the data to the display and tells the display that it may repaint itself, but only if
+     * the user would see a difference: the displayed tenth of a second of the time remaining or the
+     * time remaining for the move has changed, or the warning colour or the flag has changed since
+     * the last repaint. Meant to be called on each tick of the clock.
      *
      * @since 1.0;
+     * @return Has the display been told to repaint itself?
      */
-    private void nextTCP() {
-        if (currentPhase >= tcps.length - 1) {
-            return;
+    boolean refreshDisplay() {
+        refreshes++;
+        boolean changed = displayDirty;
+
+        long clockTenths = toShownTenths(timeRemaining);
+        if (clockTenths != shownClockTenths) {
+            display.setClockTime(timeRemaining);
+            shownClockTenths = clockTenths;
+            displayCalls++;
+            changed = true;
+        }
+        if (hasMoveTimeLimit) {
+            long moveTenths = toShownTenths(moveTimeRemaining);
+            if (moveTenths != shownMoveTenths) {
+                display.setMoveTime(moveTimeRemaining);
+                shownMoveTenths = moveTenths;
+                displayCalls++;
+                changed = true;
+            }
         }
 
-        ++currentPhase;
-        if (!additive) {
-            // destroy all remaining seconds
-            timeRemaining = 0;
+        if (changed) {
+            display.updateDisplay();
+            displayCalls++;
+            displayDirty = false;
         }
+        return changed;
+    }
 
-        timeRemaining += tcps[currentPhase].getTime() * Constants.NANOSEC_PER_SEC;
-        increment = tcps[currentPhase].getIncrement() * Constants.NANOSEC_PER_SEC;
+    /** Returns the number of times the display has been refreshed while the clock is running.
+     *
+     * @since 1.0;
+     * @return The number of refreshes.
+     */
+    long getRefreshes() {
+        return refreshes;
+    }
 
-        if (tcps.length > currentPhase + 1 && tcps[currentPhase].getMoves() != TimeControlPhase.REMAINDER) // set move after which the next change of a TCP occurs for this player
-        {
-            nextPhaseAfterMove = tcps[currentPhase].getMoves();
-        } else {
-            nextPhaseAfterMove = ENDLESS_PHASE;
+    /** Returns the number of calls to the display made by the refreshes while the clock is running.
+     * Compared with {@link #getRefreshes()}, this tells how many calls have been saved.
+     *
+     * @since 1.0;
+     * @return The number of calls.
+     */
+    long getDisplayCalls() {
+        return displayCalls;
+    }
+
+    /** Puts the values of this player into a frame.
+     *
+     * @since 1.0;
+     * @param frame The frame.
+     * @param player Index of this player in the frame.
+     * @param outOfTime Has the time run out for this player?
+     * @return Is the player at turn?
+     */
+    boolean fillFrame(ClockFrame frame, int player, boolean outOfTime) {
+        frame.setPlayer(player, timeRemaining, moveTimeRemaining, hasMoveTimeLimit, useWarningColor, outOfTime);
+        return active;
+    }
+
+    /** Returns the value of the given time as displayed, that is in tenths of a second, rounded up.
+     *
+     * @since 1.0;
+     * @param time The time, in nanoseconds.
+     * @return The time, in tenths of a second.
+     */
+    private static long toShownTenths(long time) {
+        return -Math.floorDiv(-time, Constants.NANOSEC_PER_TENS_OF_SEC);
+    }
+
+    /** Switches to the next {@link TimeControlPhase time control phase} for the <i>left</i> player,
+     * as given by the {@link PhaseProgram phase program}. Sets the phase counter to the following
+     * entry, or to the first entry when the game is set up. Sets the remaining time, keeping the
+     * time left over if the program demands so. Sets the move after which the next phase change
+     * occurs, which is -1 if no further phase change is supposed to occur. Resets the time
+     * remaining for a single move.
+     *
+     * @since 1.0;
+     */
+    private void nextTCP() {
+        int phase = currentPhase < 0 ? 0 : program.getNext(currentPhase);
+        if (phase == PhaseProgram.ENDLESS) {
+            return;
         }
+
+        currentPhase = phase;
+        timeRemaining = program.enter(phase, timeRemaining);
+        increment = program.getIncrement(phase);
+        nextPhaseAfterMove = program.getMoves(phase);
         moveTimeRemaining = moveTime;
+        if (board != NO_BOARD) {
+            PhaseAdvancedEvent.emit(board, player, phase, timeRemaining);
+        }
     }
 
     /** Tells the display that is has either to display the active state or the inactive one and
@@ -213,8 +374,164 @@ final class PlayerTimeControl {
      * @param active Active state?
      */
     void setActiveAndRepaint(boolean active) {
+        this.active = active;
         display.setActive(active);
         display.updateDisplay();
+        displayDirty = false;
+    }
+
+    /** Remembers that the clock starts running for this player now. Also computes the moment the
+     * flag falls if the player does not move before.
+     *
+     * @since 1.0;
+     * @param now The current moment, in nanoseconds.
+     */
+    void startRunning(long now) {
+        running = true;
+        runningSince = now;
+        timeRemainingSince = timeRemaining;
+        moveTimeRemainingSince = moveTimeRemaining;
+        long timeLeft = hasMoveTimeLimit ? Math.min(timeRemaining, moveTimeRemaining) : timeRemaining;
+        flagFallsAt = now + timeLeft;
+        nextLazyUpdate = Math.min(now + nanosToNextDeadline(), flagFallsAt);
+        publish();
+    }
+
+    /** Remembers that the clock stops running for this player now. With lazy timekeeping, the
+     * remaining times are brought up to date before.
+     *
+     * @since 1.0;
+     * @param now The current moment, in nanoseconds.
+     * @return Is time up?
+     */
+    boolean stopRunning(long now) {
+        boolean timeHasRunOut = false;
+        if (running && timekeeping == Timekeeping.lazy) {
+            timeHasRunOut = updateTo(now);
+        }
+        running = false;
+        publish();
+        return timeHasRunOut;
+    }
+
+    /** Returns the times of the moves of the current game.
+     *
+     * @since 1.0;
+     * @return The move times.
+     */
+    MoveTimes getMoveTimes() {
+        return moveTimes;
+    }
+
+    /** Returns the index of the current time control phase.
+     *
+     * @since 1.0;
+     * @return The index of the phase, beginning at 0.
+     */
+    int getCurrentPhase() {
+        return currentPhase;
+    }
+
+    /** Returns the moment the flag falls if the player does not move before. Only meaningful while
+     * the clock is running for this player.
+     *
+     * @since 1.0;
+     * @return The moment the flag falls, in nanoseconds.
+     */
+    long getFlagFallsAt() {
+        return flagFallsAt;
+    }
+
+    /** Returns the time remaining at the given moment. With lazy timekeeping, it is derived from
+     * the moment the clock started running. Otherwise, this is the time remaining after the last
+     * update.
+     *
+     * @since 1.0;
+     * @param now The current moment, in nanoseconds.
+     * @return The time remaining, in nanoseconds. Never negative.
+     */
+    long getTimeRemaining(long now) {
+        if (running && timekeeping == Timekeeping.lazy) {
+            return Math.max(timeRemainingSince - (now - runningSince), 0);
+        }
+        return timeRemaining;
+    }
+
+    /** Returns the time remaining at the given moment, as {@link #getTimeRemaining(long)} does, but
+     * from the values the signal clock has published after its last change. May be called by any
+     * thread.
+     *
+     * @since 1.0;
+     * @param now The current moment, in nanoseconds.
+     * @return The time remaining, in nanoseconds. Never negative.
+     */
+    long getPublishedTimeRemaining(long now) {
+        while (true) {
+            int version = publication;
+            long since = publishedSince;
+            long remaining = publishedRemaining;
+            // the values must be read before the publication is checked again
+            VarHandle.loadLoadFence();
+            if ((version & 1) == 0 && version == publication) {
+                return since == NOT_RUNNING ? remaining : Math.max(remaining - (now - since), 0);
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /** Publishes the values the time remaining is derived from, for other threads. Called after
+     * each change of these values.
+     *
+     * @since 1.0;
+     */
+    private void publish() {
+        int version = publication;
+        publication = version + 1;
+        // the values must not be written before the publication is marked as underway
+        VarHandle.storeStoreFence();
+        if (running && timekeeping == Timekeeping.lazy) {
+            publishedSince = runningSince;
+            publishedRemaining = timeRemainingSince;
+        } else {
+            publishedSince = NOT_RUNNING;
+            publishedRemaining = timeRemaining;
+        }
+        publication = version + 2;
+    }
+
+    /** Progresses the clock as the kind of timekeeping demands.
+     *
+     * @since 1.0;
+     * @param dt Time elapsed since the last update, in nanoseconds. Used for per-tick timekeeping.
+     * @param now The current moment, in nanoseconds. Used for lazy timekeeping.
+     * @return Is time up?
+     */
+    boolean update(long dt, long now) {
+        if (timekeeping != Timekeeping.lazy) {
+            return update(dt);
+        }
+        // nothing visible changes and the flag cannot fall before the next lazy update
+        if (now < nextLazyUpdate) {
+            return false;
+        }
+        boolean timeHasRunOut = updateTo(now);
+        nextLazyUpdate = Math.min(now + nanosToNextDeadline(), flagFallsAt);
+        return timeHasRunOut;
+    }
+
+    /** Derives the remaining times at the given moment from the moment the clock started running.
+     *
+     * @since 1.0;
+     * @param now The current moment, in nanoseconds.
+     * @return Is time up?
+     */
+    boolean updateTo(long now) {
+        long elapsed = now - runningSince;
+        timeRemaining = timeRemainingSince - elapsed;
+        moveTimeRemaining = moveTimeRemainingSince - elapsed;
+        boolean timeHasRunOut = checkTimeRemaining();
+        publish();
+        return timeHasRunOut;
     }
 
     /** Progresses the clock by the given amount of time.
@@ -224,18 +541,32 @@ final class PlayerTimeControl {
      * @return Is time up?
      */
     boolean update(long dt) {
-        boolean timeHasRunOut = false;
-
         timeRemaining -= dt;
         moveTimeRemaining -= dt;
+        boolean timeHasRunOut = checkTimeRemaining();
+        publish();
+        return timeHasRunOut;
+    }
+
+    /** Checks whether the time is up and whether the short-on-time warning changes, and tells the
+     * display if so.
+     *
+     * @since 1.0;
+     * @return Is time up?
+     */
+    private boolean checkTimeRemaining() {
+        boolean timeHasRunOut = false;
+
         if (timeRemaining <= 0) {
             timeHasRunOut = true;
             timeRemaining = 0;
             display.setOutOfTime();
+            displayDirty = true;
         } else if (hasMoveTimeLimit && moveTimeRemaining <= 0) {
             moveTimeRemaining = 0;
             timeHasRunOut = true;
             display.setOutOfTime();
+            displayDirty = true;
         } else if (timeRemaining < warningThreshold) // check for change for usage of warning colour, notify time panel if so
         {
             if (timeRemaining / Constants.NANOSEC_PER_SEC % 2 == 1) {
@@ -251,10 +582,13 @@ final class PlayerTimeControl {
         return timeHasRunOut;
     }
 
-    /** Ends the current move by adding the increment and telling the display.
+    /** Ends the current move by adding the increment and telling the display. The time on the clock
+     * and the time the move has taken are recorded in the {@link #getMoveTimes() move times}.
      * @since 1.0;
      */
     void endMoveAndRepaint() {
+        // pauses do not count, as no time is taken from the budget while paused
+        long elapsed = moveStartRemaining - timeRemaining;
         timeRemaining += increment;
         // hmmm... long overflow, I would rather find a pot of gold at the end of the rainbow, but you never know ;)
         if (timeRemaining < 0) {
@@ -262,18 +596,68 @@ final class PlayerTimeControl {
         }
         moveTimeRemaining = moveTime;
         applyWarningColor(false);
-        if (nextPhaseAfterMove != ENDLESS_PHASE) {
-            if (move < nextPhaseAfterMove) // count moves within the current phase
-            {
-                move++;
-            } else {
-                // go to next phase and reset move counter
-                nextTCP();
-                move = 1;
-            }
+        // an endless phase is -1, which compares as the largest number when unsigned
+        if (Integer.compareUnsigned(move, nextPhaseAfterMove) < 0) // count moves within the current phase
+        {
+            move++;
+        } else {
+            // go to next phase and reset move counter
+            nextTCP();
+            move = 1;
         }
+        moveTimes.record(timeRemaining, elapsed);
+        moveStartRemaining = timeRemaining;
         updateTimePanel();
         setActiveAndRepaint(false);
+        publish();
+    }
+
+    /** Returns the time until the next point in time where something visible happens for this
+     * player: the displayed tenth of a second of either the time remaining or the time remaining for
+     * the move changes, or the short-on-time warning comes into play. As flag falls and changes of
+     * the warning colour happen at full tenths of a second, these are included.
+     *
+     * @since 1.0;
+     * @return Time until the next deadline, in nanoseconds.
+     */
+    long nanosToNextDeadline() {
+        long wait = nanosToNextTenth(timeRemaining);
+        if (hasMoveTimeLimit) {
+            wait = Math.min(wait, nanosToNextTenth(moveTimeRemaining));
+        }
+        if (timeRemaining >= warningThreshold) {
+            // warning starts once we are strictly below the threshold
+            wait = Math.min(wait, timeRemaining - warningThreshold + 1);
+        }
+        return wait;
+    }
+
+    /** Returns the time until the next point in time where something visible happens for this
+     * player, see {@link #nanosToNextDeadline()}. With lazy timekeeping while the clock is running,
+     * the remaining times are only derived at these points, so the deadline is the moment of the
+     * next lazy update.
+     *
+     * @since 1.0;
+     * @param now The current moment, in nanoseconds.
+     * @return Time until the next deadline, in nanoseconds.
+     */
+    long nanosToNextDeadline(long now) {
+        if (running && timekeeping == Timekeeping.lazy) {
+            return Math.max(nextLazyUpdate - now, 0);
+        }
+        return nanosToNextDeadline();
+    }
+
+    /** Returns the time until the given time, which is displayed ceiled to the tenth of a second,
+     * displays a different value.
+     *
+     * @since 1.0;
+     * @param time The time, in nanoseconds.
+     * @return Time until the next change in the display, in nanoseconds.
+     */
+    private static long nanosToNextTenth(long time) {
+        long wait = time % Constants.NANOSEC_PER_TENS_OF_SEC;
+        return wait > 0 ? wait : Constants.NANOSEC_PER_TENS_OF_SEC;
     }
 
     /** Tells the display that it shall either turn the warning on or off.
@@ -283,6 +667,7 @@ final class PlayerTimeControl {
     private void applyWarningColor(boolean apply) {
         useWarningColor = apply;
         display.useWarningColor(useWarningColor);
+        displayDirty = true;
     }
 
 }
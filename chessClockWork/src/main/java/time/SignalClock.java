@@ -44,6 +44,7 @@
  */
 package time;
 
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -52,20 +53,26 @@ import java.util.logging.Logger;
  * @author Dragonstb
  * @since 1.0;
  */
-final class SignalClock extends Thread {
+final class SignalClock extends Thread implements Ticker {
 
     private static final Logger LOG = Logger.getLogger(SignalClock.class.getName());
+    /** Time before a deadline where the clock stops parking and starts spinning when using the
+     * {@link TickPolicy#hybrid hybrid} tick policy, in nanoseconds. */
+    private static final long SPIN_WINDOW = 50000;
 
     /** The time control receiving the clock signals. */
     private final TimeControl timeControl;
-    /** The old time. */
-    private long oldTime;
-    /** The new time. */
+    /** The source of the current moment. */
+    private final TimeSource timeSource;
+    /** The time of the current tick. */
     private long newTime;
-    /** The time difference. */
-    private long diff;
     /** Do not continue until told so. */
-    private boolean holdOn;
+    private volatile boolean holdOn;
+    /** How the clock waits for the next tick. */
+    private volatile TickPolicy tickPolicy = TickPolicy.spin;
+    /** Set when something happened that the time control has to deal with immediately. Ends the
+     * waiting for the next deadline. */
+    private volatile boolean nudged;
 
     private static enum State {
         ready,
@@ -79,68 +86,120 @@ final class SignalClock extends Thread {
      *
      * @since 1.0;
      * @param timeControl Time control receiving the clock signals.
+     * @param timeSource The source of the current moment.
      */
-    SignalClock(TimeControl timeControl) {
+    SignalClock(TimeControl timeControl, TimeSource timeSource) {
         this.timeControl = timeControl;
+        this.timeSource = timeSource;
         holdOn = true;
     }
 
     @Override
     public void run() {
-        newTime = System.nanoTime();
+        // the time control is told only once about the clock stopping, not on each nudge while holding
+        boolean wasHolding = false;
         while (state == State.running) {
-            try {
-                if (holdOn) {
+            if (holdOn && !nudged) {
+                if (!wasHolding) {
                     timeControl.notifyStoppingClock();
-                    callToHold(); // wait here
-                    newTime = System.nanoTime();
+                    wasHolding = true;
                 }
-            } catch (InterruptedException e) {
-                break;
+                callToHold(); // wait here
+            }
+            newTime = timeSource.nanoTime();
+            nudged = false;
+            timeControl.update(newTime);
+            if (!holdOn) {
+                wasHolding = false;
+                awaitNextDeadline();
             }
-            oldTime = newTime;
-            newTime = System.nanoTime();
-            diff = newTime - oldTime;
-            timeControl.update(diff);
         }
 
         LOG.log(Level.INFO, "Signal clock has ended");
     }
 
+    /** Waits until the time control reaches its next deadline, as the {@link TickPolicy tick policy}
+     * demands. Returns early if the clock is nudged.
+     *
+     * @since 1.0;
+     */
+    private void awaitNextDeadline() {
+        TickPolicy policy = tickPolicy;
+        if (policy == TickPolicy.spin) {
+            return;
+        }
+
+        long deadline = newTime + timeControl.nanosToNextDeadline();
+        long parkUntil = policy == TickPolicy.hybrid ? deadline - SPIN_WINDOW : deadline;
+        long left = parkUntil - timeSource.nanoTime();
+        while (left > 0 && !nudged) {
+            LockSupport.parkNanos(this, left);
+            left = parkUntil - timeSource.nanoTime();
+        }
+        while (!nudged && timeSource.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /** Ends waiting for the next deadline, so that the time control gets updated right now.
+     *
+     * @since 1.0;
+     */
+    @Override
+    public void nudge() {
+        nudged = true;
+        LockSupport.unpark(this);
+    }
+
+    /** Sets how the clock waits for the next tick.
+     *
+     * @since 1.0;
+     * @param tickPolicy The tick policy. Ignored if {@code null}.
+     */
+    @Override
+    public void setTickPolicy(TickPolicy tickPolicy) {
+        if (tickPolicy != null) {
+            this.tickPolicy = tickPolicy;
+        }
+    }
+
     /** Causes the thread to come to an end by removing the {@code running} property.
      *
      * @since 1.0;
      */
-    void end() {
+    @Override
+    public void end() {
         state = State.ended;
+        nudge();
     }
 
-    /** Calls {@code wait()} on itself if {@code holdOn} is on.
+    /** Parks as long as {@code holdOn} is on, unless the clock is nudged or ended.
      *
      * @since 1.0;
-     * @throws InterruptedException From {@code wait()}.
      */
-    private synchronized void callToHold() throws InterruptedException {
-        while (holdOn) {
-            wait();
+    private void callToHold() {
+        while (holdOn && !nudged && state == State.running) {
+            LockSupport.park(this);
         }
     }
 
-    /** Removes the {@code holdOn} flag and calls {@code notifyAll()}.
+    /** Removes the {@code holdOn} flag.
      *
      * @since 1.0;
      */
-    synchronized void callAwakening() {
+    @Override
+    public void callAwakening() {
         holdOn = false;
-        notifyAll();
+        LockSupport.unpark(this);
     }
 
-    /** Sets the {@code holdOn} flag. When set, the thread holds and continues only once the flag
-     * becomes unset again.
+    /** Sets the {@code holdOn} flag. When set, the thread holds once the current tick is done and
+     * continues only once the flag becomes unset again, or when nudged.
      *
      * @since 1.0;
      */
-    void flagHoldOn() {
+    @Override
+    public void flagHoldOn() {
         holdOn = true;
     }
 
@@ -0,0 +1,176 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+/** The outcome of many games simulated by a {@link TimeControlSimulator time control simulator}.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public final class SimulationResult {
+
+    /** Number of games simulated. */
+    private long games;
+    /** Number of flag falls in each phase. */
+    private final long[] flagFalls;
+    /** Durations of the games, in nanoseconds. */
+    private final Histogram durations;
+    /** Numbers of the (full) moves in which a flag fell. */
+    private final Histogram flagMoves;
+
+    /** Generates an empty result.
+     *
+     * @since 1.0;
+     * @param phases Number of time control phases.
+     * @param durations Empty histogram for the durations of the games.
+     * @param flagMoves Empty histogram for the moves in which a flag fell.
+     */
+    SimulationResult(int phases, Histogram durations, Histogram flagMoves) {
+        flagFalls = new long[phases];
+        this.durations = durations;
+        this.flagMoves = flagMoves;
+    }
+
+    /** Records a game.
+     *
+     * @since 1.0;
+     * @param duration Duration of the game, in nanoseconds.
+     * @param flagPhase Index of the phase in which a flag fell, or -1 if no flag fell.
+     * @param flagMove Number of the move in which a flag fell. Ignored if no flag fell.
+     */
+    void recordGame(long duration, int flagPhase, int flagMove) {
+        games++;
+        durations.record(duration);
+        if (flagPhase >= 0) {
+            flagFalls[flagPhase]++;
+            flagMoves.record(flagMove);
+        }
+    }
+
+    /** Adds the games of another result to this one.
+     *
+     * @since 1.0;
+     * @param other The other result, for the same time control.
+     * @return This result.
+     */
+    SimulationResult merge(SimulationResult other) {
+        games += other.games;
+        for (int phase = 0; phase < flagFalls.length; phase++) {
+            flagFalls[phase] += other.flagFalls[phase];
+        }
+        durations.merge(other.durations);
+        flagMoves.merge(other.flagMoves);
+        return this;
+    }
+
+    /** Returns the number of games simulated.
+     *
+     * @since 1.0;
+     * @return The number of games.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /** Returns the number of time control phases.
+     *
+     * @since 1.0;
+     * @return The number of phases.
+     */
+    public int getPhaseCount() {
+        return flagFalls.length;
+    }
+
+    /** Returns how many games ended by a flag fall in the given phase.
+     *
+     * @since 1.0;
+     * @param phase Index of the phase, beginning at 0.
+     * @return The number of flag falls. 0 for unknown phases.
+     */
+    public long getFlagFalls(int phase) {
+        return phase >= 0 && phase < flagFalls.length ? flagFalls[phase] : 0;
+    }
+
+    /** Returns the probability that a game ends by a flag fall in the given phase.
+     *
+     * @since 1.0;
+     * @param phase Index of the phase, beginning at 0.
+     * @return The probability, between 0 and 1.
+     */
+    public double getFlagFallProbability(int phase) {
+        return games > 0 ? (double) getFlagFalls(phase) / games : 0;
+    }
+
+    /** Returns the probability that a game ends by a flag fall at all.
+     *
+     * @since 1.0;
+     * @return The probability, between 0 and 1.
+     */
+    public double getFlagFallProbability() {
+        long total = 0;
+        for (long falls : flagFalls) {
+            total += falls;
+        }
+        return games > 0 ? (double) total / games : 0;
+    }
+
+    /** Returns the durations of the games, including the games ending by a flag fall.
+     *
+     * @since 1.0;
+     * @return Histogram of the durations, in nanoseconds.
+     */
+    public Histogram getDurations() {
+        return durations;
+    }
+
+    /** Returns the (full) moves in which flags fell.
+     *
+     * @since 1.0;
+     * @return Histogram of the move numbers.
+     */
+    public Histogram getFlagMoves() {
+        return flagMoves;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+/** Gives timing signals to a {@link TimeControl time control}. This is either a
+ * {@link SignalClock signal clock} of its own or a board of a {@link BoardEngine board engine}.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+interface Ticker {
+
+    /** Starts giving timing signals. The ticker holds on until told otherwise.
+     *
+     * @since 1.0;
+     */
+    void start();
+
+    /** Ends giving timing signals forever.
+     *
+     * @since 1.0;
+     */
+    void end();
+
+    /** Causes the ticker to hold on until {@link #callAwakening()} is called. While holding on,
+     * the ticker still updates the time control when nudged, so that it can execute its commands.
+     * Only called by the time control while being updated.
+     *
+     * @since 1.0;
+     */
+    void flagHoldOn();
+
+    /** Causes a holding ticker to continue. Only called by the time control while being updated.
+     *
+     * @since 1.0;
+     */
+    void callAwakening();
+
+    /** Causes the time control to be updated right now rather than at its next deadline, even if
+     * the ticker holds on. May be called by any thread.
+     *
+     * @since 1.0;
+     */
+    void nudge();
+
+    /** Updates the time control right now on the calling thread, if the ticker has no thread of its
+     * own but is driven by whoever lets the time pass. Called by the time control when there is no
+     * room for another command.
+     *
+     * @since 1.0;
+     * @return {@code true} if the time control has been updated, so that the commands waiting have
+     * been executed. {@code false} if the ticker updates the time control on a thread of its own.
+     */
+    default boolean tickInline() {
+        return false;
+    }
+
+    /** Sets how the ticker waits for the next tick. Tickers which do not wait on their own may
+     * ignore this.
+     *
+     * @since 1.0;
+     * @param tickPolicy The tick policy. Ignored if {@code null}.
+     */
+    void setTickPolicy(TickPolicy tickPolicy);
+}
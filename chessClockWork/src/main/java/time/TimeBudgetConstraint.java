@@ -60,6 +60,8 @@ public final class TimeBudgetConstraint {
      * in nanoseconds. */
     private final long warningThreshold;
     private final boolean cumulativePhases;
+    /** The phases, compiled into a table. */
+    private final PhaseProgram program;
 
     /**
      * @param tcps List of time control phases.
@@ -75,6 +77,7 @@ public final class TimeBudgetConstraint {
         this.moveTimeLimit = moveTimeLimit;
         this.warningThreshold = warningThreshold;
         this.cumulativePhases = cumulativePhases;
+        program = PhaseProgram.compile(tcps, cumulativePhases);
     }
 
     /** Generates a new constraint.
@@ -107,6 +110,15 @@ public final class TimeBudgetConstraint {
         return tcps;
     }
 
+    /** Returns the phases, compiled into a table.
+     *
+     * @since 1.0;
+     * @return The phase program.
+     */
+    final PhaseProgram getProgram() {
+        return program;
+    }
+
     /** Returns the time limit for each move. Negative values indicate that there is no such limit.
      *
      * @since 1.0
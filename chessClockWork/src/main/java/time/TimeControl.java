@@ -45,6 +45,9 @@
 package time;
 
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import time.CommandRing.Kind;
 
 /** The time control which is the heart of this chess clock. To be fair, this class leaves all the
  * details of accounting to the {@link PlayerTimeControl PlayerTimeCOntrol}. But this class manages everything
@@ -58,6 +61,14 @@ public final class TimeControl {
      * division, must always be the number current (full) move, beginning at 1.
      */
     private static final byte INI_HALF_MOVE = 2;
+    /** Maximum number of commands waiting for the signal clock. */
+    private static final int COMMAND_CAPACITY = 64;
+    /** Longest time a command waits for room in a full ring of commands, in nanoseconds. */
+    static final long SUBMIT_TIMEOUT = Constants.NANOSEC_PER_SEC;
+    /** Numbers the boards, that is the time controls. */
+    private static final AtomicInteger NEXT_BOARD_ID = new AtomicInteger();
+    /** Marks that there has been no tick since the clock started or resumed. */
+    private static final long NO_TICK = Long.MIN_VALUE;
 
     private static final ClockDisplay NULL_CLOCK = new ClockDisplay() {
 
@@ -74,6 +85,9 @@ public final class TimeControl {
         }
     };
 
+    private static final FrameDisplay NULL_FRAME_DISPLAY = frame -> {
+    };
+
     static enum State {
         /** No game is running. */
         noneRunning,
@@ -89,15 +103,19 @@ public final class TimeControl {
     private State currentState = State.noneRunning;
     /** Is it the left player's turn at the moment? */
     private boolean leftAtTurn = true;
-    /** Is the active playe to be switched? */
-    private boolean switchActivePlayer = false;
+    /** Does the left player play with the white pieces in the current game? */
+    private volatile boolean leftIsWhite = true;
+    /** Commands waiting to be executed by the signal clock. */
+    private final CommandRing commands = new CommandRing(COMMAND_CAPACITY);
+    /** Moment up to which the time has been taken from the player at turn, in nanoseconds. */
+    private long chargedUntil;
     /** Time has ran out? */
     private boolean timeHasRanOut = false;
     /** Counts the current half move. It starts at {@code INI_HALF_MOVE} and is increased by one
      * whenever a turn is done. */
     private int halfMove = INI_HALF_MOVE;
     /** The actual clock that provides the timing signal. */
-    private final SignalClock signalClock;
+    private final Ticker signalClock;
     /** The time control for the left player. */
     private final PlayerTimeControl timeControlLeft;
     /** The time control for the right player. */
@@ -106,20 +124,56 @@ public final class TimeControl {
     private PlayerTimeControl currentPTC;
     /** The clock display that is responsible for displaying the times. */
     private final ClockDisplay clockDisplay;
+    /** The source of the current moment. */
+    private final TimeSource timeSource;
+    /** The frame display that receives the whole state of the clock at once. */
+    private volatile FrameDisplay frameDisplay = NULL_FRAME_DISPLAY;
+    /** The frame that is filled and shown whenever something visible has changed. */
+    private final ClockFrame frame = ClockFrame.makeNew().get();
+    /** Has something visible changed since the last frame? */
+    private boolean frameDirty;
+    /** The move number last sent to the clock display. */
+    private int shownMoveNumber = -1;
+    /** Moment the last command has been issued, in nanoseconds. */
+    private long lastCommandStamp;
+    /** Moment the last command has been taken up by the signal clock, in nanoseconds. */
+    private long lastCommandExecuted;
+    /** The moment of the current update, in nanoseconds. */
+    private long updateMoment;
+    /** Id of the board, that is of this time control. */
+    private final int boardId = NEXT_BOARD_ID.incrementAndGet();
+    /** Live metrics, which may be published as an MBean. */
+    private final ClockworkMetrics metrics = new ClockworkMetrics(boardId);
+    /** Moment of the last tick recorded for the flight recorder, in nanoseconds. */
+    private long lastTickEvent;
+    /** Moment of the previous tick, in nanoseconds, or {@link #NO_TICK} if the clock has not ticked
+     * since it started or resumed. */
+    private long previousTick = NO_TICK;
+    /** Receives the moment of each tick. {@code null} if nobody is interested. */
+    private volatile MomentRing tickRing;
+    /** Receives the state transitions of the game. {@code null} if the game is not journaled. */
+    private volatile GameJournal journal;
+    /** Moment of the last progress written into the journal, in nanoseconds. */
+    private long lastJournaled;
 
     /** Generates.
      *
      * @since 1.0;
      * @param clockPanel The clock display that is responsible for displaying the times.
+     * @param timeSource The source of the current moment.
+     * @param tickerFactory Creates the ticker that provides the timing signal for this time control.
      */
-    private TimeControl(ClockDisplay clockDisplay) {
+    private TimeControl(ClockDisplay clockDisplay, TimeSource timeSource, Function<TimeControl, Ticker> tickerFactory) {
         this.clockDisplay = clockDisplay != null ? clockDisplay : NULL_CLOCK;
+        this.timeSource = timeSource;
 
         timeControlLeft = new PlayerTimeControl();
+        timeControlLeft.identify(boardId, ClockFrame.LEFT);
         timeControlRight = new PlayerTimeControl();
+        timeControlRight.identify(boardId, ClockFrame.RIGHT);
         currentPTC = timeControlLeft;
 
-        signalClock = new SignalClock(this);
+        signalClock = tickerFactory.apply(this);
     }
 
     /** Creates a new instance.
@@ -128,7 +182,37 @@ public final class TimeControl {
      * @return An optional with the new instance.
      */
     public static Optional<TimeControl> makeNew(ClockDisplay clockDisplay) {
-        TimeControl control = new TimeControl(clockDisplay);
+        return makeNew(clockDisplay, TimeSource.SYSTEM);
+    }
+
+    /** Creates a new instance which runs on the given source of time. If this is a
+     * {@link VirtualTimeSource virtual time source}, the time control has no signal clock of its own,
+     * but is updated whenever the virtual time is advanced.
+     * @since 1.0;
+     * @param clockDisplay The clock display that is responsible for displaying the times.
+     * @param timeSource The source of the current moment. The system time is used if {@code null}.
+     * @return An optional with the new instance.
+     */
+    public static Optional<TimeControl> makeNew(ClockDisplay clockDisplay, TimeSource timeSource) {
+        TimeSource source = timeSource != null ? timeSource : TimeSource.SYSTEM;
+        Function<TimeControl, Ticker> tickerFactory = source instanceof VirtualTimeSource virtualSource
+                ? virtualSource::attach
+                : timeControl -> new SignalClock(timeControl, source);
+        return Optional.of(new TimeControl(clockDisplay, source, tickerFactory));
+    }
+
+    /** Creates a new instance which runs on the system time and receives its timing signals from a
+     * ticker of choice.
+     * @since 1.0;
+     * @param clockDisplay The clock display that is responsible for displaying the times.
+     * @param tickerFactory Creates the ticker that provides the timing signal for the new instance.
+     * @return An optional with the new instance. Empty if the factory is {@code null}.
+     */
+    static Optional<TimeControl> makeNew(ClockDisplay clockDisplay, Function<TimeControl, Ticker> tickerFactory) {
+        if (tickerFactory == null) {
+            return Optional.empty();
+        }
+        TimeControl control = new TimeControl(clockDisplay, TimeSource.SYSTEM, tickerFactory);
         return Optional.ofNullable(control);
     }
 
@@ -139,15 +223,27 @@ public final class TimeControl {
      * @param display The recipient for the data.
      */
     public void setPlayerTimeDisplay(int playerNo, PlayerTimeDisplay display) {
+        PlayerTimeDisplay metered = display != null ? new MeteredPlayerTimeDisplay(display, metrics) : null;
         switch (playerNo) {
             case 0 ->
-                timeControlLeft.setDisplay(display);
+                timeControlLeft.setDisplay(metered);
             case 1 ->
-                timeControlRight.setDisplay(display);
+                timeControlRight.setDisplay(metered);
         }
     }
 
-    /** Sets all data for a new game and tells all displays what they need to know now.
+    /** Sets the recipient of the whole state of the clock, which receives one {@link ClockFrame frame}
+     * whenever something visible changes. This works alongside the player time displays and the
+     * clock display.
+     * @since 1.0;
+     * @param display The recipient for the frames. No frames are sent if {@code null}.
+     */
+    public void setFrameDisplay(FrameDisplay display) {
+        frameDisplay = display != null ? display : NULL_FRAME_DISPLAY;
+    }
+
+    /** Sets all data for a new game and tells all displays what they need to know now. The new
+     * game is set up by the signal clock as soon as it has executed all commands issued before.
      *
      * @since 1.0;
      * @param dataLeft Left player's data.
@@ -161,28 +257,7 @@ public final class TimeControl {
         if (dataLeft == null || dataRight == null) {
             return;
         }
-
-        switchActivePlayer = timeHasRanOut = false;
-        halfMove = INI_HALF_MOVE;
-        clockDisplay.setPausedState(false);
-
-        leftAtTurn = leftIsWhite;
-        signalClock.flagHoldOn();
-
-        timeControlLeft.setupGameTiming(dataLeft);
-        timeControlRight.setupGameTiming(dataRight);
-        currentPTC = leftIsWhite ? timeControlLeft : timeControlRight;
-
-        if(timeRunsInFirstMove){
-            clockDisplay.setMoveNumber(-1);
-            currentState = State.noneRunning;
-        }
-        else{
-            clockDisplay.setMoveNumber( getMoveNumber() );
-            currentState = State.firstMove;
-            currentPTC.setActiveAndRepaint( true );
-        }
-
+        submit(Kind.setup, timeSource.nanoTime(), new GameSetup(dataLeft, dataRight, leftIsWhite, timeRunsInFirstMove));
     }
 
     /** Sets all data for a new game and tells all displays what they need to know now. During
@@ -204,22 +279,273 @@ public final class TimeControl {
      * @since 1.0;
      */
     public void notifyMoveDone() {
+        notifyMoveDone(timeSource.nanoTime());
+    }
+
+    /** Called when a move is done at the given moment.
+     *
+     * @since 1.0;
+     * @param stamp The moment the move has been done, in nanoseconds.
+     */
+    void notifyMoveDone(long stamp) {
+        submit(Kind.move, stamp, null);
+    }
+
+    /** Called when the pause status changes. Does nothing if the current state is
+     * {@code noneRunning}.
+     *
+     * @since 1.0;
+     */
+    public void notifyPauseChangeRequest() {
+        notifyPauseChangeRequest(timeSource.nanoTime());
+    }
+
+    /** Called when the pause status changes at the given moment.
+     *
+     * @since 1.0;
+     * @param stamp The moment the pause status has been changed, in nanoseconds.
+     */
+    void notifyPauseChangeRequest(long stamp) {
+        submit(Kind.pause, stamp, null);
+    }
+
+    /** Hands a command over to the signal clock and wakes it up. If there are too many commands
+     * waiting, a signal clock driven by a {@link VirtualTimeSource virtual time source} executes
+     * them right away on the calling thread. Any other signal clock is waited for until it has
+     * executed some of them, so that no command gets lost, but not longer than
+     * {@link #SUBMIT_TIMEOUT}.
+     *
+     * @since 1.0;
+     * @param kind The kind of the command.
+     * @param stamp The moment the command has been issued, in nanoseconds.
+     * @param payload Additional data of the command.
+     * @throws IllegalStateException If the signal clock does not make room for the command in
+     * time, as it is not running.
+     */
+    private void submit(Kind kind, long stamp, Object payload) {
+        if (kind == Kind.move) {
+            metrics.moveReceived();
+        }
+        long giveUpAt = 0;
+        while (!commands.offer(kind, stamp, payload)) {
+            if (signalClock.tickInline()) {
+                continue;
+            }
+            long now = System.nanoTime();
+            if (giveUpAt == 0) {
+                giveUpAt = now + SUBMIT_TIMEOUT;
+            } else if (now - giveUpAt > 0) {
+                throw new IllegalStateException("The signal clock has not executed any of the "
+                        + commands.getCapacity() + " commands waiting, is it running?");
+            }
+            signalClock.nudge();
+            Thread.yield();
+        }
+        signalClock.nudge();
+    }
+
+    /** The timing method. It executes all commands waiting, each at the moment it has been issued.
+     * Then, it takes the time up to {@code now} from the time budget of the current player. Must
+     * only be called by the signal clock.
+     *
+     * @since 1.0;
+     * @param now The current moment, in nanoseconds.
+     */
+    void update(long now) {
+        metrics.tick(now);
+        MomentRing ring = tickRing;
+        if (ring != null) {
+            ring.record(now);
+        }
+        // the time the clock has been holding on is no tick interval
+        boolean firstTick = previousTick == NO_TICK;
+        long interval = now - previousTick;
+        previousTick = now;
+        updateMoment = now;
+        commands.drain(this::execute);
+        if (currentState == State.running && !timeHasRanOut) {
+            chargeUntil(now);
+            if (currentPTC.refreshDisplay()) {
+                frameDirty = true;
+            }
+            if (!firstTick && now - lastTickEvent >= ClockTickEvent.SAMPLE_INTERVAL) {
+                lastTickEvent = now;
+                ClockTickEvent.emit(boardId, getPlayerAtTurn(), currentPTC.getTimeRemaining(now), interval);
+            }
+            if (now - lastJournaled >= GameJournal.PROGRESS_INTERVAL) {
+                journalProgress(now);
+            }
+        }
+        if (frameDirty) {
+            showFrame();
+        }
+    }
+
+    /** Fills the frame with the current state and sends it to the frame display.
+     *
+     * @since 1.0;
+     */
+    private void showFrame() {
+        boolean leftActive = timeControlLeft.fillFrame(frame, ClockFrame.LEFT,
+                timeHasRanOut && currentPTC == timeControlLeft);
+        boolean rightActive = timeControlRight.fillFrame(frame, ClockFrame.RIGHT,
+                timeHasRanOut && currentPTC == timeControlRight);
+        int activePlayer = leftActive ? ClockFrame.LEFT : rightActive ? ClockFrame.RIGHT : ClockFrame.NOBODY;
+        frame.setGame(activePlayer, shownMoveNumber, currentState == State.paused, lastCommandStamp,
+                lastCommandExecuted);
+        frameDirty = false;
+        FrameDisplay display = frameDisplay;
+        if (display != NULL_FRAME_DISPLAY) {
+            long start = System.nanoTime();
+            display.showFrame(frame);
+            metrics.frameShown(System.nanoTime() - start);
+        }
+    }
+
+    /** Executes a command at the moment it has been issued. Before, the time up to this moment is
+     * taken from the player at turn.
+     *
+     * @since 1.0;
+     * @param kind The kind of the command.
+     * @param stamp The moment the command has been issued, in nanoseconds.
+     * @param payload Additional data of the command.
+     */
+    private void execute(Kind kind, long stamp, Object payload) {
+        // a command may have been stamped just before the last update, but it cannot be executed before
+        long at = Math.max(stamp, chargedUntil);
+        if (currentState == State.running && !timeHasRanOut) {
+            chargeUntil(at);
+        }
+        lastCommandStamp = stamp;
+        // a command issued while this update was already underway is taken up at once
+        lastCommandExecuted = Math.max(updateMoment, stamp);
+        journal(kind, at, payload);
+        switch (kind) {
+            case move ->
+                executeMove(at);
+            case pause ->
+                executePauseChange(at);
+            case setup ->
+                executeSetup((GameSetup) payload);
+        }
+        frameDirty = true;
+    }
+
+    /** Writes a command into the journal, if there is one.
+     *
+     * @since 1.0;
+     * @param kind The kind of the command.
+     * @param at The moment the command is executed at, in nanoseconds.
+     * @param payload Additional data of the command.
+     */
+    private void journal(Kind kind, long at, Object payload) {
+        GameJournal journal = this.journal;
+        if (journal == null) {
+            return;
+        }
+        switch (kind) {
+            case move ->
+                journal.recordMove(at);
+            case pause ->
+                journal.recordPause(at);
+            case setup -> {
+                GameSetup setup = (GameSetup) payload;
+                journal.recordSetup(at, setup.dataLeft, setup.dataRight, setup.leftIsWhite,
+                        setup.timeRunsInFirstMove);
+            }
+        }
+    }
+
+    /** Writes the progress of the running time into the journal, if there is one.
+     *
+     * @since 1.0;
+     * @param now The moment the time has been taken up to, in nanoseconds.
+     */
+    private void journalProgress(long now) {
+        lastJournaled = now;
+        GameJournal journal = this.journal;
+        if (journal != null) {
+            journal.recordProgress(now);
+        }
+    }
+
+    /** Takes the time up to the given moment from the player at turn, and stops the clock if the
+     * time has run out.
+     *
+     * @since 1.0;
+     * @param until The moment, in nanoseconds.
+     */
+    private void chargeUntil(long until) {
+        if (until <= chargedUntil) {
+            return;
+        }
+        timeHasRanOut = currentPTC.update(until - chargedUntil, until);
+        chargedUntil = until;
+        if (timeHasRanOut) {
+            // the display shows the time left over until now, as no tick refreshes it after the flag has fallen
+            if (currentPTC.refreshDisplay()) {
+                frameDirty = true;
+            }
+            signalClock.flagHoldOn();
+            GameJournal journal = this.journal;
+            if (journal != null) {
+                journal.recordFlag(until);
+            }
+            FlagFellEvent.emit(boardId, getPlayerAtTurn(), getMoveNumber(), currentPTC.getCurrentPhase(),
+                    Math.max(until - currentPTC.getFlagFallsAt(), 0));
+        }
+    }
+
+    /** Starts the time running for the player at turn at the given moment.
+     *
+     * @since 1.0;
+     * @param at The moment, in nanoseconds.
+     */
+    private void startRunning(long at) {
+        currentPTC.startRunning(at);
+        chargedUntil = at;
+        currentState = State.running;
+        signalClock.callAwakening();
+    }
+
+    /** Executes a move.
+     *
+     * @since 1.0;
+     * @param at The moment of the move, in nanoseconds.
+     */
+    private void executeMove(long at) {
         switch (currentState) {
-            case running -> switchActivePlayer = !switchActivePlayer;
+            case running -> {
+                if (!timeHasRanOut) {
+                    currentPTC.stopRunning(at);
+                    MoveSwitchedEvent.emit(boardId, getPlayerAtTurn(), getMoveNumber(), currentPTC.getTimeRemaining(at),
+                            lastCommandExecuted - lastCommandStamp);
+                    leftAtTurn = !leftAtTurn;
+
+                    currentPTC.endMoveAndRepaint();
+                    currentPTC = leftAtTurn ? timeControlLeft : timeControlRight;
+                    currentPTC.setActiveAndRepaint(true);
+                    currentPTC.startRunning(at);
+
+                    halfMove++;
+                    showMoveNumber(getMoveNumber());
+                    metrics.moveApplied();
+                }
+            }
             case noneRunning -> {
                 // start game
                 currentPTC.setActiveAndRepaint(true);
-                clockDisplay.setMoveNumber( getMoveNumber() );
-                signalClock.callAwakening();
-                currentState = State.running;
+                showMoveNumber(getMoveNumber());
+                startRunning(at);
+                metrics.moveApplied();
             }
             case firstMove -> {
                 // hold back the clock during first move
                 updateFirstMove();
-                if(halfMove == INI_HALF_MOVE + 2){
+                metrics.moveApplied();
+                if (halfMove == INI_HALF_MOVE + 2) {
                     // we have arrived at second move now
-                    signalClock.callAwakening();
-                    currentState = State.running;
+                    startRunning(at);
                 }
             }
             default -> {
@@ -228,51 +554,71 @@ public final class TimeControl {
         }
     }
 
-    /** Called when the pause status changes. Does nothing if the current state is
-     * {@code noneRunning}.
+    /** Pauses a running game, or resumes a paused one. In case of State.noneRunning and
+     * State.firstMove, nothing happens, as the clock is not running anyway.
      *
      * @since 1.0;
+     * @param at The moment of the change, in nanoseconds.
      */
-    public void notifyPauseChangeRequest() {
-        if (currentState == State.running) {
+    private void executePauseChange(long at) {
+        if (currentState == State.running && !timeHasRanOut) {
             currentState = State.paused;
+            currentPTC.stopRunning(at);
             signalClock.flagHoldOn();
             clockDisplay.setPausedState(true);
+            metrics.paused();
+            PauseToggledEvent.emit(boardId, getPlayerAtTurn(), true, currentPTC.getTimeRemaining(at));
         } else if (currentState == State.paused) {
-            currentState = State.running;
             clockDisplay.setPausedState(false);
-            signalClock.callAwakening();
+            startRunning(at);
+            metrics.resumed();
+            PauseToggledEvent.emit(boardId, getPlayerAtTurn(), false, currentPTC.getTimeRemaining(at));
         }
-        // in case of State.firstMove, nothing happens, as clock is not running anyway
     }
 
-    /** The timing method. It removes {@code dt} nanoseconds from the time budget of the current
-     * player. Also, it changes the currently active player.
+    /** Sets all data for a new game and tells all displays what they need to know now.
      *
      * @since 1.0;
-     * @param dt Time to be taken away, in nanoseconds.
+     * @param setup The data of the game.
      */
-    void update(long dt) {
-        if (currentState == State.running) {
-            timeHasRanOut = currentPTC.update(dt);
-            if (timeHasRanOut) {
-                signalClock.flagHoldOn();
-            }
+    private void executeSetup(GameSetup setup) {
+        timeHasRanOut = false;
+        halfMove = INI_HALF_MOVE;
+        clockDisplay.setPausedState(false);
 
-            if (!switchActivePlayer || timeHasRanOut) {
-                currentPTC.updateTimePanelAndRepaint();
-            } else {
-                switchActivePlayer = false;
-                leftAtTurn = !leftAtTurn;
+        leftAtTurn = setup.leftIsWhite;
+        leftIsWhite = setup.leftIsWhite;
+        signalClock.flagHoldOn();
 
-                currentPTC.endMoveAndRepaint();
-                currentPTC = leftAtTurn ? timeControlLeft : timeControlRight;
-                currentPTC.setActiveAndRepaint(true);
+        timeControlLeft.setupGameTiming(setup.dataLeft);
+        timeControlRight.setupGameTiming(setup.dataRight);
+        currentPTC = leftAtTurn ? timeControlLeft : timeControlRight;
 
-                halfMove++;
-                clockDisplay.setMoveNumber(halfMove / 2);
-            }
+        if (setup.timeRunsInFirstMove) {
+            showMoveNumber(-1);
+            currentState = State.noneRunning;
+        } else {
+            showMoveNumber(getMoveNumber());
+            currentState = State.firstMove;
+            currentPTC.setActiveAndRepaint(true);
+        }
+    }
+
+    /** Returns the time until the next deadline of the running game. Deadlines are all points in
+     * time where something visible happens, like a change of the displayed tenth of a second, the
+     * short-on-time warning, or the flag falling. Waiting commands are due immediately.
+     *
+     * @since 1.0;
+     * @return Time until the next deadline, in nanoseconds. Never more than a tenth of a second.
+     */
+    long nanosToNextDeadline() {
+        if (!commands.isEmpty()) {
+            return 0;
+        }
+        if (currentState != State.running) {
+            return Constants.NANOSEC_PER_TENS_OF_SEC;
         }
+        return Math.min(currentPTC.nanosToNextDeadline(updateMoment), Constants.NANOSEC_PER_TENS_OF_SEC);
     }
 
     /** Updates the counters during the first move when the time is <i>not</i> running.
@@ -286,29 +632,220 @@ public final class TimeControl {
         currentPTC.setActiveAndRepaint(true);
 
         halfMove++;
-        clockDisplay.setMoveNumber( getMoveNumber() );
+        showMoveNumber(getMoveNumber());
     }
 
     /** Notify the clock display that the clock has been stopped.
      * @since 1.0;
      */
     void notifyStoppingClock() {
+        previousTick = NO_TICK;
+        metrics.clockStopped();
         clockDisplay.notifyStoppingClock();
     }
 
     /** Signals the clock that it shall come to an end. Note that this end is forever. So call this
-     * method only when you shut down and exit from the application.
+     * method only when you shut down and exit from the application. Also withdraws the
+     * {@link #publishMetrics() published metrics}.
      * @since 1.0;
      */
     public void endSignalClock() {
         signalClock.end();
+        metrics.unregister();
+        GameJournal journal = this.journal;
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /** Sets the journal that receives the state transitions of the games, from which a game can be
+     * {@link GameJournal#replay(java.nio.file.Path, TimeControl) rebuilt} after a crash. The journal
+     * is closed when the signal clock ends. Set the journal before the signal clock is started.
+     * @since 1.0;
+     * @param journal The journal. {@code null} for not journaling the games.
+     */
+    public void setJournal(GameJournal journal) {
+        this.journal = journal;
     }
 
-    /** Signals the clock that it shall wake up.
+    /** Replays the setup of a game from a journal. Only called while the signal clock is not
+     * running.
+     * @since 1.0;
+     * @param at The moment of the setup, in nanoseconds.
+     * @param dataLeft Left player's data.
+     * @param dataRight Right player's data.
+     * @param leftIsWhite Does the left player play with the white pieces?
+     * @param timeRunsInFirstMove Is the time ticking down also in the first move?
+     */
+    void replaySetup(long at, TimeBudgetConstraint dataLeft, TimeBudgetConstraint dataRight, boolean leftIsWhite,
+            boolean timeRunsInFirstMove) {
+        // the moments of the journal may lie before anything this time control has seen so far
+        chargedUntil = at;
+        lastJournaled = at;
+        execute(Kind.setup, at, new GameSetup(dataLeft, dataRight, leftIsWhite, timeRunsInFirstMove));
+    }
+
+    /** Replays a move from a journal. Only called while the signal clock is not running.
+     * @since 1.0;
+     * @param at The moment of the move, in nanoseconds.
+     */
+    void replayMove(long at) {
+        execute(Kind.move, at, null);
+    }
+
+    /** Replays a pause or a resumption from a journal. Only called while the signal clock is not
+     * running.
+     * @since 1.0;
+     * @param at The moment of the change, in nanoseconds.
+     */
+    void replayPause(long at) {
+        execute(Kind.pause, at, null);
+    }
+
+    /** Replays the progress of the running time from a journal, which may let the flag fall. Only
+     * called while the signal clock is not running.
+     * @since 1.0;
+     * @param at The moment the time has been running up to, in nanoseconds.
+     */
+    void replayProgress(long at) {
+        if (currentState == State.running && !timeHasRanOut) {
+            chargeUntil(at);
+            journalProgress(at);
+        }
+    }
+
+    /** Pauses the game replayed from a journal if its time is running, and lets the signal clock show
+     * the state of the game. Only called while the signal clock is not running.
+     * @since 1.0;
+     * @param at The moment of the last record replayed, in nanoseconds.
+     */
+    void holdReplayedGame(long at) {
+        if (currentState == State.running && !timeHasRanOut) {
+            execute(Kind.pause, at, null);
+        }
+        frameDirty = true;
+        signalClock.nudge();
+    }
+
+    /** Sets the ring that receives the moment of each tick, for watching the tick rate and the jitter
+     * live. Without a ring, nothing is recorded.
+     * @since 1.0;
+     * @param ring The ring. {@code null} to stop recording.
+     */
+    public void setTickRing(MomentRing ring) {
+        tickRing = ring;
+    }
+
+    /** Returns the id of the board, that is of this time control. The id tells the boards apart in
+     * the name of the {@link #publishMetrics() published metrics} and in the events of the Java
+     * Flight Recorder.
+     * @since 1.0;
+     * @return The id, beginning at 1.
+     */
+    public int getBoardId() {
+        return boardId;
+    }
+
+    /** Returns the live metrics of this time control, like the ticks per second or the moves
+     * received.
+     * @since 1.0;
+     * @return The metrics.
+     */
+    public ClockworkMetrics getMetrics() {
+        return metrics;
+    }
+
+    /** Publishes the {@link #getMetrics() metrics} as an MBean on the platform MBean server, under a
+     * name of its own, so that JMX clients can watch the clock. The metrics are withdrawn when the
+     * signal clock ends.
+     * @since 1.0;
+     * @return {@code true} if the metrics are published.
+     */
+    public boolean publishMetrics() {
+        return metrics.register();
+    }
+
+    /** Signals the clock that it shall wake up and execute all commands waiting.
      * @since 1.0;
      */
     public void wakeSignalClockUp() {
-        signalClock.callAwakening();
+        signalClock.nudge();
+    }
+
+    /** Sets how the remaining time of the players is kept track of. By default, the time elapsed
+     * is taken away in every tick of the signal clock, see {@link Timekeeping#perTick}. Call this
+     * method before a game is set up.
+     * @since 1.0;
+     * @param timekeeping The kind of timekeeping. Ignored if {@code null}.
+     */
+    public void setTimekeeping(Timekeeping timekeeping) {
+        timeControlLeft.setTimekeeping(timekeeping);
+        timeControlRight.setTimekeeping(timekeeping);
+    }
+
+    /** Returns the time remaining for a player right now. With lazy timekeeping, it is computed
+     * at the time of the query. May be called by any thread, as it reads the values the signal
+     * clock publishes after each change.
+     * @since 1.0;
+     * @param playerNo 0 for the left player, 1 for the right player.
+     * @return The time remaining, in nanoseconds. -1 if the player number is unknown.
+     */
+    public long getTimeRemaining(int playerNo) {
+        long now = timeSource.nanoTime();
+        return switch (playerNo) {
+            case 0 -> timeControlLeft.getPublishedTimeRemaining(now);
+            case 1 -> timeControlRight.getPublishedTimeRemaining(now);
+            default -> -1;
+        };
+    }
+
+    /** Returns the times of the moves a player has made in the current game: the time on the clock
+     * after each move and the time each move has taken. The times are recorded while the game goes
+     * on, and they are forgotten when the next game is set up. Copy them with
+     * {@link MoveTimes#copyTo(MoveTimes)} for keeping them.
+     * @since 1.0;
+     * @param playerNo 0 for the left player, 1 for the right player.
+     * @return Optional with the move times. Empty if the player number is unknown.
+     */
+    public Optional<MoveTimes> getMoveTimes(int playerNo) {
+        return switch (playerNo) {
+            case 0 -> Optional.of(timeControlLeft.getMoveTimes());
+            case 1 -> Optional.of(timeControlRight.getMoveTimes());
+            default -> Optional.empty();
+        };
+    }
+
+    /** Tells if the left player plays with the white pieces in the current game.
+     * @since 1.0;
+     * @return {@code true} if the left player plays with the white pieces.
+     */
+    public boolean isLeftWhite() {
+        return leftIsWhite;
+    }
+
+    /** Sets how the signal clock waits for its next tick while the game is running. By default, the
+     * signal clock does not wait at all, see {@link TickPolicy#spin}.
+     * @since 1.0;
+     * @param tickPolicy The tick policy. Ignored if {@code null}.
+     */
+    public void setTickPolicy(TickPolicy tickPolicy) {
+        signalClock.setTickPolicy(tickPolicy);
+    }
+
+    /** Returns the source of the current moment.
+     * @since 1.0;
+     * @return The time source.
+     */
+    public TimeSource getTimeSource() {
+        return timeSource;
+    }
+
+    /** Returns the ticker that provides the timing signal.
+     * @since 1.0;
+     * @return The ticker.
+     */
+    Ticker getSignalClock() {
+        return signalClock;
     }
 
     /** Signals the clock that is shall start. Needs to be called <i>exactly</i> once in the beginning
@@ -319,6 +856,23 @@ public final class TimeControl {
         signalClock.start();
     }
 
+    /** Sends a move number to the clock display and remembers it for the frames.
+     * @since 1.0;
+     * @param moveNumber The move number. Negative numbers indicate that no game is running yet.
+     */
+    private void showMoveNumber(int moveNumber) {
+        shownMoveNumber = moveNumber;
+        clockDisplay.setMoveNumber(moveNumber);
+    }
+
+    /** Returns the player at turn.
+     * @since 1.0;
+     * @return The index of the player, as in the {@link ClockFrame clock frame}.
+     */
+    private int getPlayerAtTurn() {
+        return leftAtTurn ? ClockFrame.LEFT : ClockFrame.RIGHT;
+    }
+
     /** Derives the number of the current move from the counter {@code halfMove}.
      * @since 1.0;
      * @return The number of the current move.
@@ -327,4 +881,37 @@ public final class TimeControl {
         return halfMove / 2;
     }
 
+    /** The data of a new game, as passed to the signal clock.
+     *
+     * @author Dragonstb
+     * @since 1.0;
+     */
+    private static final class GameSetup {
+
+        /** Left player's data. */
+        private final TimeBudgetConstraint dataLeft;
+        /** Right player's data. */
+        private final TimeBudgetConstraint dataRight;
+        /** Does the left player plays with the white pieces? */
+        private final boolean leftIsWhite;
+        /** Is the time ticking down also in the first move? */
+        private final boolean timeRunsInFirstMove;
+
+        /** Generates.
+         *
+         * @since 1.0;
+         * @param dataLeft Left player's data.
+         * @param dataRight Right player's data.
+         * @param leftIsWhite Does the left player plays with the white pieces?
+         * @param timeRunsInFirstMove Is the time ticking down also in the first move?
+         */
+        private GameSetup(TimeBudgetConstraint dataLeft, TimeBudgetConstraint dataRight, boolean leftIsWhite,
+                boolean timeRunsInFirstMove) {
+            this.dataLeft = dataLeft;
+            this.dataRight = dataRight;
+            this.leftIsWhite = leftIsWhite;
+            this.timeRunsInFirstMove = timeRunsInFirstMove;
+        }
+    }
+
 }
@@ -0,0 +1,220 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/** Plays many synthetic games under a {@link TimeBudgetConstraint time budget constraint} to find
+ * out how the constraint behaves: how likely the flag falls in each phase, and how long the games
+ * last. The games run through the phase logic of the real {@link PlayerTimeControl player time
+ * controls}, one move at a time, with the thinking times drawn from a
+ * {@link MoveTimeDistribution move time distribution}.
+ * <p>
+ * The games are split among the cores with fork/join. Each share of games owns its player time
+ * controls and histograms, so there is no allocation per simulated move. With the same seed, a
+ * simulation always yields the same result, regardless of the number of cores.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public final class TimeControlSimulator {
+
+    /** Games played by a single task at most. Fixed, so that the result does not depend on the
+     * number of cores. */
+    static final long GAMES_PER_TASK = 4096;
+    /** Bucket width of the histogram of the game durations, in nanoseconds. */
+    private static final long DURATION_BUCKET = 10 * Constants.NANOSEC_PER_SEC;
+    /** Number of buckets of the histogram of the game durations, covering twelve hours. */
+    private static final int DURATION_BUCKETS = 4320;
+    /** Number of buckets of the histogram of the moves in which a flag fell. */
+    private static final int FLAG_MOVE_BUCKETS = 512;
+
+    /** The constraint the games are played under. */
+    private final TimeBudgetConstraint tbc;
+    /** Draws the thinking time of each move. */
+    private final MoveTimeDistribution distribution;
+    /** Fewest number of (full) moves of a game that does not end by a flag fall. */
+    private int minMoves = 40;
+    /** Largest number of (full) moves of a game that does not end by a flag fall. */
+    private int maxMoves = 80;
+
+    private TimeControlSimulator(TimeBudgetConstraint tbc, MoveTimeDistribution distribution) {
+        this.tbc = tbc;
+        this.distribution = distribution;
+    }
+
+    /** Creates a new simulator.
+     *
+     * @since 1.0;
+     * @param tbc The constraint the games are played under.
+     * @param distribution Draws the thinking time of each move.
+     * @return Optional with the simulator. Empty if any argument is {@code null}.
+     */
+    public static Optional<TimeControlSimulator> makeNew(TimeBudgetConstraint tbc, MoveTimeDistribution distribution) {
+        if (tbc == null || distribution == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new TimeControlSimulator(tbc, distribution));
+    }
+
+    /** Sets how many (full) moves a game lasts if no flag falls. The length of each game is drawn
+     * uniformly from the given range. By default, games last between 40 and 80 moves.
+     *
+     * @since 1.0;
+     * @param minMoves Fewest number of moves.
+     * @param maxMoves Largest number of moves.
+     * @return {@code true} if the range has been taken, {@code false} if it is empty or contains
+     * less than one move.
+     */
+    public boolean setGameLength(int minMoves, int maxMoves) {
+        if (minMoves < 1 || maxMoves < minMoves) {
+            return false;
+        }
+        this.minMoves = minMoves;
+        this.maxMoves = maxMoves;
+        return true;
+    }
+
+    /** Simulates the given number of games in the common fork/join pool.
+     *
+     * @since 1.0;
+     * @param games Number of games. Negative values count as zero.
+     * @param seed Seed of the randomness.
+     * @return The outcome of the games.
+     */
+    public SimulationResult simulate(long games, long seed) {
+        return ForkJoinPool.commonPool().invoke(new SimulationTask(Math.max(games, 0), new SplittableRandom(seed)));
+    }
+
+    /** Creates an empty result for this simulator.
+     *
+     * @since 1.0;
+     * @return The result.
+     */
+    private SimulationResult makeResult() {
+        Histogram durations = Histogram.makeNew(DURATION_BUCKET, DURATION_BUCKETS).get();
+        Histogram flagMoves = Histogram.makeNew(1, FLAG_MOVE_BUCKETS).get();
+        return new SimulationResult(tbc.getTCPs().length, durations, flagMoves);
+    }
+
+    /** Plays a share of the games, or splits it into two halves.
+     *
+     * @since 1.0;
+     */
+    private final class SimulationTask extends RecursiveTask<SimulationResult> {
+
+        private static final long serialVersionUID = 1L;
+        /** Number of games to play. */
+        private final long games;
+        /** Source of randomness for this share of the games. */
+        private final SplittableRandom random;
+
+        SimulationTask(long games, SplittableRandom random) {
+            this.games = games;
+            this.random = random;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if (games <= GAMES_PER_TASK) {
+                return play();
+            }
+
+            long half = games / 2;
+            SimulationTask first = new SimulationTask(half, random.split());
+            SimulationTask second = new SimulationTask(games - half, random);
+            first.fork();
+            SimulationResult result = second.compute();
+            return result.merge(first.join());
+        }
+
+        /** Plays all games of this task.
+         *
+         * @since 1.0;
+         * @return The outcome of the games.
+         */
+        private SimulationResult play() {
+            SimulationResult result = makeResult();
+            PlayerTimeControl white = new PlayerTimeControl();
+            PlayerTimeControl black = new PlayerTimeControl();
+            long moveTimeLimit = tbc.getMoveTimeLimit();
+            int lengthRange = maxMoves - minMoves + 1;
+
+            for (long game = 0; game < games; game++) {
+                white.setupGameTiming(tbc);
+                black.setupGameTiming(tbc);
+                int length = minMoves + random.nextInt(lengthRange);
+                long duration = 0;
+                int flagPhase = -1;
+                int flagMove = 0;
+
+                for (int move = 1; move <= length && flagPhase < 0; move++) {
+                    for (int side = 0; side < 2; side++) {
+                        PlayerTimeControl ptc = side == 0 ? white : black;
+                        long timeRemaining = ptc.getTimeRemaining(0);
+                        long thinking = Math.max(distribution.sample(move, timeRemaining, random), 0);
+                        if (ptc.update(thinking)) {
+                            // the flag falls as soon as the first of the limits is reached
+                            long used = Math.min(thinking, timeRemaining);
+                            duration += moveTimeLimit > 0 ? Math.min(used, moveTimeLimit) : used;
+                            flagPhase = ptc.getCurrentPhase();
+                            flagMove = move;
+                            break;
+                        }
+                        duration += thinking;
+                        ptc.endMoveAndRepaint();
+                    }
+                }
+
+                result.recordGame(duration, flagPhase, flagMove);
+            }
+
+            return result;
+        }
+    }
+}
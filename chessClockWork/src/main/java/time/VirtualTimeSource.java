@@ -0,0 +1,264 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/** A time source whose time only passes when it is {@link #advance(long) advanced}. Time controls
+ * created with this source do not get a signal clock thread. Instead, they are updated by the
+ * advancing thread at each of their deadlines, so that whole games run as fast as the machine
+ * allows, and always with the same outcome.
+ * <p>
+ * Not thread safe: issuing commands to the time controls and advancing the time must happen in the
+ * same thread.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public final class VirtualTimeSource implements TimeSource {
+
+    /** The current moment, in nanoseconds. */
+    private long now;
+    /** Tickers of the time controls running on this source. */
+    private final List<ManualTicker> tickers = new ArrayList<>();
+
+    /** Generates.
+     *
+     * @since 1.0;
+     * @param start The moment the time starts at, in nanoseconds.
+     */
+    private VirtualTimeSource(long start) {
+        now = start;
+    }
+
+    /** Creates a new instance whose time starts at zero.
+     *
+     * @since 1.0;
+     * @return An optional with the new instance.
+     */
+    public static Optional<VirtualTimeSource> makeNew() {
+        return makeNew(0);
+    }
+
+    /** Creates a new instance.
+     *
+     * @since 1.0;
+     * @param start The moment the time starts at, in nanoseconds.
+     * @return An optional with the new instance.
+     */
+    public static Optional<VirtualTimeSource> makeNew(long start) {
+        return Optional.of(new VirtualTimeSource(start));
+    }
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    /** Lets the time pass. All time controls running on this source are updated at each of their
+     * deadlines on the way, and at the end.
+     *
+     * @since 1.0;
+     * @param nanos Time span, in nanoseconds. Negative values are treated as zero.
+     */
+    public void advance(long nanos) {
+        long target = now + Math.max(nanos, 0);
+        ManualTicker next = nextDue(target);
+        while (next != null) {
+            now = Math.max(now, next.dueAt());
+            next.tick();
+            next = nextDue(target);
+        }
+        now = target;
+        for (ManualTicker ticker : tickers) {
+            if (ticker.isRunning()) {
+                ticker.tick();
+            }
+        }
+    }
+
+    /** Lets the time pass until the given moment. See {@link #advance(long)}.
+     *
+     * @since 1.0;
+     * @param moment The moment, in nanoseconds. Moments in the past are treated as now.
+     */
+    public void advanceTo(long moment) {
+        advance(moment - now);
+    }
+
+    /** Finds the ticker with the earliest deadline not after the target.
+     *
+     * @since 1.0;
+     * @param target The latest moment of interest, in nanoseconds.
+     * @return The ticker, or {@code null} if no ticker is due until the target.
+     */
+    private ManualTicker nextDue(long target) {
+        ManualTicker next = null;
+        long earliest = target;
+        for (ManualTicker ticker : tickers) {
+            long dueAt = ticker.dueAt();
+            if (dueAt <= earliest) {
+                earliest = dueAt;
+                next = ticker;
+            }
+        }
+        return next;
+    }
+
+    /** Creates the ticker for a time control running on this source.
+     *
+     * @since 1.0;
+     * @param timeControl The time control.
+     * @return The ticker.
+     */
+    Ticker attach(TimeControl timeControl) {
+        ManualTicker ticker = new ManualTicker(timeControl);
+        tickers.add(ticker);
+        return ticker;
+    }
+
+    /** Updates a time control whenever the virtual time reaches one of its deadlines.
+     *
+     * @author Dragonstb
+     * @since 1.0;
+     */
+    private final class ManualTicker implements Ticker {
+
+        /** The time control receiving the timing signals. */
+        private final TimeControl timeControl;
+        /** Do not update until told so. */
+        private boolean holdOn = true;
+        /** Shall the time control be updated right now? */
+        private boolean nudged;
+        /** Moment of the next deadline of the time control, in nanoseconds. */
+        private long deadline;
+
+        /** Generates as holding on.
+         *
+         * @since 1.0;
+         * @param timeControl The time control receiving the timing signals.
+         */
+        private ManualTicker(TimeControl timeControl) {
+            this.timeControl = timeControl;
+        }
+
+        /** Returns the moment the time control has to be updated next.
+         *
+         * @since 1.0;
+         * @return The moment, in nanoseconds. {@link Long#MAX_VALUE} if it does not need any
+         * update.
+         */
+        private long dueAt() {
+            if (nudged) {
+                return now;
+            }
+            return holdOn ? Long.MAX_VALUE : deadline;
+        }
+
+        /** Tells if the time is running for the time control.
+         *
+         * @since 1.0;
+         * @return {@code true} if it does not hold on.
+         */
+        private boolean isRunning() {
+            return !holdOn;
+        }
+
+        /** Updates the time control at the current moment.
+         *
+         * @since 1.0;
+         */
+        private void tick() {
+            boolean wasHolding = holdOn;
+            nudged = false;
+            timeControl.update(now);
+            if (holdOn) {
+                if (!wasHolding) {
+                    timeControl.notifyStoppingClock();
+                }
+            } else {
+                deadline = now + timeControl.nanosToNextDeadline();
+            }
+        }
+
+        @Override
+        public void start() {
+            // the time only passes when advanced
+        }
+
+        @Override
+        public void end() {
+            tickers.remove(this);
+        }
+
+        @Override
+        public void flagHoldOn() {
+            holdOn = true;
+        }
+
+        @Override
+        public void callAwakening() {
+            holdOn = false;
+        }
+
+        @Override
+        public void nudge() {
+            nudged = true;
+        }
+
+        @Override
+        public boolean tickInline() {
+            tick();
+            return true;
+        }
+
+        @Override
+        public void setTickPolicy(TickPolicy tickPolicy) {
+            // the time only passes when advanced
+        }
+    }
+}
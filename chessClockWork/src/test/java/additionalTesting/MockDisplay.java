@@ -44,15 +44,18 @@
  */
 package additionalTesting;
 
+import time.ClockFrame;
+import time.FrameDisplay;
 import time.PlayerTimeDisplay;
 
-/** An implementation of the interface {@link PlayerTimeDisplay PlayerTimeDisplay} with the fields
- * that are modified by the interface methods being public.
+/** An implementation of the interfaces {@link PlayerTimeDisplay PlayerTimeDisplay} and
+ * {@link FrameDisplay FrameDisplay} with the fields that are modified by the interface methods being
+ * public. Frames set the fields for the player chosen by {@link #setFramePlayer(int)}.
  *
  * @author Dragonstb
  * @since 1.0;
  */
-public class MockDisplay implements PlayerTimeDisplay {
+public class MockDisplay implements PlayerTimeDisplay, FrameDisplay {
 
     public static enum HasMoveTimeLimit {
         notSet, yes, no
@@ -66,6 +69,12 @@ public class MockDisplay implements PlayerTimeDisplay {
     HasMoveTimeLimit hasMoveTimeLimit = HasMoveTimeLimit.notSet;
     boolean outOfTime = false;
     boolean displayUpToDate = false;
+    int framePlayer = ClockFrame.LEFT;
+    int frames = 0;
+    int moveNumber = -1;
+    boolean paused = false;
+    long inputStamp = 0;
+    long executionStamp = 0;
 
     @Override
     public void setClockTime(long time) {
@@ -139,4 +148,44 @@ public class MockDisplay implements PlayerTimeDisplay {
         this.displayUpToDate = displayUpToDate;
     }
 
+    @Override
+    public void showFrame(ClockFrame frame) {
+        frames++;
+        clockTime = frame.getClockTime(framePlayer);
+        moveTime = frame.getMoveTime(framePlayer);
+        withMoveTimeLimit = frame.hasMoveTimeLimit(framePlayer);
+        active = frame.getActivePlayer() == framePlayer;
+        useWarningColor = frame.isWarning(framePlayer);
+        outOfTime = frame.isOutOfTime(framePlayer);
+        moveNumber = frame.getMoveNumber();
+        paused = frame.isPaused();
+        inputStamp = frame.getInputStamp();
+        executionStamp = frame.getExecutionStamp();
+        displayUpToDate = true;
+    }
+
+    public final void setFramePlayer(int framePlayer) {
+        this.framePlayer = framePlayer;
+    }
+
+    public final int getFrames() {
+        return frames;
+    }
+
+    public final int getMoveNumber() {
+        return moveNumber;
+    }
+
+    public final boolean isPaused() {
+        return paused;
+    }
+
+    public final long getInputStamp() {
+        return inputStamp;
+    }
+
+    public final long getExecutionStamp() {
+        return executionStamp;
+    }
+
 }
@@ -0,0 +1,141 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import time.BoardEngine;
+import time.Constants;
+import time.TimeBudgetConstraint;
+import time.TimeControl;
+import time.TimeControlPhase;
+import time.Timekeeping;
+
+/** Measures the CPU time a {@link BoardEngine board engine} needs per board, for halls of
+ * different sizes. In all games, the clock is running, but nobody moves. This is not a unit test,
+ * but a program to be run on demand, e.g. via the gradle task {@code boardEngineBenchmark}.
+ * <p>
+ * Arguments, all optional: the numbers of boards to measure with, separated by commas, and the
+ * duration of each measurement in seconds.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public class BoardEngineBenchmark {
+
+    /** Default numbers of boards. */
+    private static final int[] DEFAULT_BOARDS = {10, 1000, 100000};
+    /** Default duration of a measurement, in seconds. */
+    private static final int DEFAULT_SECONDS = 10;
+    /** Duration of the warm up before each measurement, in seconds. */
+    private static final int WARM_UP_SECONDS = 2;
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] boards = DEFAULT_BOARDS;
+        int seconds = DEFAULT_SECONDS;
+        if (args.length > 0) {
+            String[] parts = args[0].split(",");
+            boards = new int[parts.length];
+            for (int index = 0; index < parts.length; index++) {
+                boards[index] = Integer.parseInt(parts[index].trim());
+            }
+        }
+        if (args.length > 1) {
+            seconds = Integer.parseInt(args[1]);
+        }
+
+        System.out.println("cores: " + Runtime.getRuntime().availableProcessors());
+        System.out.println("boards | cpu per board [us/s] | cpu total [% of a core]");
+        for (int count : boards) {
+            measure(count, seconds);
+        }
+    }
+
+    /** Runs a hall with the given number of boards and prints the CPU time consumed.
+     *
+     * @since 1.0;
+     * @param count Number of boards.
+     * @param seconds Duration of the measurement, in seconds.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private static void measure(int count, int seconds) throws InterruptedException {
+        BoardEngine engine = BoardEngine.makeNew().get();
+        TimeControlPhase tcp = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 5400, 30);
+        TimeBudgetConstraint tbc = TimeBudgetConstraint.makeNew(new TimeControlPhase[]{tcp}, -1, 60, false).get();
+
+        List<TimeControl> timeControls = new ArrayList<>(count);
+        for (int board = 0; board < count; board++) {
+            TimeControl timeControl = engine.register(null).get();
+            timeControl.setTimekeeping(Timekeeping.lazy);
+            timeControl.setupNewGameTiming(tbc, tbc, board % 2 == 0, true);
+            timeControl.notifyMoveDone();
+            timeControls.add(timeControl);
+        }
+
+        Thread.sleep(WARM_UP_SECONDS * 1000L);
+        long cpuBefore = cpuNanos();
+        long wallBefore = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        long cpu = cpuNanos() - cpuBefore;
+        long wall = System.nanoTime() - wallBefore;
+
+        timeControls.forEach(engine::unregister);
+        engine.shutdown();
+
+        double cpuPerSecond = (double) cpu / wall;
+        System.out.printf("%6d | %20.3f | %23.2f%n", count, cpuPerSecond / count * Constants.NANOSEC_PER_SEC / 1000,
+                100 * cpuPerSecond);
+    }
+
+    /** Returns the CPU time the process has consumed so far.
+     *
+     * @since 1.0;
+     * @return The CPU time, in nanoseconds.
+     */
+    private static long cpuNanos() {
+        return ProcessHandle.current().info().totalCpuDuration().map(Duration::toNanos).orElse(0L);
+    }
+}
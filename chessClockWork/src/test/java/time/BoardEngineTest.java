@@ -0,0 +1,208 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+
+import additionalTesting.MockClockDisplay;
+import additionalTesting.MockDisplay;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BoardEngineTest {
+
+    /** Number of threads of the engine. */
+    private static final int THREADS = 2;
+    /** Number of boards in the hall. */
+    private static final int BOARDS = 50;
+    /** Time the player has in the game, in seconds. */
+    private static final int GAME_TIME = 1;
+    /** How late the flag may fall at most, in nanoseconds. Generous, as the machine running the
+     * test may be busy with other things, and the whole hall is still warming up. */
+    private static final long TOLERANCE = 100000000;
+    /** How long we wait for the flags at most, in milliseconds. */
+    private static final long TIMEOUT = 5000;
+
+    private BoardEngine engine;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        engine = BoardEngine.makeNew(THREADS).get();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        engine.shutdown();
+        engine = null;
+    }
+
+    @Test
+    public void testMakeNew() {
+        assertTrue(BoardEngine.makeNew(0).isEmpty(), "Engine without threads created");
+        assertTrue(BoardEngine.makeNew(-3).isEmpty(), "Engine with negative number of threads created");
+    }
+
+    @Test
+    public void testRegisterAndUnregister() {
+        TimeControl tc1 = engine.register(new MockClockDisplay()).get();
+        TimeControl tc2 = engine.register(null).get();
+        assertEquals(2, engine.getBoardCount(), "Wrong number of boards");
+
+        assertTrue(engine.unregister(tc1), "Board not unregistered");
+        assertFalse(engine.unregister(tc1), "Board unregistered twice");
+        assertEquals(1, engine.getBoardCount(), "Wrong number of boards after unregistering");
+
+        tc2.endSignalClock();
+        assertEquals(0, engine.getBoardCount(), "Board still counted after its clock has ended");
+
+        TimeControl standalone = TimeControl.makeNew(null).get();
+        assertFalse(engine.unregister(standalone), "Time control with own signal clock unregistered");
+        assertFalse(engine.unregister(null), "Null unregistered");
+
+        engine.shutdown();
+        assertTrue(engine.register(null).isEmpty(), "Board registered after shutdown");
+    }
+
+    /** Runs a whole hall of boards where the left players never move. All flags have to fall in
+     * time.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testFlagsFall() {
+        TimeControlPhase tcp = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, GAME_TIME, 0);
+        TimeBudgetConstraint tbc = TimeBudgetConstraint
+                .makeNew(new TimeControlPhase[]{tcp}, -1, -1, false).get();
+
+        FlagDisplay[] flagDisplays = new FlagDisplay[BOARDS];
+        long[] starts = new long[BOARDS];
+        for (int board = 0; board < BOARDS; board++) {
+            TimeControl timeControl = engine.register(new MockClockDisplay()).get();
+            flagDisplays[board] = new FlagDisplay();
+            timeControl.setPlayerTimeDisplay(0, flagDisplays[board]);
+            timeControl.setTimekeeping(board % 2 == 0 ? Timekeeping.lazy : Timekeeping.perTick);
+            timeControl.setupNewGameTiming(tbc, tbc, true, true);
+            starts[board] = System.nanoTime();
+            timeControl.notifyMoveDone();
+        }
+
+        for (int board = 0; board < BOARDS; board++) {
+            FlagDisplay flagDisplay = flagDisplays[board];
+            try {
+                synchronized (flagDisplay) {
+                    long until = System.currentTimeMillis() + TIMEOUT;
+                    while (flagDisplay.flagFellAt == 0 && System.currentTimeMillis() < until) {
+                        flagDisplay.wait(TIMEOUT);
+                    }
+                }
+            } catch (InterruptedException e) {
+                fail("Interrupted while waiting for the flag");
+            }
+            if (flagDisplay.flagFellAt == 0) {
+                fail("Flag did not fall on board " + board);
+            }
+            long error = flagDisplay.flagFellAt - starts[board] - GAME_TIME * Constants.NANOSEC_PER_SEC;
+            assertTrue(error >= 0 && error < TOLERANCE, "Flag fell " + error + " ns late on board " + board);
+        }
+    }
+
+    /** After a move, the time is taken from the other player.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testMove() throws InterruptedException {
+        TimeControlPhase tcp = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 100, 0);
+        TimeBudgetConstraint tbc = TimeBudgetConstraint
+                .makeNew(new TimeControlPhase[]{tcp}, -1, -1, false).get();
+        long budget = tcp.getTime() * Constants.NANOSEC_PER_SEC;
+
+        TimeControl timeControl = engine.register(null).get();
+        timeControl.setTimekeeping(Timekeeping.lazy);
+        timeControl.setupNewGameTiming(tbc, tbc, true, true);
+        timeControl.notifyMoveDone();
+        Thread.sleep(20);
+        timeControl.notifyMoveDone();
+        Thread.sleep(20);
+
+        long remainingLeft = timeControl.getTimeRemaining(0);
+        assertTrue(remainingLeft < budget, "No time taken from the left player");
+        assertTrue(timeControl.getTimeRemaining(1) < budget, "No time taken from the right player");
+        Thread.sleep(20);
+        assertEquals(remainingLeft, timeControl.getTimeRemaining(0), "Time still taken from the left player");
+    }
+
+    /** Remembers the moment the flag falls.
+     *
+     * @since 1.0;
+     */
+    private static class FlagDisplay extends MockDisplay {
+
+        /** Moment of the flag fall, or 0 if the flag has not fallen yet. */
+        private long flagFellAt = 0;
+
+        @Override
+        public synchronized void setOutOfTime() {
+            super.setOutOfTime();
+            flagFellAt = System.nanoTime();
+            notifyAll();
+        }
+    }
+
+}
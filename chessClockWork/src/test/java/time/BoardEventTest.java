@@ -0,0 +1,199 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BoardEventTest {
+
+    /** Moment the game starts at, in nanoseconds. */
+    private static final long START = 1000;
+    /** Game time of each player, in seconds. */
+    private static final int GAME_TIME = 10;
+
+    private TimeControl timeControl;
+    private Path file;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        timeControl = TimeControl.makeNew(null).get();
+        file = Files.createTempFile("clockwork", ".jfr");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        timeControl.endSignalClock();
+        Files.deleteIfExists(file);
+    }
+
+    /** Plays a short game while recording, and checks that each kind of event has been recorded
+     * with the board and the side.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testEvents() throws Exception {
+        long second = Constants.NANOSEC_PER_SEC;
+        try (Recording recording = new Recording()) {
+            for (String name : new String[]{"time.ClockTick", "time.MoveSwitched", "time.PhaseAdvanced",
+                "time.FlagFell", "time.PauseToggled"}) {
+                recording.enable(name);
+            }
+            recording.start();
+
+            TimeControlPhase phase = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, GAME_TIME, 0);
+            TimeBudgetConstraint constraint = TimeBudgetConstraint
+                    .makeNew(new TimeControlPhase[]{phase}, -1, 0, false).get();
+            timeControl.setupNewGameTiming(constraint, constraint, true, true);
+            timeControl.update(START);
+            timeControl.notifyMoveDone(START);
+            timeControl.update(START);
+            timeControl.update(START + second);
+            timeControl.notifyMoveDone(START + 2 * second);
+            timeControl.update(START + 2 * second);
+            timeControl.notifyPauseChangeRequest(START + 3 * second);
+            timeControl.update(START + 3 * second);
+            timeControl.notifyPauseChangeRequest(START + 4 * second);
+            timeControl.update(START + 4 * second);
+            timeControl.update(START + (GAME_TIME + 5) * second);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (event.getEventType().getName().startsWith("time.")
+                    && event.getInt("board") == timeControl.getBoardId()) {
+                events.add(event);
+            }
+        }
+        assertEquals(2, count(events, "time.PhaseAdvanced"), "Wrong number of phase events");
+        assertEquals(1, count(events, "time.MoveSwitched"), "Wrong number of move events");
+        assertEquals(2, count(events, "time.PauseToggled"), "Wrong number of pause events");
+        assertEquals(1, count(events, "time.FlagFell"), "Wrong number of flag events");
+        assertTrue(count(events, "time.ClockTick") > 0, "No tick sampled");
+
+        RecordedEvent move = find(events, "time.MoveSwitched");
+        assertEquals("left", move.getString("side"), "Wrong side of the move");
+        assertEquals(GAME_TIME * second - 2 * second, move.getLong("remaining"), "Wrong time remaining at the move");
+        RecordedEvent flag = find(events, "time.FlagFell");
+        assertEquals("right", flag.getString("side"), "Wrong side of the flag");
+        assertEquals(2 * second, flag.getLong("detectionDelay"), "Wrong detection delay");
+    }
+
+    /** Pauses a game while the clock stops, and checks that the time the clock has been stopped is
+     * not sampled as a tick interval.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testTickIntervals() throws Exception {
+        long second = Constants.NANOSEC_PER_SEC;
+        long tick = ClockTickEvent.SAMPLE_INTERVAL;
+        try (Recording recording = new Recording()) {
+            recording.enable("time.ClockTick");
+            recording.start();
+
+            TimeControlPhase phase = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, GAME_TIME, 0);
+            TimeBudgetConstraint constraint = TimeBudgetConstraint
+                    .makeNew(new TimeControlPhase[]{phase}, -1, 0, false).get();
+            timeControl.setupNewGameTiming(constraint, constraint, true, true);
+            timeControl.notifyStoppingClock();
+            timeControl.notifyMoveDone(START);
+            timeControl.update(START);
+            timeControl.update(START + tick);
+            timeControl.notifyPauseChangeRequest(START + 2 * tick);
+            timeControl.update(START + 2 * tick);
+            timeControl.notifyStoppingClock();
+            timeControl.notifyPauseChangeRequest(START + 60 * second);
+            timeControl.update(START + 60 * second);
+            timeControl.update(START + 60 * second + tick);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        int ticks = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (event.getEventType().getName().equals("time.ClockTick")
+                    && event.getInt("board") == timeControl.getBoardId()) {
+                ticks++;
+                assertEquals(tick, event.getLong("interval"), "Wrong tick interval");
+            }
+        }
+        assertEquals(2, ticks, "Wrong number of ticks sampled");
+    }
+
+    private static long count(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).count();
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).findFirst().get();
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import additionalTesting.TestUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BoardStatePoolTest {
+
+    private static final long SEC = Constants.NANOSEC_PER_SEC;
+    private static final int CAPACITY = 3;
+
+    private BoardStatePool pool;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        pool = BoardStatePool.makeNew(CAPACITY).get();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+    }
+
+    private static TimeBudgetConstraint makeConstraint(boolean cumulative, long moveTimeLimit) {
+        TimeControlPhase[] tcps = new TimeControlPhase[]{
+            TimeControlPhase.makeNew((short) 2, 10, 1),
+            TimeControlPhase.makeNew((short) 3, 5, 2),
+            TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 20, 0)
+        };
+        return TimeBudgetConstraint.makeNew(tcps, moveTimeLimit, -1, cumulative).get();
+    }
+
+    @Test
+    public void testMakeNew() {
+        assertFalse(BoardStatePool.makeNew(0).isPresent(), "Pool without boards");
+        assertEquals(CAPACITY, pool.getCapacity(), "Wrong capacity");
+    }
+
+    @Test
+    public void testMemoryBudget() {
+        assertTrue(BoardStatePool.BYTES_PER_BOARD <= BoardStatePool.MEMORY_BUDGET_PER_BOARD, "Budget exceeded");
+        assertEquals((long) CAPACITY * BoardStatePool.BYTES_PER_BOARD, pool.getMemoryUsage(), "Wrong memory usage");
+    }
+
+    /** Boards with constraints of their own are allocated and released over and over again. The
+     * constraints are forgotten with the last board using them, so the tables of the constraints do
+     * not grow beyond the number of boards.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testDistinctConstraints() throws Exception {
+        int capacity = 1000;
+        BoardStatePool large = BoardStatePool.makeNew(capacity).get();
+        int[] boards = new int[capacity];
+        for (int round = 0; round < 20; round++) {
+            for (int index = 0; index < capacity; index++) {
+                boards[index] = large.allocate(makeConstraint(index % 2 == 0, -1));
+                assertTrue(boards[index] >= 0, "Board not allocated in round " + round);
+            }
+            assertEquals(capacity, large.getConstraintCount(), "Wrong number of constraints in round " + round);
+            assertEquals((long) capacity * (BoardStatePool.BYTES_PER_BOARD + BoardStatePool.BYTES_PER_CONSTRAINT),
+                    large.getMemoryUsage(), "Wrong memory usage in round " + round);
+            for (int index = 0; index < capacity; index++) {
+                assertTrue(large.release(boards[index]), "Board not released in round " + round);
+            }
+            assertEquals(0, large.getConstraintCount(), "Constraints kept in round " + round);
+        }
+        TimeBudgetConstraint[] constraints = (TimeBudgetConstraint[]) TestUtils
+                .getFieldAccessible(BoardStatePool.class, "constraints").get(large);
+        assertTrue(constraints.length < 2 * capacity, "Table of the constraints grown without bound");
+
+        // boards sharing a constraint share its entry, and a new game may change the constraint
+        TimeBudgetConstraint shared = makeConstraint(true, -1);
+        int first = large.allocate(shared);
+        int second = large.allocate(shared);
+        assertEquals(1, large.getConstraintCount(), "Shared constraint not shared");
+        assertTrue(large.setupGame(first, makeConstraint(false, 5 * SEC)), "New game not set up");
+        assertEquals(2, large.getConstraintCount(), "Constraint of the new game not added");
+        large.release(second);
+        assertEquals(1, large.getConstraintCount(), "Unused constraint kept");
+        large.release(first);
+        assertEquals(0, large.getConstraintCount(), "Constraint kept after releasing all boards");
+    }
+
+    @Test
+    public void testAllocate() {
+        TimeBudgetConstraint tbc = makeConstraint(true, -1);
+        assertEquals(-1, pool.allocate(null), "Allocated without constraint");
+        int[] boards = new int[CAPACITY];
+        for (int index = 0; index < CAPACITY; index++) {
+            boards[index] = pool.allocate(tbc);
+            assertTrue(pool.isInUse(boards[index]), "Board not in use");
+        }
+        assertEquals(CAPACITY, pool.getBoardCount(), "Wrong board count");
+        assertEquals(-1, pool.allocate(tbc), "Allocated beyond capacity");
+
+        assertTrue(pool.release(boards[1]), "Release failed");
+        assertFalse(pool.release(boards[1]), "Released twice");
+        assertFalse(pool.setupGame(boards[1], tbc), "Set up a board not in use");
+        assertEquals(boards[1], pool.allocate(tbc), "Released board not reused");
+    }
+
+    @Test
+    public void testSameAsPlayerTimeControl() {
+        for (boolean cumulative : new boolean[]{true, false}) {
+            TimeBudgetConstraint tbc = makeConstraint(cumulative, -1);
+            PlayerTimeControl[] ptcs = new PlayerTimeControl[]{new PlayerTimeControl(), new PlayerTimeControl()};
+            ptcs[0].setupGameTiming(tbc);
+            ptcs[1].setupGameTiming(tbc);
+            int board = pool.allocate(tbc);
+            pool.setRunning(board, true);
+
+            for (int halfMove = 0; halfMove < 20; halfMove++) {
+                int player = halfMove % 2;
+                long dt = (halfMove % 3 + 1) * SEC / 4;
+                assertEquals(player, pool.getPlayerInTurn(board), "Wrong player in turn");
+                assertEquals(ptcs[player].update(dt), pool.update(board, dt), "Different flag fall");
+                ptcs[player].endMoveAndRepaint();
+                assertTrue(pool.endMove(board), "Move not ended");
+                String where = "cumulative " + cumulative + ", half move " + halfMove;
+                assertEquals(ptcs[player].getTimeRemaining(0), pool.getTimeRemaining(board, player), "Different time remaining, " + where);
+                assertEquals(ptcs[player].getCurrentPhase(), pool.getCurrentPhase(board, player), "Different phase, " + where);
+            }
+            pool.release(board);
+        }
+    }
+
+    @Test
+    public void testUpdateAll() {
+        TimeBudgetConstraint tbc = makeConstraint(true, 3 * SEC);
+        int running = pool.allocate(tbc);
+        int stopped = pool.allocate(tbc);
+        pool.setRunning(running, true);
+
+        assertEquals(0, pool.updateAll(2 * SEC), "Flag fell too early");
+        assertEquals(8 * SEC, pool.getTimeRemaining(running, BoardStatePool.WHITE), "Wrong time remaining");
+        assertEquals(1 * SEC, pool.getMoveTimeRemaining(running, BoardStatePool.WHITE), "Wrong move time remaining");
+        assertEquals(10 * SEC, pool.getTimeRemaining(stopped, BoardStatePool.WHITE), "Stopped board charged");
+
+        // move time limit is reached
+        assertEquals(1, pool.updateAll(1 * SEC), "Flag did not fall");
+        assertTrue(pool.hasFlagFallen(running), "Flag not fallen");
+        assertFalse(pool.isRunning(running), "Board still running");
+        assertFalse(pool.endMove(running), "Move ended after flag fall");
+        pool.setRunning(running, true);
+        assertFalse(pool.isRunning(running), "Board restarted after flag fall");
+
+        assertTrue(pool.setupGame(running, tbc), "Setup failed");
+        assertFalse(pool.hasFlagFallen(running), "Flag still fallen after setup");
+        assertEquals(10 * SEC, pool.getTimeRemaining(running, BoardStatePool.WHITE), "Wrong time remaining after setup");
+    }
+}
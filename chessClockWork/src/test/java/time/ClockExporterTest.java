@@ -0,0 +1,227 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ClockExporterTest {
+
+    private static final long SECOND = Constants.NANOSEC_PER_SEC;
+
+    private MoveTimes white;
+    private MoveTimes black;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        white = MoveTimes.makeNew().get();
+        black = MoveTimes.makeNew().get();
+        white.record(5397 * SECOND + SECOND / 5, 2 * SECOND + 4 * SECOND / 5);
+        black.record(5399 * SECOND, SECOND);
+        white.record(3599 * SECOND, 1798 * SECOND);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+    }
+
+    @Test
+    public void testPgn() {
+        StringWriter out = new StringWriter();
+        ClockExporter exporter = ClockExporter.makeNew(out, ClockExporter.Format.pgn).get();
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", "Open \"A\"");
+        tags.put("Result", "1-0");
+
+        assertTrue(exporter.writeGame(tags, List.of("e4", "e5"), white, black), "Game not written");
+        String expected = """
+                [Event "Open \\"A\\""]
+                [Result "1-0"]
+
+                1. e4 {[%clk 1:29:58] [%emt 0:00:02]} e5 {[%clk 1:29:59] [%emt 0:00:01]} 2. --
+                {[%clk 0:59:59] [%emt 0:29:58]} 1-0
+
+                """;
+        assertEquals(expected, out.toString(), "Wrong PGN");
+
+        out.getBuffer().setLength(0);
+        assertTrue(exporter.writeGame(null, white, black), "Game without tags not written");
+        assertTrue(out.toString().contains("1. -- {[%clk 1:29:58]"), "Null move missing");
+        assertTrue(out.toString().endsWith(" *\n\n"), "Unknown result missing");
+        assertEquals(2, exporter.getGameCount(), "Wrong number of games");
+        assertFalse(exporter.writeGame(null, white, null), "Game without times written");
+        assertTrue(ClockExporter.makeNew(null, ClockExporter.Format.pgn).isEmpty(), "Exporter without writer");
+    }
+
+    @Test
+    public void testFlagFallen() {
+        StringWriter out = new StringWriter();
+        ClockExporter exporter = ClockExporter.makeNew(out, ClockExporter.Format.pgn).get();
+        // black moves three and a half seconds after the flag has fallen
+        black.record(-3 * SECOND - SECOND / 2, 3602 * SECOND);
+
+        assertTrue(exporter.writeGame(null, white, black), "Game not written");
+        assertTrue(out.toString().contains("-- {[%clk 0:00:00] [%emt 1:00:02]} *"),
+                "Wrong clock after the flag has fallen: " + out);
+        assertFalse(out.toString().contains("-0") || out.toString().contains(":-"), "Negative clock written");
+    }
+
+    @Test
+    public void testCsv() {
+        StringWriter out = new StringWriter();
+        ClockExporter exporter = ClockExporter.makeNew(out, ClockExporter.Format.csv).get();
+        exporter.writeGame(null, white, black);
+        exporter.writeGame(null, black, white);
+        String expected = """
+                game,move,side,clock,elapsed
+                1,1,white,5397.200,2.800
+                1,1,black,5399.000,1.000
+                1,2,white,3599.000,1798.000
+                2,1,white,5399.000,1.000
+                2,1,black,5397.200,2.800
+                """;
+        assertEquals(expected, out.toString(), "Wrong CSV");
+    }
+
+    @Test
+    public void testEvent() {
+        LineCounter out = new LineCounter();
+        ClockExporter exporter = ClockExporter.makeNew(out, ClockExporter.Format.csv).get();
+        for (int move = 0; move < 60; move++) {
+            white.record(SECOND * move, SECOND);
+            black.record(SECOND * move, SECOND);
+        }
+        int games = 5000;
+        for (int game = 0; game < games; game++) {
+            assertTrue(exporter.writeGame(null, white, black), "Game not written");
+        }
+        assertEquals(games, exporter.getGameCount(), "Wrong number of games");
+        assertEquals(1 + games * (white.getMoveCount() + black.getMoveCount()), out.lines, "Wrong number of lines");
+    }
+
+    @Test
+    public void testRecordedGame() {
+        VirtualTimeSource source = VirtualTimeSource.makeNew().get();
+        TimeControl timeControl = TimeControl.makeNew(null, source).get();
+        TimeControlPhase tcp = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 60, 2);
+        TimeBudgetConstraint tbc = TimeBudgetConstraint.makeNew(new TimeControlPhase[]{tcp}, -1, -1, false).get();
+        timeControl.setupNewGameTiming(tbc, tbc, false, true);
+        timeControl.notifyMoveDone(); // starts the clock of the right player, who plays white
+        source.advance(3 * SECOND);
+        timeControl.notifyMoveDone();
+        source.advance(5 * SECOND);
+        timeControl.notifyMoveDone();
+        source.advance(SECOND);
+        timeControl.notifyPauseChangeRequest();
+        source.advance(10 * SECOND);
+        timeControl.notifyPauseChangeRequest();
+        source.advance(SECOND);
+        timeControl.notifyMoveDone();
+        source.advance(0);
+
+        assertFalse(timeControl.isLeftWhite(), "Left player plays white");
+        MoveTimes whiteTimes = timeControl.getMoveTimes(1).get();
+        MoveTimes blackTimes = timeControl.getMoveTimes(0).get();
+        assertEquals(2, whiteTimes.getMoveCount(), "Wrong number of moves of white");
+        assertEquals(1, blackTimes.getMoveCount(), "Wrong number of moves of black");
+        assertEquals(59 * SECOND, whiteTimes.getClock(0), "Wrong clock of white's first move");
+        assertEquals(3 * SECOND, whiteTimes.getElapsed(0), "Wrong time of white's first move");
+        assertEquals(57 * SECOND, blackTimes.getClock(0), "Wrong clock of black's first move");
+        assertEquals(5 * SECOND, blackTimes.getElapsed(0), "Wrong time of black's first move");
+        assertEquals(59 * SECOND, whiteTimes.getClock(1), "Wrong clock of white's second move");
+        assertEquals(2 * SECOND, whiteTimes.getElapsed(1), "Pause counted as move time");
+        assertTrue(timeControl.getMoveTimes(2).isEmpty(), "Times of unknown player");
+
+        timeControl.setupNewGameTiming(tbc, tbc, true, true);
+        source.advance(0);
+        assertEquals(0, whiteTimes.getMoveCount(), "Moves kept for new game");
+    }
+
+    /** Counts the lines written, and forgets them.
+     *
+     * @author Dragonstb
+     * @since 1.0;
+     */
+    private static final class LineCounter extends Writer {
+
+        private long lines;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (cbuf[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ClockworkMetricsTest {
+
+    private static final long MILLI = 1000000;
+    /** Board id, which no time control gets. */
+    private static final int ID = -1;
+
+    private ClockworkMetrics metrics;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        metrics = new ClockworkMetrics(ID);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        metrics.unregister();
+    }
+
+    @Test
+    public void testTicks() {
+        for (int tick = 0; tick < 10; tick++) {
+            metrics.tick(tick * 10 * MILLI);
+        }
+        assertEquals(0, metrics.getTicks(), "Ticks published before a second has passed");
+
+        metrics.tick(ClockworkMetrics.PUBLISH_INTERVAL);
+        assertEquals(11, metrics.getTicks(), "Wrong number of ticks");
+        assertEquals(10, metrics.getTicksPerSecond(), 1e-9, "Wrong tick rate");
+        assertEquals(10 * MILLI, metrics.getTickIntervalMin(), "Wrong shortest interval");
+        assertEquals(10 * MILLI, metrics.getTickIntervalMedian(), 10 * MILLI / 100, "Wrong median interval");
+        assertEquals(910 * MILLI, metrics.getTickIntervalMax(), "Wrong longest interval");
+    }
+
+    @Test
+    public void testClockStopped() {
+        metrics.tick(0);
+        metrics.tick(MILLI);
+        metrics.clockStopped();
+        assertEquals(2, metrics.getTicks(), "Ticks not published when the clock stops");
+        assertEquals(0, metrics.getTicksPerSecond(), 0, "Tick rate while stopped");
+
+        metrics.tick(1000 * MILLI);
+        metrics.tick(1002 * MILLI);
+        metrics.clockStopped();
+        assertEquals(4, metrics.getTicks(), "Wrong number of ticks");
+        assertEquals(2 * MILLI, metrics.getTickIntervalMax(), "Time while stopped counted as interval");
+    }
+
+    @Test
+    public void testRegister() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertFalse(metrics.getObjectName().isPresent(), "Name before publishing");
+        assertTrue(metrics.register(), "Not published");
+        assertTrue(metrics.register(), "Not published when publishing again");
+        ObjectName name = new ObjectName(metrics.getObjectName().get());
+        assertTrue(server.isRegistered(name), "Not registered");
+
+        metrics.moveReceived();
+        assertEquals(1L, server.getAttribute(name, "MovesReceived"), "Wrong attribute");
+
+        ClockworkMetrics other = new ClockworkMetrics(ID - 1);
+        try {
+            assertTrue(other.register(), "Second board not published");
+            assertNotEquals(name, other.getObjectName().get(), "Same name for two boards");
+        } finally {
+            other.unregister();
+        }
+
+        metrics.unregister();
+        assertFalse(server.isRegistered(name), "Still registered");
+        assertFalse(metrics.getObjectName().isPresent(), "Name after withdrawing");
+    }
+}
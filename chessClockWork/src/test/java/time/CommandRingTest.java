@@ -0,0 +1,167 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import time.CommandRing.Kind;
+
+public class CommandRingTest {
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+    }
+
+    @Test
+    public void testCapacity() {
+        assertEquals(2, new CommandRing(1).getCapacity(), "Wrong capacity for 1");
+        assertEquals(64, new CommandRing(64).getCapacity(), "Wrong capacity for 64");
+        assertEquals(128, new CommandRing(65).getCapacity(), "Wrong capacity for 65");
+    }
+
+    /** Commands come out in the order they went in, and a full ring refuses further commands.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testOfferAndDrain() {
+        CommandRing ring = new CommandRing(4);
+        assertTrue(ring.isEmpty(), "New ring not empty");
+
+        Object payload = new Object();
+        assertTrue(ring.offer(Kind.move, 10, null), "Command refused");
+        assertTrue(ring.offer(Kind.pause, 20, null), "Command refused");
+        assertTrue(ring.offer(Kind.setup, 30, payload), "Command refused");
+        assertTrue(ring.offer(Kind.move, 40, null), "Command refused");
+        assertFalse(ring.offer(Kind.move, 50, null), "Command accepted by full ring");
+        assertFalse(ring.isEmpty(), "Full ring empty");
+
+        List<Kind> kinds = new ArrayList<>();
+        List<Long> stamps = new ArrayList<>();
+        List<Object> payloads = new ArrayList<>();
+        int count = ring.drain((kind, stamp, data) -> {
+            kinds.add(kind);
+            stamps.add(stamp);
+            payloads.add(data);
+        });
+
+        assertEquals(4, count, "Wrong number of commands drained");
+        assertEquals(List.of(Kind.move, Kind.pause, Kind.setup, Kind.move), kinds, "Wrong kinds");
+        assertEquals(List.of(10L, 20L, 30L, 40L), stamps, "Wrong stamps");
+        assertEquals(payload, payloads.get(2), "Wrong payload");
+        assertTrue(ring.isEmpty(), "Drained ring not empty");
+        assertTrue(ring.offer(Kind.pause, 60, null), "Command refused after draining");
+    }
+
+    /** Several producers offer commands while the consumer drains. No command gets lost, and the
+     * commands of each producer stay in order.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20000;
+        CommandRing ring = new CommandRing(64);
+
+        Thread[] threads = new Thread[producers];
+        for (int producer = 0; producer < producers; producer++) {
+            long id = producer;
+            threads[producer] = new Thread(() -> {
+                for (long command = 0; command < perProducer; command++) {
+                    // stamp encodes producer and running number
+                    while (!ring.offer(Kind.move, id * perProducer + command, null)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads[producer].start();
+        }
+
+        long[] expected = new long[producers];
+        int[] received = new int[1];
+        boolean[] ordered = {true};
+        while (received[0] < producers * perProducer) {
+            ring.drain((kind, stamp, payload) -> {
+                int producer = (int) (stamp / perProducer);
+                if (stamp % perProducer != expected[producer]) {
+                    ordered[0] = false;
+                }
+                expected[producer]++;
+                received[0]++;
+            });
+            Thread.yield();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(ordered[0], "Commands of a producer out of order");
+        assertEquals(producers * perProducer, received[0], "Commands lost");
+        assertTrue(ring.isEmpty(), "Ring not empty");
+    }
+
+}
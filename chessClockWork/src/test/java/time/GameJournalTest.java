@@ -0,0 +1,260 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import additionalTesting.MockClockDisplay;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Journals games on virtual time and rebuilds them from the journals, as after a crash.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public class GameJournalTest {
+
+    private static final long SECOND = Constants.NANOSEC_PER_SEC;
+    private static final long MINUTE = Constants.SEC_PER_MIN * SECOND;
+
+    /** Files of the journals of a test. */
+    private List<Path> files;
+    /** Journals of a test. */
+    private List<GameJournal> journals;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        files = new ArrayList<>();
+        journals = new ArrayList<>();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (GameJournal journal : journals) {
+            journal.close();
+        }
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testReplay() throws IOException {
+        VirtualTimeSource source = VirtualTimeSource.makeNew(12345).get();
+        MockClockDisplay display = new MockClockDisplay();
+        TimeControl original = TimeControl.makeNew(display, source).get();
+        GameJournal journal = makeJournal();
+        original.setJournal(journal);
+        play(original, source);
+        long left = original.getTimeRemaining(0);
+        long right = original.getTimeRemaining(1);
+        // the application dies without closing the journal
+
+        // the next run has a time of its own
+        VirtualTimeSource restarted = VirtualTimeSource.makeNew(-7 * MINUTE).get();
+        MockClockDisplay recoveredDisplay = new MockClockDisplay();
+        TimeControl recovered = TimeControl.makeNew(recoveredDisplay, restarted).get();
+        GameJournal secondJournal = makeJournal();
+        recovered.setJournal(secondJournal);
+        int replayed = GameJournal.replay(files.get(0), recovered);
+        restarted.advance(0);
+
+        assertEquals(journal.getRecordCount(), replayed, "Not all records replayed");
+        assertEquals(left, recovered.getTimeRemaining(0), "Wrong time left");
+        assertEquals(right, recovered.getTimeRemaining(1), "Wrong time right");
+        assertEquals(display.getMoveNumber(), recoveredDisplay.getMoveNumber(), "Wrong move number");
+        assertTrue(recoveredDisplay.isPaused(), "Recovered game not paused");
+
+        restarted.advance(MINUTE);
+        assertEquals(left, recovered.getTimeRemaining(0), "Time of paused game ran left");
+        assertEquals(right, recovered.getTimeRemaining(1), "Time of paused game ran right");
+
+        // the journal written while replaying rebuilds the game as well
+        TimeControl again = TimeControl.makeNew(null, VirtualTimeSource.makeNew().get()).get();
+        assertTrue(GameJournal.replay(files.get(1), again) > 0, "Journal of replay not replayed");
+        assertEquals(left, again.getTimeRemaining(0), "Wrong time left after second replay");
+        assertEquals(right, again.getTimeRemaining(1), "Wrong time right after second replay");
+    }
+
+    @Test
+    public void testReplayFlagFall() throws IOException {
+        VirtualTimeSource source = VirtualTimeSource.makeNew().get();
+        TimeControl original = TimeControl.makeNew(null, source).get();
+        original.setJournal(makeJournal());
+        TimeControlPhase tcp = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 60, 0);
+        TimeBudgetConstraint tbc = TimeBudgetConstraint.makeNew(new TimeControlPhase[]{tcp}, -1, 10, false).get();
+        original.setupNewGameTiming(tbc, tbc, true, true);
+        original.notifyMoveDone();
+        source.advance(2 * MINUTE);
+
+        TimeControl recovered = TimeControl.makeNew(null, VirtualTimeSource.makeNew(MINUTE).get()).get();
+        assertTrue(GameJournal.replay(files.get(0), recovered) > 0, "Nothing replayed");
+        assertEquals(original.getTimeRemaining(0), recovered.getTimeRemaining(0), "Wrong time left");
+        assertTrue(recovered.getTimeRemaining(0) <= 0, "Flag not fallen");
+        assertEquals(SECOND * 60, recovered.getTimeRemaining(1), "Wrong time right");
+    }
+
+    @Test
+    public void testClosedJournal() throws IOException {
+        VirtualTimeSource source = VirtualTimeSource.makeNew().get();
+        TimeControl original = TimeControl.makeNew(null, source).get();
+        GameJournal journal = makeJournal();
+        original.setJournal(journal);
+        play(original, source);
+        original.endSignalClock();
+        long records = journal.getRecordCount();
+        original.notifyMoveDone();
+        source.advance(SECOND);
+
+        MockClockDisplay display = new MockClockDisplay();
+        TimeControl recovered = TimeControl.makeNew(display, VirtualTimeSource.makeNew().get()).get();
+        assertEquals(0, GameJournal.replay(files.get(0), recovered), "Closed journal replayed");
+        assertEquals(-1, display.getMoveNumber(), "Game set up");
+        assertEquals(records, journal.getRecordCount(), "Recorded after closing");
+        assertEquals(0, GameJournal.replay(files.get(0).resolveSibling("missing.journal"), recovered),
+                "Missing journal replayed");
+    }
+
+    @Test
+    public void testClosedFullJournal() throws IOException {
+        VirtualTimeSource source = VirtualTimeSource.makeNew().get();
+        TimeControl original = TimeControl.makeNew(null, source).get();
+        Path file = Files.createTempFile("game", ".journal");
+        files.add(file);
+        // room for the setup and a few moves only
+        GameJournal journal = GameJournal.makeNew(file, 256).get();
+        journals.add(journal);
+        original.setJournal(journal);
+        play(original, source);
+        long records = journal.getRecordCount();
+        original.notifyMoveDone();
+        source.advance(SECOND);
+        assertEquals(records, journal.getRecordCount(), "Recorded into a full journal");
+
+        journal.close();
+        assertEquals(records + 1, journal.getRecordCount(), "Closing not recorded in a full journal");
+        TimeControl recovered = TimeControl.makeNew(null, VirtualTimeSource.makeNew().get()).get();
+        assertEquals(0, GameJournal.replay(file, recovered), "Closed full journal replayed");
+    }
+
+    @Test
+    public void testTornRecord() throws IOException {
+        VirtualTimeSource source = VirtualTimeSource.makeNew().get();
+        TimeControl original = TimeControl.makeNew(null, source).get();
+        GameJournal journal = makeJournal();
+        original.setJournal(journal);
+        play(original, source);
+
+        // a byte of the last record has not reached the disk
+        try (FileChannel channel = FileChannel.open(files.get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xA5}), journal.getSize() - 6);
+        }
+
+        TimeControl recovered = TimeControl.makeNew(null, VirtualTimeSource.makeNew().get()).get();
+        assertEquals(journal.getRecordCount() - 1, GameJournal.replay(files.get(0), recovered),
+                "Torn record not left out");
+    }
+
+    /** Creates a journal in a file of its own, which is deleted after the test.
+     *
+     * @since 1.0;
+     * @return The journal.
+     * @throws IOException If the file cannot be created.
+     */
+    private GameJournal makeJournal() throws IOException {
+        Path file = Files.createTempFile("game", ".journal");
+        files.add(file);
+        GameJournal journal = GameJournal.makeNew(file, 1 << 16).get();
+        journals.add(journal);
+        return journal;
+    }
+
+    /** Plays a game with two phases, increments, and a pause, and stops right after a move.
+     *
+     * @since 1.0;
+     * @param timeControl The time control.
+     * @param source The time source of the time control.
+     */
+    private void play(TimeControl timeControl, VirtualTimeSource source) {
+        TimeControlPhase first = TimeControlPhase.makeNew((short) 3, 60, 0);
+        TimeControlPhase second = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 5 * 60, 2);
+        TimeBudgetConstraint tbc = TimeBudgetConstraint.makeNew(new TimeControlPhase[]{first, second}, -1,
+                10 * SECOND, true).get();
+        timeControl.setupNewGameTiming(tbc, tbc, false, true);
+        source.advance(SECOND);
+        for (int move = 0; move < 12; move++) {
+            timeControl.notifyMoveDone();
+            source.advance(SECOND + move * 123456789L);
+            if (move == 5) {
+                timeControl.notifyPauseChangeRequest();
+                source.advance(MINUTE);
+                timeControl.notifyPauseChangeRequest();
+                source.advance(SECOND / 3);
+            }
+        }
+        timeControl.notifyMoveDone();
+        source.advance(0);
+    }
+}
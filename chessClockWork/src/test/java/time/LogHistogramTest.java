@@ -0,0 +1,144 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LogHistogramTest {
+
+    private LogHistogram histogram;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        histogram = LogHistogram.makeNew(7).get();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+    }
+
+    @Test
+    public void testMakeNew() {
+        assertFalse(LogHistogram.makeNew(0).isPresent(), "Histogram without significant bits");
+        assertFalse(LogHistogram.makeNew(LogHistogram.MAX_SIGNIFICANT_BITS + 1).isPresent(),
+                "Histogram with too many significant bits");
+    }
+
+    @Test
+    public void testSmallValuesExact() {
+        assertEquals(0, histogram.getPercentile(50), "Wrong percentile when empty");
+        for (int value = 0; value < 100; value++) {
+            histogram.record(value);
+        }
+        assertEquals(100, histogram.getCount(), "Wrong count");
+        assertEquals(49.5, histogram.getMean(), 1e-9, "Wrong mean");
+        assertEquals(0, histogram.getPercentile(0), "Wrong 0th percentile");
+        assertEquals(49, histogram.getPercentile(50), "Wrong median");
+        assertEquals(50, histogram.getPercentile(51), "Wrong 51st percentile");
+        assertEquals(99, histogram.getPercentile(100), "Wrong 100th percentile");
+    }
+
+    @Test
+    public void testRelativeError() {
+        long[] values = {128, 129, 1000, 123456, 7654321, 1_000_000_000L, 987_654_321_987L,
+            Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long value : values) {
+            histogram.clear();
+            histogram.record(value);
+            histogram.record(Long.MAX_VALUE);
+            long percentile = histogram.getPercentile(50);
+            assertTrue(percentile >= value, "Percentile below the value " + value);
+            assertTrue(percentile - value <= value >> 7, "Percentile too far above the value " + value);
+        }
+    }
+
+    @Test
+    public void testNegative() {
+        histogram.record(-5);
+        histogram.record(3);
+        assertEquals(-5, histogram.getMin(), "Wrong min");
+        assertEquals(0, histogram.getPercentile(50), "Negative value not in the first bucket");
+    }
+
+    @Test
+    public void testMerge() {
+        LogHistogram other = histogram.makeEmptyCopy();
+        histogram.record(5);
+        other.record(95_000);
+        assertTrue(histogram.merge(other), "Merge failed");
+        assertEquals(2, histogram.getCount(), "Wrong count after merge");
+        assertEquals(5, histogram.getMin(), "Wrong min after merge");
+        assertEquals(95_000, histogram.getMax(), "Wrong max after merge");
+        assertEquals(5, histogram.getPercentile(50), "Wrong median after merge");
+        assertEquals(95_000, histogram.getPercentile(100), "Wrong max percentile after merge");
+
+        assertFalse(histogram.merge(LogHistogram.makeNew(8).get()), "Merged other buckets");
+        assertEquals(2, histogram.getCount(), "Count changed by failed merge");
+    }
+
+    @Test
+    public void testClear() {
+        histogram.record(5);
+        histogram.clear();
+        assertEquals(0, histogram.getCount(), "Count not cleared");
+        assertEquals(0, histogram.getMean(), 0, "Mean not cleared");
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MomentRingTest {
+
+    private MomentRing ring;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        ring = MomentRing.makeNew(8).get();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+    }
+
+    @Test
+    public void testMakeNew() {
+        assertFalse(MomentRing.makeNew(0).isPresent(), "Ring without capacity");
+        assertFalse(MomentRing.makeNew(6).isPresent(), "Capacity not a power of two");
+        assertFalse(MomentRing.makeNew(MomentRing.MAX_CAPACITY * 2).isPresent(), "Capacity too large");
+        assertTrue(MomentRing.makeNew(1).isPresent(), "Ring of one moment refused");
+    }
+
+    @Test
+    public void testCopyLatest() {
+        long[] target = new long[16];
+        assertEquals(0, ring.copyLatest(target), "Moments copied from an empty ring");
+
+        for (long moment = 1; moment <= 5; moment++) {
+            ring.record(moment);
+        }
+        assertEquals(5, ring.copyLatest(target), "Wrong number of moments copied");
+        assertEquals(1, target[0], "Wrong oldest moment");
+        assertEquals(5, target[4], "Wrong newest moment");
+
+        for (long moment = 6; moment <= 20; moment++) {
+            ring.record(moment);
+        }
+        assertEquals(20, ring.getCount(), "Wrong count");
+        // the oldest slot of a full ring may be being overwritten
+        assertEquals(7, ring.copyLatest(target), "Wrong number of moments copied from a full ring");
+        assertEquals(14, target[0], "Wrong oldest moment of a full ring");
+        assertEquals(20, target[6], "Wrong newest moment of a full ring");
+
+        long[] small = new long[3];
+        assertEquals(3, ring.copyLatest(small), "More moments copied than fit");
+        assertEquals(18, small[0], "Not the latest moments copied");
+        assertEquals(20, small[2], "Wrong newest moment");
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        int moments = 200000;
+        Thread writer = new Thread(() -> {
+            for (long moment = 1; moment <= moments; moment++) {
+                ring.record(moment);
+            }
+        });
+        writer.start();
+        long[] target = new long[8];
+        while (writer.isAlive()) {
+            int copied = ring.copyLatest(target);
+            for (int i = 1; i < copied; i++) {
+                assertEquals(target[i - 1] + 1, target[i], "Moments copied not consecutive");
+            }
+        }
+        writer.join();
+    }
+}
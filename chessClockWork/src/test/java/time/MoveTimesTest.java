@@ -0,0 +1,112 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MoveTimesTest {
+
+    private MoveTimes times;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        times = MoveTimes.makeNew().get();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+    }
+
+    @Test
+    public void testRecord() {
+        assertEquals(0, times.getMoveCount(), "Moves in new instance");
+        for (int move = 0; move < 1000; move++) {
+            times.record(1000 - move, move);
+        }
+        assertEquals(1000, times.getMoveCount(), "Wrong number of moves");
+        assertEquals(1000, times.getClock(0), "Wrong first clock");
+        assertEquals(1, times.getClock(999), "Wrong last clock");
+        assertEquals(999, times.getElapsed(999), "Wrong last move time");
+        assertEquals(-1, times.getClock(1000), "Clock beyond last move");
+        assertEquals(-1, times.getElapsed(-1), "Move time before first move");
+
+        for (int move = 1000; move < MoveTimes.MAX_MOVES + 10; move++) {
+            times.record(move, move);
+        }
+        assertEquals(MoveTimes.MAX_MOVES, times.getMoveCount(), "Moves beyond the maximum recorded");
+
+        times.clear();
+        assertEquals(0, times.getMoveCount(), "Moves not forgotten");
+        assertEquals(-1, times.getClock(0), "Clock of forgotten move");
+    }
+
+    @Test
+    public void testCopyTo() {
+        MoveTimes copy = MoveTimes.makeNew().get();
+        copy.record(7, 7);
+        for (int move = 0; move < 300; move++) {
+            times.record(move, 2 * move);
+        }
+        times.copyTo(copy);
+        times.record(300, 600);
+        assertEquals(300, copy.getMoveCount(), "Wrong number of moves copied");
+        assertEquals(299, copy.getClock(299), "Wrong clock copied");
+        assertEquals(598, copy.getElapsed(299), "Wrong move time copied");
+        assertEquals(-1, copy.getClock(300), "Move recorded after copying copied");
+    }
+}
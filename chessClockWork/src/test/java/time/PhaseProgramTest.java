@@ -0,0 +1,118 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PhaseProgramTest {
+
+    private static final long SEC = Constants.NANOSEC_PER_SEC;
+
+    private TimeControlPhase[] tcps;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        tcps = new TimeControlPhase[]{TimeControlPhase.makeNew((short) 40, 7200, 30),
+            TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 1800, 10),
+            TimeControlPhase.makeNew((short) 20, 600, 5)};
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+    }
+
+    @Test
+    public void testCompile() {
+        PhaseProgram program = PhaseProgram.compile(tcps, true);
+        assertEquals(3, program.getLength(), "Wrong length");
+        assertEquals(40, program.getMoves(0), "Wrong moves of phase 0");
+        assertEquals(7200 * SEC, program.getNanosAdded(0), "Wrong time of phase 0");
+        assertEquals(30 * SEC, program.getIncrement(0), "Wrong increment of phase 0");
+        assertEquals(1, program.getNext(0), "Wrong entry after phase 0");
+        // the remainder of the game never ends, so that the phase after it is never reached
+        assertEquals(PhaseProgram.ENDLESS, program.getMoves(1), "Remainder phase not endless");
+        assertEquals(PhaseProgram.ENDLESS, program.getNext(1), "Remainder phase followed by another phase");
+        assertEquals(PhaseProgram.ENDLESS, program.getMoves(2), "Last phase not endless");
+        assertEquals(PhaseProgram.ENDLESS, program.getNext(2), "Last phase followed by another phase");
+    }
+
+    @Test
+    public void testEnter() {
+        assertEquals((1800 + 5) * SEC, PhaseProgram.compile(tcps, true).enter(1, 5 * SEC), "Time not carried");
+        assertEquals(1800 * SEC, PhaseProgram.compile(tcps, false).enter(1, 5 * SEC), "Time not dropped");
+    }
+
+    @Test
+    public void testMakeNew() {
+        long[] times = new long[]{SEC, SEC};
+        boolean[] carry = new boolean[]{true, true};
+        assertTrue(PhaseProgram.makeNew(new int[]{1, PhaseProgram.ENDLESS}, times, times, carry, new int[]{1, 1})
+                .isPresent(), "Valid program rejected");
+        assertFalse(PhaseProgram.makeNew(new int[]{1, 1}, times, times, carry, null).isPresent(),
+                "Program without following entries");
+        assertFalse(PhaseProgram.makeNew(new int[]{1}, times, times, carry, new int[]{0, 0}).isPresent(),
+                "Program with columns of different length");
+        assertFalse(PhaseProgram.makeNew(new int[]{0, 1}, times, times, carry, new int[]{1, 1}).isPresent(),
+                "Program with a phase without moves");
+        assertFalse(PhaseProgram.makeNew(new int[]{1, 1}, times, times, carry, new int[]{1, 2}).isPresent(),
+                "Program with a missing following entry");
+    }
+}
@@ -54,9 +54,9 @@ import additionalTesting.MockDisplay.HasMoveTimeLimit;
 import additionalTesting.TestUtils;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
-import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import org.junit.jupiter.api.BeforeAll;
@@ -75,11 +75,10 @@ public class PlayerTimeControlTest {
     private Field fieldCurrentPhase;
     private Field fieldMoveTime;
     private Field fieldHasMoveTimeLimit;
-    private Field fieldAdditive;
     private Field fieldWarningThreshold;
     private Field fieldUseWarningColor;
     private Field fieldMove;
-    private Field fieldTCPs;
+    private Field fieldProgram;
     private Method methodNextTCP;
     private Method methodClearForNewMatch;
 
@@ -90,11 +89,10 @@ public class PlayerTimeControlTest {
     private int currentPhase;
     private long moveTime;
     private boolean hasMoveTimeLimit;
-    private boolean additive;
     private long warningThreshold;
     private boolean useWarningColor;
     private int move;
-    private TimeControlPhase[] tcps;
+    private PhaseProgram program;
 
     private String fail = null;
 
@@ -107,11 +105,10 @@ public class PlayerTimeControlTest {
             fieldCurrentPhase = TestUtils.getFieldAccessible(PlayerTimeControl.class, "currentPhase");
             fieldMoveTime = TestUtils.getFieldAccessible(PlayerTimeControl.class, "moveTime");
             fieldHasMoveTimeLimit = TestUtils.getFieldAccessible(PlayerTimeControl.class, "hasMoveTimeLimit");
-            fieldAdditive = TestUtils.getFieldAccessible(PlayerTimeControl.class, "additive");
             fieldWarningThreshold = TestUtils.getFieldAccessible(PlayerTimeControl.class, "warningThreshold");
             fieldUseWarningColor = TestUtils.getFieldAccessible(PlayerTimeControl.class, "useWarningColor");
             fieldMove = TestUtils.getFieldAccessible(PlayerTimeControl.class, "move");
-            fieldTCPs = TestUtils.getFieldAccessible(PlayerTimeControl.class, "tcps");
+            fieldProgram = TestUtils.getFieldAccessible(PlayerTimeControl.class, "program");
 
             methodNextTCP = TestUtils.getDeclaredMethodAccessible(PlayerTimeControl.class, "nextTCP");
             methodClearForNewMatch = TestUtils.getDeclaredMethodAccessible(PlayerTimeControl.class, "clearForNewGame",
@@ -149,10 +146,6 @@ public class PlayerTimeControlTest {
         hasMoveTimeLimit = fieldHasMoveTimeLimit.getBoolean(ptc);
     }
 
-    private void readAdditive() throws IllegalArgumentException, IllegalAccessException {
-        additive = fieldAdditive.getBoolean(ptc);
-    }
-
     private void readUseWarningColor() throws IllegalArgumentException, IllegalAccessException {
         useWarningColor = fieldUseWarningColor.getBoolean(ptc);
     }
@@ -165,8 +158,8 @@ public class PlayerTimeControlTest {
         move = fieldMove.getInt(ptc);
     }
 
-    private void readTCPs() throws IllegalArgumentException, IllegalAccessException {
-        tcps = (TimeControlPhase[]) fieldTCPs.get(ptc);
+    private void readProgram() throws IllegalArgumentException, IllegalAccessException {
+        program = (PhaseProgram) fieldProgram.get(ptc);
     }
 
     @BeforeAll
@@ -268,11 +261,10 @@ public class PlayerTimeControlTest {
             readNextPhaseAfterMove();
             readMoveTime();
             readHasMoveTimeLimit();
-            readAdditive();
             readWarningThreshold();
             readUseWarningColor();
             readMove();
-            readTCPs();
+            readProgram();
             readCurrentPhase();
         } catch (Exception e) {
             fail("Failed to access fields - " + e.getMessage());
@@ -280,10 +272,9 @@ public class PlayerTimeControlTest {
         }
 
         assertEquals(0, timeRemaining, "Not the right time remaining");
-        assertArrayEquals(tcps, this.tcps, "Not the right TCPs");
+        assertSame(tbc.getProgram(), program, "Not the right phase program");
         assertEquals(moveTimeLimit, moveTime, "Not the right move time");
         assertEquals(moveTimeLimit > 0, hasMoveTimeLimit, "Not the right move time limit flag");
-        assertEquals(cumulativePhases, additive, "Not the right cumulation flag");
         assertEquals(warningThreshold, this.warningThreshold, "Not the right warning threshold");
         assertEquals(0, nextPhaseAfterMove, "Not the right phase-change move");
         assertFalse(useWarningColor, "Not the right warning flag");
@@ -309,21 +300,19 @@ public class PlayerTimeControlTest {
             readNextPhaseAfterMove();
             readMoveTime();
             readHasMoveTimeLimit();
-            readAdditive();
             readWarningThreshold();
             readUseWarningColor();
             readMove();
-            readTCPs();
+            readProgram();
         } catch (Exception e) {
             fail("Failed to access fields 2");
             return;
         }
 
         assertEquals(0, timeRemaining, "Not the right time remaining");
-        assertArrayEquals(tcps, this.tcps, "Not the right TCPs");
+        assertSame(tbc.getProgram(), program, "Not the right phase program");
         assertEquals(moveTimeLimit, moveTime, "Not the right move time");
         assertEquals(moveTimeLimit > 0, hasMoveTimeLimit, "Not the right move time limit flag");
-        assertEquals(cumulativePhases, additive, "Not the right cumulation flag");
         assertEquals(warningThreshold, this.warningThreshold, "Not the right warning threshold");
         assertEquals(0, nextPhaseAfterMove, "Not the right phase-change move");
         assertFalse(useWarningColor, "Not the right warning flag");
@@ -695,6 +684,279 @@ public class PlayerTimeControlTest {
                 "Clock-time remaining not correctly updated");
     }
 
+    /** Test for lazy timekeeping when running out of clock-time.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testUpdateTo1() {
+        if (fail != null) {
+            fail(fail);
+            return;
+        }
+
+        TimeControlPhase[] tcps = new TimeControlPhase[]{TimeControlPhase.makeNew((short) 40, 1, 30),
+            TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 1800, 10)};
+        long moveTimeLimit = 360 * Constants.NANOSEC_PER_SEC;
+        long warningThreshold = 2002;
+        boolean cumulativePhases = false;
+
+        TimeBudgetConstraint tbc = TimeBudgetConstraint.makeNew(tcps, moveTimeLimit, warningThreshold, cumulativePhases)
+                .get();
+        ptc.setTimekeeping(Timekeeping.lazy);
+        ptc.setupGameTiming(tbc);
+
+        long start = 1000;
+        ptc.startRunning(start);
+        assertEquals(start + Constants.NANOSEC_PER_SEC, ptc.getFlagFallsAt(), "Wrong moment of flag fall");
+
+        boolean outOfTime = ptc.update(1, ptc.getFlagFallsAt() - 1);
+        assertFalse(outOfTime, "Out of time before the flag falls");
+        assertEquals(1, ptc.getTimeRemaining(ptc.getFlagFallsAt() - 1), "Wrong time remaining before flag fall");
+
+        outOfTime = ptc.update(1, ptc.getFlagFallsAt());
+        assertTrue(outOfTime, "Not out of time");
+        assertTrue(mockDisplay.isOutOfTime(), "Diplay not set out of time");
+        assertEquals(0, ptc.getTimeRemaining(ptc.getFlagFallsAt() + 5), "Time remaining negative");
+    }
+
+    /** Test for lazy timekeeping when everything is fine. The amount of updates must not matter.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testUpdateTo2() {
+        if (fail != null) {
+            fail(fail);
+            return;
+        }
+
+        TimeControlPhase[] tcps = new TimeControlPhase[]{TimeControlPhase.makeNew((short) 40, 7200, 30),
+            TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 1800, 10)};
+        long moveTimeLimit = 360 * Constants.NANOSEC_PER_SEC;
+        long warningThreshold = 2002;
+        boolean cumulativePhases = false;
+
+        TimeBudgetConstraint tbc = TimeBudgetConstraint.makeNew(tcps, moveTimeLimit, warningThreshold, cumulativePhases)
+                .get();
+        ptc.setTimekeeping(Timekeeping.lazy);
+        ptc.setupGameTiming(tbc);
+
+        long start = 1000;
+        long dt = 3;
+        ptc.startRunning(start);
+        assertEquals(start + moveTimeLimit, ptc.getFlagFallsAt(), "Move-time limit not respected by flag fall");
+        for (int tick = 1; tick <= 1000; tick++) {
+            // the dt passed is ignored by lazy timekeeping
+            assertFalse(ptc.update(dt, start + tick * dt), "Out of time while plenty of that left");
+        }
+        boolean outOfTime = ptc.stopRunning(start + Constants.NANOSEC_PER_SEC);
+        assertFalse(outOfTime, "Out of time while plenty of that left");
+
+        try {
+            readTimeRemaining();
+            readMoveTimeRemaining();
+        } catch (Exception e) {
+            fail("Failed to access remaining times.");
+            return;
+        }
+        assertEquals((tcps[0].getTime() - 1) * Constants.NANOSEC_PER_SEC, timeRemaining,
+                "Clock-time remaining not correctly updated");
+        assertEquals(moveTimeLimit - Constants.NANOSEC_PER_SEC, moveTimeRemaining,
+                "Move-time remaining not correctly updated");
+        assertEquals(timeRemaining, ptc.getTimeRemaining(start + 5 * Constants.NANOSEC_PER_SEC),
+                "Time remaining changes while the clock is not running");
+    }
+
+    /** The time remaining published for other threads is the same as the one the signal clock
+     * knows, with both kinds of timekeeping.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testPublishedTimeRemaining() {
+        if (fail != null) {
+            fail(fail);
+            return;
+        }
+
+        TimeControlPhase[] tcps = new TimeControlPhase[]{TimeControlPhase.makeNew((short) 1, 60, 5),
+            TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 30, 0)};
+        TimeBudgetConstraint tbc = TimeBudgetConstraint.makeNew(tcps, -1, 0, false).get();
+        long second = Constants.NANOSEC_PER_SEC;
+        long start = 1000;
+        for (Timekeeping timekeeping : Timekeeping.values()) {
+            ptc.setTimekeeping(timekeeping);
+            ptc.setupGameTiming(tbc);
+            assertEquals(60 * second, ptc.getPublishedTimeRemaining(start), "Wrong time published at setup, "
+                    + timekeeping);
+
+            ptc.startRunning(start);
+            ptc.update(second, start + second);
+            assertEquals(ptc.getTimeRemaining(start + second), ptc.getPublishedTimeRemaining(start + second),
+                    "Wrong time published while running, " + timekeeping);
+            assertEquals(ptc.getTimeRemaining(start + second + 7), ptc.getPublishedTimeRemaining(start + second + 7),
+                    "Wrong time published between the ticks, " + timekeeping);
+
+            ptc.update(second, start + 2 * second);
+            ptc.stopRunning(start + 2 * second);
+            ptc.endMoveAndRepaint();
+            assertEquals(30 * second, ptc.getPublishedTimeRemaining(start + 10 * second),
+                    "Wrong time published after the move into the next phase, " + timekeeping);
+        }
+    }
+
+    /** With lazy timekeeping, the remaining times are derived only at the deadlines, and the flag
+     * falls exactly at the moment known in advance.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testUpdateToDeadlines() {
+        if (fail != null) {
+            fail(fail);
+            return;
+        }
+
+        TimeControlPhase[] tcps = new TimeControlPhase[]{TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 1, 0)};
+        TimeBudgetConstraint tbc = TimeBudgetConstraint.makeNew(tcps, -1, 0, false).get();
+        ptc.setTimekeeping(Timekeeping.lazy);
+        ptc.setupGameTiming(tbc);
+
+        long start = 1000;
+        long tenth = Constants.NANOSEC_PER_TENS_OF_SEC;
+        ptc.startRunning(start);
+        assertEquals(tenth, ptc.nanosToNextDeadline(start), "Wrong first deadline");
+        assertFalse(ptc.update(1, start + tenth - 1), "Out of time before the deadline");
+        try {
+            readTimeRemaining();
+        } catch (Exception e) {
+            fail("Failed to access timeRemaining.");
+            return;
+        }
+        assertEquals(Constants.NANOSEC_PER_SEC, timeRemaining, "Time remaining derived before the deadline");
+        assertEquals(1, ptc.nanosToNextDeadline(start + tenth - 1), "Wrong wait for the deadline");
+
+        assertFalse(ptc.update(1, start + tenth), "Out of time at the deadline");
+        try {
+            readTimeRemaining();
+        } catch (Exception e) {
+            fail("Failed to access timeRemaining.");
+            return;
+        }
+        assertEquals(Constants.NANOSEC_PER_SEC - tenth, timeRemaining, "Time remaining not derived at the deadline");
+
+        assertFalse(ptc.update(1, ptc.getFlagFallsAt() - 1), "Out of time before the flag falls");
+        assertTrue(ptc.update(1, ptc.getFlagFallsAt()), "Not out of time when the flag falls");
+        assertTrue(mockDisplay.isOutOfTime(), "Diplay not set out of time");
+    }
+
+    /** Tests a phase program that repeats a phase, as in Canadian overtime.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testRepeatingPhase() {
+        if (fail != null) {
+            fail(fail);
+            return;
+        }
+
+        // 2 moves in 10 seconds, then 3 moves in 5 seconds over and over, dropping the time left over
+        PhaseProgram program = PhaseProgram.makeNew(new int[]{2, 3}, new long[]{10 * Constants.NANOSEC_PER_SEC,
+            5 * Constants.NANOSEC_PER_SEC}, new long[]{0, 0}, new boolean[]{true, false}, new int[]{1, 1}).get();
+        TimeControlPhase[] tcps = new TimeControlPhase[]{TimeControlPhase.makeNew((short) 2, 10, 0),
+            TimeControlPhase.makeNew((short) 3, 5, 0)};
+        TimeBudgetConstraint tbc = TimeBudgetConstraint.makeNew(tcps, -1, -1, true).get();
+        ptc.setupGameTiming(tbc);
+        try {
+            TestUtils.getFieldAccessible(PlayerTimeControl.class, "program").set(ptc, program);
+        } catch (Exception e) {
+            fail("Failed to access the phase program");
+            return;
+        }
+
+        long second = Constants.NANOSEC_PER_SEC;
+        for (int move = 1; move <= 11; move++) {
+            assertFalse(ptc.update(second), "Out of time in move " + move);
+            ptc.endMoveAndRepaint();
+            try {
+                readTimeRemaining();
+                readCurrentPhase();
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                fail("Failed to read field");
+                return;
+            }
+            // after move 2, the overtime starts and is entered again after each third move
+            long expected = move < 2 ? (10 - move) * second : (move - 2) % 3 == 0 ? 5 * second
+                    : (5 - (move - 2) % 3) * second;
+            assertEquals(expected, timeRemaining, "Not the right clock time after move " + move);
+            assertEquals(move < 2 ? 0 : 1, currentPhase, "Not the right phase after move " + move);
+        }
+    }
+
+    /** Tests that ticks only reach the display when the displayed tenth of a second changes.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testRefreshDisplay() {
+        TimeControlPhase[] tcps = new TimeControlPhase[]{TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 60, 0)};
+        long moveTimeLimit = 30 * Constants.NANOSEC_PER_SEC;
+        TimeBudgetConstraint tbc = TimeBudgetConstraint.makeNew(tcps, moveTimeLimit, -1, false).get();
+        ptc.setupGameTiming(tbc);
+
+        // one second in steps of a microsecond
+        long dt = 1000;
+        int ticks = 1000000;
+        for (int tick = 0; tick < ticks; tick++) {
+            ptc.update(dt);
+            ptc.refreshDisplay();
+        }
+
+        assertEquals(ticks, ptc.getRefreshes(), "Wrong number of refreshes");
+        // ten tenths of a second, each with the clock time, the move time, and the repaint
+        assertEquals(30, ptc.getDisplayCalls(), "Wrong number of calls to the display");
+        assertEquals(59 * Constants.NANOSEC_PER_SEC, mockDisplay.getClockTime(), "Wrong time on the display");
+        assertEquals(29 * Constants.NANOSEC_PER_SEC, mockDisplay.getMoveTime(), "Wrong move time on the display");
+
+        mockDisplay.setDisplayUpToDate(false);
+        assertFalse(ptc.refreshDisplay(), "Display refreshed without a visible change");
+        assertFalse(mockDisplay.isDisplayUpToDate(), "Display repainted without a visible change");
+    }
+
+    /** The time for a move is restored to the limit after each move, and the move times record the
+     * time each move has taken.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testMoveTimeLimitEachMove() {
+        if (fail != null) {
+            fail(fail);
+            return;
+        }
+
+        TimeControlPhase[] tcps = new TimeControlPhase[]{TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 600, 5)};
+        long moveTimeLimit = 30 * Constants.NANOSEC_PER_SEC;
+        TimeBudgetConstraint tbc = TimeBudgetConstraint.makeNew(tcps, moveTimeLimit, -1, false).get();
+        ptc.setupGameTiming(tbc);
+
+        long[] taken = {4 * Constants.NANOSEC_PER_SEC, 12 * Constants.NANOSEC_PER_SEC, 7 * Constants.NANOSEC_PER_SEC};
+        for (int move = 0; move < taken.length; move++) {
+            assertFalse(ptc.update(taken[move]), "Out of time in move " + move);
+            ptc.endMoveAndRepaint();
+            try {
+                readMoveTimeRemaining();
+            } catch (Exception e) {
+                fail("Failed to access moveTimeRemaining.");
+                return;
+            }
+            assertEquals(moveTimeLimit, moveTimeRemaining, "Move time limit not restored after move " + move);
+            assertEquals(taken[move], ptc.getMoveTimes().getElapsed(move), "Wrong time taken by move " + move);
+        }
+    }
+
     public void testEndMoveAndRepaint() {
         fail("Not yet implemented");
     }
@@ -0,0 +1,217 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+
+import additionalTesting.MockClockDisplay;
+import additionalTesting.MockDisplay;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Measures how accurate the flag falls with the different {@link TickPolicy tick policies}. The
+ * {@link TickPolicy#spin spinning} policy is the loop the clock has always been running with and
+ * serves as reference: the other policies are measured in the same run and must not fall much
+ * later than it.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public class SignalClockTest {
+
+    /** Time the player has in the game, in seconds. */
+    private static final int GAME_TIME = 1;
+    /** How late the flag may fall at most, in nanoseconds. Generous, as the machine running the
+     * test may be busy with other things. */
+    private static final long TOLERANCE = 25000000;
+    /** How much later than when spinning the flag may fall when parking and spinning, in
+     * nanoseconds. */
+    private static final long HYBRID_DELTA = 2000000;
+    /** How much later than when spinning the flag may fall when parking only, in nanoseconds. Parking
+     * is at the mercy of the timer slack and the scheduler of the system. */
+    private static final long PARK_DELTA = 10000000;
+    /** How long we wait for the flag at most, in milliseconds. */
+    private static final long TIMEOUT = 5000;
+
+    private TimeControl timeControl;
+    private MockClockDisplay display;
+    /** Display that remembers when the flag fell. */
+    private FlagDisplay flagDisplay;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        display = new MockClockDisplay();
+        flagDisplay = new FlagDisplay();
+        timeControl = TimeControl.makeNew(display).get();
+        timeControl.setPlayerTimeDisplay(0, flagDisplay);
+        timeControl.startClock();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        timeControl.endSignalClock();
+        timeControl.wakeSignalClockUp();
+        timeControl = null;
+        display = null;
+        flagDisplay = null;
+    }
+
+    @Test
+    public void testFlagFallSpin() {
+        long error = measureFlagFallError(TickPolicy.spin);
+        assertTrue(error >= 0 && error < TOLERANCE, "Flag fell " + error + " ns late when spinning");
+    }
+
+    @Test
+    public void testFlagFallPark() {
+        long baseline = measureFlagFallError(TickPolicy.spin);
+        long error = measureFlagFallError(TickPolicy.park);
+        assertTrue(error >= 0, "Flag fell " + (-error) + " ns early when parking");
+        assertTrue(error - baseline < PARK_DELTA, "Flag fell " + error + " ns late when parking, but "
+                + baseline + " ns late when spinning");
+    }
+
+    @Test
+    public void testFlagFallHybrid() {
+        long baseline = measureFlagFallError(TickPolicy.spin);
+        long error = measureFlagFallError(TickPolicy.hybrid);
+        assertTrue(error >= 0, "Flag fell " + (-error) + " ns early when parking and spinning");
+        assertTrue(error - baseline < HYBRID_DELTA, "Flag fell " + error + " ns late when parking and "
+                + "spinning, but " + baseline + " ns late when spinning");
+    }
+
+    @Test
+    public void testNudgeWhileHolding() throws InterruptedException {
+        // no game is running, so the clock holds on right after starting
+        long until = System.currentTimeMillis() + TIMEOUT;
+        while (!display.isStopped() && System.currentTimeMillis() < until) {
+            Thread.sleep(10);
+        }
+        assertTrue(display.isStopped(), "Clock did not tell about stopping");
+
+        display.setStopped(false);
+        for (int nudge = 0; nudge < 5; nudge++) {
+            timeControl.wakeSignalClockUp();
+            Thread.sleep(20);
+        }
+        assertFalse(display.isStopped(), "Clock told again about stopping when nudged while holding");
+    }
+
+    /** Plays a game where the left player never moves and measures how late the flag falls. Can be
+     * called several times in a test, each call playing a new game.
+     *
+     * @since 1.0;
+     * @param policy Tick policy used by the signal clock.
+     * @return Time between the moment the flag should have fallen and the moment it actually fell,
+     * in nanoseconds.
+     */
+    private long measureFlagFallError(TickPolicy policy) {
+        TimeControlPhase tcp = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, GAME_TIME, 0);
+        TimeBudgetConstraint tbc = TimeBudgetConstraint
+                .makeNew(new TimeControlPhase[]{tcp}, -1, -1, false).get();
+
+        flagDisplay.reset();
+        timeControl.setTickPolicy(policy);
+        timeControl.setupNewGameTiming(tbc, tbc, true, true);
+        long start = System.nanoTime();
+        timeControl.notifyMoveDone();
+
+        try {
+            synchronized (flagDisplay) {
+                long until = System.currentTimeMillis() + TIMEOUT;
+                while (flagDisplay.flagFellAt == 0 && System.currentTimeMillis() < until) {
+                    flagDisplay.wait(TIMEOUT);
+                }
+            }
+        } catch (InterruptedException e) {
+            fail("Interrupted while waiting for the flag");
+        }
+
+        if (flagDisplay.flagFellAt == 0) {
+            fail("Flag did not fall with " + policy);
+        }
+        long error = flagDisplay.flagFellAt - start - GAME_TIME * Constants.NANOSEC_PER_SEC;
+        return error;
+    }
+
+    /** Remembers the moment the flag falls.
+     *
+     * @since 1.0;
+     */
+    private static class FlagDisplay extends MockDisplay {
+
+        /** Moment of the flag fall, or 0 if the flag has not fallen yet. */
+        private long flagFellAt = 0;
+
+        /** Forgets the last flag fall, for a new game.
+         *
+         * @since 1.0;
+         */
+        private synchronized void reset() {
+            flagFellAt = 0;
+        }
+
+        @Override
+        public synchronized void setOutOfTime() {
+            super.setOutOfTime();
+            flagFellAt = System.nanoTime();
+            notifyAll();
+        }
+    }
+
+}
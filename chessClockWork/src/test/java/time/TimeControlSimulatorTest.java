@@ -0,0 +1,160 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TimeControlSimulatorTest {
+
+    private static final long SEC = Constants.NANOSEC_PER_SEC;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+    }
+
+    private static TimeControlSimulator makeSimulator(boolean cumulative, MoveTimeDistribution distribution) {
+        TimeControlPhase[] tcps = new TimeControlPhase[]{
+            TimeControlPhase.makeNew((short) 40, 600, 0),
+            TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 300, 0)
+        };
+        TimeBudgetConstraint tbc = TimeBudgetConstraint.makeNew(tcps, -1, -1, cumulative).get();
+        return TimeControlSimulator.makeNew(tbc, distribution).get();
+    }
+
+    @Test
+    public void testMakeNew() {
+        TimeBudgetConstraint tbc = TimeBudgetConstraint.makeNew(
+                new TimeControlPhase[]{TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 600, 0)}, -1, -1, true).get();
+        assertFalse(TimeControlSimulator.makeNew(null, MoveTimeDistribution.constant(SEC)).isPresent(), "Simulator without constraint");
+        assertFalse(TimeControlSimulator.makeNew(tbc, null).isPresent(), "Simulator without distribution");
+        TimeControlSimulator simulator = TimeControlSimulator.makeNew(tbc, MoveTimeDistribution.constant(SEC)).get();
+        assertFalse(simulator.setGameLength(0, 10), "Game length without moves");
+        assertFalse(simulator.setGameLength(20, 10), "Empty game length");
+        assertTrue(simulator.setGameLength(10, 10), "Single game length");
+    }
+
+    @Test
+    public void testNoFlag() {
+        TimeControlSimulator simulator = makeSimulator(true, MoveTimeDistribution.constant(SEC));
+        simulator.setGameLength(60, 60);
+        SimulationResult result = simulator.simulate(100, 1);
+
+        assertEquals(100, result.getGames(), "Wrong number of games");
+        assertEquals(2, result.getPhaseCount(), "Wrong number of phases");
+        assertEquals(0, result.getFlagFallProbability(), 0, "Flag fell");
+        assertEquals(120 * SEC, result.getDurations().getMin(), "Wrong shortest duration");
+        assertEquals(120 * SEC, result.getDurations().getMax(), "Wrong longest duration");
+        assertEquals(0, result.getFlagMoves().getCount(), "Flag move recorded");
+    }
+
+    @Test
+    public void testFlagInFirstPhase() {
+        TimeControlSimulator simulator = makeSimulator(true, MoveTimeDistribution.constant(20 * SEC));
+        simulator.setGameLength(60, 60);
+        SimulationResult result = simulator.simulate(100, 1);
+
+        assertEquals(1, result.getFlagFallProbability(0), 0, "Wrong flag fall probability in phase 0");
+        assertEquals(0, result.getFlagFallProbability(1), 0, "Wrong flag fall probability in phase 1");
+        // white runs out of time in the 30th move
+        assertEquals(30, result.getFlagMoves().getMin(), "Wrong flag move");
+        assertEquals((29 * 40 + 20) * SEC, result.getDurations().getMax(), "Wrong duration");
+    }
+
+    @Test
+    public void testCumulativeVsDestructive() {
+        // 400 s of the first phase are used, 200 s are left over, the second phase needs 400 s more
+        MoveTimeDistribution tenSeconds = MoveTimeDistribution.constant(10 * SEC);
+        TimeControlSimulator cumulative = makeSimulator(true, tenSeconds);
+        cumulative.setGameLength(80, 80);
+        TimeControlSimulator destructive = makeSimulator(false, tenSeconds);
+        destructive.setGameLength(80, 80);
+
+        SimulationResult cumulativeResult = cumulative.simulate(10, 1);
+        assertEquals(0, cumulativeResult.getFlagFallProbability(), 0, "Flag fell with cumulative phases");
+        assertEquals(1600 * SEC, cumulativeResult.getDurations().getMax(), "Wrong duration with cumulative phases");
+
+        SimulationResult destructiveResult = destructive.simulate(10, 1);
+        assertEquals(1, destructiveResult.getFlagFallProbability(1), 0, "Flag did not fall in phase 1 with destructive phases");
+        assertEquals(70, destructiveResult.getFlagMoves().getMax(), "Wrong flag move with destructive phases");
+    }
+
+    @Test
+    public void testDeterministic() {
+        // enough games to be split among several tasks
+        long games = 3 * TimeControlSimulator.GAMES_PER_TASK + 17;
+        TimeControlSimulator simulator = makeSimulator(false, MoveTimeDistribution.logNormal(8 * SEC, 1));
+        SimulationResult first = simulator.simulate(games, 42);
+        SimulationResult second = simulator.simulate(games, 42);
+
+        assertEquals(games, first.getGames(), "Wrong number of games");
+        assertEquals(games, first.getDurations().getCount(), "Wrong number of durations");
+        assertTrue(first.getFlagFallProbability() > 0, "No flag fell");
+        assertTrue(first.getFlagFallProbability() < 1, "Flag fell always");
+        for (int phase = 0; phase < 2; phase++) {
+            assertEquals(first.getFlagFalls(phase), second.getFlagFalls(phase), "Different flag falls in phase " + phase);
+        }
+        assertEquals(first.getDurations().getMean(), second.getDurations().getMean(), "Different mean durations");
+    }
+}
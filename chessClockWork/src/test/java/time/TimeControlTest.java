@@ -63,11 +63,21 @@ import org.junit.jupiter.api.Test;
 
 public class TimeControlTest {
 
+    /** Moment the tests start at, in nanoseconds. */
+    private static final long START = 1000;
+    /** Game time of each player, in seconds. */
+    private static final int GAME_TIME = 100;
+    /** Increment, in seconds. */
+    private static final int INCREMENT = 10;
+    /** The value the counter of half moves starts with. */
+    private static final int INI_HALF_MOVE = 2;
+
     private TimeControl timeControl;
     private MockClockDisplay display;
+    private MockDisplay playerDisplayLeft;
+    private MockDisplay playerDisplayRight;
 
     private Field currentStateField;
-    private Field switchActivePlayerField;
     private Field timeHasRanOutField;
     private Field currentPTCField;
     private Field timeControlLeftField;
@@ -76,7 +86,6 @@ public class TimeControlTest {
     private Field leftAtTurnField;
 
     private TimeControl.State currentState;
-    private boolean switchActivePlayer;
     private boolean timeHasRanOut;
     private PlayerTimeControl currentPTC;
     private PlayerTimeControl timeControlLeft;
@@ -90,7 +99,6 @@ public class TimeControlTest {
         Class<?> cls = TimeControl.class;
         try {
             currentStateField = TestUtils.getFieldAccessible(cls, "currentState");
-            switchActivePlayerField = TestUtils.getFieldAccessible(cls, "switchActivePlayer");
             timeHasRanOutField = TestUtils.getFieldAccessible(cls, "timeHasRanOut");
             currentPTCField = TestUtils.getFieldAccessible(cls, "currentPTC");
             timeControlLeftField = TestUtils.getFieldAccessible(cls, "timeControlLeft");
@@ -106,10 +114,6 @@ public class TimeControlTest {
         currentState = (TimeControl.State) currentStateField.get(timeControl);
     }
 
-    private void switchActivePlayerRead() throws IllegalArgumentException, IllegalAccessException {
-        switchActivePlayer = switchActivePlayerField.getBoolean(timeControl);
-    }
-
     private void timeHasRanOutRead() throws IllegalArgumentException, IllegalAccessException {
         timeHasRanOut = timeHasRanOutField.getBoolean(timeControl);
     }
@@ -134,6 +138,54 @@ public class TimeControlTest {
         leftAtTurn = leftAtTurnField.getBoolean(timeControl);
     }
 
+    private void readAll() {
+        try {
+            currentStateRead();
+            timeHasRanOutRead();
+            currentPTCRead();
+            timeControlLeftRead();
+            timeControlRightRead();
+            halfMoveRead();
+            leftAtTurnRead();
+        } catch (Exception e) {
+            fail("Could not read fields");
+        }
+    }
+
+    /** Sets up a new game where the left player plays white, and lets the time control execute the
+     * setup. The signal clock is not started in these tests, so the tests call
+     * {@link TimeControl#update(long)} themselves.
+     *
+     * @since 1.0;
+     * @param gameTime Game time of each player, in seconds.
+     * @param timeRunsInFirstMove Does the time run in the first move?
+     */
+    private void setupGame(int gameTime, boolean timeRunsInFirstMove) {
+        TimeControlPhase tcp1 = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, gameTime, INCREMENT);
+        TimeControlPhase tcp2 = TimeControlPhase.makeNew(tcp1).get();
+        long moveTimeLimit = -1;
+        boolean additive = false;
+        long warningThreshold = 600;
+
+        TimeBudgetConstraint tbc1 = TimeBudgetConstraint
+                .makeNew(new TimeControlPhase[]{tcp1}, moveTimeLimit, warningThreshold, additive).get();
+        TimeBudgetConstraint tbc2 = TimeBudgetConstraint
+                .makeNew(new TimeControlPhase[]{tcp2}, moveTimeLimit, warningThreshold, additive).get();
+
+        timeControl.setupNewGameTiming(tbc1, tbc2, true, timeRunsInFirstMove);
+        timeControl.update(START);
+    }
+
+    /** Sets up a new game where the time runs also in the first move, and starts it at {@code START}.
+     *
+     * @since 1.0;
+     */
+    private void startGame() {
+        setupGame(GAME_TIME, true);
+        timeControl.notifyMoveDone(START);
+        timeControl.update(START);
+    }
+
     @BeforeAll
     public static void setUpBeforeClass() throws Exception {
     }
@@ -145,8 +197,11 @@ public class TimeControlTest {
     @BeforeEach
     public void setUp() throws Exception {
         display = new MockClockDisplay();
+        playerDisplayLeft = new MockDisplay();
+        playerDisplayRight = new MockDisplay();
         timeControl = TimeControl.makeNew(display).get();
-        timeControl.startClock();
+        timeControl.setPlayerTimeDisplay(0, playerDisplayLeft);
+        timeControl.setPlayerTimeDisplay(1, playerDisplayRight);
     }
 
     @AfterEach
@@ -156,6 +211,10 @@ public class TimeControlTest {
         display = null;
     }
 
+    /** A move in a running game is executed by the signal clock, not right away.
+     *
+     * @since 1.0;
+     */
     @Test
     public void testNotifyMoveDone1() {
         if (fail != null) {
@@ -163,35 +222,20 @@ public class TimeControlTest {
             return;
         }
 
-        try {
-            currentStateField.set(timeControl, TimeControl.State.running);
-        } catch (Exception e1) {
-            fail("Could not set field currentState");
-            return;
-        }
+        startGame();
+        long moveAt = START + Constants.NANOSEC_PER_SEC;
+        timeControl.notifyMoveDone(moveAt);
 
-        boolean wannaSwitch = false;
-        try {
-            switchActivePlayerField.set(timeControl, wannaSwitch);
-        } catch (Exception e) {
-            fail("Could not set field switchActivePlayer");
-            return;
-        }
+        readAll();
+        assertTrue(leftAtTurn, "Move executed before the signal clock came along");
 
-        int moveNo = 987;
-        display.setMoveNumber(moveNo);
-        timeControl.notifyMoveDone();
+        timeControl.update(moveAt + Constants.NANOSEC_PER_SEC);
 
-        try {
-            currentStateRead();
-            switchActivePlayerRead();
-        } catch (Exception e) {
-            fail("Could not read fields");
-        }
-
-        assertEquals(!wannaSwitch, switchActivePlayer, "Did not change switch flag");
+        readAll();
         assertEquals(TimeControl.State.running, currentState, "State is not running anymore");
-        assertEquals(moveNo, display.getMoveNumber(), "Not the right move number");
+        assertFalse(leftAtTurn, "Left-at-turn is wrong");
+        assertEquals(timeControlRight, currentPTC, "Not the right time control is active");
+        assertEquals(1, display.getMoveNumber(), "Not the right move number");
     }
 
     @Test
@@ -201,32 +245,12 @@ public class TimeControlTest {
             return;
         }
 
-        try {
-            currentStateField.set(timeControl, TimeControl.State.noneRunning);
-        } catch (Exception e1) {
-            fail("Could not set field currentState");
-            return;
-        }
-
-        boolean wannaSwitch = false;
-        try {
-            switchActivePlayerField.set(timeControl, wannaSwitch);
-        } catch (Exception e) {
-            fail("Could not set field switchActivePlayer");
-            return;
-        }
+        setupGame(GAME_TIME, true);
+        display.setMoveNumber(100); // should be set to unity by the move
+        timeControl.notifyMoveDone(START);
+        timeControl.update(START);
 
-        display.setMoveNumber(100); // should be set to unity by the call of notifyMoveDone()
-        timeControl.notifyMoveDone();
-
-        try {
-            currentStateRead();
-            switchActivePlayerRead();
-        } catch (Exception e) {
-            fail("Could not read fields");
-        }
-
-        assertEquals(wannaSwitch, switchActivePlayer, "Changed switch flag");
+        readAll();
         assertEquals(TimeControl.State.running, currentState, "State is not running");
         assertEquals(1, display.getMoveNumber(), "Not the right move number");
     }
@@ -238,34 +262,18 @@ public class TimeControlTest {
             return;
         }
 
-        try {
-            currentStateField.set(timeControl, TimeControl.State.paused);
-        } catch (Exception e1) {
-            fail("Could not set field currentState");
-            return;
-        }
-
-        boolean wannaSwitch = false;
-        try {
-            switchActivePlayerField.set(timeControl, wannaSwitch);
-        } catch (Exception e) {
-            fail("Could not set field switchActivePlayer");
-            return;
-        }
+        startGame();
+        timeControl.notifyPauseChangeRequest(START + 1);
+        timeControl.update(START + 1);
 
         int moveNo = 543;
         display.setMoveNumber(moveNo);
-        timeControl.notifyMoveDone();
+        timeControl.notifyMoveDone(START + 2);
+        timeControl.update(START + 2);
 
-        try {
-            currentStateRead();
-            switchActivePlayerRead();
-        } catch (Exception e) {
-            fail("Could not read fields");
-        }
-
-        assertEquals(wannaSwitch, switchActivePlayer, "Changed switch flag");
+        readAll();
         assertEquals(TimeControl.State.paused, currentState, "State is not paused anymore");
+        assertTrue(leftAtTurn, "Move executed while paused");
         assertEquals(moveNo, display.getMoveNumber(), "Not the right move number");
     }
 
@@ -276,92 +284,70 @@ public class TimeControlTest {
             return;
         }
 
-//        try {
-//            currentStateField.set(timeControl, TimeControl.State.firstMove);
-//        } catch (Exception e1) {
-//            fail("Could not set field currentState");
-//            return;
-//        }
-
-        TimeControlPhase tcp1 = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 100, 10);
-        TimeControlPhase tcp2 = TimeControlPhase.makeNew(tcp1).get();
-        long moveTimeLimit = -1;
-        boolean additive = false;
-        long warningThreshold = 600;
-
-        TimeBudgetConstraint tbc1 = TimeBudgetConstraint
-                .makeNew(new TimeControlPhase[]{tcp1}, moveTimeLimit, warningThreshold, additive).get();
-        TimeBudgetConstraint tbc2 = TimeBudgetConstraint
-                .makeNew(new TimeControlPhase[]{tcp2}, moveTimeLimit, warningThreshold, additive).get();
-
-        boolean leftIsWhite = true;
-        boolean timeRunsInFirstMove = false;
-        timeControl.setupNewGameTiming(tbc1, tbc2, leftIsWhite, timeRunsInFirstMove);
-
-        boolean wannaSwitch = false;
-        try {
-            switchActivePlayerField.set(timeControl, wannaSwitch);
-        } catch (Exception e) {
-            fail("Could not set field switchActivePlayer");
-            return;
-        }
-
+        setupGame(GAME_TIME, false);
         display.setMoveNumber(100); // should be set to unity by the call of notifyMoveDone()
 
         // first half move
-        timeControl.notifyMoveDone();
+        timeControl.notifyMoveDone(START + 1);
+        timeControl.update(START + 1);
 
-        try {
-            currentStateRead();
-            switchActivePlayerRead();
-        } catch (Exception e) {
-            fail("Could not read fields");
-        }
-
-        assertEquals(wannaSwitch, switchActivePlayer, "Changed switch flag");
+        readAll();
         assertEquals(TimeControl.State.firstMove, currentState, "Left first move too early");
         assertEquals(1, display.getMoveNumber(), "Not the right move number");
 
         // second half move
-        timeControl.notifyMoveDone();
-
-        try {
-            currentStateRead();
-            switchActivePlayerRead();
-        } catch (Exception e) {
-            fail("Could not read fields");
-        }
+        timeControl.notifyMoveDone(START + 2);
+        timeControl.update(START + 2);
 
-        assertEquals(wannaSwitch, switchActivePlayer, "Changed switch flag");
+        readAll();
         assertEquals(TimeControl.State.running, currentState, "Not in running state");
         assertEquals(2, display.getMoveNumber(), "Not the right move number");
     }
 
+    /** Two moves between two updates do not cancel each other, and each player is charged exactly
+     * up to the moment of the move.
+     *
+     * @since 1.0;
+     */
     @Test
-    public void testNotifyPauseChangeRequest1() {
+    public void testNotifyMoveDone5() {
         if (fail != null) {
             fail(fail);
             return;
         }
 
-        try {
-            currentStateField.set(timeControl, TimeControl.State.running);
-        } catch (Exception e1) {
-            fail("Could not set field currentState");
+        startGame();
+        long second = Constants.NANOSEC_PER_SEC;
+        timeControl.notifyMoveDone(START + 1 * second);
+        timeControl.notifyMoveDone(START + 3 * second);
+        timeControl.update(START + 4 * second);
+
+        readAll();
+        assertTrue(leftAtTurn, "Left-at-turn is wrong");
+        assertEquals(INI_HALF_MOVE + 2, halfMove, "Not the right number of half moves");
+        assertEquals((GAME_TIME + INCREMENT - 1 - 1) * second, playerDisplayLeft.getClockTime(),
+                "Left player not charged up to the moves");
+        assertEquals((GAME_TIME + INCREMENT - 2) * second, playerDisplayRight.getClockTime(),
+                "Right player not charged between the moves");
+    }
+
+    @Test
+    public void testNotifyPauseChangeRequest1() {
+        if (fail != null) {
+            fail(fail);
             return;
         }
 
+        startGame();
         display.setPausedState(false);
-        timeControl.notifyPauseChangeRequest();
-
-        try {
-            currentStateRead();
-        } catch (Exception e) {
-            fail("Could not read fields");
-        }
+        long second = Constants.NANOSEC_PER_SEC;
+        timeControl.notifyPauseChangeRequest(START + second);
+        timeControl.update(START + 5 * second);
 
+        readAll();
         assertEquals(TimeControl.State.paused, currentState, "State is not paused");
         assertEquals(true, display.isPaused(), "Not the correct pause state on clock display");
+        assertEquals((GAME_TIME - 1) * second, timeControl.getTimeRemaining(0), "Time runs while paused");
     }
 
     @Test
@@ -371,24 +357,19 @@ public class TimeControlTest {
             return;
         }
 
-        try {
-            currentStateField.set(timeControl, TimeControl.State.paused);
-        } catch (Exception e1) {
-            fail("Could not set field currentState");
-            return;
-        }
-
+        startGame();
+        long second = Constants.NANOSEC_PER_SEC;
+        timeControl.notifyPauseChangeRequest(START + second);
+        timeControl.update(START + second);
         display.setPausedState(true);
-        timeControl.notifyPauseChangeRequest();
-
-        try {
-            currentStateRead();
-        } catch (Exception e) {
-            fail("Could not read fields");
-        }
+        timeControl.notifyPauseChangeRequest(START + 2 * second);
+        timeControl.update(START + 3 * second);
 
+        readAll();
         assertEquals(TimeControl.State.running, currentState, "State is not running");
         assertEquals(false, display.isPaused(), "Not the correct pause state on clock display");
+        assertEquals((GAME_TIME - 2) * second, playerDisplayLeft.getClockTime(),
+                "Wrong time taken around the pause");
     }
 
     @Test
@@ -398,22 +379,12 @@ public class TimeControlTest {
             return;
         }
 
-        try {
-            currentStateField.set(timeControl, TimeControl.State.noneRunning);
-        } catch (Exception e1) {
-            fail("Could not set field currentState");
-            return;
-        }
-
+        setupGame(GAME_TIME, true);
         display.setPausedState(true);
-        timeControl.notifyPauseChangeRequest();
-
-        try {
-            currentStateRead();
-        } catch (Exception e) {
-            fail("Could not read fields");
-        }
+        timeControl.notifyPauseChangeRequest(START);
+        timeControl.update(START);
 
+        readAll();
         assertEquals(TimeControl.State.noneRunning, currentState, "State is not nonRunning");
         assertEquals(true, display.isPaused(), "Not the correct pause state on clock display");
     }
@@ -429,50 +400,17 @@ public class TimeControlTest {
             return;
         }
 
-        int halfMove = 3;
-        boolean leftIsWhite = true;
-        TimeControlPhase tpc1 = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 300, 10);
-        TimeControlPhase tpc2 = TimeControlPhase.makeNew(tpc1).get();
-        long moveTimeLimit = -1;
-        boolean additive = false;
-        long warningThreshold = 600;
-
-        TimeBudgetConstraint tbc1 = TimeBudgetConstraint
-                .makeNew(new TimeControlPhase[]{tpc1}, moveTimeLimit, warningThreshold, additive).get();
-        TimeBudgetConstraint tbc2 = TimeBudgetConstraint
-                .makeNew(new TimeControlPhase[]{tpc2}, moveTimeLimit, warningThreshold, additive).get();
-
-        timeControl.setupNewGameTiming(tbc1, tbc2, leftIsWhite);
-        try {
-            currentStateField.set(timeControl, TimeControl.State.running);
-            switchActivePlayerField.set(timeControl, false);
-            halfMoveField.set(timeControl, halfMove);
-        } catch (Exception e1) {
-            fail("Could not set fields");
-            return;
-        }
-
+        startGame();
         long dt = 1 * Constants.NANOSEC_PER_SEC;
-        timeControl.update(dt);
-
-        try {
-            timeHasRanOutRead();
-            currentPTCRead();
-            timeControlLeftRead();
-            timeControlRightRead();
-            halfMoveRead();
-            switchActivePlayerRead();
-            leftAtTurnRead();
-
-        } catch (Exception e) {
-            fail("Could not read fields");
-        }
+        timeControl.update(START + dt);
 
+        readAll();
         assertFalse(timeHasRanOut, "Time is flagged as out");
         assertEquals(timeControlLeft, currentPTC, "Not the right time control is active");
-        assertEquals(halfMove, this.halfMove, "Not the right number of half moves");
-        assertFalse(switchActivePlayer, "Switch-active-player flag set");
-        assertEquals(leftIsWhite, leftAtTurn, "Left-at-turn is wrong");
+        assertEquals(INI_HALF_MOVE, halfMove, "Not the right number of half moves");
+        assertTrue(leftAtTurn, "Left-at-turn is wrong");
+        assertEquals(GAME_TIME * Constants.NANOSEC_PER_SEC - dt, playerDisplayLeft.getClockTime(),
+                "Wrong number of nanoseconds on the clock");
     }
 
     /** Update when a change of player occurs.
@@ -486,53 +424,19 @@ public class TimeControlTest {
             return;
         }
 
-        int halfMove = 3;
-        boolean leftIsWhite = true;
-        TimeControlPhase tpc1 = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 300, 10);
-        TimeControlPhase tpc2 = TimeControlPhase.makeNew(tpc1).get();
-        long moveTimeLimit = -1;
-        boolean additive = false;
-        long warningThreshold = 600;
-
-        TimeBudgetConstraint tbc1 = TimeBudgetConstraint
-                .makeNew(new TimeControlPhase[]{tpc1}, moveTimeLimit, warningThreshold, additive).get();
-        TimeBudgetConstraint tbc2 = TimeBudgetConstraint
-                .makeNew(new TimeControlPhase[]{tpc2}, moveTimeLimit, warningThreshold, additive).get();
-
-        timeControl.setupNewGameTiming(tbc1, tbc2, leftIsWhite);
-        try {
-            currentStateField.set(timeControl, TimeControl.State.running);
-            switchActivePlayerField.set(timeControl, true); // !!!!! TRUE! that's the point
-            halfMoveField.set(timeControl, halfMove);
-        } catch (Exception e1) {
-            fail("Could not set fields");
-            return;
-        }
-
+        startGame();
         long dt = 1 * Constants.NANOSEC_PER_SEC;
-        timeControl.update(dt);
-
-        try {
-            timeHasRanOutRead();
-            currentPTCRead();
-            timeControlLeftRead();
-            timeControlRightRead();
-            halfMoveRead();
-            switchActivePlayerRead();
-            leftAtTurnRead();
-
-        } catch (Exception e) {
-            fail("Could not read fields");
-        }
+        timeControl.notifyMoveDone(START + dt);
+        timeControl.update(START + dt);
 
+        readAll();
         assertFalse(timeHasRanOut, "Time is flagged as out");
         assertEquals(timeControlRight, currentPTC, "Not the right time control is active");
-        assertEquals(halfMove + 1, this.halfMove, "Not the right number of half moves");
-        assertFalse(switchActivePlayer, "Switch-active-player flag set");
+        assertEquals(INI_HALF_MOVE + 1, halfMove, "Not the right number of half moves");
         assertFalse(leftAtTurn, "Left-at-turn is wrong");
     }
 
-    /** Update when the time runs out
+    /** Update when the time runs out. Moves after the flag has fallen do not count.
      *
      * @since 1.0;
      */
@@ -543,113 +447,74 @@ public class TimeControlTest {
             return;
         }
 
-        int halfMove = 3;
-        boolean leftIsWhite = true;
-        TimeControlPhase tpc1 = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 1, 10);
-        TimeControlPhase tpc2 = TimeControlPhase.makeNew(tpc1).get();
-        long moveTimeLimit = -1;
-        boolean additive = false;
-        long warningThreshold = 600;
-
-        TimeBudgetConstraint tbc1 = TimeBudgetConstraint
-                .makeNew(new TimeControlPhase[]{tpc1}, moveTimeLimit, warningThreshold, additive).get();
-        TimeBudgetConstraint tbc2 = TimeBudgetConstraint
-                .makeNew(new TimeControlPhase[]{tpc2}, moveTimeLimit, warningThreshold, additive).get();
-
-        timeControl.setupNewGameTiming(tbc1, tbc2, leftIsWhite);
-        try {
-            currentStateField.set(timeControl, TimeControl.State.running);
-            switchActivePlayerField.set(timeControl, false);
-            halfMoveField.set(timeControl, halfMove);
-        } catch (Exception e1) {
-            fail("Could not set fields");
-            return;
-        }
+        setupGame(1, true);
+        timeControl.notifyMoveDone(START);
+        timeControl.update(START);
 
         long dt = 2 * Constants.NANOSEC_PER_SEC;
-        timeControl.update(dt);
-
-        try {
-            timeHasRanOutRead();
-            currentPTCRead();
-            timeControlLeftRead();
-            timeControlRightRead();
-            halfMoveRead();
-            switchActivePlayerRead();
-            leftAtTurnRead();
-
-        } catch (Exception e) {
-            fail("Could not read fields");
-        }
+        timeControl.update(START + dt);
+        timeControl.notifyMoveDone(START + dt);
+        timeControl.update(START + dt);
 
+        readAll();
         assertTrue(timeHasRanOut, "Time is not flagged as out");
+        assertTrue(playerDisplayLeft.isOutOfTime(), "Display not set out of time");
         assertEquals(timeControlLeft, currentPTC, "Not the right time control is active");
-        assertEquals(halfMove, this.halfMove, "Not the right number of half moves");
-        assertFalse(switchActivePlayer, "Switch-active-player flag set");
-        assertEquals(leftIsWhite, leftAtTurn, "Left-at-turn is wrong");
+        assertEquals(INI_HALF_MOVE, halfMove, "Not the right number of half moves");
+        assertTrue(leftAtTurn, "Left-at-turn is wrong");
     }
 
-    /** Update in first move when the time is not running here.
+    /** A move arriving after the flag deadline, before any tick has found the flag fallen. The time
+     * up to the move makes the flag fall, and the display shows no time left.
      *
      * @since 1.0;
      */
     @Test
-    public void testUpdate4() {
+    public void testMoveAfterFlagDeadline() {
         if (fail != null) {
             fail(fail);
             return;
         }
 
-        boolean leftIsWhite = true;
-        TimeControlPhase tcp1 = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 100, 10);
-        TimeControlPhase tcp2 = TimeControlPhase.makeNew(tcp1).get();
-        long moveTimeLimit = -1;
-        boolean additive = false;
-        long warningThreshold = 600;
+        setupGame(1, true);
+        timeControl.notifyMoveDone(START);
+        timeControl.update(START);
+        timeControl.update(START + Constants.NANOSEC_PER_SEC / 2);
+        assertTrue(playerDisplayLeft.getClockTime() > 0, "No time left before the flag falls");
 
-        TimeBudgetConstraint tbc1 = TimeBudgetConstraint
-                .makeNew(new TimeControlPhase[]{tcp1}, moveTimeLimit, warningThreshold, additive).get();
-        TimeBudgetConstraint tbc2 = TimeBudgetConstraint
-                .makeNew(new TimeControlPhase[]{tcp2}, moveTimeLimit, warningThreshold, additive).get();
+        long late = START + 2 * Constants.NANOSEC_PER_SEC;
+        timeControl.notifyMoveDone(late);
+        timeControl.update(late);
 
-        MockDisplay playerDisplayLeft = new MockDisplay();
-        timeControl.setPlayerTimeDisplay(0, playerDisplayLeft);
+        readAll();
+        assertTrue(timeHasRanOut, "Time is not flagged as out");
+        assertTrue(playerDisplayLeft.isOutOfTime(), "Display not set out of time");
+        assertEquals(0, playerDisplayLeft.getClockTime(), "Display still shows time left");
+        assertTrue(playerDisplayLeft.isDisplayUpToDate(), "Display not repainted");
+    }
 
-        // don't need the method with additional boolean here, as this method we use sets this boolean to false
-        timeControl.setupNewGameTiming(tbc1, tbc2, leftIsWhite);
-        try {
-            currentStateField.set(timeControl, TimeControl.State.firstMove);
-            switchActivePlayerField.set(timeControl, false);
-        } catch (Exception e1) {
-            fail("Could not set fields");
+    /** Update in first move when the time is not running here.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testUpdate4() {
+        if (fail != null) {
+            fail(fail);
             return;
         }
 
+        setupGame(GAME_TIME, false);
         long dt = 100; // nanosecs
+        timeControl.update(START + dt);
 
-        // first half move
-        timeControl.update(dt);
-
-        try {
-            timeHasRanOutRead();
-            currentPTCRead();
-            timeControlLeftRead();
-            timeControlRightRead();
-            halfMoveRead();
-            switchActivePlayerRead();
-            leftAtTurnRead();
-
-        } catch (Exception e) {
-            fail("Could not read fields");
-        }
-
-        assertEquals(tcp1.getTime() * Constants.NANOSEC_PER_SEC, playerDisplayLeft.getClockTime(),
+        readAll();
+        assertEquals(GAME_TIME * Constants.NANOSEC_PER_SEC, playerDisplayLeft.getClockTime(),
                 "Wrong number of nanoseconds on the clock");
         assertFalse(timeHasRanOut, "Time is flagged as out");
         assertEquals(timeControlLeft, currentPTC, "Not the right time control is active");
-        assertEquals(halfMove, this.halfMove, "Not the right number of half moves");
-        assertFalse(switchActivePlayer, "Switch-active-player flag set");
-        assertEquals(leftIsWhite, leftAtTurn, "Left-at-turn is wrong");
+        assertEquals(INI_HALF_MOVE, halfMove, "Not the right number of half moves");
+        assertTrue(leftAtTurn, "Left-at-turn is wrong");
     }
 
     /** Update in first move when the time <i>is</i> running here.
@@ -663,6 +528,32 @@ public class TimeControlTest {
             return;
         }
 
+        startGame();
+        long dt = 100; // nanosecs
+        long expect = GAME_TIME * Constants.NANOSEC_PER_SEC - dt;
+
+        // first half move
+        timeControl.update(START + dt);
+
+        readAll();
+        assertEquals(expect, timeControl.getTimeRemaining(0), "Wrong number of nanoseconds on the clock");
+        // the displayed tenth of a second has not changed, so the display is not told
+        assertEquals(GAME_TIME * Constants.NANOSEC_PER_SEC, playerDisplayLeft.getClockTime(),
+                "Display told about an invisible change");
+        assertFalse(timeHasRanOut, "Time is flagged as out");
+        assertEquals(timeControlLeft, currentPTC, "Not the right time control is active");
+        assertEquals(INI_HALF_MOVE, halfMove, "Not the right number of half moves");
+        assertTrue(leftAtTurn, "Left-at-turn is wrong");
+    }
+
+    /** With lazy timekeeping, the time remaining is derived from the moment the turn started, and
+     * the time of the player not at turn is frozen.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testGetTimeRemainingLazy() throws InterruptedException {
+        long sleep = 50; // millisecs
         boolean leftIsWhite = true;
         TimeControlPhase tcp1 = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 100, 10);
         TimeControlPhase tcp2 = TimeControlPhase.makeNew(tcp1).get();
@@ -675,45 +566,30 @@ public class TimeControlTest {
         TimeBudgetConstraint tbc2 = TimeBudgetConstraint
                 .makeNew(new TimeControlPhase[]{tcp2}, moveTimeLimit, warningThreshold, additive).get();
 
-        MockDisplay playerDisplayLeft = new MockDisplay();
-        timeControl.setPlayerTimeDisplay(0, playerDisplayLeft);
-
-        // don't need the method with additional boolean here, as this method we use sets this boolean to false
-        timeControl.setupNewGameTiming(tbc1, tbc2, leftIsWhite);
-        try {
-            currentStateField.set(timeControl, TimeControl.State.running);
-            switchActivePlayerField.set(timeControl, false);
-        } catch (Exception e1) {
-            fail("Could not set fields");
-            return;
-        }
-
-        long dt = 100; // nanosecs
-        long expect = tcp1.getTime() * Constants.NANOSEC_PER_SEC - dt;
-
-        // first half move
-        timeControl.update(dt);
-
-        try {
-            timeHasRanOutRead();
-            currentPTCRead();
-            timeControlLeftRead();
-            timeControlRightRead();
-            halfMoveRead();
-            switchActivePlayerRead();
-            leftAtTurnRead();
+        timeControl.setTimekeeping(Timekeeping.lazy);
+        timeControl.startClock();
+        timeControl.setupNewGameTiming(tbc1, tbc2, leftIsWhite, true);
+        Thread.sleep(sleep);
+        long budget = tcp1.getTime() * Constants.NANOSEC_PER_SEC;
+        assertEquals(budget, timeControl.getTimeRemaining(0), "Time runs before the game starts");
 
-        } catch (Exception e) {
-            fail("Could not read fields");
-        }
+        long before = System.nanoTime();
+        timeControl.notifyMoveDone();
+        Thread.sleep(sleep);
+        long remainingLeft = timeControl.getTimeRemaining(0);
+        long elapsed = System.nanoTime() - before;
+        assertTrue(remainingLeft <= budget - sleep * 1000000, "Not enough time taken from the left player");
+        assertTrue(remainingLeft >= budget - elapsed, "Too much time taken from the left player");
+        assertEquals(budget, timeControl.getTimeRemaining(1), "Time taken from the right player");
 
-        assertEquals(expect, playerDisplayLeft.getClockTime(),
-                "Wrong number of nanoseconds on the clock");
-        assertFalse(timeHasRanOut, "Time is flagged as out");
-        assertEquals(timeControlLeft, currentPTC, "Not the right time control is active");
-        assertEquals(halfMove, this.halfMove, "Not the right number of half moves");
-        assertFalse(switchActivePlayer, "Switch-active-player flag set");
-        assertEquals(leftIsWhite, leftAtTurn, "Left-at-turn is wrong");
+        timeControl.notifyMoveDone();
+        Thread.sleep(sleep);
+        long frozenLeft = timeControl.getTimeRemaining(0);
+        assertTrue(frozenLeft > remainingLeft, "No increment for the left player");
+        Thread.sleep(sleep);
+        assertEquals(frozenLeft, timeControl.getTimeRemaining(0), "Time of the left player not frozen");
+        assertTrue(timeControl.getTimeRemaining(1) < budget, "No time taken from the right player");
+        assertEquals(-1, timeControl.getTimeRemaining(2), "Unknown player has time");
     }
 
     @Test
@@ -741,6 +617,7 @@ public class TimeControlTest {
 
         boolean timeRunsInFirstMove = true; // difference to test 2
         timeControl.setupNewGameTiming(tbc1, tbc2, leftIsWhite, timeRunsInFirstMove);
+        timeControl.update(START);
 
         try {
             timeHasRanOutRead();
@@ -748,7 +625,6 @@ public class TimeControlTest {
             timeControlLeftRead();
             timeControlRightRead();
             halfMoveRead();
-            switchActivePlayerRead();
             leftAtTurnRead();
             currentStateRead();
         } catch (Exception e) {
@@ -759,7 +635,6 @@ public class TimeControlTest {
         assertFalse(timeHasRanOut, "Time is flagged as out");
         assertEquals(timeControlLeft, currentPTC, "Not the right time control is active");
         assertEquals(2, this.halfMove, "Not the right number of half moves");
-        assertFalse(switchActivePlayer, "Switch-active-player flag set");
         assertEquals(leftIsWhite, leftAtTurn, "Left-at-turn is wrong");
     }
 
@@ -782,6 +657,7 @@ public class TimeControlTest {
 
         boolean timeRunsInFirstMove = false; // difference to test 1
         timeControl.setupNewGameTiming(tbc1, tbc2, leftIsWhite, timeRunsInFirstMove);
+        timeControl.update(START);
 
         try {
             timeHasRanOutRead();
@@ -789,7 +665,6 @@ public class TimeControlTest {
             timeControlLeftRead();
             timeControlRightRead();
             halfMoveRead();
-            switchActivePlayerRead();
             leftAtTurnRead();
             currentStateRead();
         } catch (Exception e) {
@@ -800,8 +675,117 @@ public class TimeControlTest {
         assertFalse(timeHasRanOut, "Time is flagged as out");
         assertEquals(timeControlLeft, currentPTC, "Not the right time control is active");
         assertEquals(2, this.halfMove, "Not the right number of half moves");
-        assertFalse(switchActivePlayer, "Switch-active-player flag set");
         assertEquals(leftIsWhite, leftAtTurn, "Left-at-turn is wrong");
     }
 
+    /** A frame display receives one frame per visible change, and none for invisible ones.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testFrameDisplay() {
+        MockDisplay frames = new MockDisplay();
+        frames.setFramePlayer(1);
+        timeControl.setFrameDisplay(frames);
+        startGame();
+        long second = Constants.NANOSEC_PER_SEC;
+        long tenth = Constants.NANOSEC_PER_TENS_OF_SEC;
+
+        assertEquals(GAME_TIME * second, frames.getClockTime(), "Wrong time in the frame");
+        assertFalse(frames.isActive(), "Right player active in the frame");
+        assertEquals(1, frames.getMoveNumber(), "Wrong move number in the frame");
+
+        timeControl.notifyMoveDone(START + second);
+        timeControl.update(START + second);
+        assertTrue(frames.isActive(), "Right player not active in the frame");
+        assertEquals(START + second, frames.getInputStamp(), "Wrong input stamp in the frame");
+        assertEquals(START + second, frames.getExecutionStamp(), "Wrong execution stamp in the frame");
+        int count = frames.getFrames();
+
+        // a thousand ticks within the same tenth of a second
+        for (int tick = 1; tick <= 1000; tick++) {
+            timeControl.update(START + second + tick * 1000);
+        }
+        assertEquals(count, frames.getFrames(), "Frames shown without a visible change");
+
+        timeControl.update(START + second + tenth);
+        assertEquals(count + 1, frames.getFrames(), "No frame shown for a new tenth of a second");
+        assertEquals(GAME_TIME * second - tenth, frames.getClockTime(), "Wrong time in the frame");
+
+        timeControl.notifyPauseChangeRequest(START + 2 * second);
+        timeControl.update(START + 2 * second);
+        assertTrue(frames.isPaused(), "Frame not paused");
+        assertEquals(START + 2 * second, frames.getInputStamp(), "Wrong input stamp in the frame");
+        timeControl.notifyPauseChangeRequest(START + 2 * second + tenth);
+        timeControl.update(START + 2 * second + 2 * tenth);
+        assertEquals(START + 2 * second + 2 * tenth, frames.getExecutionStamp(),
+                "Execution stamp does not tell the update taking up the input");
+        assertFalse(frames.isPaused(), "Frame still paused");
+        timeControl.notifyPauseChangeRequest(START + 2 * second + 3 * tenth);
+        timeControl.update(START + 2 * second + 3 * tenth);
+        timeControl.notifyPauseChangeRequest(START + 3 * second);
+        timeControl.update(START + (GAME_TIME + INCREMENT + 3) * second);
+        assertTrue(frames.isOutOfTime(), "Flag did not fall in the frame");
+        assertFalse(frames.isPaused(), "Frame still paused");
+
+        timeControl.setFrameDisplay(null);
+        count = frames.getFrames();
+        timeControl.notifyMoveDone(START + (GAME_TIME + INCREMENT + 4) * second);
+        timeControl.update(START + (GAME_TIME + INCREMENT + 4) * second);
+        assertEquals(count, frames.getFrames(), "Frame shown after removing the frame display");
+    }
+
+    /** A command finding the ring of commands full fails after a while if the signal clock does not
+     * execute any of them, rather than waiting forever.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testSubmitToFullRing() {
+        startGame();
+        int capacity = 64;
+        for (int move = 1; move <= capacity; move++) {
+            timeControl.notifyMoveDone(START + move);
+        }
+        long before = System.nanoTime();
+        try {
+            timeControl.notifyMoveDone(START + capacity + 1);
+            fail("Command submitted to a full ring");
+        } catch (IllegalStateException e) {
+            // the signal clock is not running
+        }
+        assertTrue(System.nanoTime() - before >= TimeControl.SUBMIT_TIMEOUT, "Gave up too early");
+
+        timeControl.update(START + capacity + 2);
+        readAll();
+        assertEquals(INI_HALF_MOVE + capacity, halfMove, "Commands waiting not executed");
+    }
+
+    /** The metrics count the moves received and applied, the pauses, and the calls to the displays.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testMetrics() {
+        ClockworkMetrics metrics = timeControl.getMetrics();
+        startGame();
+        long second = Constants.NANOSEC_PER_SEC;
+        timeControl.notifyMoveDone(START + second);
+        timeControl.update(START + second);
+        timeControl.notifyPauseChangeRequest(START + 2 * second);
+        timeControl.update(START + 2 * second);
+        // received while paused, but not applied
+        timeControl.notifyMoveDone(START + 3 * second);
+        timeControl.update(START + 3 * second);
+        timeControl.notifyPauseChangeRequest(START + 4 * second);
+        timeControl.update(START + 4 * second);
+
+        assertEquals(3, metrics.getMovesReceived(), "Wrong number of moves received");
+        assertEquals(2, metrics.getMovesApplied(), "Wrong number of moves applied");
+        assertEquals(1, metrics.getPauses(), "Wrong number of pauses");
+        assertEquals(1, metrics.getResumes(), "Wrong number of resumptions");
+        assertTrue(metrics.getDisplayUpdates() > 0, "No display updates counted");
+        assertTrue(metrics.getDisplayCallbacks() > metrics.getDisplayUpdates(), "Display callbacks not counted");
+        assertEquals(0, metrics.getFramesShown(), "Frames counted without a frame display");
+    }
 }
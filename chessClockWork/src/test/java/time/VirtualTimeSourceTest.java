@@ -0,0 +1,221 @@
+/*
+ * PhasedChessClock - clockwork (short "the phased clockwork" in the following)
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Linking the phased clockwork statically or dynamically with other modules
+ * is making a combined work based on the phased clockwork. Thus, the terms
+ * and conditions of the GNU General Public License cover the whole combination.
+
+ * As a special exception, the copyright holders of the phased clockwork give
+ * you permission to combine the phased clockwork with free software programs
+ * or libraries that are released under the GNU LGPL or any other licence and
+ * with independent modules that communicate with the phased clockwork solely
+ * through the public interface of the phased clockwork. You may copy and
+ * distribute such a system following the terms of the GNU GPL for the phased
+ * clockwork and the licenses of the other code concerned, provided that you
+ * include the source code of that other code when and as the GNU GPL requires
+ * distribution of source code and provided that you do not modify the public
+ * interface of the phased clockwork.
+
+ * Note that people who make modified versions of the phased clockwork are not
+ * obligated to grant this special exception for their modified versions; it is
+ * their choice whether to do so. The GNU General Public License gives
+ * permission to release a modified version without this exception; this
+ * exception also makes it possible to release a modified version which carries
+ * forward this exception. If you modify the public interface of the phased
+ * clockwork, this exception does not apply to your modified version of the
+ * phased clockwork, and you must remove this exception when you distribute your
+ * modified version.
+
+ * This exception is an additional permission under section 7 of the GNU General Public License, version 3 (“GPLv3”)
+ */
+package time;
+
+
+import additionalTesting.MockClockDisplay;
+import additionalTesting.MockDisplay;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Runs whole games on virtual time.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public class VirtualTimeSourceTest {
+
+    private static final long SECOND = Constants.NANOSEC_PER_SEC;
+    private static final long MINUTE = Constants.SEC_PER_MIN * SECOND;
+
+    private VirtualTimeSource source;
+    private TimeControl timeControl;
+    private MockClockDisplay display;
+    private FlagDisplay displayLeft;
+    private FlagDisplay displayRight;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        source = VirtualTimeSource.makeNew(12345).get();
+        display = new MockClockDisplay();
+        displayLeft = new FlagDisplay();
+        displayRight = new FlagDisplay();
+        timeControl = TimeControl.makeNew(display, source).get();
+        timeControl.setPlayerTimeDisplay(0, displayLeft);
+        timeControl.setPlayerTimeDisplay(1, displayRight);
+        timeControl.startClock();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        timeControl.endSignalClock();
+        timeControl = null;
+        source = null;
+    }
+
+    @Test
+    public void testNanoTime() {
+        assertEquals(12345, source.nanoTime(), "Wrong start");
+        source.advance(100);
+        assertEquals(12445, source.nanoTime(), "Time not advanced");
+        source.advance(-50);
+        assertEquals(12445, source.nanoTime(), "Time went back");
+        source.advanceTo(20000);
+        assertEquals(20000, source.nanoTime(), "Time not advanced to moment");
+        assertEquals(0, VirtualTimeSource.makeNew().get().nanoTime(), "Wrong default start");
+        assertEquals(source, timeControl.getTimeSource(), "Time control not running on the source");
+    }
+
+    /** Commands beyond the capacity of the ring of commands are executed right away, as the time
+     * only passes when advanced.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testSubmitToFullRing() {
+        TimeControlPhase tcp = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 60, 0);
+        TimeBudgetConstraint tbc = TimeBudgetConstraint.makeNew(new TimeControlPhase[]{tcp}, -1, 10, false).get();
+        timeControl.setupNewGameTiming(tbc, tbc, true, true);
+        int moves = 3 * 64 + 1;
+        for (int move = 0; move < moves; move++) {
+            timeControl.notifyMoveDone();
+        }
+        source.advance(0);
+        assertEquals((moves + 1) / 2, display.getMoveNumber(), "Not all moves executed");
+    }
+
+    @Test
+    public void testFlagFallPerTick() {
+        long error = playUntilFlagFalls(Timekeeping.perTick);
+        assertEquals(0, error, "Flag did not fall at the exact moment");
+    }
+
+    @Test
+    public void testFlagFallLazy() {
+        long error = playUntilFlagFalls(Timekeeping.lazy);
+        assertEquals(0, error, "Flag did not fall at the exact moment");
+    }
+
+    /** Plays a game of 90 minutes where the left player never moves.
+     *
+     * @since 1.0;
+     * @param timekeeping The kind of timekeeping.
+     * @return Time between the moment the flag should have fallen and the moment it actually fell,
+     * in nanoseconds.
+     */
+    private long playUntilFlagFalls(Timekeeping timekeeping) {
+        TimeControlPhase tcp = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 90 * 60, 30);
+        TimeBudgetConstraint tbc = TimeBudgetConstraint.makeNew(new TimeControlPhase[]{tcp}, -1, 60, false).get();
+
+        timeControl.setTimekeeping(timekeeping);
+        timeControl.setupNewGameTiming(tbc, tbc, true, true);
+        long start = source.nanoTime();
+        timeControl.notifyMoveDone();
+
+        source.advance(90 * MINUTE - 1);
+        assertFalse(displayLeft.isOutOfTime(), "Flag fell too early");
+        assertEquals(1, timeControl.getTimeRemaining(0), "Wrong time left just before the flag falls");
+        // the display is only told when the displayed tenth of a second changes
+        assertEquals(Constants.NANOSEC_PER_TENS_OF_SEC, displayLeft.getClockTime(), "Wrong time shown just before the flag falls");
+        source.advance(1 * MINUTE);
+        assertTrue(displayLeft.isOutOfTime(), "Flag did not fall");
+        assertTrue(display.isStopped(), "Clock display not told that the clock stopped");
+        return displayLeft.flagFellAt - start - 90 * MINUTE;
+    }
+
+    /** A game with moves, a pause, and a change of the phase. All times are exact.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testGame() {
+        TimeControlPhase tcp1 = TimeControlPhase.makeNew((short) 2, 60, 5);
+        TimeControlPhase tcp2 = TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, 30, 0);
+        TimeBudgetConstraint tbc = TimeBudgetConstraint
+                .makeNew(new TimeControlPhase[]{tcp1, tcp2}, -1, -1, true).get();
+
+        timeControl.setupNewGameTiming(tbc, tbc, true, true);
+        timeControl.notifyMoveDone(); // the game starts, white is to move
+        source.advance(10 * SECOND);
+        timeControl.notifyMoveDone(); // white's move 1 after 10 s
+        source.advance(20 * SECOND);
+        timeControl.notifyPauseChangeRequest(); // black pauses after 20 s
+        source.advance(10 * MINUTE);
+        assertEquals(true, display.isPaused(), "Not paused");
+        timeControl.notifyPauseChangeRequest(); // resumed
+        source.advance(5 * SECOND);
+        timeControl.notifyMoveDone(); // black's move 1 after 25 s
+        source.advance(1 * SECOND);
+        timeControl.notifyMoveDone(); // white's move 2 after 1 s, enters phase 2
+        source.advance(2 * SECOND);
+
+        assertEquals((60 - 10 + 5 - 1 + 5 + 30) * SECOND, timeControl.getTimeRemaining(0),
+                "Wrong time for white");
+        assertEquals((60 - 25 + 5 - 2) * SECOND, timeControl.getTimeRemaining(1), "Wrong time for black");
+        assertEquals(2, display.getMoveNumber(), "Wrong move number");
+        assertFalse(displayLeft.isOutOfTime() || displayRight.isOutOfTime(), "A flag fell");
+    }
+
+    /** Remembers the moment the flag falls.
+     *
+     * @since 1.0;
+     */
+    private class FlagDisplay extends MockDisplay {
+
+        /** Moment of the flag fall. */
+        private long flagFellAt;
+
+        @Override
+        public void setOutOfTime() {
+            super.setOutOfTime();
+            flagFellAt = source.nanoTime();
+        }
+    }
+
+}
@@ -25,6 +25,7 @@ import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.WindowEvent;
 import java.awt.event.WindowListener;
+import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -47,6 +48,8 @@ import time.TimeControl;
 public final class ChessClockFrame extends MasterFrame implements KeyListener, WindowListener {
 
     private static final Logger LOG = Logger.getLogger(ChessClockFrame.class.getName());
+    /** Command line option that shows the performance overlay right from the start. */
+    static final String HUD_OPTION = "--hud";
 
     private LoadPanel loadPanel;
     private JPanel currentPanel;
@@ -209,6 +212,12 @@ public final class ChessClockFrame extends MasterFrame implements KeyListener, W
     public void keyReleased(KeyEvent e) {
         if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
             exitApplication();
+        } else if (e.getKeyCode() == KeyEvent.VK_F12) {
+            // dumps the input latencies, without counting as a move
+            LOG.log(Level.INFO, getClockPanel().getLatencyTracer().report());
+        } else if (e.getKeyCode() == KeyEvent.VK_F11) {
+            // toggles the performance overlay, without counting as a move
+            getClockPanel().setHudShown(!getClockPanel().isHudShown());
         } else if (currentPanel == getClockPanel()) {
             if (e.getKeyCode() != KeyEvent.VK_SPACE) {
                 timeControl.notifyMoveDone();
@@ -278,6 +287,7 @@ public final class ChessClockFrame extends MasterFrame implements KeyListener, W
 //
 //        SecurityManager securityManager = new SecurityManager();
         // System.setSecurityManager(securityManager);
+        StartupProfiler profiler = StartupProfiler.makeNew();
         ChessClockFrame frame = null;
         try {
             frame = new ChessClockFrame("ChessClock");
@@ -285,8 +295,9 @@ public final class ChessClockFrame extends MasterFrame implements KeyListener, W
         }
 
         if (frame != null) {
+            profiler.endPhase("window");
             LaunchThread lt;
-            lt = new LaunchThread(frame);
+            lt = new LaunchThread(frame, profiler, List.of(args).contains(HUD_OPTION));
             lt.start();
         } else {
             LOG.log(Level.SEVERE, "Could not initialize window. Shutting down");
@@ -65,6 +65,12 @@ public interface Constants {
 
     /** A version string that may appear here and there. */
     public static final String VERSION = "1.0";
+    /** Directory of the external language bundles, relative to the working directory. */
+    public static final String LANGUAGE_DIR = "lang";
+    /** Journal of the running game, relative to the working directory. */
+    public static final String JOURNAL_FILE = "game.journal";
+    /** The journal of the previous run while its game is rebuilt, relative to the working directory. */
+    public static final String PREVIOUS_JOURNAL_FILE = "game.journal.previous";
 
     /** The maximum number of minutes you can set in the
      * {@link chessclock.gamesettings.AddTCPDialog AddTCPDialog}. With increments and cumulative
@@ -36,8 +36,6 @@ public final class Country {
     private final String codeKey;
     /** Name of image file with flag, including file suffix. */
     private final String flagFile;
-    /** Image icon with the flag. */
-    private final ImageIcon flag;
 
     /** Generates.
      *
@@ -50,8 +48,6 @@ public final class Country {
         this.nameKey = nameKey;
         this.codeKey = codeKey;
         this.flagFile = flagFile;
-
-        flag = Util.getImageIcon(Constants.FLAG_DIR + flagFile);
     }
 
     /** Returns the localisation key to the name of the country.
@@ -81,13 +77,15 @@ public final class Country {
         return flagFile;
     }
 
-    /** Returns the image icon displaying the flag.
+    /** Returns the image icon displaying the flag. The flag is taken from the shared
+     * {@link FlagAtlas flag atlas} on first request, so countries whose flags are never shown cost
+     * no image memory.
      *
      * @since 1.0;
      * @return The image icon displaying the flag.
      */
     public final ImageIcon getFlag() {
-        return flag;
+        return FlagAtlas.getShared().getFlag(flagFile);
     }
 
 }
@@ -0,0 +1,234 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package chessclock;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+/** All flags packed into a single sprite sheet. An index tells where on the sheet each flag is. The
+ * index is read on the first request for a flag, but the sheet is decoded only once, in the
+ * background, as soon as it is {@link #prefetch() prefetched} or needed. A flag is a view into the
+ * sheet that shares its pixels, and it is made only once per flag file, however many countries use
+ * it.
+ * <p>
+ * Each line of the index is the name of the flag file, followed by the x and y position, the width,
+ * and the height of the flag on the sheet, separated by blanks. Lines starting with {@code #} are
+ * comments. Flags missing in the index are loaded from their own files, as before.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+final class FlagAtlas {
+
+    private static final Logger LOG = Logger.getLogger(FlagAtlas.class.getName());
+    /** Resource with the sprite sheet of the flags. */
+    static final String SHEET_FILE = Constants.FLAG_DIR + "flags.png";
+    /** Resource with the index of the sprite sheet. */
+    static final String INDEX_FILE = Constants.FLAG_DIR + "flags.idx";
+
+    /** The sprite sheet, being decoded or decoded. {@code null} until prefetched. */
+    private CompletableFuture<BufferedImage> sheet;
+    /** Position of each flag on the sheet, by the name of the flag file. {@code null} until read. */
+    private volatile Map<String, Rectangle> index;
+    /** The flags made so far, by the name of the flag file. */
+    private final Map<String, ImageIcon> flags = new ConcurrentHashMap<>();
+    /** Resource with the sprite sheet. */
+    private final String sheetFile;
+    /** Resource with the index. */
+    private final String indexFile;
+
+    /** The atlas shared by all countries. */
+    private static class Holder {
+
+        private static final FlagAtlas SHARED = new FlagAtlas(SHEET_FILE, INDEX_FILE);
+    }
+
+    /** Generates. Nothing is read yet.
+     *
+     * @since 1.0;
+     * @param sheetFile Resource with the sprite sheet.
+     * @param indexFile Resource with the index.
+     */
+    FlagAtlas(String sheetFile, String indexFile) {
+        this.sheetFile = sheetFile;
+        this.indexFile = indexFile;
+    }
+
+    /** Returns the atlas shared by all countries.
+     *
+     * @since 1.0;
+     * @return The shared atlas.
+     */
+    static FlagAtlas getShared() {
+        return Holder.SHARED;
+    }
+
+    /** Starts decoding the sprite sheet in the background, unless already done. Call this early, so
+     * that the sheet is ready when the first flag is shown.
+     *
+     * @since 1.0;
+     * @return The sheet, being decoded. Completes with {@code null} if the sheet cannot be read.
+     */
+    synchronized CompletableFuture<BufferedImage> prefetch() {
+        if (sheet == null) {
+            sheet = CompletableFuture.supplyAsync(this::decodeSheet);
+        }
+        return sheet;
+    }
+
+    /** Returns the flag from a flag file. Waits for the sheet if it is still being decoded.
+     *
+     * @since 1.0;
+     * @param flagFile Name of the flag file, including file suffix.
+     * @return The flag.
+     */
+    ImageIcon getFlag(String flagFile) {
+        return flags.computeIfAbsent(flagFile, this::makeFlag);
+    }
+
+    /** Makes the flag from a flag file, as a view into the sheet if the flag is on the sheet.
+     *
+     * @since 1.0;
+     * @param flagFile Name of the flag file, including file suffix.
+     * @return The flag.
+     */
+    private ImageIcon makeFlag(String flagFile) {
+        Rectangle bounds = getIndex().get(flagFile);
+        BufferedImage image = bounds != null ? prefetch().join() : null;
+        if (image == null) {
+            return Util.getImageIcon(Constants.FLAG_DIR + flagFile);
+        }
+        return new ImageIcon(image.getSubimage(bounds.x, bounds.y, bounds.width, bounds.height));
+    }
+
+    /** Returns the number of bytes retained by the pixels of the decoded sheet.
+     *
+     * @since 1.0;
+     * @return Number of bytes. Zero if the sheet has not been decoded (yet).
+     */
+    long getRetainedBytes() {
+        CompletableFuture<BufferedImage> decoded;
+        synchronized (this) {
+            decoded = sheet;
+        }
+        BufferedImage image = decoded != null ? decoded.getNow(null) : null;
+        return image != null ? getImageBytes(image) : 0;
+    }
+
+    /** Returns the number of bytes taken by the pixels of an image.
+     *
+     * @since 1.0;
+     * @param image The image.
+     * @return Number of bytes.
+     */
+    static long getImageBytes(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        long elementBytes = DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+        return (long) buffer.getSize() * buffer.getNumBanks() * elementBytes;
+    }
+
+    /** Returns the index, reading it on first use.
+     *
+     * @since 1.0;
+     * @return Position of each flag on the sheet, by the name of the flag file.
+     */
+    private Map<String, Rectangle> getIndex() {
+        Map<String, Rectangle> read = index;
+        if (read == null) {
+            synchronized (this) {
+                read = index;
+                if (read == null) {
+                    read = readIndex();
+                    index = read;
+                }
+            }
+        }
+        return read;
+    }
+
+    /** Reads the index.
+     *
+     * @since 1.0;
+     * @return Position of each flag on the sheet, by the name of the flag file. Empty if the index
+     * cannot be read.
+     */
+    private Map<String, Rectangle> readIndex() {
+        Map<String, Rectangle> read = new HashMap<>();
+        URL url = Util.getResourceURL(indexFile);
+        if (url == null) {
+            LOG.log(Level.WARNING, "No flag index {0}", indexFile);
+            return Collections.emptyMap();
+        }
+        try (InputStream in = url.openStream();
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                if (parts.length != 5) {
+                    LOG.log(Level.WARNING, "Malformed line in flag index: {0}", line);
+                    continue;
+                }
+                read.put(parts[0], new Rectangle(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                        Integer.parseInt(parts[3]), Integer.parseInt(parts[4])));
+            }
+        } catch (IOException | NumberFormatException e) {
+            LOG.log(Level.WARNING, "Could not read flag index " + indexFile, e);
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(read);
+    }
+
+    /** Decodes the sprite sheet.
+     *
+     * @since 1.0;
+     * @return The sheet, or {@code null} if it cannot be read.
+     */
+    private BufferedImage decodeSheet() {
+        URL url = Util.getResourceURL(sheetFile);
+        if (url == null) {
+            LOG.log(Level.WARNING, "No flag sheet {0}", sheetFile);
+            return null;
+        }
+        try {
+            return ImageIO.read(url);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not read flag sheet " + sheetFile, e);
+            return null;
+        }
+    }
+}
@@ -18,17 +18,27 @@
 package chessclock;
 
 import java.awt.Font;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 import chessclock.clockpanel.ClockPanel;
 import chessclock.settingspanel.SettingsPanel;
+import localization.BundleLocalization;
 import localization.EnglishLocalization;
 import localization.Loc;
+import time.GameJournal;
+import time.TickPolicy;
+import time.Timekeeping;
 import time.TimeControl;
 
 /** The thread that does all the launching work.
@@ -44,25 +54,36 @@ public class LaunchThread extends Thread {
     private ChessClockFrame frame;
     /** A shutdown thread in case something goes wrong. */
     private LaunchShutdownThread shutdownThread;
+    /** Times the phases of the launch. */
+    private final StartupProfiler profiler;
+    /** Show the performance overlay right from the start? */
+    private final boolean showHud;
 
     /** Generates
      *
      * @since 1.0;
      * @param frame The frame that hosts the GUI.
+     * @param profiler Times the phases of the launch.
+     * @param showHud Show the performance overlay right from the start?
      */
-    LaunchThread(ChessClockFrame frame) {
+    LaunchThread(ChessClockFrame frame, StartupProfiler profiler, boolean showHud) {
         LOG.setLevel(Level.ALL);
         shutdownThread = new LaunchShutdownThread(this);
         Runtime.getRuntime().addShutdownHook(shutdownThread);
         this.frame = frame;
+        this.profiler = profiler;
+        this.showHud = showHud;
     }
 
     @Override
     public void run() {
         try {
+            // decode the flags in the background while the GUI is set up
+            FlagAtlas.getShared().prefetch();
             frame.setLoc(generateInitialLocalization());
             frame.addKeyListener(frame);
             frame.addWindowListener(frame);
+            profiler.endPhase("localization");
 
             // setting up the panels
             int panelWidth = frame.getContentPane().getWidth();
@@ -75,6 +96,7 @@ public class LaunchThread extends Thread {
             ClockPanel clockPanel = optClockPanel.get();
             clockPanel.setLocation(0, 0);
             frame.addClockPanel(clockPanel);
+            profiler.endPhase("clock panel");
 
             Optional<SettingsPanel> optSettingsPanel = SettingsPanel.makeNew(frame, panelWidth, panelHeight);
             if (optSettingsPanel.isEmpty()) {
@@ -84,6 +106,7 @@ public class LaunchThread extends Thread {
             SettingsPanel settingsPanel = optSettingsPanel.get();
             settingsPanel.setLocation(0, 0);
             frame.addSettingsPanel(settingsPanel);
+            profiler.endPhase("settings panel");
 
             // setup the time control
             Optional<TimeControl> optTimeControl = TimeControl.makeNew(clockPanel);
@@ -92,23 +115,45 @@ public class LaunchThread extends Thread {
             }
 
             TimeControl timeControl = optTimeControl.get();
+            // sleep between the ticks rather than keeping a core busy for the whole game
+            timeControl.setTickPolicy(TickPolicy.hybrid);
+            // derive the remaining time from the moment the turn started instead of summing up ticks
+            timeControl.setTimekeeping(Timekeeping.lazy);
             clockPanel.setTimeControl(timeControl);
             frame.setTimeControl(timeControl);
+            profiler.endPhase("time control");
+
+            // rebuild the game of a previous run that has not been shut down properly
+            boolean recovered = setUpJournal(timeControl);
+            profiler.endPhase("journal");
 
             // setting the fonts
             Font font = loadReferenceFont();
             frame.setReferenceFont(font);
+            profiler.endPhase("fonts");
 
             // localize strings in UI
             frame.updateLocalization(frame.getLoc());
+            profiler.endPhase("translation");
 
             // arrange UI, and yes, called twice 'cos in settingsPanel.rearrange() "tabWidth" is -3 in first call
             frame.rearrange();
             frame.rearrange();
+            profiler.endPhase("layout");
 
             // go, go, go
             timeControl.startClock();
             frame.iniDone();
+            if (recovered) {
+                frame.goToClockPanel();
+            }
+            // queued behind the repaint of the settings panel, so this runs once it has been painted
+            SwingUtilities.invokeLater(() -> profiler.firstFrameShown("first frame"));
+            if (showHud) {
+                SwingUtilities.invokeLater(() -> clockPanel.setHudShown(true));
+            }
+            // lets JConsole and the like watch the clock; after the first frame, as setting up JMX takes a while
+            timeControl.publishMetrics();
 
             // clean up
             Runtime.getRuntime().removeShutdownHook(shutdownThread);
@@ -120,15 +165,52 @@ public class LaunchThread extends Thread {
         }
     }
 
-    /** Creates an initial localization to start with.
+    /** Creates an initial localization to start with. This is the language bundle for the default
+     * locale if there is one in the {@link Constants#LANGUAGE_DIR language directory}, and English
+     * otherwise. Bundles for other languages are not touched.
      *
      * @since 1.0;
      * @return
      */
     private Loc generateInitialLocalization() {
+        String languageCode = Locale.getDefault().toLanguageTag().toLowerCase(Locale.ROOT);
+        Path bundle = Path.of(Constants.LANGUAGE_DIR, languageCode + BundleLocalization.EXTENSION);
+        if (Files.isRegularFile(bundle)) {
+            Optional<BundleLocalization> loc = BundleLocalization.makeNew(bundle);
+            if (loc.isPresent()) {
+                return loc.get();
+            }
+        }
         return new EnglishLocalization();
     }
 
+    /** Sets a new journal on the time control, and replays the journal of the previous run into it.
+     * The journal of the previous run is kept aside until the next launch.
+     *
+     * @since 1.0;
+     * @param timeControl The time control. Its signal clock must not have been started yet.
+     * @return {@code true} if a game has been rebuilt.
+     */
+    private boolean setUpJournal(TimeControl timeControl) {
+        Path file = Path.of(Constants.JOURNAL_FILE);
+        Path previous = Path.of(Constants.PREVIOUS_JOURNAL_FILE);
+        try {
+            Files.deleteIfExists(previous);
+            if (Files.exists(file)) {
+                Files.move(file, previous, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not keep the previous game journal aside", e);
+        }
+
+        GameJournal.makeNew(file).ifPresent(timeControl::setJournal);
+        int replayed = GameJournal.replay(previous, timeControl);
+        if (replayed > 0) {
+            LOG.log(Level.INFO, "Rebuilt the game of the previous run from " + replayed + " journal records");
+        }
+        return replayed > 0;
+    }
+
     /** Creates an initial standard font used for the GUI elements.
      *
      * @since 1.0;
@@ -0,0 +1,204 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package chessclock;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import time.Constants;
+import time.TimeSource;
+
+/** Times the phases of the launch of the application, and the headline: the time until the first
+ * frame the users can interact with is shown. This time is compared against a budget. The phases
+ * and the headline are reported to the log once the first frame has been shown.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+final class StartupProfiler {
+
+    private static final Logger LOG = Logger.getLogger(StartupProfiler.class.getName());
+    /** Nanoseconds per millisecond. */
+    private static final long NANOSEC_PER_MILLISEC = Constants.NANOSEC_PER_SEC / 1000;
+    /** The time within the first interactive frame should be shown, counted from the start of the
+     * process, in nanoseconds. */
+    static final long FIRST_FRAME_BUDGET = 1500 * NANOSEC_PER_MILLISEC;
+    /** Name of the phase before the profiler has been created. */
+    static final String BEFORE_LAUNCH = "before launch";
+
+    /** The source of the current moment. */
+    private final TimeSource timeSource;
+    /** Budget for the time to the first interactive frame, in nanoseconds. */
+    private final long budget;
+    /** Time that had already passed when the profiler was created, in nanoseconds. */
+    private final long alreadyElapsed;
+    /** Moment the profiler has been created. */
+    private final long start;
+    /** Moment the last phase has ended. */
+    private long lastPhaseEnd;
+    /** The names of the phases ended so far. */
+    private final List<String> phaseNames = new ArrayList<>();
+    /** The durations of the phases ended so far, in nanoseconds. */
+    private long[] phaseDurations = new long[8];
+    /** Time from the start until the first interactive frame has been shown, in nanoseconds.
+     * Negative until then. */
+    private long timeToFirstFrame = -1;
+
+    /** Generates and starts timing the first phase.
+     *
+     * @since 1.0;
+     * @param timeSource The source of the current moment.
+     * @param budget Budget for the time to the first interactive frame, in nanoseconds.
+     * @param alreadyElapsed Time that had already passed when the profiler is created, e.g. for
+     * starting the JVM, in nanoseconds. Reported as a phase of its own if positive.
+     */
+    StartupProfiler(TimeSource timeSource, long budget, long alreadyElapsed) {
+        this.timeSource = timeSource;
+        this.budget = budget;
+        this.alreadyElapsed = Math.max(0, alreadyElapsed);
+        start = timeSource.nanoTime();
+        lastPhaseEnd = start;
+        if (this.alreadyElapsed > 0) {
+            addPhase(BEFORE_LAUNCH, this.alreadyElapsed);
+        }
+    }
+
+    /** Creates a profiler on the system time with the default budget, counting from the start of
+     * the process if the operating system tells when this was.
+     *
+     * @since 1.0;
+     * @return The profiler.
+     */
+    static StartupProfiler makeNew() {
+        long sinceProcessStart = ProcessHandle.current().info().startInstant()
+                .map(processStart -> Duration.between(processStart, Instant.now()).toNanos())
+                .orElse(0L);
+        return new StartupProfiler(TimeSource.SYSTEM, FIRST_FRAME_BUDGET, sinceProcessStart);
+    }
+
+    /** Ends the current phase. The next phase starts right now.
+     *
+     * @since 1.0;
+     * @param name Name of the phase ended.
+     */
+    synchronized void endPhase(String name) {
+        long now = timeSource.nanoTime();
+        addPhase(name, now - lastPhaseEnd);
+        lastPhaseEnd = now;
+    }
+
+    /** Adds a phase.
+     *
+     * @since 1.0;
+     * @param name Name of the phase.
+     * @param duration Duration of the phase, in nanoseconds.
+     */
+    private void addPhase(String name, long duration) {
+        if (phaseNames.size() == phaseDurations.length) {
+            phaseDurations = Arrays.copyOf(phaseDurations, 2 * phaseDurations.length);
+        }
+        phaseDurations[phaseNames.size()] = duration;
+        phaseNames.add(name);
+    }
+
+    /** Tells that the first frame the users can interact with has been shown. Ends the current
+     * phase and reports all phases and the time to the first interactive frame. Later calls are
+     * ignored.
+     *
+     * @since 1.0;
+     * @param lastPhase Name of the phase that ends with showing the frame.
+     */
+    synchronized void firstFrameShown(String lastPhase) {
+        if (timeToFirstFrame >= 0) {
+            return;
+        }
+        endPhase(lastPhase);
+        timeToFirstFrame = alreadyElapsed + lastPhaseEnd - start;
+        LOG.log(isWithinBudget() ? Level.INFO : Level.WARNING, report());
+    }
+
+    /** Returns the time until the first interactive frame has been shown. This is the headline of
+     * the launch.
+     *
+     * @since 1.0;
+     * @return The time, in nanoseconds. Negative if the frame has not been shown yet.
+     */
+    synchronized long getTimeToFirstFrame() {
+        return timeToFirstFrame;
+    }
+
+    /** Tells if the first interactive frame has been shown within the budget.
+     *
+     * @since 1.0;
+     * @return {@code true} if so. {@code false} if not, or if the frame has not been shown yet.
+     */
+    synchronized boolean isWithinBudget() {
+        return timeToFirstFrame >= 0 && timeToFirstFrame <= budget;
+    }
+
+    /** Returns the names of the phases ended so far, in order.
+     *
+     * @since 1.0;
+     * @return The names.
+     */
+    synchronized List<String> getPhaseNames() {
+        return new ArrayList<>(phaseNames);
+    }
+
+    /** Returns the duration of a phase.
+     *
+     * @since 1.0;
+     * @param phase Index of the phase, in the order of {@link #getPhaseNames()}.
+     * @return The duration, in nanoseconds. Negative if there is no such phase.
+     */
+    synchronized long getPhaseDuration(int phase) {
+        return phase >= 0 && phase < phaseNames.size() ? phaseDurations[phase] : -1;
+    }
+
+    /** Returns a report of the phases ended so far and the time to the first interactive frame.
+     *
+     * @since 1.0;
+     * @return The report, one line per phase.
+     */
+    synchronized String report() {
+        StringBuilder builder = new StringBuilder("Launch phases:");
+        for (int phase = 0; phase < phaseNames.size(); phase++) {
+            builder.append(String.format("%n  %-20s %8.1f ms", phaseNames.get(phase), toMillis(phaseDurations[phase])));
+        }
+        if (timeToFirstFrame >= 0) {
+            builder.append(String.format("%nTime to first interactive frame: %.1f ms (budget %.1f ms%s)",
+                    toMillis(timeToFirstFrame), toMillis(budget), isWithinBudget() ? "" : ", exceeded"));
+        }
+        return builder.toString();
+    }
+
+    /** Converts nanoseconds to milliseconds.
+     *
+     * @since 1.0;
+     * @param nanos Nanoseconds.
+     * @return Milliseconds.
+     */
+    private static double toMillis(long nanos) {
+        return nanos / (double) NANOSEC_PER_MILLISEC;
+    }
+}
@@ -29,12 +29,15 @@ import java.util.Optional;
 
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 import chessclock.Constants;
 import chessclock.Country;
 import chessclock.MasterFrame;
 import localization.Loc;
 import time.ClockDisplay;
+import time.ClockFrame;
+import time.FrameDisplay;
 import time.TimeControl;
 
 /** The clock panel displays the clock.
@@ -42,7 +45,7 @@ import time.TimeControl;
  * @author Dragonstb
  * @since 1.0;
  */
-public final class ClockPanel extends JPanel implements MouseListener, ClockDisplay {
+public final class ClockPanel extends JPanel implements MouseListener, ClockDisplay, FrameDisplay {
 
     private static final byte ELEMENT_BORDER_WIDTH = 2;
     /** Spacing between the time labels and the edge of the panel. */
@@ -95,9 +98,16 @@ public final class ClockPanel extends JPanel implements MouseListener, ClockDisp
     private JLabel leverPanel;
     /** The text overlaying the time panels while the clock is paused. */
     private String pausedString;
+    /** The move number shown on the move panel. */
+    private int shownMoveNumber = Integer.MIN_VALUE;
+    /** Hands the frames over from the signal clock to the event dispatch thread. */
+    private final FrameRenderer renderer;
+    /** Overlay showing how well the clock performs. Hidden unless asked for. */
+    private final PerformanceHud hud;
 
     private ClockPanel(MasterFrame frame, int width, int height) {
         super(null);
+        renderer = new FrameRenderer(this);
         setSize(new Dimension(width, height));
         setPreferredSize(new Dimension(width, height));
         this.frame = frame;
@@ -126,6 +136,8 @@ public final class ClockPanel extends JPanel implements MouseListener, ClockDisp
         add(timePanelRight);
 
         timePanelLeft.setActive(true);
+        timePanelLeft.setPaintListener(renderer::framePainted);
+        timePanelRight.setPaintListener(renderer::framePainted);
 
         movePanel = new MovePanel("999", font, "move", font);
         add(movePanel);
@@ -138,6 +150,9 @@ public final class ClockPanel extends JPanel implements MouseListener, ClockDisp
         leverPanel.addMouseListener(this);
         // add above time panels
         add(leverPanel, Math.min(getComponentZOrder(timePanelLeft), getComponentZOrder(timePanelRight)) - 1);
+
+        hud = new PerformanceHud(renderer.getLatencyTracer());
+        add(hud, 0); // above everything else
     }
 
     /** Creates a new ClockPanel.
@@ -166,6 +181,7 @@ public final class ClockPanel extends JPanel implements MouseListener, ClockDisp
 
         g2d.drawImage(colorIndicatorLeft, colorIndicatorXL, identityY, null);
         g2d.drawImage(colorIndicatorRight, colorIndicatorXR, identityY, null);
+        renderer.framePainted();
     }
 
     /** Sets the fonts used and updates the displays accordingly. Simply returns if {@code null} is
@@ -220,9 +236,7 @@ public final class ClockPanel extends JPanel implements MouseListener, ClockDisp
         toolBarPanel.rearrange(width);
 
         // move panel
-        String text = movePanel.getMoveNumberAsString(); // store current text
-        movePanel.setMoveNumber("999"); // set this one as "very wide" text
-        int moveNumberWidth = movePanel.getTextWidth() + 10 * ELEMENT_BORDER_WIDTH; // text width with such a wide text
+        int moveNumberWidth = movePanel.getTextWidth("999") + 10 * ELEMENT_BORDER_WIDTH; // with a "very wide" text
         if (width % 2 != moveNumberWidth % 2) // one is even and the other is odd
         {
             moveNumberWidth++; // ensures that width - moveNumberWidth is even
@@ -230,7 +244,6 @@ public final class ClockPanel extends JPanel implements MouseListener, ClockDisp
         int moveNumberHeight = movePanel.getTextHeight();
         int moveNumberX = (width - moveNumberWidth) / 2;
         int moveNumberY = toolBarPanel.getHeight() + buttonAreaMoveStringDisplayGap;
-        movePanel.setMoveNumber(text); // restore old text
         movePanel.setBounds(moveNumberX, moveNumberY, moveNumberWidth, moveNumberHeight);
 
         // colour indicators, immediately adjacent to the move panel
@@ -268,6 +281,20 @@ public final class ClockPanel extends JPanel implements MouseListener, ClockDisp
 
         timePanelRight.rearrange(timePanelWidth, timePanelH);
         timePanelRight.setLocation(timePanelXR, timePanelY);
+
+        // performance overlay, below the tool bar
+        hud.setLocation(TIME_EDGE_SPACING, toolBarPanel.getHeight() + TIME_EDGE_SPACING);
+    }
+
+    /** Tells if children may be painted without regard to overlapping siblings. They may not while
+     * the performance overlay is shown, so that it stays on top of the panels it covers.
+     *
+     * @since 1.0;
+     * @return {@code true} if the performance overlay is hidden.
+     */
+    @Override
+    public boolean isOptimizedDrawingEnabled() {
+        return !hud.isVisible();
     }
 
     /** Updates the localization. Texts become translated within this method. Simply returns if
@@ -378,7 +405,7 @@ public final class ClockPanel extends JPanel implements MouseListener, ClockDisp
     public void mouseExited(MouseEvent e) {
     }
 
-    /** Sets the time control and attaches the time panels to it.<br>
+    /** Sets the time control and attaches this panel to it as the frame display.<br>
      * <b>Breaks down the app if {@code null} is passed</b> Though this never happens in the code at
      * the time when this sentence has been written, you better deal with it properly.
      *
@@ -387,19 +414,90 @@ public final class ClockPanel extends JPanel implements MouseListener, ClockDisp
      */
     public void setTimeControl(TimeControl timeControl) {
         this.timeControl = timeControl;
-        timeControl.setPlayerTimeDisplay(0, timePanelLeft);
-        timeControl.setPlayerTimeDisplay(1, timePanelRight);
+        timeControl.setFrameDisplay(this);
+        hud.setTimeControl(timeControl);
+        renderer.start();
+    }
+
+    /** Shows or hides the overlay with the frame rate, the tick rate of the clock work, the
+     * latency of the last press, and the heap. Nothing is measured for the overlay while it is
+     * hidden. Must be called on the event dispatch thread.
+     *
+     * @since 1.0;
+     * @param shown Show the overlay?
+     */
+    public void setHudShown(boolean shown) {
+        hud.setShown(shown);
+        renderer.setHud(shown ? hud : null);
+    }
+
+    /** Tells if the performance overlay is shown.
+     *
+     * @since 1.0;
+     * @return {@code true} if it is shown.
+     */
+    public boolean isHudShown() {
+        return hud.isVisible();
+    }
+
+    /** Sets how often per second the newest frame of the clock work is shown. The rate is limited
+     * by the {@link #setFrameRateCap(int) frame rate cap}.
+     *
+     * @since 1.0;
+     * @param fps Frames per second. Values below 1 select the refresh rate of the screen.
+     */
+    public void setFrameRate(int fps) {
+        renderer.setFrameRate(fps);
+    }
+
+    /** Sets the highest frame rate the clock panel is repainted with, whatever the frame rate set
+     * or the refresh rate of the screen is.
+     *
+     * @since 1.0;
+     * @param cap Frames per second. Ignored if not positive.
+     */
+    public void setFrameRateCap(int cap) {
+        renderer.setFrameRateCap(cap);
+    }
+
+    /** Returns the tracer of the inputs, like pressing the lever, which knows the latencies from
+     * the input events to the first frames painted afterwards.
+     *
+     * @since 1.0;
+     * @return The tracer.
+     */
+    public LatencyTracer getLatencyTracer() {
+        return renderer.getLatencyTracer();
     }
 
     // ============ from interface ClockDisplay ============
     /** Determines if the 'paused' string becomes displayed ({@code true}) or hidden
-     * ({@code false}).
+     * ({@code false}). May be called from any thread.
      *
      * @since 1.0;
      * @param paused Paused string to be displayed?
      */
     @Override
     public void setPausedState(boolean paused) {
+        SwingUtilities.invokeLater(() -> showPausedState(paused));
+    }
+
+    @Override
+    public void setMoveNumber(int moveNo) {
+        SwingUtilities.invokeLater(() -> showMoveNumber(moveNo));
+    }
+
+    @Override
+    public void notifyStoppingClock() {
+        repaint();
+    }
+
+    /** Shows or hides the 'paused' string. Must be called on the event dispatch thread.
+     *
+     * @since 1.0;
+     * @param paused Paused string to be displayed?
+     */
+    private void showPausedState(boolean paused) {
         if (paused) {
             leverPanel.setText(pausedString);
         } else {
@@ -407,8 +505,13 @@ public final class ClockPanel extends JPanel implements MouseListener, ClockDisp
         }
     }
 
-    @Override
-    public void setMoveNumber(int moveNo) {
+    /** Shows the move number. Must be called on the event dispatch thread.
+     *
+     * @since 1.0;
+     * @param moveNo The move number. Negative numbers mean that there is no game running.
+     */
+    private void showMoveNumber(int moveNo) {
+        shownMoveNumber = moveNo;
         if (moveNo >= 0) {
             movePanel.setMoveNumber(String.valueOf(moveNo));
         } else {
@@ -416,9 +519,34 @@ public final class ClockPanel extends JPanel implements MouseListener, ClockDisp
         }
     }
 
+    // ============ from interface FrameDisplay ============
+    /** Publishes the frame for being shown on the event dispatch thread with the next tick of the
+     * frame rate. Frames published in between are skipped.
+     *
+     * @since 1.0;
+     * @param frame The state of the clock.
+     */
     @Override
-    public void notifyStoppingClock() {
-        repaint();
+    public void showFrame(ClockFrame frame) {
+        renderer.publish(frame);
+    }
+
+    /** Takes the times, the player at turn, the warnings, and the flags for both time panels from
+     * the frame, as well as the move number and the paused state, and repaints what has changed.
+     * Must be called on the event dispatch thread.
+     *
+     * @since 1.0;
+     * @param frame The state of the clock.
+     */
+    void applyFrame(ClockFrame frame) {
+        timePanelLeft.showFrame(frame, ClockFrame.LEFT);
+        timePanelRight.showFrame(frame, ClockFrame.RIGHT);
+        if (frame.getMoveNumber() != shownMoveNumber) {
+            showMoveNumber(frame.getMoveNumber());
+        }
+        showPausedState(frame.isPaused());
+        timePanelLeft.updateDisplay();
+        timePanelRight.updateDisplay();
     }
 
 }
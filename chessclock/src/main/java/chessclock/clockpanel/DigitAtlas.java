@@ -0,0 +1,254 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package chessclock.clockpanel;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.LineMetrics;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Optional;
+
+/** A glyph atlas for the characters a clock shows, that are the digits and the separators.
+ * The glyphs are rendered once into an image per colour, and texts made of these characters are
+ * drawn by copying the cells of the glyphs from the image. Thus, no text needs to be shaped or
+ * rasterised while the clock is running. The advances of the glyphs are known right away, but the
+ * images are only rendered when the first text is drawn in a colour. They are rendered at the scale
+ * of the graphics drawn on, so the glyphs stay sharp on screens with a high density of pixels.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+final class DigitAtlas {
+
+    /** The characters in the atlas. */
+    static final String CHARACTERS = "0123456789:.,";
+    /** Space around each glyph in its cell beyond its visual bounds, for antialiasing. */
+    private static final int MIN_PADDING = 1;
+    /** Number of colours the images are kept for. The clock shows its times in two colours. */
+    private static final int COLOURS = 2;
+
+    /** The font of the glyphs. */
+    private final Font font;
+    /** The context the glyphs are rendered in. */
+    private final FontRenderContext renderContext;
+    /** Advance of each character, in the order of {@code CHARACTERS}. */
+    private final float[] advances = new float[CHARACTERS.length()];
+    /** Left edge of the cell of each character in the images. */
+    private final int[] cellX = new int[CHARACTERS.length()];
+    /** Width of the cell of each character. */
+    private final int[] cellWidth = new int[CHARACTERS.length()];
+    /** Ascent of the font, rounded up. */
+    private final int ascent;
+    /** Height of the font, that is ascent plus descent, rounded up. */
+    private final int height;
+    /** Space around each glyph in its cell, so that even glyphs reaching beyond their advance or
+     * beyond the ascent and descent of the font fit in. */
+    private final int padding;
+    /** Total width of the images. */
+    private final int imageWidth;
+    /** The colours the images have been rendered in. */
+    private final Color[] colours = new Color[COLOURS];
+    /** The images, one per colour. */
+    private final BufferedImage[] images = new BufferedImage[COLOURS];
+    /** Scale the images have been rendered at, one per colour. */
+    private final double[] scales = new double[COLOURS];
+    /** Index of the slot to be reused next when a new colour comes up. */
+    private int nextSlot;
+
+    private DigitAtlas(Font font, FontRenderContext renderContext) {
+        this.font = font;
+        this.renderContext = renderContext;
+        GlyphVector glyphs = font.createGlyphVector(renderContext, CHARACTERS);
+        LineMetrics metrics = font.getLineMetrics(CHARACTERS, renderContext);
+        ascent = (int) Math.ceil(metrics.getAscent());
+        height = (int) Math.ceil(metrics.getAscent() + metrics.getDescent());
+
+        // how far the glyphs reach beyond their advances and beyond the ascent and the descent
+        double overhang = 0;
+        for (int index = 0; index < advances.length; index++) {
+            advances[index] = glyphs.getGlyphMetrics(index).getAdvance();
+            Point2D origin = glyphs.getGlyphPosition(index);
+            Rectangle2D bounds = glyphs.getGlyphVisualBounds(index).getBounds2D();
+            overhang = Math.max(overhang, origin.getX() - bounds.getMinX());
+            overhang = Math.max(overhang, bounds.getMaxX() - origin.getX() - advances[index]);
+            overhang = Math.max(overhang, -bounds.getMinY() - ascent);
+            overhang = Math.max(overhang, bounds.getMaxY() - (height - ascent));
+        }
+        padding = (int) Math.ceil(overhang) + MIN_PADDING;
+
+        int x = 0;
+        for (int index = 0; index < advances.length; index++) {
+            cellX[index] = x;
+            cellWidth[index] = (int) Math.ceil(advances[index]) + 2 * padding;
+            x += cellWidth[index];
+        }
+        imageWidth = x;
+    }
+
+    /** Creates a new atlas.
+     *
+     * @since 1.0;
+     * @param font The font of the glyphs.
+     * @param renderContext The context the glyphs are rendered in.
+     * @return Optional with the atlas. The optional is empty if {@code null} has been passed.
+     */
+    static Optional<DigitAtlas> makeNew(Font font, FontRenderContext renderContext) {
+        if (font == null || renderContext == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new DigitAtlas(font, renderContext));
+    }
+
+    /** Returns the font of the glyphs.
+     *
+     * @since 1.0;
+     * @return The font.
+     */
+    Font getFont() {
+        return font;
+    }
+
+    /** Returns the ascent of the font.
+     *
+     * @since 1.0;
+     * @return The ascent, rounded up, in pixels.
+     */
+    int getAscent() {
+        return ascent;
+    }
+
+    /** Returns the height of the font, that is the ascent plus the descent.
+     *
+     * @since 1.0;
+     * @return The height, rounded up, in pixels.
+     */
+    int getHeight() {
+        return height;
+    }
+
+    /** Tells if the text is made of characters in the atlas only.
+     *
+     * @since 1.0;
+     * @param text The text.
+     * @return {@code true} if the atlas can draw the text.
+     */
+    boolean canDraw(CharSequence text) {
+        for (int index = 0; index < text.length(); index++) {
+            if (CHARACTERS.indexOf(text.charAt(index)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Returns the advance of a text the atlas can draw.
+     *
+     * @since 1.0;
+     * @param text The text.
+     * @return The advance, rounded up, in pixels.
+     */
+    int getAdvance(CharSequence text) {
+        float advance = 0;
+        for (int index = 0; index < text.length(); index++) {
+            advance += advances[CHARACTERS.indexOf(text.charAt(index))];
+        }
+        return (int) Math.ceil(advance);
+    }
+
+    /** Returns the space around each glyph in its cell.
+     *
+     * @since 1.0;
+     * @return The padding, in pixels.
+     */
+    int getPadding() {
+        return padding;
+    }
+
+    /** Draws a text the atlas can draw.
+     *
+     * @since 1.0;
+     * @param g2d The graphics drawn on.
+     * @param text The text.
+     * @param x Left edge of the text, in pixels.
+     * @param baseline Baseline of the text, in pixels.
+     * @param colour Colour of the text.
+     */
+    void draw(Graphics2D g2d, CharSequence text, int x, int baseline, Color colour) {
+        double scale = g2d.getTransform().getScaleX();
+        BufferedImage image = getImage(colour, scale > 0 ? scale : 1);
+        int cellHeight = height + 2 * padding;
+        int top = baseline - ascent - padding;
+        int imageHeight = image.getHeight();
+        float penX = x;
+        for (int index = 0; index < text.length(); index++) {
+            int cell = CHARACTERS.indexOf(text.charAt(index));
+            int left = Math.round(penX) - padding;
+            // the cells are given in the pixels of the image, which are the pixels of the device
+            int sourceLeft = (int) Math.round(cellX[cell] * scale);
+            int sourceRight = (int) Math.round((cellX[cell] + cellWidth[cell]) * scale);
+            g2d.drawImage(image, left, top, left + cellWidth[cell], top + cellHeight, sourceLeft, 0, sourceRight,
+                    imageHeight, null);
+            penX += advances[cell];
+        }
+    }
+
+    /** Returns the image of the glyphs in the given colour and at the given scale, rendering it if
+     * there is none yet.
+     *
+     * @since 1.0;
+     * @param colour The colour.
+     * @param scale Pixels of the device per pixel of the text.
+     * @return The image.
+     */
+    private BufferedImage getImage(Color colour, double scale) {
+        for (int slot = 0; slot < COLOURS; slot++) {
+            if (colour.equals(colours[slot]) && scales[slot] == scale) {
+                return images[slot];
+            }
+        }
+
+        int width = (int) Math.round(imageWidth * scale);
+        int imageHeight = (int) Math.round((height + 2 * padding) * scale);
+        BufferedImage image = new BufferedImage(width, imageHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.scale(scale, scale);
+        g2d.setComposite(AlphaComposite.Src);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, renderContext.getFractionalMetricsHint());
+        g2d.setFont(font);
+        g2d.setColor(colour);
+        for (int index = 0; index < advances.length; index++) {
+            g2d.drawString(CHARACTERS.substring(index, index + 1), cellX[index] + padding, ascent + padding);
+        }
+        g2d.dispose();
+
+        colours[nextSlot] = colour;
+        images[nextSlot] = image;
+        scales[nextSlot] = scale;
+        nextSlot = (nextSlot + 1) % COLOURS;
+        return image;
+    }
+}
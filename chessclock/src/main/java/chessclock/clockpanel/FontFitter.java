@@ -0,0 +1,252 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package chessclock.clockpanel;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/** Finds the largest font size at which a line of sample texts fits into a given width. The texts
+ * may have sizes relative to the size searched for, like the tenths of a second being two thirds
+ * as large as the minutes and seconds. The size is found by a binary search, and the sizes found,
+ * the derived fonts, and the measured widths are memoised. Thus, resizing the window to a width
+ * that has been seen before costs a look up only.
+ * <p>
+ * The window is laid out on the launch thread before it is shown, and on the event dispatch thread
+ * afterwards, so the memos are synchronized. Two threads missing the same entry at once both compute
+ * it, which does no harm.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+final class FontFitter {
+
+    /** Largest font size considered. */
+    static final int MAX_SIZE = 4096;
+    /** Number of entries each memo keeps, the least recently used ones being dropped first. */
+    static final int MEMO_ENTRIES = 1024;
+
+    /** Derived fonts, by reference font, style, and size. */
+    private static final Map<Key, Font> FONTS = makeMemo();
+    /** Widths of texts, by font, render context, and text. */
+    private static final Map<Key, Integer> WIDTHS = makeMemo();
+
+    /** The sample texts. */
+    private final String[] samples;
+    /** Numerators of the sizes of the samples relative to the size searched for. */
+    private final int[] numerators;
+    /** Denominators of the sizes of the samples relative to the size searched for. */
+    private final int[] denominators;
+    /** Sizes found, by reference font, render context, and available width. */
+    private final Map<Key, Integer> sizes = makeMemo();
+
+    private FontFitter(String[] samples, int[] numerators, int[] denominators) {
+        this.samples = samples.clone();
+        this.numerators = numerators.clone();
+        this.denominators = denominators.clone();
+    }
+
+    /** Creates a new font fitter for a line of sample texts. The size of sample {@code i} is
+     * {@code size * numerators[i] / denominators[i]}, rounded down, where {@code size} is the size
+     * searched for.
+     *
+     * @since 1.0;
+     * @param samples The sample texts.
+     * @param numerators Numerators of the relative sizes of the samples.
+     * @param denominators Denominators of the relative sizes of the samples.
+     * @return Optional with the font fitter. The optional is empty if an argument is {@code null},
+     * if the arrays differ in length or are empty, or if a numerator or a denominator is not
+     * positive.
+     */
+    static Optional<FontFitter> makeNew(String[] samples, int[] numerators, int[] denominators) {
+        if (samples == null || numerators == null || denominators == null || samples.length == 0
+                || numerators.length != samples.length || denominators.length != samples.length) {
+            return Optional.empty();
+        }
+        for (int index = 0; index < samples.length; index++) {
+            if (samples[index] == null || numerators[index] < 1 || denominators[index] < 1) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new FontFitter(samples, numerators, denominators));
+    }
+
+    /** Returns the largest size at which the samples fit into the available width next to each
+     * other.
+     *
+     * @since 1.0;
+     * @param reference The font the fonts of the samples are derived from, with plain style.
+     * @param renderContext The context the samples are rendered in.
+     * @param availableWidth The available width, in pixels.
+     * @return The size. At least 1, even if the samples do not fit at all.
+     */
+    int fitSize(Font reference, FontRenderContext renderContext, int availableWidth) {
+        Key key = new Key(reference, renderContext, availableWidth);
+        Integer size = sizes.get(key);
+        if (size == null) {
+            size = searchSize(reference, renderContext, availableWidth);
+            sizes.put(key, size);
+        }
+        return size;
+    }
+
+    /** Searches the largest size at which the samples fit. Starts at the size of the reference
+     * font, gallops up or down to bracket the size, and bisects the bracket.
+     *
+     * @since 1.0;
+     * @param reference The font the fonts of the samples are derived from.
+     * @param renderContext The context the samples are rendered in.
+     * @param availableWidth The available width, in pixels.
+     * @return The size. At least 1.
+     */
+    private int searchSize(Font reference, FontRenderContext renderContext, int availableWidth) {
+        // invariant: 'fits' fits or is 1, 'tooLarge' does not fit or is beyond the largest size
+        int fits;
+        int tooLarge;
+        int start = Math.max(1, Math.min(reference.getSize(), MAX_SIZE));
+        if (getWidth(reference, renderContext, start) <= availableWidth) {
+            fits = start;
+            tooLarge = Math.min(2 * start, MAX_SIZE + 1);
+            while (tooLarge <= MAX_SIZE && getWidth(reference, renderContext, tooLarge) <= availableWidth) {
+                fits = tooLarge;
+                tooLarge = Math.min(2 * tooLarge, MAX_SIZE + 1);
+            }
+        } else {
+            tooLarge = start;
+            fits = Math.max(1, start / 2);
+            while (fits > 1 && getWidth(reference, renderContext, fits) > availableWidth) {
+                tooLarge = fits;
+                fits = Math.max(1, fits / 2);
+            }
+        }
+
+        while (tooLarge - fits > 1) {
+            int middle = (fits + tooLarge) >>> 1;
+            if (getWidth(reference, renderContext, middle) <= availableWidth) {
+                fits = middle;
+            } else {
+                tooLarge = middle;
+            }
+        }
+        return fits;
+    }
+
+    /** Returns the width of the samples next to each other at the given size.
+     *
+     * @since 1.0;
+     * @param reference The font the fonts of the samples are derived from.
+     * @param renderContext The context the samples are rendered in.
+     * @param size The size.
+     * @return The width, in pixels. The width of each sample is rounded up.
+     */
+    private int getWidth(Font reference, FontRenderContext renderContext, int size) {
+        int width = 0;
+        for (int index = 0; index < samples.length; index++) {
+            Font font = derive(reference, Font.PLAIN, size * numerators[index] / denominators[index]);
+            width += measure(font, renderContext, samples[index]);
+        }
+        return width;
+    }
+
+    /** Returns a font derived from the reference font, creating it only on the first request.
+     *
+     * @since 1.0;
+     * @param reference The reference font.
+     * @param style The style of the derived font.
+     * @param size The size of the derived font.
+     * @return The derived font.
+     */
+    static Font derive(Font reference, int style, int size) {
+        Key key = new Key(reference, style, size);
+        Font font = FONTS.get(key);
+        if (font == null) {
+            font = reference.deriveFont(style, size);
+            FONTS.put(key, font);
+        }
+        return font;
+    }
+
+    /** Returns the width of a text, measuring it only on the first request.
+     *
+     * @since 1.0;
+     * @param font The font of the text.
+     * @param renderContext The context the text is rendered in.
+     * @param text The text.
+     * @return The advance of the text, rounded up, in pixels.
+     */
+    static int measure(Font font, FontRenderContext renderContext, String text) {
+        Key key = new Key(font, renderContext, text);
+        Integer width = WIDTHS.get(key);
+        if (width == null) {
+            width = (int) Math.ceil(font.createGlyphVector(renderContext, text).getLogicalBounds().getWidth());
+            WIDTHS.put(key, width);
+        }
+        return width;
+    }
+
+    /** Creates a synchronized memo which drops the least recently used entry when it is full.
+     *
+     * @since 1.0;
+     * @param <V> Type of the values.
+     * @return The memo.
+     */
+    private static <V> Map<Key, V> makeMemo() {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, V> eldest) {
+                return size() > MEMO_ENTRIES;
+            }
+        });
+    }
+
+    /** Key of the memos: a handful of values compared one by one. */
+    private static final class Key {
+
+        private final Object[] parts;
+        private final int hash;
+
+        Key(Object... parts) {
+            this.parts = parts;
+            hash = Arrays.hashCode(parts);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key other && hash == other.hash && Arrays.equals(parts, other.parts);
+        }
+    }
+
+    /** Returns the number of sizes memoised.
+     *
+     * @since 1.0;
+     * @return The number of sizes.
+     */
+    int getMemoisedSizes() {
+        return sizes.size();
+    }
+}
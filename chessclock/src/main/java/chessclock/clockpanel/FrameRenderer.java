@@ -0,0 +1,236 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package chessclock.clockpanel;
+
+import java.awt.GraphicsEnvironment;
+import java.awt.HeadlessException;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.Timer;
+
+import time.ClockFrame;
+
+/** Hands the frames of the clockwork over from the signal clock to the event dispatch thread. The
+ * signal clock publishes each frame into a triple buffer, and a Swing timer picks up the newest one
+ * at a fixed frame rate. Thus, the Swing components are only touched by the event dispatch thread,
+ * frames the screen could not show anyway are skipped, and neither side ever waits for the other.
+ * <p>
+ * The way of each input, like pressing the lever, to the first frame painted afterwards is traced
+ * by a {@link LatencyTracer latency tracer}.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+final class FrameRenderer implements ActionListener {
+
+    /** Frame rate used when the refresh rate of the screen is unknown. */
+    static final int DEFAULT_FRAME_RATE = 60;
+    /** Default of the highest frame rate. The displayed times change ten times per second, so
+     * higher rates only shorten the latency of inputs a little further. */
+    static final int DEFAULT_FRAME_RATE_CAP = 60;
+    /** Bits of the handoff state giving the index of the buffer in the middle. */
+    private static final int INDEX = 3;
+    /** Bit of the handoff state telling that the buffer in the middle has not been picked up yet. */
+    private static final int FRESH = 4;
+
+    /** Receives the frames on the event dispatch thread. */
+    private final ClockPanel panel;
+    /** The three buffers. One is written by the signal clock, one is shown by the event dispatch
+     * thread, and the one in the middle holds the newest frame published. */
+    private final ClockFrame[] buffers = new ClockFrame[3];
+    /** Index of the buffer in the middle, and whether it is {@code FRESH}. */
+    private final AtomicInteger handoff = new AtomicInteger(1);
+    /** Index of the buffer being written by the signal clock. */
+    private int back = 0;
+    /** Index of the buffer being shown by the event dispatch thread. */
+    private int front = 2;
+    /** Fires on the event dispatch thread once per frame. */
+    private final Timer timer;
+    /** Frame rate requested. Not positive for the refresh rate of the screen. */
+    private int requestedFrameRate = 0;
+    /** Highest frame rate. */
+    private int frameRateCap = DEFAULT_FRAME_RATE_CAP;
+    /** Traces the inputs from the input events to the first frames painted afterwards. */
+    private final LatencyTracer tracer = new LatencyTracer();
+    /** The performance overlay, which records the moments of the frames. {@code null} while the
+     * overlay is hidden. */
+    private PerformanceHud hud;
+
+    /** Generates with the refresh rate of the screen as frame rate.
+     *
+     * @since 1.0;
+     * @param panel Receives the frames on the event dispatch thread.
+     */
+    FrameRenderer(ClockPanel panel) {
+        this.panel = panel;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ClockFrame.makeNew().get();
+        }
+        timer = new Timer(toDelay(Math.min(detectRefreshRate(), frameRateCap)), this);
+        timer.setCoalesce(true);
+    }
+
+    /** Publishes a frame. Must always be called by the same thread, which is the signal clock.
+     * The frame is copied, so that it can be reused right after.
+     *
+     * @since 1.0;
+     * @param frame The frame.
+     */
+    void publish(ClockFrame frame) {
+        frame.copyTo(buffers[back]);
+        back = handoff.getAndSet(back | FRESH) & INDEX;
+    }
+
+    /** Picks up the newest frame, if there is a new one, and hands it to the panel. Called by the
+     * timer on the event dispatch thread.
+     *
+     * @since 1.0;
+     * @param e The event of the timer.
+     */
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        PerformanceHud hud = this.hud;
+        if (hud != null) {
+            hud.frameTicked(System.nanoTime());
+        }
+        if ((handoff.get() & FRESH) == 0) {
+            return;
+        }
+        front = handoff.getAndSet(front) & INDEX;
+        ClockFrame frame = buffers[front];
+        panel.applyFrame(frame);
+        tracer.frameApplied(frame, System.nanoTime());
+    }
+
+    /** Tells that the panel has been painted. If this is the first painting after an input, the
+     * latencies are recorded. Must be called on the event dispatch thread.
+     *
+     * @since 1.0;
+     */
+    void framePainted() {
+        tracer.framePainted(System.nanoTime());
+    }
+
+    /** Returns the tracer of the inputs.
+     *
+     * @since 1.0;
+     * @return The tracer.
+     */
+    LatencyTracer getLatencyTracer() {
+        return tracer;
+    }
+
+    /** Sets the performance overlay that records the moments of the frames. Must be called on the
+     * event dispatch thread.
+     *
+     * @since 1.0;
+     * @param hud The overlay. {@code null} while the overlay is hidden.
+     */
+    void setHud(PerformanceHud hud) {
+        this.hud = hud;
+    }
+
+    /** Starts picking up frames.
+     *
+     * @since 1.0;
+     */
+    void start() {
+        timer.start();
+    }
+
+    /** Stops picking up frames.
+     *
+     * @since 1.0;
+     */
+    void stop() {
+        timer.stop();
+    }
+
+    /** Sets the frame rate.
+     *
+     * @since 1.0;
+     * @param fps Frames per second. Values below 1 select the refresh rate of the screen.
+     */
+    void setFrameRate(int fps) {
+        requestedFrameRate = fps;
+        applyFrameRate();
+    }
+
+    /** Sets the highest frame rate, whatever the frame rate requested or the refresh rate of the
+     * screen is.
+     *
+     * @since 1.0;
+     * @param cap Frames per second. Ignored if not positive.
+     */
+    void setFrameRateCap(int cap) {
+        if (cap > 0) {
+            frameRateCap = cap;
+            applyFrameRate();
+        }
+    }
+
+    /** Sets the delay of the timer to the frame rate requested, limited by the cap.
+     *
+     * @since 1.0;
+     */
+    private void applyFrameRate() {
+        int fps = requestedFrameRate > 0 ? requestedFrameRate : detectRefreshRate();
+        int delay = toDelay(Math.min(fps, frameRateCap));
+        timer.setDelay(delay);
+        timer.setInitialDelay(delay);
+    }
+
+    /** Returns the frame rate.
+     *
+     * @since 1.0;
+     * @return Frames per second, as far as the resolution of the timer in milliseconds allows.
+     */
+    int getFrameRate() {
+        return 1000 / timer.getDelay();
+    }
+
+    /** Converts a frame rate into the delay between two frames.
+     *
+     * @since 1.0;
+     * @param fps Frames per second.
+     * @return The delay, in milliseconds. At least 1.
+     */
+    private static int toDelay(int fps) {
+        return Math.max(1000 / fps, 1);
+    }
+
+    /** Returns the refresh rate of the default screen.
+     *
+     * @since 1.0;
+     * @return Refresh rate, in hertz. {@code DEFAULT_FRAME_RATE} if it is unknown.
+     */
+    private static int detectRefreshRate() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return DEFAULT_FRAME_RATE;
+        }
+        try {
+            int rate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode()
+                    .getRefreshRate();
+            return rate > 0 ? rate : DEFAULT_FRAME_RATE;
+        } catch (HeadlessException e) {
+            return DEFAULT_FRAME_RATE;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package chessclock.clockpanel;
+
+import java.util.Locale;
+import time.ClockFrame;
+import time.LogHistogram;
+
+/** Traces inputs, like pressing the lever, on their way to the screen, and collects the latencies
+ * of each stage in histograms. The stages of an input are
+ * <ol>
+ * <li>{@link Stage#arrival arrival}: from the input event until the clockwork takes it up,</li>
+ * <li>{@link Stage#handoff handoff}: from there until the frame showing its effect, like the other
+ * time panel becoming {@link TimePanel#setActive(boolean) active}, is applied on the event dispatch
+ * thread,</li>
+ * <li>{@link Stage#paint paint}: from there until that frame has been painted,</li>
+ * </ol>
+ * and the {@link Stage#total total} from the input event until the frame has been painted. The
+ * moments are taken with {@link System#nanoTime()}, as the system time source of the clockwork
+ * does.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public final class LatencyTracer {
+
+    /** Stages an input passes from the input event to the screen. */
+    public static enum Stage {
+        arrival,
+        handoff,
+        paint,
+        total
+    }
+
+    /** Significant bits of the histograms, which keeps the error of the percentiles below one
+     * percent. */
+    static final int SIGNIFICANT_BITS = 7;
+    /** Nanoseconds per millisecond, for the report. */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /** Latencies of each stage, in nanoseconds, in the order of the stages. */
+    private final LogHistogram[] histograms = new LogHistogram[Stage.values().length];
+    /** Input stamp of the last frame applied. */
+    private long appliedInputStamp;
+    /** Moment the last frame with a new input has been applied. 0 once it has been painted. */
+    private long unpaintedSince;
+    /** Total latency of the input traced last, in nanoseconds. 0 before the first one. */
+    private long lastTotal;
+
+    /** Generates.
+     *
+     * @since 1.0;
+     */
+    LatencyTracer() {
+        for (int stage = 0; stage < histograms.length; stage++) {
+            histograms[stage] = LogHistogram.makeNew(SIGNIFICANT_BITS).get();
+        }
+    }
+
+    /** Tells that a frame has been applied to the panels. If the frame is the first one with a new
+     * input, the arrival and the handoff of that input are recorded. Must be called on the event
+     * dispatch thread.
+     *
+     * @since 1.0;
+     * @param frame The frame.
+     * @param now The moment the frame has been applied, in nanoseconds.
+     */
+    synchronized void frameApplied(ClockFrame frame, long now) {
+        long inputStamp = frame.getInputStamp();
+        if (inputStamp == appliedInputStamp) {
+            return;
+        }
+        appliedInputStamp = inputStamp;
+        if (inputStamp == 0) {
+            return; // a new game without any input yet
+        }
+        long executionStamp = frame.getExecutionStamp();
+        histograms[Stage.arrival.ordinal()].record(executionStamp - inputStamp);
+        histograms[Stage.handoff.ordinal()].record(now - executionStamp);
+        unpaintedSince = now;
+    }
+
+    /** Tells that the panel has been painted. If this is the first painting after a frame with a
+     * new input, the paint and the total latency are recorded. Must be called on the event dispatch
+     * thread.
+     *
+     * @since 1.0;
+     * @param now The moment the painting has completed, in nanoseconds.
+     */
+    synchronized void framePainted(long now) {
+        if (unpaintedSince == 0) {
+            return;
+        }
+        histograms[Stage.paint.ordinal()].record(now - unpaintedSince);
+        lastTotal = now - appliedInputStamp;
+        histograms[Stage.total.ordinal()].record(lastTotal);
+        unpaintedSince = 0;
+    }
+
+    /** Returns a copy of the latencies of a stage. May be called from any thread.
+     *
+     * @since 1.0;
+     * @param stage The stage.
+     * @return Histogram of the latencies, in nanoseconds.
+     */
+    public synchronized LogHistogram getHistogram(Stage stage) {
+        LogHistogram histogram = histograms[stage.ordinal()];
+        LogHistogram copy = histogram.makeEmptyCopy();
+        copy.merge(histogram);
+        return copy;
+    }
+
+    /** Returns the total latency of the input traced last, from the input event to the first
+     * frame painted afterwards. May be called from any thread.
+     *
+     * @since 1.0;
+     * @return The latency, in nanoseconds. 0 if no input has been traced yet.
+     */
+    public synchronized long getLastTotal() {
+        return lastTotal;
+    }
+
+    /** Forgets all latencies recorded so far. May be called from any thread.
+     *
+     * @since 1.0;
+     */
+    public synchronized void clear() {
+        for (LogHistogram histogram : histograms) {
+            histogram.clear();
+        }
+    }
+
+    /** Summarizes the latencies of all stages, one stage per line, with the number of inputs traced
+     * and the median, the 99th percentile, and the maximum in milliseconds. May be called from any
+     * thread.
+     *
+     * @since 1.0;
+     * @return The summary.
+     */
+    public synchronized String report() {
+        StringBuilder builder = new StringBuilder("Input latencies");
+        for (Stage stage : Stage.values()) {
+            LogHistogram histogram = histograms[stage.ordinal()];
+            builder.append(String.format(Locale.ROOT, "%n%-8s n=%d p50=%.3f ms p99=%.3f ms max=%.3f ms",
+                    stage.name(), histogram.getCount(), histogram.getPercentile(50) / NANOS_PER_MILLI,
+                    histogram.getPercentile(99) / NANOS_PER_MILLI, histogram.getMax() / NANOS_PER_MILLI));
+        }
+        return builder.toString();
+    }
+}
@@ -27,6 +27,7 @@ import java.awt.font.TextLayout;
 import javax.swing.JPanel;
 
 /** The move panel displays the number of the current move and the localized string 'move' above it.
+ * When the move number changes, only the line of the move number is repainted.
  * The baseline of the move string is its ascent below the top edge of the panel. The baseline of
  * the move number is the descent of the move string plus the ascent of the move number below the
  * baseline of the move string. Also, the baseline of the move number is vertically aligned to the
@@ -87,6 +88,19 @@ final class MovePanel extends JPanel {
         return (int) Math.ceil(Math.max(moveNumberWidth, moveStringWidth));
     }
 
+    /** Returns the text width the panel would have if it showed the sample as move number, without
+     * changing the move number shown.
+     *
+     * @since 1.0;
+     * @param sampleNumber A sample move number, like a "very wide" one.
+     * @return Maximum advance of the sample and the move string, ceiled.
+     */
+    int getTextWidth(String sampleNumber) {
+        int sampleWidth = FontFitter.measure(moveNumberFont, getFontMetrics(moveNumberFont).getFontRenderContext(),
+                sampleNumber);
+        return Math.max(sampleWidth, moveStringWidth);
+    }
+
     /** Returns the effectively used height of the text area. Here this is the total of the ascents
      * and descents of the two {@link java.awt.font.TextLayout text layouts}.
      *
@@ -117,9 +131,22 @@ final class MovePanel extends JPanel {
             return;
         }
 
+        if (moveNumber.equals(this.moveNumber)) {
+            return;
+        }
         this.moveNumber = moveNumber;
         updateMoveNumberLayout();
-        repaint();
+        repaint(0, getMoveNumberTop(), getWidth(), getHeight() - getMoveNumberTop());
+    }
+
+    /** Returns the top edge of the line of the move number, which is the bottom edge of the move
+     * string.
+     *
+     * @since 1.0;
+     * @return The top edge, in pixels.
+     */
+    private int getMoveNumberTop() {
+        return (int) Math.floor(moveStringLayout.getAscent() + moveStringLayout.getDescent());
     }
 
     /** Updates the text layout of the moveNumber, as well as the width.
@@ -192,12 +219,18 @@ final class MovePanel extends JPanel {
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g2d.setColor(Color.white);
 
-        g2d.setFont(moveNumberFont);
-        g2d.drawString(moveNumber, (getWidth() - moveNumberWidth) / 2,
-                moveStringLayout.getAscent() + moveStringLayout.getDescent() + moveNumberLayout.getAscent());
+        // only draw the texts within the area to be repainted
+        int moveNumberTop = getMoveNumberTop();
+        if (g2d.hitClip(0, moveNumberTop, getWidth(), getHeight() - moveNumberTop)) {
+            g2d.setFont(moveNumberFont);
+            g2d.drawString(moveNumber, (getWidth() - moveNumberWidth) / 2,
+                    moveStringLayout.getAscent() + moveStringLayout.getDescent() + moveNumberLayout.getAscent());
+        }
 
-        g2d.setFont(moveStringFont);
-        g2d.drawString(moveString, (getWidth() - moveStringWidth) / 2, moveStringLayout.getAscent());
+        if (g2d.hitClip(0, 0, getWidth(), moveNumberTop + 1)) {
+            g2d.setFont(moveStringFont);
+            g2d.drawString(moveString, (getWidth() - moveStringWidth) / 2, moveStringLayout.getAscent());
+        }
     }
 
 }
@@ -0,0 +1,324 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package chessclock.clockpanel;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.swing.JComponent;
+import javax.swing.Timer;
+
+import time.MomentRing;
+import time.TimeControl;
+
+/** An overlay on the clock panel showing how well the clock performs: the frame rate and the
+ * longest frame, the tick rate of the signal clock and its jitter, the latency from the last
+ * press to the switch on the screen, and the heap and the garbage collections. The rates are
+ * computed from the moments of the frames and the ticks during the last second, which are
+ * remembered in {@link MomentRing rings}. Nothing is recorded while the overlay is hidden, and the
+ * figures are refreshed a few times per second without allocating anything.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+final class PerformanceHud extends JComponent implements ActionListener {
+
+    /** Delay between two refreshes of the figures, in milliseconds. */
+    static final int REFRESH_DELAY = 250;
+    /** Moments of the frames remembered. More than one second of frames at any sensible rate. */
+    private static final int FRAME_MOMENTS = 512;
+    /** Moments of the ticks remembered. The signal clock may tick a lot more often than the
+     * screen is refreshed. */
+    private static final int TICK_MOMENTS = 8192;
+    /** Time span the rates are computed over, in nanoseconds. */
+    private static final long WINDOW = 1000000000L;
+    /** Nanoseconds per millisecond. */
+    private static final double NANOS_PER_MILLI = 1e6;
+    /** Bytes per mebibyte. */
+    private static final long BYTES_PER_MIB = 1L << 20;
+    /** Number of lines shown. */
+    private static final int LINES = 4;
+    /** Most characters in a line. */
+    private static final int LINE_LENGTH = 40;
+    /** Space between the text and the edge of the overlay. */
+    private static final int PADDING = 6;
+    private static final Color BACKGROUND = new Color(0, 0, 0, 190);
+    private static final Color TEXT = new Color(120, 255, 120);
+
+    /** Moments the frames have been picked up. */
+    private final MomentRing frameRing = MomentRing.makeNew(FRAME_MOMENTS).get();
+    /** Moments the signal clock has ticked. */
+    private final MomentRing tickRing = MomentRing.makeNew(TICK_MOMENTS).get();
+    /** Receives the moments copied from the rings. */
+    private final long[] moments = new long[TICK_MOMENTS];
+    /** Knows the latency of the last press. */
+    private final LatencyTracer tracer;
+    /** Refreshes the figures while the overlay is shown. */
+    private final Timer timer;
+    /** Assembles the lines. */
+    private final StringBuilder builder = new StringBuilder(LINE_LENGTH);
+    /** The lines drawn. */
+    private final char[][] lines = new char[LINES][LINE_LENGTH];
+    /** Number of characters in each line. */
+    private final int[] lineLengths = new int[LINES];
+    /** Height of a line, in pixels. */
+    private final int lineHeight;
+    /** Distance from the top of a line to its baseline, in pixels. */
+    private final int ascent;
+    /** The garbage collectors. Looked up when the overlay is shown for the first time. */
+    private List<GarbageCollectorMXBean> collectors;
+    /** The time control whose signal clock ticks are watched. */
+    private TimeControl timeControl;
+    /** Index of the oldest moment copied that lies within the window. */
+    private int windowStart;
+
+    /** Generates hidden.
+     *
+     * @since 1.0;
+     * @param tracer Knows the latency of the last press.
+     */
+    PerformanceHud(LatencyTracer tracer) {
+        this.tracer = tracer;
+        timer = new Timer(REFRESH_DELAY, this);
+        setFont(new Font(Font.MONOSPACED, Font.PLAIN, 14));
+        setOpaque(false);
+        setVisible(false);
+
+        FontMetrics metrics = getFontMetrics(getFont());
+        lineHeight = metrics.getHeight();
+        ascent = metrics.getAscent();
+        Dimension size = new Dimension(LINE_LENGTH * metrics.charWidth('0') + 2 * PADDING,
+                LINES * lineHeight + 2 * PADDING);
+        setSize(size);
+        setPreferredSize(size);
+    }
+
+    /** Sets the time control whose signal clock ticks are watched. Must be called on the event
+     * dispatch thread.
+     *
+     * @since 1.0;
+     * @param timeControl The time control.
+     */
+    void setTimeControl(TimeControl timeControl) {
+        if (this.timeControl != null) {
+            this.timeControl.setTickRing(null);
+        }
+        this.timeControl = timeControl;
+        if (isVisible() && timeControl != null) {
+            timeControl.setTickRing(tickRing);
+        }
+    }
+
+    /** Shows or hides the overlay. While hidden, neither frames nor ticks are recorded and the
+     * figures are not refreshed. Must be called on the event dispatch thread.
+     *
+     * @since 1.0;
+     * @param shown Show the overlay?
+     */
+    void setShown(boolean shown) {
+        if (shown == isVisible()) {
+            return;
+        }
+
+        if (shown) {
+            if (collectors == null) {
+                collectors = ManagementFactory.getGarbageCollectorMXBeans();
+            }
+            if (timeControl != null) {
+                timeControl.setTickRing(tickRing);
+            }
+            refresh(System.nanoTime());
+            timer.start();
+        } else {
+            timer.stop();
+            if (timeControl != null) {
+                timeControl.setTickRing(null);
+            }
+        }
+        setVisible(shown);
+    }
+
+    /** Records that a frame has been picked up. Must be called on the event dispatch thread.
+     *
+     * @since 1.0;
+     * @param now The moment, in nanoseconds.
+     */
+    void frameTicked(long now) {
+        frameRing.record(now);
+    }
+
+    /** Refreshes the figures. Called by the timer on the event dispatch thread.
+     *
+     * @since 1.0;
+     * @param e The event of the timer.
+     */
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        refresh(System.nanoTime());
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(BACKGROUND);
+        g.fillRoundRect(0, 0, getWidth(), getHeight(), PADDING, PADDING);
+        g.setColor(TEXT);
+        g.setFont(getFont());
+        for (int line = 0; line < LINES; line++) {
+            g.drawChars(lines[line], 0, lineLengths[line], PADDING, PADDING + line * lineHeight + ascent);
+        }
+    }
+
+    /** Computes the figures and writes them into the lines.
+     *
+     * @since 1.0;
+     * @param now The current moment, in nanoseconds.
+     */
+    private void refresh(long now) {
+        // frames, where a frame lasts until the next one or until now
+        int copied = copyWindow(frameRing, now);
+        builder.setLength(0);
+        builder.append("frames ");
+        appendFixed(rate(copied), 1);
+        builder.append("/s worst ");
+        long worst = copied > 0 ? now - moments[copied - 1] : 0;
+        for (int i = windowStart + 1; i < copied; i++) {
+            worst = Math.max(worst, moments[i] - moments[i - 1]);
+        }
+        appendFixed(worst / NANOS_PER_MILLI, 1);
+        builder.append(" ms");
+        storeLine(0);
+
+        // ticks, with the standard deviation of the intervals
+        copied = copyWindow(tickRing, now);
+        builder.setLength(0);
+        builder.append("ticks  ");
+        appendFixed(rate(copied), 1);
+        builder.append("/s jitter ");
+        int intervals = copied - windowStart - 1;
+        double jitter = 0;
+        if (intervals > 1) {
+            double mean = (double) (moments[copied - 1] - moments[windowStart]) / intervals;
+            double sum = 0;
+            for (int i = windowStart + 1; i < copied; i++) {
+                double deviation = moments[i] - moments[i - 1] - mean;
+                sum += deviation * deviation;
+            }
+            jitter = Math.sqrt(sum / intervals);
+        }
+        appendFixed(jitter / NANOS_PER_MILLI, 2);
+        builder.append(" ms");
+        storeLine(1);
+
+        // press to switch
+        builder.setLength(0);
+        builder.append("press to switch ");
+        long lastTotal = tracer.getLastTotal();
+        if (lastTotal > 0) {
+            appendFixed(lastTotal / NANOS_PER_MILLI, 1);
+            builder.append(" ms");
+        } else {
+            builder.append('-');
+        }
+        storeLine(2);
+
+        // heap and garbage collections
+        Runtime runtime = Runtime.getRuntime();
+        long total = runtime.totalMemory();
+        long collections = 0;
+        long collectionTime = 0;
+        for (int i = 0; i < collectors.size(); i++) {
+            GarbageCollectorMXBean collector = collectors.get(i);
+            collections += Math.max(collector.getCollectionCount(), 0);
+            collectionTime += Math.max(collector.getCollectionTime(), 0);
+        }
+        builder.setLength(0);
+        builder.append("heap ").append((total - runtime.freeMemory()) / BYTES_PER_MIB).append('/')
+                .append(total / BYTES_PER_MIB).append(" MiB gc ").append(collections).append(' ')
+                .append(collectionTime).append(" ms");
+        storeLine(3);
+    }
+
+    /** Copies the moments of a ring and finds the oldest one within the window.
+     *
+     * @since 1.0;
+     * @param ring The ring.
+     * @param now The current moment, in nanoseconds.
+     * @return Number of moments copied. The oldest one within the window is at {@code windowStart}.
+     */
+    private int copyWindow(MomentRing ring, long now) {
+        int copied = ring.copyLatest(moments);
+        int first = copied;
+        while (first > 0 && now - moments[first - 1] <= WINDOW) {
+            first--;
+        }
+        windowStart = first;
+        return copied;
+    }
+
+    /** Returns the rate of the moments within the window.
+     *
+     * @since 1.0;
+     * @param copied Number of moments copied.
+     * @return Moments per second. 0 if there are less than two.
+     */
+    private double rate(int copied) {
+        int intervals = copied - windowStart - 1;
+        if (intervals < 1) {
+            return 0;
+        }
+        return intervals * 1e9 / (moments[copied - 1] - moments[windowStart]);
+    }
+
+    /** Appends a number with a fixed number of decimals, without formatting it into a string.
+     *
+     * @since 1.0;
+     * @param value The number. Not negative.
+     * @param decimals Number of decimals.
+     */
+    private void appendFixed(double value, int decimals) {
+        long scale = 1;
+        for (int i = 0; i < decimals; i++) {
+            scale *= 10;
+        }
+        long scaled = Math.round(value * scale);
+        builder.append(scaled / scale).append('.');
+        for (long digit = scale / 10; digit > 0; digit /= 10) {
+            builder.append((char) ('0' + scaled / digit % 10));
+        }
+    }
+
+    /** Copies the builder into a line, cut to the length of a line.
+     *
+     * @since 1.0;
+     * @param line Index of the line.
+     */
+    private void storeLine(int line) {
+        int length = Math.min(builder.length(), LINE_LENGTH);
+        builder.getChars(0, length, lines[line], 0);
+        lineLengths[line] = length;
+    }
+}
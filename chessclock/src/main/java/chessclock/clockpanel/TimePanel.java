@@ -22,16 +22,24 @@ import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.font.TextLayout;
+import java.awt.geom.Rectangle2D;
 
 import javax.swing.JPanel;
 
 import chessclock.Constants;
 import localization.Loc;
+import localization.TimeChars;
+import time.ClockFrame;
 import time.PlayerTimeDisplay;
 
-/** This panel displays the time remaining on the clock.
+/** This panel displays the time remaining on the clock. Changes are tracked as damage: only the
+ * rectangles of the texts which have actually changed are repainted, unless something affecting the
+ * whole panel, like the border or the colours, has changed. The times are drawn from
+ * {@link DigitAtlas glyph atlases}, so no text is shaped while the clock is running. Texts with
+ * other characters are laid out as usual.
  *
  * @author Dragonstb
  * @since 1.0;
@@ -62,64 +70,97 @@ final class TimePanel extends JPanel implements PlayerTimeDisplay {
     private static final byte TEXT_SPACING = 3;
     /** Sum of TEXT_SPACING and MARK_BORDER_SIZE. */
     private static final byte TOTAL_EDGE = Constants.MARK_BORDER_SIZE + TEXT_SPACING;
+    /** Fits the size of the fonts to "very wide" texts, with the tens of a second being two thirds
+     * as large as the seconds and the minutes. Shared by all time panels. */
+    private static final FontFitter TIME_FITTER = FontFitter
+            .makeNew(new String[]{"999:99", ".9"}, new int[]{1, 2}, new int[]{1, 3}).get();
+    /** Margin around the visual bounds of a text in the damaged area, for antialiasing. */
+    private static final byte MIN_DAMAGE_MARGIN = 1;
+    /** Tells if paint events are recorded, so that no event is created while no recording runs. */
+    private static final TimePanelPaintEvent PAINT_PROBE = new TimePanelPaintEvent();
 
     /** A reference font the fonts used are derived from. */
     private Font referenceFont;
 
     /** Text displaying the seconds and the minutes remaining. */
-    private String secMinText;
+    private final TimeChars secMinText = new TimeChars();
     /** Font used for displaying the remaining seconds and minutes. */
     private Font secMinFont;
-    /** Text layout for the seconds and minutes text. */
-    private TextLayout secMinTextLayout;
-    /** Width of the text derived from the advance, i.e.,
-     * {@code Math.ceil( secMinTextLayout.getAdvance() )}.
+    /** Glyph atlas for the seconds and minutes text. */
+    private DigitAtlas secMinAtlas;
+    /** Width of the text derived from the advance, rounded up. Taken from the glyph atlas, or from
+     * a text layout for texts the atlas cannot draw.
      */
     private int secMinWidth;
-    /** Height of the main text body, i.e., {@code Math.ceil( secMinTextLayout.getAscent() )}.
+    /** Height of the main text body, that is the ascent of the font, rounded up.
      */
     private int secMinAscent;
-    /** The height of the text derived from the metric values, i.e., {@code
-     * Math.ceil( TextLayout.getAscent()+TextLayout.getDescent() )}.
+    /** The height of the text, that is the ascent plus the descent of the font, rounded up.
      */
     private int secMinHeight;
+    /** How far the glyphs of the text may reach beyond its advance and height, in pixels.
+     */
+    private int secMinMargin;
 
     /** Text displaying the tens of seconds remaining.
      */
-    private String tensText;
+    private final TimeChars tensText = new TimeChars();
     /** Font used for displaying the remaining tens of a second.
      */
     private Font tensFont;
-    /** Text layout for the tens of a second text.
+    /** Glyph atlas for the tens of a second text.
      */
-    private TextLayout tensTextLayout;
-    /** Width of the tens of a second text derived from the advance, i.e.,
-     * {@code Math.ceil( secMinTextLayout.getAdvance() )}.
+    private DigitAtlas tensAtlas;
+    /** Width of the tens of a second text derived from the advance, rounded up. Taken from the
+     * glyph atlas, or from a text layout for texts the atlas cannot draw.
      */
     private int tensWidth;
+    /** How far the glyphs of the tens of a second text may reach beyond its advance and height, in
+     * pixels.
+     */
+    private int tensMargin;
 
     /** Text displaying the remaining time for the current move. */
-    private String moveRemText;
+    private final TimeChars moveRemText = new TimeChars();
     /** Font used for displaying the remaining time for the current move. */
     private Font moveRemFont;
-    /** Text layout for displaying the remaining time for the current move. */
-    private TextLayout moveRemTextLayout;
-    /** Width of the displayed remaining time for the current move, derived from the advance, i.e.,
-     * {@code Math.ceil( secMinTextLayout.getAdvance() )}.
+    /** Glyph atlas for displaying the remaining time for the current move. */
+    private DigitAtlas moveRemAtlas;
+    /** Width of the displayed remaining time for the current move, derived from the advance,
+     * rounded up. Taken from the glyph atlas, or from a text layout for texts the atlas cannot draw.
      */
     private int moveRemWidth;
-    /** Height of the main text body displayed remaining time for the current move, i.e.,
-     * {@code Math.ceil( secMinTextLayout.getAscent() )}.
+    /** Height of the main text body of the displayed remaining time for the current move, that is
+     * the ascent of the font, rounded up.
      */
     private int moveRemAscent;
-    /** The height of the displayed remaining time for the current move derived from the metric
-     * values, i.e., null     {@code Math.ceil( TextLayout.getAscent()
-	 * +TextLayout.getDescent() )}.
+    /** The height of the displayed remaining time for the current move, that is the ascent plus the
+     * descent of the font, rounded up.
      */
     private int moveRemHeight;
+    /** How far the glyphs of the displayed remaining time for the current move may reach beyond its
+     * advance and height, in pixels.
+     */
+    private int moveRemMargin;
 
     /** Localization. */
     private Loc loc;
+    /** Buffer the minutes and seconds of a new time are formatted into. */
+    private final TimeChars newSecMinText = new TimeChars();
+    /** Buffer the tens of a second of a new time are formatted into. */
+    private final TimeChars newTensText = new TimeChars();
+    /** Buffer a new time for the move is formatted into. */
+    private final TimeChars newMoveRemText = new TimeChars();
+    /** Time remaining last shown, in tenths of a second, rounded up. */
+    private long shownClockTenths = -1;
+    /** Time remaining for the move last shown, in tenths of a second, rounded up. Negative if no
+     * time for the move is shown. */
+    private long shownMoveTenths = -1;
+    /** Area that needs to be repainted. Empty if nothing has changed since the last repaint. */
+    private final Rectangle damage = new Rectangle();
+    /** Told each time the panel has been painted. */
+    private Runnable paintListener = () -> {
+    };
 
     /** Generates.
      *
@@ -138,14 +179,14 @@ final class TimePanel extends JPanel implements PlayerTimeDisplay {
         currentColor = STANDARD_TEXT_COLOR;
 
         secMinFont = secondsMinutesFont;
-        secMinText = secondsMinutes;
+        secMinText.set(secondsMinutes);
         updateSecMinLayout();
 
-        tensText = tens;
+        tensText.set(tens);
         this.tensFont = tensFont;
         updateTensLayout();
 
-        moveRemText = moveRem;
+        moveRemText.set(moveRem);
         this.moveRemFont = moveRemFont;
         updateMoveRemLayout();
 
@@ -170,8 +211,8 @@ final class TimePanel extends JPanel implements PlayerTimeDisplay {
      * @since 1.0;
      * @param secMinText New text.
      */
-    private void setSecMinText(String secMinText) {
-        this.secMinText = secMinText;
+    private void setSecMinText(CharSequence secMinText) {
+        this.secMinText.set(secMinText);
         updateSecMinLayout();
     }
 
@@ -181,10 +222,34 @@ final class TimePanel extends JPanel implements PlayerTimeDisplay {
      * @since 1.0;
      */
     private void updateSecMinLayout() {
-        secMinTextLayout = new TextLayout(secMinText, secMinFont, getFontMetrics(secMinFont).getFontRenderContext());
-        secMinWidth = (int) Math.ceil(secMinTextLayout.getAdvance());
-        secMinAscent = (int) Math.ceil(secMinTextLayout.getAscent());
-        secMinHeight = (int) Math.ceil(secMinTextLayout.getDescent() + secMinTextLayout.getAscent());
+        secMinAtlas = getAtlas(secMinAtlas, secMinFont);
+        if (secMinAtlas.canDraw(secMinText)) {
+            secMinWidth = secMinAtlas.getAdvance(secMinText);
+            secMinAscent = secMinAtlas.getAscent();
+            secMinHeight = secMinAtlas.getHeight();
+            secMinMargin = secMinAtlas.getPadding();
+            return;
+        }
+        TextLayout layout = new TextLayout(secMinText.toString(), secMinFont, getFontMetrics(secMinFont).getFontRenderContext());
+        secMinWidth = (int) Math.ceil(layout.getAdvance());
+        secMinAscent = (int) Math.ceil(layout.getAscent());
+        secMinHeight = (int) Math.ceil(layout.getDescent() + layout.getAscent());
+        secMinMargin = getMargin(layout);
+    }
+
+    /** Returns a glyph atlas for the font. The atlas is only created anew if the font differs from
+     * the font of the current atlas.
+     *
+     * @since 1.0;
+     * @param atlas The current atlas. May be {@code null}.
+     * @param font The font.
+     * @return An atlas for the font.
+     */
+    private DigitAtlas getAtlas(DigitAtlas atlas, Font font) {
+        if (atlas != null && atlas.getFont().equals(font)) {
+            return atlas;
+        }
+        return DigitAtlas.makeNew(font, getFontMetrics(font).getFontRenderContext()).get();
     }
 
     /** Updates the font and the layout.
@@ -202,8 +267,8 @@ final class TimePanel extends JPanel implements PlayerTimeDisplay {
      * @since 1.0;
      * @param tensText New text.
      */
-    private void setTensText(String tensText) {
-        this.tensText = tensText;
+    private void setTensText(CharSequence tensText) {
+        this.tensText.set(tensText);
         updateTensLayout();
     }
 
@@ -212,8 +277,15 @@ final class TimePanel extends JPanel implements PlayerTimeDisplay {
      * @since 1.0;
      */
     private void updateTensLayout() {
-        tensTextLayout = new TextLayout(tensText, tensFont, getFontMetrics(tensFont).getFontRenderContext());
-        tensWidth = (int) Math.ceil(tensTextLayout.getAdvance());
+        tensAtlas = getAtlas(tensAtlas, tensFont);
+        if (tensAtlas.canDraw(tensText)) {
+            tensWidth = tensAtlas.getAdvance(tensText);
+            tensMargin = tensAtlas.getPadding();
+            return;
+        }
+        TextLayout layout = new TextLayout(tensText.toString(), tensFont, getFontMetrics(tensFont).getFontRenderContext());
+        tensWidth = (int) Math.ceil(layout.getAdvance());
+        tensMargin = getMargin(layout);
     }
 
     /** Sets the font and updates the layout.
@@ -231,9 +303,14 @@ final class TimePanel extends JPanel implements PlayerTimeDisplay {
      * @since 1.0;
      * @param moveRemText New text.
      */
-    private void setMoveRemText(String moveRemText) {
-        this.moveRemText = moveRemText;
+    private void setMoveRemText(CharSequence moveRemText) {
+        if (this.moveRemText.contentEquals(moveRemText)) {
+            return;
+        }
+        addDamage(TOTAL_EDGE, secMinHeight + TOTAL_EDGE, getAvailableWidth(), moveRemHeight, moveRemMargin);
+        this.moveRemText.set(moveRemText);
         updateMoveRemLayout();
+        addDamage(TOTAL_EDGE, secMinHeight + TOTAL_EDGE, getAvailableWidth(), moveRemHeight, moveRemMargin);
     }
 
     /** Updates the layout and sets the numeric values used for the arrangement of the GUI elements.
@@ -241,14 +318,36 @@ final class TimePanel extends JPanel implements PlayerTimeDisplay {
      * @since 1.0;
      */
     private void updateMoveRemLayout() {
-        String text = moveRemText;
-        if (moveRemText.isEmpty()) {
-            text = " ";
+        moveRemAtlas = getAtlas(moveRemAtlas, moveRemFont);
+        if (moveRemAtlas.canDraw(moveRemText)) {
+            moveRemWidth = moveRemAtlas.getAdvance(moveRemText);
+            moveRemAscent = moveRemAtlas.getAscent();
+            moveRemHeight = moveRemAtlas.getHeight();
+            moveRemMargin = moveRemAtlas.getPadding();
+            return;
         }
-        moveRemTextLayout = new TextLayout(text, moveRemFont, getFontMetrics(moveRemFont).getFontRenderContext());
-        moveRemWidth = (int) Math.ceil(moveRemTextLayout.getAdvance());
-        moveRemAscent = (int) Math.ceil(moveRemTextLayout.getAscent());
-        moveRemHeight = (int) Math.ceil(moveRemTextLayout.getDescent() + moveRemTextLayout.getAscent());
+        TextLayout layout = new TextLayout(moveRemText.toString(), moveRemFont,
+                getFontMetrics(moveRemFont).getFontRenderContext());
+        moveRemWidth = (int) Math.ceil(layout.getAdvance());
+        moveRemAscent = (int) Math.ceil(layout.getAscent());
+        moveRemHeight = (int) Math.ceil(layout.getDescent() + layout.getAscent());
+        moveRemMargin = getMargin(layout);
+    }
+
+    /** Returns how far the glyphs of a text may reach beyond its advance and beyond the ascent and
+     * the descent, as {@link DigitAtlas#getPadding()} does for the texts of an atlas.
+     *
+     * @since 1.0;
+     * @param layout The layout of the text.
+     * @return The margin, in pixels.
+     */
+    private static int getMargin(TextLayout layout) {
+        Rectangle2D bounds = layout.getBounds();
+        double overhang = Math.max(0, -bounds.getMinX());
+        overhang = Math.max(overhang, bounds.getMaxX() - layout.getAdvance());
+        overhang = Math.max(overhang, -bounds.getMinY() - layout.getAscent());
+        overhang = Math.max(overhang, bounds.getMaxY() - layout.getDescent());
+        return (int) Math.ceil(overhang) + MIN_DAMAGE_MARGIN;
     }
 
     /** Returns the width of the text area.
@@ -262,6 +361,11 @@ final class TimePanel extends JPanel implements PlayerTimeDisplay {
 
     @Override
     protected void paintComponent(Graphics g) {
+        // no event is created while no recording runs
+        TimePanelPaintEvent event = PAINT_PROBE.isEnabled() ? new TimePanelPaintEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
@@ -277,68 +381,146 @@ final class TimePanel extends JPanel implements PlayerTimeDisplay {
 
         g2d.setColor(currentColor);
 
-        g2d.setFont(secMinFont);
-        g2d.drawString(secMinText, getWidth() - secMinWidth - tensWidth - TOTAL_EDGE, secMinAscent + TOTAL_EDGE);
+        // only draw the texts within the damaged area
+        int secMinX = getSecMinX(tensWidth);
+        if (g2d.hitClip(secMinX, TOTAL_EDGE, secMinWidth, secMinHeight)) {
+            drawText(g2d, secMinAtlas, secMinText, secMinX, secMinAscent + TOTAL_EDGE);
+        }
 
         // yep, the baseline for the tens of a second is the same as for the seconds and the minutes
-        g2d.setFont(tensFont);
-        g2d.drawString(tensText, getWidth() - tensWidth - TOTAL_EDGE, secMinAscent + TOTAL_EDGE);
+        if (g2d.hitClip(getTensX(), TOTAL_EDGE, tensWidth, secMinHeight)) {
+            drawText(g2d, tensAtlas, tensText, getTensX(), secMinAscent + TOTAL_EDGE);
+        }
 
-        g2d.setFont(moveRemFont);
-        g2d.drawString(moveRemText, TOTAL_EDGE + (getAvailableWidth() - moveRemWidth) / 2,
-                secMinHeight + moveRemAscent + TOTAL_EDGE);
+        if (g2d.hitClip(TOTAL_EDGE, secMinHeight + TOTAL_EDGE, getAvailableWidth(), moveRemHeight)) {
+            drawText(g2d, moveRemAtlas, moveRemText, TOTAL_EDGE + (getAvailableWidth() - moveRemWidth) / 2,
+                    secMinHeight + moveRemAscent + TOTAL_EDGE);
+        }
 
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                Rectangle clip = g2d.getClipBounds();
+                event.active = active;
+                event.width = clip != null ? clip.width : getWidth();
+                event.height = clip != null ? clip.height : getHeight();
+                event.commit();
+            }
+        }
+        paintListener.run();
     }
 
-    /** Derives and sets the fonts for the time panels.
+    /** Draws a text in the current colour, from the atlas if possible.
      *
      * @since 1.0;
-     * @param referenceFont Font the other fonts are derived from.
+     * @param g2d The graphics drawn on.
+     * @param atlas Glyph atlas with the font of the text.
+     * @param text The text.
+     * @param x Left edge of the text, in pixels.
+     * @param baseline Baseline of the text, in pixels.
      */
-    private void deriveAndSetFonts(Font referenceFont) {
-        int availW = getAvailableWidth();
-        int size = referenceFont.getSize();
-        // store current texts...
-        String textMinSec = secMinText;
-        String textTens = this.tensText;
-        // ...and set "very wide" texts for a moment
-        setSecMinText("999:99");
-        setTensText(".9");
-        setSecMinFont(referenceFont.deriveFont(Font.PLAIN, size));
-        setTensFont(referenceFont.deriveFont(Font.PLAIN, 2 * size / 3));
-        int currentW = secMinWidth + tensWidth;
-
-        if (currentW < availW) {
-            // increase as far as possible
-            while (currentW < availW) {
-                size++;
-                setSecMinFont(referenceFont.deriveFont(Font.PLAIN, size));
-                setTensFont(referenceFont.deriveFont(Font.PLAIN, 2 * size / 3));
-                currentW = secMinWidth + tensWidth;
-            }
-            if (currentW > availW) {
-                size--; // became a bit too large, but this size was fine, do you remember?
-            }
-        } else if (currentW > availW) {
-            while (currentW > availW) {
-                size--;
-                setSecMinFont(referenceFont.deriveFont(Font.PLAIN, size));
-                setTensFont(referenceFont.deriveFont(Font.PLAIN, 2 * size / 3));
-                currentW = secMinWidth + tensWidth;
-            }
+    private void drawText(Graphics2D g2d, DigitAtlas atlas, CharSequence text, int x, int baseline) {
+        if (atlas.canDraw(text)) {
+            atlas.draw(g2d, text, x, baseline, currentColor);
+        } else {
+            g2d.setFont(atlas.getFont());
+            g2d.drawString(text.toString(), x, baseline);
         }
+    }
+
+    /** Returns where the seconds and minutes text starts.
+     *
+     * @since 1.0;
+     * @param tensWidth Width of the tenths of a second text right of it, in pixels.
+     * @return The x coordinate, in pixels.
+     */
+    private int getSecMinX(int tensWidth) {
+        return getWidth() - secMinWidth - tensWidth - TOTAL_EDGE;
+    }
 
-        Font newSecMinFont = referenceFont.deriveFont(Font.PLAIN, size);
-        Font newTensFont = referenceFont.deriveFont(Font.PLAIN, 2 * size / 3);
-        Font newMoveRemFont = referenceFont.deriveFont(Font.PLAIN, size / 2);
+    /** Returns where the tenths of a second text starts.
+     *
+     * @since 1.0;
+     * @return The x coordinate, in pixels.
+     */
+    private int getTensX() {
+        return getWidth() - tensWidth - TOTAL_EDGE;
+    }
 
-        // restore the correct texts
-        setSecMinText(textMinSec);
-        setTensText(textTens);
+    /** Adds a rectangle to the damaged area.
+     *
+     * @since 1.0;
+     * @param x Left edge, in pixels.
+     * @param y Top edge, in pixels.
+     * @param width Width, in pixels.
+     * @param height Height, in pixels.
+     * @param margin Margin added on each side, for glyphs reaching beyond the rectangle, in pixels.
+     */
+    private void addDamage(int x, int y, int width, int height, int margin) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        int left = x - margin;
+        int top = y - margin;
+        int right = x + width + margin;
+        int bottom = y + height + margin;
+        if (damage.isEmpty()) {
+            damage.setBounds(left, top, right - left, bottom - top);
+        } else {
+            damage.add(left, top);
+            damage.add(right, bottom);
+        }
+    }
 
-        setSecMinFont(newSecMinFont);
-        setTensFont(newTensFont);
-        setMoveRemFont(newMoveRemFont);
+    /** Marks the whole panel as damaged.
+     *
+     * @since 1.0;
+     */
+    private void damageAll() {
+        addDamage(0, 0, getWidth(), getHeight(), 0);
+    }
+
+    /** Returns the area that needs to be repainted. This is the live rectangle, not a copy.
+     *
+     * @since 1.0;
+     * @return The damaged area. Empty if nothing has changed.
+     */
+    Rectangle getDamage() {
+        return damage;
+    }
+
+    /** Forgets the damaged area, as it has been repainted.
+     *
+     * @since 1.0;
+     */
+    void clearDamage() {
+        damage.setBounds(0, 0, 0, 0);
+    }
+
+    /** Sets what is told each time the panel has been painted.
+     *
+     * @since 1.0;
+     * @param paintListener The listener. Ignored if {@code null}.
+     */
+    void setPaintListener(Runnable paintListener) {
+        if (paintListener != null) {
+            this.paintListener = paintListener;
+        }
+    }
+
+    /** Derives and sets the fonts for the time panels. The size is the largest at which "very
+     * wide" texts fit into the available width, as found by the {@link FontFitter font fitter}.
+     *
+     * @since 1.0;
+     * @param referenceFont Font the other fonts are derived from.
+     */
+    private void deriveAndSetFonts(Font referenceFont) {
+        int size = TIME_FITTER.fitSize(referenceFont, getFontMetrics(referenceFont).getFontRenderContext(),
+                getAvailableWidth());
+
+        setSecMinFont(FontFitter.derive(referenceFont, Font.PLAIN, size));
+        setTensFont(FontFitter.derive(referenceFont, Font.PLAIN, 2 * size / 3));
+        setMoveRemFont(FontFitter.derive(referenceFont, Font.PLAIN, size / 2));
     }
 
     /** Adopts the given size for the panel and rescales and rearranges the GUI elements.
@@ -352,6 +534,7 @@ final class TimePanel extends JPanel implements PlayerTimeDisplay {
         setPreferredSize(new Dimension(width, height));
 
         deriveAndSetFonts(referenceFont);
+        damageAll();
     }
 
     /** Updates the localization.
@@ -372,28 +555,96 @@ final class TimePanel extends JPanel implements PlayerTimeDisplay {
         referenceFont = font;
     }
 
+    /** Takes the values of a player from a frame. The texts are only laid out anew if the displayed
+     * tenth of a second has changed. Does not repaint.
+     *
+     * @since 1.0;
+     * @param frame The frame.
+     * @param player Index of the player in the frame.
+     */
+    void showFrame(ClockFrame frame, int player) {
+        long clockTenths = toShownTenths(frame.getClockTime(player));
+        if (clockTenths != shownClockTenths) {
+            setClockTime(frame.getClockTime(player));
+        }
+        if (frame.hasMoveTimeLimit(player)) {
+            long moveTenths = toShownTenths(frame.getMoveTime(player));
+            if (moveTenths != shownMoveTenths) {
+                setMoveTime(frame.getMoveTime(player));
+            }
+        } else if (shownMoveTenths >= 0 || !moveRemText.isEmpty()) {
+            setMoveRemText(Constants.EMPTY_STRING);
+            shownMoveTenths = -1;
+        }
+
+        setActive(frame.getActivePlayer() == player);
+        if (frame.isOutOfTime(player)) {
+            setOutOfTime();
+        } else {
+            setBackground(DEFAULT_BG_COLOR);
+            useWarningColor(frame.isWarning(player));
+        }
+    }
+
+    /** Returns the value of the given time as displayed, that is in tenths of a second, rounded up.
+     *
+     * @since 1.0;
+     * @param nanos The time, in nanoseconds.
+     * @return The time, in tenths of a second.
+     */
+    private static long toShownTenths(long nanos) {
+        return -Math.floorDiv(-nanos, time.Constants.NANOSEC_PER_TENS_OF_SEC);
+    }
+
     // ============ from interface PlayerTimeDisplay ============
     @Override
     public void setActive(boolean active) {
-        this.active = active;
+        if (active != this.active) {
+            this.active = active;
+            damageAll();
+        }
     }
 
     @Override
     public void setClockTime(long time) {
-        String[] timeStrings = loc.getTimeStrings(time);
-        setSecMinText(timeStrings[0]);
-        setTensText(timeStrings[1]);
+        shownClockTenths = toShownTenths(time);
+        loc.formatTime(time, newSecMinText, newTensText);
+        boolean secMinChanged = !secMinText.contentEquals(newSecMinText);
+        boolean tensChanged = !tensText.contentEquals(newTensText);
+        int oldTensWidth = tensWidth;
+
+        if (secMinChanged) {
+            addDamage(getSecMinX(tensWidth), TOTAL_EDGE, secMinWidth, secMinHeight, secMinMargin);
+            setSecMinText(newSecMinText);
+        }
+        if (tensChanged) {
+            addDamage(getTensX(), TOTAL_EDGE, tensWidth, secMinHeight, tensMargin);
+            setTensText(newTensText);
+            addDamage(getTensX(), TOTAL_EDGE, tensWidth, secMinHeight, tensMargin);
+        }
+        if (!secMinChanged && tensWidth != oldTensWidth) {
+            // the seconds and minutes text has been shifted
+            addDamage(getSecMinX(oldTensWidth), TOTAL_EDGE, secMinWidth, secMinHeight, secMinMargin);
+        }
+        if (secMinChanged || tensWidth != oldTensWidth) {
+            addDamage(getSecMinX(tensWidth), TOTAL_EDGE, secMinWidth, secMinHeight, secMinMargin);
+        }
     }
 
     @Override
     public void setMoveTime(long time) {
-        String[] timeStrings = loc.getTimeStrings(time);
-        setMoveRemText(timeStrings[0] + timeStrings[1]);
+        shownMoveTenths = toShownTenths(time);
+        loc.formatTime(time, newMoveRemText);
+        setMoveRemText(newMoveRemText);
     }
 
     @Override
     public void useWarningColor(boolean use) {
-        currentColor = use ? WARNING_TEXT_COLOR : STANDARD_TEXT_COLOR;
+        Color color = use ? WARNING_TEXT_COLOR : STANDARD_TEXT_COLOR;
+        if (color != currentColor) {
+            currentColor = color;
+            damageAll();
+        }
     }
 
     @Override
@@ -413,9 +664,16 @@ final class TimePanel extends JPanel implements PlayerTimeDisplay {
         setActive(false);
     }
 
+    /** Repaints the damaged area, if there is one.
+     *
+     * @since 1.0;
+     */
     @Override
     public void updateDisplay() {
-        repaint();
+        if (!damage.isEmpty()) {
+            repaint(damage.x, damage.y, damage.width, damage.height);
+            clearDamage();
+        }
     }
 
 }
@@ -0,0 +1,52 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package chessclock.clockpanel;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Java Flight Recorder event for the painting of a {@link TimePanel time panel}. Its duration is
+ * the time spent in {@link TimePanel#paintComponent(java.awt.Graphics) paintComponent}. Costs next
+ * to nothing while no recording is running.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+@Name("chessclock.TimePanelPaint")
+@Label("Time Panel Paint")
+@Description("Painting of a time panel")
+@Category({"Chess Clock", "GUI"})
+@StackTrace(false)
+final class TimePanelPaintEvent extends Event {
+
+    @Label("Active")
+    @Description("Is the panel painted as the one of the player at turn?")
+    boolean active;
+
+    @Label("Width")
+    @Description("Width of the area painted, in pixels")
+    int width;
+
+    @Label("Height")
+    @Description("Height of the area painted, in pixels")
+    int height;
+}
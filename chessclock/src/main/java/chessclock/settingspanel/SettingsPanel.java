@@ -29,6 +29,8 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTabbedPane;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 import chessclock.Action;
 import chessclock.MasterFrame;
@@ -45,10 +47,12 @@ import localization.Loc;
  * @author Dragonstb
  * @since 1.0;
  */
-public class SettingsPanel extends JPanel implements ActionListener {
+public class SettingsPanel extends JPanel implements ActionListener, ChangeListener {
 
     /** Spacing between buttons. */
     private static final byte BUTTON_SPACING = 20;
+    /** Index of the tab with the {@link AboutPanel about panel}. */
+    private static final int ABOUT_TAB = 1;
 
     /** Window frame that holds everything together. */
     private final MasterFrame frame;
@@ -69,8 +73,13 @@ public class SettingsPanel extends JPanel implements ActionListener {
     /** Button for exiting the application. */
     private final JButton exitButton;
 
-    /** Panel with infos about the application. */
-    private final AboutPanel aboutPanel;
+    /** Panel with infos about the application. {@code null} until its tab is selected for the
+     * first time. */
+    private AboutPanel aboutPanel;
+    /** The localization, kept for the about panel. */
+    private Loc loc;
+    /** The reference font, kept for the about panel. */
+    private Font font;
 
     /**
      * @since 1.0;
@@ -94,8 +103,9 @@ public class SettingsPanel extends JPanel implements ActionListener {
         gameSettingsPanel = GameSettingsPanel.makeNew(frame).get();
         tabbedPane.add("1", gameSettingsPanel);
 
-        aboutPanel = AboutPanel.makeNew();
-        tabbedPane.add("2", aboutPanel);
+        // the about panel is built when its tab is selected for the first time
+        tabbedPane.add("2", new JPanel(null));
+        tabbedPane.addChangeListener(this);
 
         scrollPane = new JScrollPane(tabbedPane, JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED,
                 JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
@@ -149,12 +159,15 @@ public class SettingsPanel extends JPanel implements ActionListener {
         if (loc == null) {
             return;
         }
+        this.loc = loc;
 
         tabbedPane.setTitleAt(0, loc.retrieveString(Loc.GAME_SETTINGS));
-        tabbedPane.setTitleAt(1, loc.retrieveString(Loc.ABOUT));
+        tabbedPane.setTitleAt(ABOUT_TAB, loc.retrieveString(Loc.ABOUT));
 
         gameSettingsPanel.updateLocalization(loc);
-        aboutPanel.updateLocalization(loc);
+        if (aboutPanel != null) {
+            aboutPanel.updateLocalization(loc);
+        }
 
         okButton.setText(loc.retrieveString(Loc.OK));
         cancelButton.setText(loc.retrieveString(Loc.CANCEL));
@@ -170,12 +183,15 @@ public class SettingsPanel extends JPanel implements ActionListener {
         if (font == null) {
             return;
         }
+        this.font = font;
 
         Font bold = Util.deriveBold(font);
         tabbedPane.setFont(bold);
 
         gameSettingsPanel.setFonts(font);
-        aboutPanel.setFonts(font);
+        if (aboutPanel != null) {
+            aboutPanel.setFonts(font);
+        }
 
         okButton.setFont(bold);
         cancelButton.setFont(bold);
@@ -232,6 +248,28 @@ public class SettingsPanel extends JPanel implements ActionListener {
         return gameSettingsPanel.isLeftIsWhite();
     }
 
+    /** Builds the about panel, unless already done.
+     *
+     * @since 1.0;
+     */
+    private void buildAboutPanel() {
+        if (aboutPanel != null) {
+            return;
+        }
+
+        aboutPanel = AboutPanel.makeNew();
+        aboutPanel.setFonts(font);
+        aboutPanel.updateLocalization(loc);
+        tabbedPane.setComponentAt(ABOUT_TAB, aboutPanel);
+    }
+
+    @Override
+    public void stateChanged(ChangeEvent e) {
+        if (tabbedPane.getSelectedIndex() == ABOUT_TAB) {
+            buildAboutPanel();
+        }
+    }
+
     @Override
     public void actionPerformed(ActionEvent e) {
         switch (e.getActionCommand()) {
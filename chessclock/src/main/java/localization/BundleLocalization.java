@@ -0,0 +1,197 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package localization;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** A localisation whose strings come from an external language bundle. A bundle is a UTF-8 text
+ * file named after the language code, like {@code de-de.lang}, with one {@code key=value} pair per
+ * line. Blanks around a key and before a value are ignored. Lines starting with {@code #} are
+ * comments, and {@code \n} and {@code \\} in a value stand for a line break and a backslash.
+ * <p>
+ * Nothing is read before the localisation is created. Then, the file is mapped into memory and
+ * scanned once for the positions of the values, but a value is decoded only when its string is
+ * retrieved for the first time. Strings missing in the bundle are taken from the English defaults.
+ * Thus, bundles lying around for other languages cost neither time nor memory.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public final class BundleLocalization extends Loc {
+
+    private static final Logger LOG = Logger.getLogger(BundleLocalization.class.getName());
+    /** Extension of the file names of language bundles. */
+    public static final String EXTENSION = ".lang";
+
+    /** The content of the bundle file. */
+    private final ByteBuffer content;
+    /** Start of the value of each key in the content, indexed by the id of the key. Negative if the
+     * bundle has no value for the key. */
+    private int[] valueStarts = new int[0];
+    /** End of the value of each key in the content, exclusive, indexed by the id of the key. */
+    private int[] valueEnds = new int[0];
+
+    private BundleLocalization(String languageCode, ByteBuffer content) {
+        super();
+        this.content = content;
+        setLanguageCode(languageCode);
+        loadDefaultCountryDescriptions();
+        loadDefaultDisplayStrings();
+        indexValues();
+        // sorts countries by localized name, so the names must be known first
+        setupListOfCountries();
+    }
+
+    /** Creates a localisation from a language bundle. The language code is the file name without
+     * the extension.
+     *
+     * @since 1.0;
+     * @param file The bundle file.
+     * @return Optional with the localisation. The optional is empty if the file is {@code null},
+     * does not end with {@link #EXTENSION}, or cannot be read.
+     */
+    public static Optional<BundleLocalization> makeNew(Path file) {
+        if (file == null || file.getFileName() == null || !file.getFileName().toString().endsWith(EXTENSION)) {
+            return Optional.empty();
+        }
+        String fileName = file.getFileName().toString();
+        String languageCode = fileName.substring(0, fileName.length() - EXTENSION.length());
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return Optional.of(new BundleLocalization(languageCode, content));
+        } catch (IOException | UnsupportedOperationException e) {
+            LOG.log(Level.WARNING, "Could not read language bundle " + file, e);
+            return Optional.empty();
+        }
+    }
+
+    /** Scans the content once for the keys and the positions of their values. Keys known to the
+     * bundle are removed from the data base, so that their values are looked up in the bundle.
+     * Unknown keys are ignored.
+     *
+     * @since 1.0;
+     */
+    private void indexValues() {
+        int limit = content.limit();
+        int position = 0;
+        while (position < limit) {
+            int lineEnd = position;
+            while (lineEnd < limit && content.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int end = lineEnd;
+            if (end > position && content.get(end - 1) == '\r') {
+                end--;
+            }
+            indexLine(position, end);
+            position = lineEnd + 1;
+        }
+    }
+
+    /** Takes the key and the position of the value from a line.
+     *
+     * @since 1.0;
+     * @param start Start of the line in the content.
+     * @param end End of the line in the content, exclusive, without line break.
+     */
+    private void indexLine(int start, int end) {
+        if (start == end || content.get(start) == '#') {
+            return;
+        }
+        int separator = start;
+        while (separator < end && content.get(separator) != '=') {
+            separator++;
+        }
+        if (separator == end) {
+            return;
+        }
+
+        String name = decode(start, separator).trim();
+        int key = LocKeys.findId(name);
+        if (key == LocKeys.NO_ID) {
+            LOG.log(Level.FINE, "Unknown key {0} in language bundle {1}", new Object[]{name, getLanguageCode()});
+            return;
+        }
+        if (key >= valueStarts.length) {
+            int length = Math.max(key + 1, LocKeys.getCount());
+            valueStarts = Arrays.copyOf(valueStarts, length);
+            Arrays.fill(valueStarts, valueEnds.length, length, -1);
+            valueEnds = Arrays.copyOf(valueEnds, length);
+        }
+        int valueStart = separator + 1;
+        while (valueStart < end && (content.get(valueStart) == ' ' || content.get(valueStart) == '\t')) {
+            valueStart++;
+        }
+        valueStarts[key] = valueStart;
+        valueEnds[key] = end;
+        removeString(key);
+    }
+
+    @Override
+    String lookUp(int key) {
+        if (key < 0 || key >= valueStarts.length || valueStarts[key] < 0) {
+            return null;
+        }
+        return unescape(decode(valueStarts[key], valueEnds[key]));
+    }
+
+    /** Decodes a part of the content.
+     *
+     * @since 1.0;
+     * @param start Start of the part.
+     * @param end End of the part, exclusive.
+     * @return The part as a string.
+     */
+    private String decode(int start, int end) {
+        return StandardCharsets.UTF_8.decode(content.slice(start, end - start)).toString();
+    }
+
+    /** Replaces the escape sequences in a value.
+     *
+     * @since 1.0;
+     * @param value The value.
+     * @return The value without escape sequences.
+     */
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int index = 0; index < value.length(); index++) {
+            char c = value.charAt(index);
+            if (c == '\\' && index + 1 < value.length()) {
+                char next = value.charAt(++index);
+                builder.append(next == 'n' ? '\n' : next);
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
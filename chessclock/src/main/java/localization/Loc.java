@@ -20,7 +20,6 @@ package localization;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import chessclock.Countries;
@@ -30,21 +29,41 @@ import time.Constants;
 import time.TimeControlPhase;
 
 /** An abstract localisation.<br>
- * The constant fields of this class are used as keys for the data base.<br>
+ * The constant fields of this class are used as keys for the data base. Internally, each key is
+ * mapped to a dense integer id by {@link LocKeys}, so the strings are kept in a flat array indexed
+ * by the id.<br>
  *
  * @author Dragonstb
  * @since 1.0;
  */
 public abstract class Loc {
 
-    /** The data set collecting the strings encoded by keys. */
-    private final TreeMap<String, String> set = new TreeMap<>();
+    /** The strings, indexed by the ids of their keys. {@code null} where no string is known. */
+    private String[] strings = new String[LocKeys.getCount()];
     /** Language code. */
     private String languageCode = "12345";
     /** List of available countries, together with their localized names. */
     private CountryContainer[] countries;
+    /** Does a subclass format the times by overwriting {@link #getTimeStrings(long)}? */
+    private final boolean customTimeStrings;
 
     Loc() {
+        customTimeStrings = overridesTimeStrings(getClass());
+    }
+
+    /** Tells if a localisation class overwrites {@link #getTimeStrings(long)}, so that
+     * {@link #formatTime(long, TimeChars, TimeChars)} has to follow its format.
+     *
+     * @since 1.0;
+     * @param type The class of the localisation.
+     * @return {@code true} if the method is overwritten.
+     */
+    private static boolean overridesTimeStrings(Class<?> type) {
+        try {
+            return type.getMethod("getTimeStrings", long.class).getDeclaringClass() != Loc.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
     }
 
     /** Loads English texts for the labels that may appear on the screen.
@@ -150,7 +169,35 @@ public abstract class Loc {
      * @param key Key under which the string becomes stored.
      */
     public final void addString(String string, String key) {
-        set.put(key, string);
+        addString(string, LocKeys.getId(key));
+    }
+
+    /** Adds a string to the localisation data base.
+     *
+     * @since 1.0;
+     * @param string String to be stored.
+     * @param key Id of the key under which the string becomes stored.
+     */
+    public final void addString(String string, int key) {
+        if (key < 0) {
+            return;
+        }
+        if (key >= strings.length) {
+            strings = Arrays.copyOf(strings, Math.max(key + 1, LocKeys.getCount()));
+        }
+        strings[key] = string;
+    }
+
+    /** Removes a string from the localisation data base, so that it is {@link #lookUp(int) looked
+     * up} again on the next retrieval.
+     *
+     * @since 1.0;
+     * @param key Id of the key of the string.
+     */
+    final void removeString(int key) {
+        if (key >= 0 && key < strings.length) {
+            strings[key] = null;
+        }
     }
 
     /** Retrieves a string from the localisation data base. If the string cannot be found, the key
@@ -161,8 +208,40 @@ public abstract class Loc {
      * @return The string stored or {@code "<key>"} if no string has been found.
      */
     public final String retrieveString(String key) {
-        String string = set.get(key);
-        return string != null ? string : "<" + key + ">";
+        int id = LocKeys.findId(key);
+        return id != LocKeys.NO_ID ? retrieveString(id) : "<" + key + ">";
+    }
+
+    /** Retrieves a string from the localisation data base by the id of its key. This is a look up
+     * in an array. If the string is not in the data base yet, it is {@link #lookUp(int) looked up}
+     * once and stored. If the string cannot be found, the key embraced by pointy crackets is
+     * returned instead.
+     *
+     * @since 1.0;
+     * @param key Id of the key for retrieving the string.
+     * @return The string stored or {@code "<key>"} if no string has been found.
+     */
+    public final String retrieveString(int key) {
+        String string = key >= 0 && key < strings.length ? strings[key] : null;
+        if (string == null) {
+            string = lookUp(key);
+            if (string == null) {
+                return LocKeys.getFallback(key);
+            }
+            addString(string, key);
+        }
+        return string;
+    }
+
+    /** Looks up a string which is not in the data base yet. Localisations that load their strings
+     * lazily overwrite this. The default implementation knows no further strings.
+     *
+     * @since 1.0;
+     * @param key Id of the key of the string.
+     * @return The string, or {@code null} if it is unknown.
+     */
+    String lookUp(int key) {
+        return null;
     }
 
     /** Returns the language code. This code is in the
@@ -231,36 +310,110 @@ public abstract class Loc {
     }
 
     /** Returns string representations displaying the time remaining given in the number of
-     * milliseconds, ceiled to the next full deci-second.<br>
-     * The abstract {@link Loc} class provides a default implementation. The return is in the in the
-     * format {@code min:sec} at index 0, with the seconds being two digits always. At index 1, a
-     * string in the format {@code .tens}, showing the tens of a second, can be found.<br>
-     * Subclasses can overwrite this method if they want a different format.
+     * nanoseconds, ceiled to the next full deci-second.<br>
+     * The return is in the in the format {@code min:sec} at index 0, with the seconds being two
+     * digits always. At index 1, a string in the format {@code .tens}, showing the tens of a second,
+     * can be found. The strings are made by {@link #appendTime(long, TimeChars, TimeChars)}, so
+     * subclasses better change the format by overwriting that method. Subclasses overwriting this
+     * method instead are still followed by {@link #formatTime(long, TimeChars, TimeChars)}, which
+     * then allocates, too.<br>
+     * This method allocates. Displays updated at tick rate better write into buffers of their own
+     * via {@link #formatTime(long, TimeChars, TimeChars)}.
      *
      * @since 1.0;
-     * @param time Time to be represented in milliseconds.
+     * @param time Time to be represented in nanoseconds.
      * @return String representations of the time. First minutes and seconds, second tens of a
      * second.
      */
     public String[] getTimeStrings(long time) {
-        long tens = time / Constants.NANOSEC_PER_TENS_OF_SEC;
-        if (time % Constants.NANOSEC_PER_TENS_OF_SEC != 0) {
-            tens++;// ceiling
+        TimeChars minutesSeconds = new TimeChars();
+        TimeChars tenths = new TimeChars();
+        appendTime(time, minutesSeconds, tenths);
+        return new String[]{minutesSeconds.toString(), tenths.toString()};
+    }
+
+    /** Writes the time remaining, ceiled to the next full deci-second, into buffers owned by the
+     * caller. Nothing is allocated, unless a subclass overwrites {@link #getTimeStrings(long)}.
+     * Negative times are shown as zero.
+     *
+     * @since 1.0;
+     * @param time Time to be represented in nanoseconds.
+     * @param minutesSeconds Receives the minutes and the seconds, like {@code min:sec}.
+     * @param tenths Receives the tens of a second, like {@code .tens}.
+     */
+    public final void formatTime(long time, TimeChars minutesSeconds, TimeChars tenths) {
+        minutesSeconds.clear();
+        tenths.clear();
+        if (customTimeStrings) {
+            String[] strings = getTimeStrings(time);
+            minutesSeconds.append(strings[0]);
+            tenths.append(strings[1]);
+            return;
         }
+        appendTime(time, minutesSeconds, tenths);
+    }
+
+    /** Writes the time remaining, ceiled to the next full deci-second, into a buffer owned by the
+     * caller, like {@code min:sec.tens}. Nothing is allocated, unless a subclass overwrites
+     * {@link #getTimeStrings(long)}. Negative times are shown as zero.
+     *
+     * @since 1.0;
+     * @param time Time to be represented in nanoseconds.
+     * @param target Receives the time.
+     */
+    public final void formatTime(long time, TimeChars target) {
+        target.clear();
+        if (customTimeStrings) {
+            String[] strings = getTimeStrings(time);
+            target.append(strings[0]);
+            target.append(strings[1]);
+            return;
+        }
+        appendTime(time, target, target);
+    }
+
+    /** Appends the time to the buffers. The abstract {@link Loc} class provides a default
+     * implementation: the minutes, the {@link #getMinutesSecondsSeparator() separator}, and the
+     * seconds with two digits always, as well as the {@link #getDecimalSeparator() decimal
+     * separator} and the tens of a second. Subclasses can overwrite this method if they want a
+     * different format, but must not allocate.
+     *
+     * @since 1.0;
+     * @param time Time to be represented in nanoseconds. Negative times are shown as zero.
+     * @param minutesSeconds Receives the minutes and the seconds.
+     * @param tenths Receives the tens of a second. May be the same buffer as for the minutes and
+     * seconds.
+     */
+    protected void appendTime(long time, TimeChars minutesSeconds, TimeChars tenths) {
+        long tens = time > 0 ? -Math.floorDiv(-time, Constants.NANOSEC_PER_TENS_OF_SEC) : 0; // ceiling
         long sec = tens / Constants.DECISEC_PER_SEC;
         long min = sec / Constants.SEC_PER_MIN;
         sec %= Constants.SEC_PER_MIN;
         tens %= Constants.DECISEC_PER_SEC;
 
-        String minSecString, tensString;
-        if (sec > 9) {
-            minSecString = min + ":" + sec;
-        } else {
-            minSecString = min + ":0" + sec;
-        }
-        tensString = "." + tens;
+        minutesSeconds.appendNumber(min);
+        minutesSeconds.append(getMinutesSecondsSeparator());
+        minutesSeconds.appendTwoDigits((int) sec);
+        tenths.append(getDecimalSeparator());
+        tenths.appendDigit((int) tens);
+    }
 
-        return new String[]{minSecString, tensString};
+    /** Returns the character between the minutes and the seconds of a time.
+     *
+     * @since 1.0;
+     * @return The separator. A colon in the default implementation.
+     */
+    protected char getMinutesSecondsSeparator() {
+        return ':';
+    }
+
+    /** Returns the character between the seconds and the tens of a second of a time.
+     *
+     * @since 1.0;
+     * @return The separator. A dot in the default implementation.
+     */
+    protected char getDecimalSeparator() {
+        return '.';
     }
 
     // +++++++ some unique keys +++++++
@@ -0,0 +1,113 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package localization;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Compiles the names of the localisation keys to dense integer ids, so that a
+ * {@link Loc localisation} can keep its strings in a flat array indexed by the id. A key gets its
+ * id when a string is added for it the first time, which for the keys of the {@link Loc} class is
+ * when the first localisation loads its defaults. The ids are valid for the whole run of the
+ * program.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public final class LocKeys {
+
+    /** Marks a name without id. */
+    public static final int NO_ID = -1;
+
+    /** Ids by name. Read without locking, as each string is retrieved by its name. */
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    /** Names by id. */
+    private static final ArrayList<String> NAMES = new ArrayList<>();
+    /** Texts shown instead of a missing string, by id. Made on first need. */
+    private static final ArrayList<String> FALLBACKS = new ArrayList<>();
+
+    private LocKeys() {
+    }
+
+    /** Returns the id of the key with the given name. The key gets the next free id if it has none
+     * yet.
+     *
+     * @since 1.0;
+     * @param name Name of the key.
+     * @return The id.
+     */
+    public static synchronized int getId(String name) {
+        Integer id = IDS.get(name);
+        if (id == null) {
+            id = NAMES.size();
+            IDS.put(name, id);
+            NAMES.add(name);
+            FALLBACKS.add(null);
+        }
+        return id;
+    }
+
+    /** Returns the id of the key with the given name, if it has one already.
+     *
+     * @since 1.0;
+     * @param name Name of the key.
+     * @return The id, or {@link #NO_ID} if the key has none.
+     */
+    public static int findId(String name) {
+        Integer id = IDS.get(name);
+        return id != null ? id : NO_ID;
+    }
+
+    /** Returns the name of a key.
+     *
+     * @since 1.0;
+     * @param id The id of the key.
+     * @return The name, or {@code null} if there is no key with this id.
+     */
+    public static synchronized String getName(int id) {
+        return id >= 0 && id < NAMES.size() ? NAMES.get(id) : null;
+    }
+
+    /** Returns the number of ids given so far.
+     *
+     * @since 1.0;
+     * @return The number of ids.
+     */
+    public static synchronized int getCount() {
+        return NAMES.size();
+    }
+
+    /** Returns the text shown instead of a missing string, which is the name of the key embraced by
+     * pointy brackets. The text is made only once per key.
+     *
+     * @since 1.0;
+     * @param id The id of the key.
+     * @return The text.
+     */
+    static synchronized String getFallback(int id) {
+        if (id < 0 || id >= NAMES.size()) {
+            return "<" + id + ">";
+        }
+        String fallback = FALLBACKS.get(id);
+        if (fallback == null) {
+            fallback = "<" + NAMES.get(id) + ">";
+            FALLBACKS.set(id, fallback);
+        }
+        return fallback;
+    }
+}
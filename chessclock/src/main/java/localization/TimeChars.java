@@ -0,0 +1,182 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package localization;
+
+/** A reusable buffer for the characters of a time shown on the clock. The
+ * {@link Loc#formatTime(long, TimeChars, TimeChars) localisation} writes times into it without
+ * allocating anything, so the same buffer can be filled at tick rate for the whole game.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public final class TimeChars implements CharSequence {
+
+    /** Number of characters the buffer can hold. Enough for the largest times. */
+    static final int CAPACITY = 32;
+    /** Tens digit of each number from 0 to 99. */
+    private static final char[] TENS_DIGITS = new char[100];
+    /** Ones digit of each number from 0 to 99. */
+    private static final char[] ONES_DIGITS = new char[100];
+
+    static {
+        for (int number = 0; number < 100; number++) {
+            TENS_DIGITS[number] = (char) ('0' + number / 10);
+            ONES_DIGITS[number] = (char) ('0' + number % 10);
+        }
+    }
+
+    /** The characters. */
+    private final char[] chars = new char[CAPACITY];
+    /** Number of characters in use. */
+    private int length;
+
+    /** Generates empty.
+     *
+     * @since 1.0;
+     */
+    public TimeChars() {
+    }
+
+    /** Replaces the characters with those of the text. Characters beyond the capacity are dropped.
+     *
+     * @since 1.0;
+     * @param text The text.
+     */
+    public void set(CharSequence text) {
+        length = 0;
+        append(text);
+    }
+
+    /** Appends the characters of the text. Characters beyond the capacity are dropped.
+     *
+     * @since 1.0;
+     * @param text The text.
+     */
+    public void append(CharSequence text) {
+        for (int index = 0; index < text.length(); index++) {
+            append(text.charAt(index));
+        }
+    }
+
+    /** Tells if the buffer holds the same characters as the text.
+     *
+     * @since 1.0;
+     * @param text The text.
+     * @return {@code true} if the characters are the same.
+     */
+    public boolean contentEquals(CharSequence text) {
+        if (text.length() != length) {
+            return false;
+        }
+        for (int index = 0; index < length; index++) {
+            if (text.charAt(index) != chars[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Removes all characters.
+     *
+     * @since 1.0;
+     */
+    void clear() {
+        length = 0;
+    }
+
+    /** Appends a character. Dropped if the buffer is full.
+     *
+     * @since 1.0;
+     * @param c The character.
+     */
+    public void append(char c) {
+        if (length < CAPACITY) {
+            chars[length++] = c;
+        }
+    }
+
+    /** Appends a single digit.
+     *
+     * @since 1.0;
+     * @param digit The digit, from 0 to 9.
+     */
+    public void appendDigit(int digit) {
+        append(ONES_DIGITS[digit]);
+    }
+
+    /** Appends a number from 0 to 99 with two digits, i.e., with a leading zero if below 10.
+     *
+     * @since 1.0;
+     * @param number The number.
+     */
+    public void appendTwoDigits(int number) {
+        append(TENS_DIGITS[number]);
+        append(ONES_DIGITS[number]);
+    }
+
+    /** Appends a non-negative number without leading zeros.
+     *
+     * @since 1.0;
+     * @param number The number.
+     */
+    public void appendNumber(long number) {
+        int digits = 1;
+        for (long rest = number / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        if (length + digits > CAPACITY) {
+            return;
+        }
+        // fill from the end, two digits at a time
+        int end = length + digits;
+        long rest = number;
+        while (rest >= 10) {
+            int pair = (int) (rest % 100);
+            chars[--end] = ONES_DIGITS[pair];
+            chars[--end] = TENS_DIGITS[pair];
+            rest /= 100;
+        }
+        if (end > length) {
+            chars[--end] = ONES_DIGITS[(int) rest];
+        }
+        length += digits;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
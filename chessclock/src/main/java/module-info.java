@@ -19,5 +19,7 @@ module chessclock {
     requires chessClockWork;
     requires java.desktop;
     requires java.logging;
+    requires java.management;
+    requires jdk.jfr;
     opens img;
 }
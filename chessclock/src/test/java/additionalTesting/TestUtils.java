@@ -122,4 +122,19 @@ public class TestUtils {
         return font;
     }
 
+    /* Returns the bytes allocated by the current thread so far, or -1 if the JVM does not tell. Goes
+     * via reflection, as the GUI module does not read the management modules.
+     */
+    public static long getCurrentThreadAllocatedBytes() {
+        try {
+            Object bean = Class.forName("java.lang.management.ManagementFactory").getMethod("getThreadMXBean")
+                    .invoke(null);
+            Method method = Class.forName("com.sun.management.ThreadMXBean")
+                    .getMethod("getCurrentThreadAllocatedBytes");
+            return (long) method.invoke(bean);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            return -1;
+        }
+    }
+
 }
@@ -0,0 +1,165 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package chessclock;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+/** Compares loading each flag eagerly from its own file, as each {@link Country} did before, with
+ * the {@link FlagAtlas flag atlas}. The flags are made up for the benchmark, packed by the
+ * {@link FlagSheetPacker}, and read from a temporary directory. Measured are the time until all
+ * countries are set up, which is what the start of the application waits for, the time until the
+ * first and all flags are available, and the bytes retained by the pixels. The first round is a
+ * cold start, as far as this is possible in a running JVM. This is not a unit test, but a program
+ * to be run on demand, e.g. via the gradle task {@code flagBenchmark}.
+ * <p>
+ * Argument, optional: the number of flags.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public class FlagAtlasBenchmark {
+
+    /** Default number of flags, about the number of countries. */
+    private static final int DEFAULT_FLAGS = 250;
+    /** Width of a flag. */
+    private static final int WIDTH = 84;
+    /** Height of a flag. */
+    private static final int HEIGHT = 42;
+    /** Number of measurements of each kind, alternating. */
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        int flagCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FLAGS;
+        Path directory = Files.createTempDirectory("flags");
+        try {
+            System.out.println(flagCount + " flags of " + WIDTH + " x " + HEIGHT + " pixels");
+            System.out.println(" round | method | setup [ms] | first flag [ms] | all flags [ms] | retained [KiB]");
+            for (int round = 0; round < ROUNDS; round++) {
+                // new files each round, as the toolkit caches images by file name
+                Path flagDirectory = Files.createDirectory(directory.resolve("round" + round));
+                List<String> names = new ArrayList<>();
+                List<Path> files = new ArrayList<>();
+                for (int flag = 0; flag < flagCount; flag++) {
+                    String name = "flag" + flag + ".png";
+                    Path file = flagDirectory.resolve(name);
+                    ImageIO.write(makeFlag(flag), "png", file.toFile());
+                    names.add(name);
+                    files.add(file);
+                }
+                Path sheet = directory.resolve("flags" + round + ".png");
+                Path index = directory.resolve("flags" + round + ".idx");
+                FlagSheetPacker.pack(files, sheet, index);
+
+                measureAtlas(round, sheet, index, names);
+                measureEager(round, files);
+            }
+        } finally {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    /** Measures loading the flags eagerly, one file per flag.
+     *
+     * @since 1.0;
+     * @param round Number of the round.
+     * @param files The flag files.
+     */
+    private static void measureEager(int round, List<Path> files) {
+        long start = System.nanoTime();
+        List<ImageIcon> icons = new ArrayList<>(files.size());
+        for (Path file : files) {
+            icons.add(Util.getImageIcon(file.toString()));
+        }
+        long setup = System.nanoTime() - start;
+        long retained = 0;
+        for (ImageIcon icon : icons) {
+            // decoded into 4 bytes per pixel
+            retained += 4L * icon.getIconWidth() * icon.getIconHeight();
+        }
+        print(round, "eager", setup, setup, setup, retained);
+    }
+
+    /** Measures loading the flags from the atlas.
+     *
+     * @since 1.0;
+     * @param round Number of the round.
+     * @param sheet The sheet file.
+     * @param index The index file.
+     * @param names The names of the flag files.
+     */
+    private static void measureAtlas(int round, Path sheet, Path index, List<String> names) {
+        long start = System.nanoTime();
+        FlagAtlas atlas = new FlagAtlas(sheet.toString(), index.toString());
+        atlas.prefetch();
+        long setup = System.nanoTime() - start;
+        atlas.getFlag(names.get(0));
+        long first = System.nanoTime() - start;
+        for (String name : names) {
+            atlas.getFlag(name);
+        }
+        long all = System.nanoTime() - start;
+        print(round, "atlas", setup, first, all, atlas.getRetainedBytes());
+    }
+
+    /** Makes up a flag with three stripes.
+     *
+     * @since 1.0;
+     * @param flag Number of the flag.
+     * @return The flag.
+     */
+    private static BufferedImage makeFlag(int flag) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        for (int stripe = 0; stripe < 3; stripe++) {
+            g2d.setColor(new Color(Color.HSBtoRGB((flag * 37 + stripe * 120) % 360 / 360f, 0.8f, 0.9f)));
+            g2d.fillRect(0, stripe * HEIGHT / 3, WIDTH, HEIGHT / 3 + 1);
+        }
+        g2d.dispose();
+        return image;
+    }
+
+    /** Prints a line of the results.
+     *
+     * @since 1.0;
+     * @param round Number of the round.
+     * @param method Name of the method.
+     * @param setup Time until the countries are set up, in nanoseconds.
+     * @param first Time until the first flag is available, in nanoseconds.
+     * @param all Time until all flags are available, in nanoseconds.
+     * @param retained Bytes retained by the pixels.
+     */
+    private static void print(int round, String method, long setup, long first, long all, long retained) {
+        System.out.println(String.format("%6d | %6s | %10.2f | %15.2f | %14.2f | %14.1f", round, method, setup / 1e6,
+                first / 1e6, all / 1e6, retained / 1024.0));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package chessclock;
+
+import java.awt.image.BufferedImage;
+import javax.swing.ImageIcon;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FlagAtlasTest {
+
+    private FlagAtlas atlas;
+    private static final String FLAG = "flagEarth.png";
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        atlas = new FlagAtlas(FlagAtlas.SHEET_FILE, FlagAtlas.INDEX_FILE);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        atlas = null;
+    }
+
+    @Test
+    public void testGetFlag() {
+        assertEquals(0, atlas.getRetainedBytes(), "Sheet decoded before it is needed");
+
+        ImageIcon flag = atlas.getFlag(FLAG);
+        assertEquals(84, flag.getIconWidth(), "Wrong width");
+        assertEquals(42, flag.getIconHeight(), "Wrong height");
+        assertSame(flag, atlas.getFlag(FLAG), "Flag made twice");
+
+        BufferedImage sheet = atlas.prefetch().join();
+        assertNotNull(sheet, "No sheet");
+        assertSame(sheet.getRaster().getDataBuffer(), ((BufferedImage) flag.getImage()).getRaster().getDataBuffer(),
+                "Flag is not a view into the sheet");
+        assertEquals(FlagAtlas.getImageBytes(sheet), atlas.getRetainedBytes(), "Wrong retained bytes");
+    }
+
+    @Test
+    public void testPrefetch() {
+        assertSame(atlas.prefetch(), atlas.prefetch(), "Sheet decoded twice");
+        atlas.prefetch().join();
+        assertTrue(atlas.getRetainedBytes() > 0, "Sheet not decoded");
+    }
+
+    @Test
+    public void testMissingSheet() {
+        FlagAtlas missing = new FlagAtlas("img/noSuchSheet.png", "img/noSuchIndex.idx");
+        ImageIcon flag = missing.getFlag("pause.png");
+        assertTrue(flag.getIconWidth() > 0, "No fallback to the flag file");
+        assertEquals(0, missing.getRetainedBytes(), "Bytes retained without sheet");
+    }
+
+    @Test
+    public void testSharedByCountries() {
+        assertSame(Countries.EARTH.getFlag(), Countries.DEBUG_A.getFlag(), "Same flag file loaded twice");
+    }
+}
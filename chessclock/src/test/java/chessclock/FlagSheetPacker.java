@@ -0,0 +1,159 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package chessclock;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+/** Packs single flag images into the sprite sheet and the index read by the {@link FlagAtlas flag
+ * atlas}. The flags are put on shelves, the highest flags first. This is not a unit test, but a
+ * program to be run on demand whenever a flag is added, e.g. via the gradle task {@code packFlags}.
+ * <p>
+ * Arguments: the directory with the flag images, the sheet file to write, and the index file to
+ * write.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public class FlagSheetPacker {
+
+    /** Maximum width of the sheet, unless a single flag is wider. */
+    private static final int MAX_SHEET_WIDTH = 1024;
+    /** Free pixels between two flags. */
+    private static final int GAP = 1;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Arguments: flag directory, sheet file, index file");
+            System.exit(1);
+        }
+        List<Path> flags = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Path.of(args[0]), "*.png")) {
+            stream.forEach(flags::add);
+        }
+        int packed = pack(flags, Path.of(args[1]), Path.of(args[2]));
+        System.out.println(packed + " flags packed");
+    }
+
+    /** Packs flag images into a sheet and writes the sheet and its index.
+     *
+     * @since 1.0;
+     * @param flagFiles The flag images. The names of the files are the names in the index.
+     * @param sheetFile The sheet file to write, as PNG.
+     * @param indexFile The index file to write.
+     * @return Number of flags packed.
+     * @throws IOException If a file cannot be read or written.
+     */
+    static int pack(List<Path> flagFiles, Path sheetFile, Path indexFile) throws IOException {
+        List<String> names = new ArrayList<>();
+        List<BufferedImage> images = new ArrayList<>();
+        List<Path> sorted = new ArrayList<>(flagFiles);
+        sorted.sort(Comparator.comparing(path -> path.getFileName().toString()));
+        for (Path file : sorted) {
+            BufferedImage image = ImageIO.read(file.toFile());
+            if (image == null) {
+                throw new IOException("Not an image: " + file);
+            }
+            names.add(file.getFileName().toString());
+            images.add(image);
+        }
+
+        // shelves, highest flags first
+        Integer[] order = new Integer[images.size()];
+        for (int index = 0; index < order.length; index++) {
+            order[index] = index;
+        }
+        Arrays.sort(order, Comparator.comparingInt((Integer index) -> -images.get(index).getHeight())
+                .thenComparing(index -> names.get(index)));
+        int sheetWidth = MAX_SHEET_WIDTH;
+        for (BufferedImage image : images) {
+            sheetWidth = Math.max(sheetWidth, image.getWidth());
+        }
+        int[] xs = new int[images.size()];
+        int[] ys = new int[images.size()];
+        int x = 0;
+        int y = 0;
+        int shelfHeight = 0;
+        int usedWidth = 1;
+        for (int index : order) {
+            BufferedImage image = images.get(index);
+            if (x > 0 && x + image.getWidth() > sheetWidth) {
+                x = 0;
+                y += shelfHeight + GAP;
+                shelfHeight = 0;
+            }
+            xs[index] = x;
+            ys[index] = y;
+            x += image.getWidth() + GAP;
+            usedWidth = Math.max(usedWidth, x - GAP);
+            shelfHeight = Math.max(shelfHeight, image.getHeight());
+        }
+
+        // without transparency, the decoded sheet takes three bytes per pixel instead of four
+        int type = images.stream().anyMatch(FlagSheetPacker::isTranslucent) ? BufferedImage.TYPE_INT_ARGB
+                : BufferedImage.TYPE_INT_RGB;
+        BufferedImage sheet = new BufferedImage(usedWidth, Math.max(1, y + shelfHeight), type);
+        Graphics2D g2d = sheet.createGraphics();
+        for (int index = 0; index < images.size(); index++) {
+            g2d.drawImage(images.get(index), xs[index], ys[index], null);
+        }
+        g2d.dispose();
+        ImageIO.write(sheet, "png", sheetFile.toFile());
+
+        try (Writer writer = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8)) {
+            writer.write("# flag file, x, y, width, height on " + sheetFile.getFileName() + "\n");
+            for (int index = 0; index < images.size(); index++) {
+                BufferedImage image = images.get(index);
+                writer.write(names.get(index) + " " + xs[index] + " " + ys[index] + " " + image.getWidth() + " "
+                        + image.getHeight() + "\n");
+            }
+        }
+        return images.size();
+    }
+
+    /** Tells if an image has any pixel that is not fully opaque.
+     *
+     * @since 1.0;
+     * @param image The image.
+     * @return {@code true} if there is such a pixel.
+     */
+    private static boolean isTranslucent(BufferedImage image) {
+        if (!image.getColorModel().hasAlpha()) {
+            return false;
+        }
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                if (image.getRGB(x, y) >>> 24 != 0xff) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package chessclock;
+
+import chessclock.clockpanel.LatencyTracer;
+import java.awt.AWTException;
+import java.awt.Frame;
+import java.awt.Robot;
+import java.awt.event.KeyEvent;
+import java.lang.reflect.InvocationTargetException;
+import javax.swing.SwingUtilities;
+import time.TimeControlPhase;
+
+/** Measures the latency from a key release to the time panel painted active, end to end. Starts
+ * the chess clock, begins a game without going through the settings, and lets a
+ * {@link java.awt.Robot robot} press and release a key again and again, like a player hitting the
+ * clock. Each release is traced by the {@link LatencyTracer latency tracer} of the clock panel,
+ * and the median, the 99th percentile, and the maximum of each stage are printed at the end. The
+ * presses of the warm up are not counted. This is not a unit test, but a program to be run on
+ * demand on a desktop, e.g. via the gradle task {@code latencyHarness}. Do not touch the keyboard
+ * or the mouse while it runs, as the window has to keep the focus.
+ * <p>
+ * Arguments, optional: the number of presses measured, and the pause between two presses in
+ * milliseconds.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public class LatencyHarness {
+
+    /** Default number of presses measured. */
+    private static final int DEFAULT_PRESSES = 300;
+    /** Default pause between two presses, in milliseconds. Longer than a tenth of a second, so
+     * that every press shows up on the screen before the next one. */
+    private static final int DEFAULT_PAUSE = 150;
+    /** Number of presses of the warm up. */
+    private static final int WARM_UP_PRESSES = 50;
+    /** How long to wait for the chess clock to start, in milliseconds. */
+    private static final long LAUNCH_TIMEOUT = 30000;
+    /** How long to wait between two looks at the window while starting, in milliseconds. */
+    private static final long LAUNCH_POLL = 100;
+    /** Time for each player, in seconds. Enough for every press. */
+    private static final int GAME_TIME = 24 * 60 * 60;
+    /** The key pressed, which is any key without a special meaning to the chess clock. */
+    private static final int KEY = KeyEvent.VK_M;
+
+    public static void main(String[] args) throws Exception {
+        int presses = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PRESSES;
+        int pause = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PAUSE;
+
+        Robot robot;
+        try {
+            robot = new Robot();
+        } catch (AWTException | SecurityException e) {
+            System.out.println("Cannot inject input here: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        ChessClockFrame.main(new String[0]);
+        ChessClockFrame frame = awaitLaunch();
+        if (frame == null) {
+            System.out.println("The chess clock did not start within " + LAUNCH_TIMEOUT + " ms");
+            System.exit(2);
+            return;
+        }
+        startGame(frame);
+        robot.waitForIdle();
+
+        LatencyTracer tracer = frame.getClockPanel().getLatencyTracer();
+        press(robot, WARM_UP_PRESSES, pause);
+        tracer.clear();
+        press(robot, presses, pause);
+        // the last press still has to reach the screen
+        Thread.sleep(pause);
+
+        System.out.println(presses + " key releases, " + pause + " ms apart");
+        System.out.println(tracer.report());
+        SwingUtilities.invokeAndWait(frame::exitApplication);
+    }
+
+    /** Waits for the chess clock to show the settings panel, which it does once it has started.
+     *
+     * @since 1.0;
+     * @return The frame of the chess clock. {@code null} if it did not start in time.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private static ChessClockFrame awaitLaunch() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + LAUNCH_TIMEOUT;
+        while (System.currentTimeMillis() < deadline) {
+            for (Frame candidate : Frame.getFrames()) {
+                if (candidate instanceof ChessClockFrame frame && frame.getSettingsPanel() != null
+                        && frame.getSettingsPanel().isShowing()) {
+                    return frame;
+                }
+            }
+            Thread.sleep(LAUNCH_POLL);
+        }
+        return null;
+    }
+
+    /** Begins a game, as if the settings had been confirmed, and brings the window to the front.
+     *
+     * @since 1.0;
+     * @param frame The frame of the chess clock.
+     * @throws InterruptedException If interrupted while waiting for the event dispatch thread.
+     * @throws InvocationTargetException If beginning the game fails.
+     */
+    private static void startGame(ChessClockFrame frame) throws InterruptedException, InvocationTargetException {
+        TimeControlPhase[] phases = {TimeControlPhase.makeNew(TimeControlPhase.REMAINDER, GAME_TIME, 0)};
+        PlayerData left = PlayerData.makeNew("Left", Countries.EARTH, phases, false, -1, 0).get();
+        PlayerData right = PlayerData.makeNew("Right", Countries.EARTH, phases, false, -1, 0).get();
+        SwingUtilities.invokeAndWait(() -> {
+            frame.acceptSettings(left, right, true, true);
+            frame.toFront();
+            frame.requestFocus();
+        });
+    }
+
+    /** Presses and releases the key a number of times.
+     *
+     * @since 1.0;
+     * @param robot Injects the key events.
+     * @param presses Number of presses.
+     * @param pause Pause between two presses, in milliseconds.
+     */
+    private static void press(Robot robot, int presses, int pause) {
+        for (int press = 0; press < presses; press++) {
+            robot.keyPress(KEY);
+            robot.keyRelease(KEY);
+            robot.delay(pause);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package chessclock;
+
+import java.util.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class StartupProfilerTest {
+
+    private static final long MILLI = 1000000;
+
+    /** The current moment of the fake clock. */
+    private long now;
+    private StartupProfiler profiler;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        now = 1000 * MILLI;
+        profiler = new StartupProfiler(() -> now, 100 * MILLI, 20 * MILLI);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        profiler = null;
+    }
+
+    @Test
+    public void testPhases() {
+        now += 30 * MILLI;
+        profiler.endPhase("a");
+        now += 5 * MILLI;
+        profiler.endPhase("b");
+
+        assertEquals(List.of(StartupProfiler.BEFORE_LAUNCH, "a", "b"), profiler.getPhaseNames(), "Wrong phases");
+        assertEquals(20 * MILLI, profiler.getPhaseDuration(0), "Wrong time before launch");
+        assertEquals(30 * MILLI, profiler.getPhaseDuration(1), "Wrong duration of a");
+        assertEquals(5 * MILLI, profiler.getPhaseDuration(2), "Wrong duration of b");
+        assertEquals(-1, profiler.getPhaseDuration(3), "Duration of a phase not ended");
+        assertEquals(-1, profiler.getTimeToFirstFrame(), "First frame shown too early");
+        assertFalse(profiler.isWithinBudget(), "Within budget before the first frame");
+    }
+
+    @Test
+    public void testFirstFrameShown() {
+        now += 30 * MILLI;
+        profiler.endPhase("a");
+        now += 40 * MILLI;
+        profiler.firstFrameShown("frame");
+
+        assertEquals(90 * MILLI, profiler.getTimeToFirstFrame(), "Wrong time to first frame");
+        assertTrue(profiler.isWithinBudget(), "Not within budget");
+        assertEquals(40 * MILLI, profiler.getPhaseDuration(2), "Wrong duration of the last phase");
+        assertTrue(profiler.report().contains("90.0 ms"), "Headline not reported");
+
+        now += 40 * MILLI;
+        profiler.firstFrameShown("again");
+        assertEquals(90 * MILLI, profiler.getTimeToFirstFrame(), "First frame shown twice");
+        assertEquals(3, profiler.getPhaseNames().size(), "Phase added by a later frame");
+    }
+
+    @Test
+    public void testBudgetExceeded() {
+        StartupProfiler slow = new StartupProfiler(() -> now, 100 * MILLI, 0);
+        now += 101 * MILLI;
+        slow.firstFrameShown("frame");
+
+        assertEquals(List.of("frame"), slow.getPhaseNames(), "Phase before launch reported");
+        assertFalse(slow.isWithinBudget(), "Within budget though exceeded");
+        assertTrue(slow.report().contains("exceeded"), "Exceeding not reported");
+    }
+}
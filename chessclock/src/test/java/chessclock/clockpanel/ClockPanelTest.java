@@ -19,6 +19,7 @@ package chessclock.clockpanel;
 
 import java.awt.Font;
 import java.awt.Image;
+import java.awt.Rectangle;
 import java.lang.reflect.Field;
 import java.util.Optional;
 
@@ -312,4 +313,33 @@ public class ClockPanelTest {
         FRAME.setLoc(new EnglishLocalization());
     }
 
+
+    @Test
+    public void testTimePanelDamage() {
+        Font font = new JLabel().getFont();
+        TimePanel timePanel = new TimePanel("999:99", font, ".9", font, "999:99.9", font, new EnglishLocalization());
+        timePanel.setReferenceFont(font);
+        timePanel.rearrange(600, 300);
+        timePanel.setClockTime(50 * time.Constants.NANOSEC_PER_SEC + 5 * time.Constants.NANOSEC_PER_TENS_OF_SEC);
+        timePanel.clearDamage();
+
+        timePanel.setClockTime(50 * time.Constants.NANOSEC_PER_SEC + 4 * time.Constants.NANOSEC_PER_TENS_OF_SEC);
+        Rectangle tenth = new Rectangle(timePanel.getDamage());
+        assertTrue(!tenth.isEmpty(), "No damage for a new tenth of a second");
+        assertTrue(tenth.width < timePanel.getWidth() / 2, "Too much damage for a new tenth of a second");
+
+        timePanel.clearDamage();
+        timePanel.setClockTime(50 * time.Constants.NANOSEC_PER_SEC + 4 * time.Constants.NANOSEC_PER_TENS_OF_SEC);
+        assertTrue(timePanel.getDamage().isEmpty(), "Damage without a change");
+
+        timePanel.setClockTime(49 * time.Constants.NANOSEC_PER_SEC);
+        assertTrue(timePanel.getDamage().width > tenth.width, "Seconds not damaged");
+
+        timePanel.clearDamage();
+        timePanel.setActive(true);
+        assertTrue(timePanel.getDamage().contains(0, 0, timePanel.getWidth(), timePanel.getHeight()),
+                "Border change does not damage all");
+        timePanel.updateDisplay();
+        assertTrue(timePanel.getDamage().isEmpty(), "Damage not cleared by the update");
+    }
 }
@@ -0,0 +1,147 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package chessclock.clockpanel;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DigitAtlasTest {
+
+    private static final Font FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 40);
+    private static final FontRenderContext CONTEXT = new FontRenderContext(null, true, true);
+    private DigitAtlas atlas;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        atlas = DigitAtlas.makeNew(FONT, CONTEXT).get();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        atlas = null;
+    }
+
+    @Test
+    public void testMakeNew() {
+        assertTrue(DigitAtlas.makeNew(null, CONTEXT).isEmpty(), "Made new with null font");
+        assertTrue(DigitAtlas.makeNew(FONT, null).isEmpty(), "Made new with null render context");
+        assertEquals(FONT, atlas.getFont(), "Wrong font");
+    }
+
+    @Test
+    public void testCanDraw() {
+        assertTrue(atlas.canDraw("123:45.6"), "Cannot draw a time");
+        assertTrue(atlas.canDraw(""), "Cannot draw the empty text");
+        assertFalse(atlas.canDraw("1h 23"), "Can draw letters and spaces");
+    }
+
+    @Test
+    public void testGetAdvance() {
+        float advance = (float) FONT.getStringBounds("12:34", CONTEXT).getWidth();
+        assertEquals((int) Math.ceil(advance), atlas.getAdvance("12:34"), "Wrong advance");
+        assertEquals(0, atlas.getAdvance(""), "Advance of the empty text");
+        assertTrue(atlas.getHeight() > atlas.getAscent(), "Height not beyond ascent");
+    }
+
+    @Test
+    public void testDraw() {
+        BufferedImage image = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        atlas.draw(g2d, "8", 10, 10 + atlas.getAscent(), Color.red);
+        g2d.dispose();
+
+        boolean red = false;
+        for (int x = 0; x < image.getWidth() && !red; x++) {
+            for (int y = 0; y < image.getHeight() && !red; y++) {
+                red = image.getRGB(x, y) == Color.red.getRGB();
+            }
+        }
+        assertTrue(red, "Glyph not drawn in red");
+        assertEquals(Color.black.getRGB(), image.getRGB(150, 50), "Drawn beyond the glyph");
+    }
+
+    @Test
+    public void testDrawScaled() {
+        Font italic = new Font(Font.SERIF, Font.ITALIC, 40);
+        DigitAtlas italicAtlas = DigitAtlas.makeNew(italic, CONTEXT).get();
+        String text = "47:19";
+        int baseline = 10 + italicAtlas.getAscent();
+
+        // the atlas at twice the size of the text, as on a screen with a high density of pixels
+        BufferedImage drawn = new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = drawn.createGraphics();
+        g2d.scale(2, 2);
+        italicAtlas.draw(g2d, text, 10, baseline, Color.white);
+        g2d.dispose();
+
+        // the same text rendered directly
+        BufferedImage expected = new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
+        g2d = expected.createGraphics();
+        g2d.scale(2, 2);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        g2d.setFont(italic);
+        g2d.setColor(Color.white);
+        float penX = 10;
+        for (int index = 0; index < text.length(); index++) {
+            String character = text.substring(index, index + 1);
+            g2d.drawString(character, Math.round(penX), baseline);
+            penX += (float) italic.getStringBounds(character, CONTEXT).getWidth();
+        }
+        g2d.dispose();
+
+        int lit = 0;
+        int differing = 0;
+        for (int x = 0; x < expected.getWidth(); x++) {
+            for (int y = 0; y < expected.getHeight(); y++) {
+                int brightness = expected.getRGB(x, y) & 0xFF;
+                if (brightness > 0) {
+                    lit++;
+                }
+                if (Math.abs(brightness - (drawn.getRGB(x, y) & 0xFF)) > 64) {
+                    differing++;
+                }
+            }
+        }
+        assertTrue(lit > 0, "Nothing rendered");
+        assertTrue(differing * 20 < lit, "Glyphs not rendered at the scale, or cut off: " + differing + " of " + lit);
+        assertTrue(italicAtlas.getPadding() > 1, "Padding does not cover the italic glyphs");
+    }
+}
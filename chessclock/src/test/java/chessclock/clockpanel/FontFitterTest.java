@@ -0,0 +1,134 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package chessclock.clockpanel;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FontFitterTest {
+
+    private static final Font FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+    private static final FontRenderContext CONTEXT = new FontRenderContext(null, true, true);
+    private static final String[] SAMPLES = {"999:99", ".9"};
+    private FontFitter fitter;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        fitter = FontFitter.makeNew(SAMPLES, new int[]{1, 2}, new int[]{1, 3}).get();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        fitter = null;
+    }
+
+    @Test
+    public void testMakeNew() {
+        assertTrue(FontFitter.makeNew(null, new int[]{1}, new int[]{1}).isEmpty(), "Made new without samples");
+        assertTrue(FontFitter.makeNew(new String[0], new int[0], new int[0]).isEmpty(), "Made new with no samples");
+        assertTrue(FontFitter.makeNew(SAMPLES, new int[]{1}, new int[]{1, 3}).isEmpty(), "Made new with too few numerators");
+        assertTrue(FontFitter.makeNew(SAMPLES, new int[]{1, 2}, new int[]{1, 0}).isEmpty(), "Made new with zero denominator");
+        assertTrue(FontFitter.makeNew(new String[]{"9", null}, new int[]{1, 1}, new int[]{1, 1}).isEmpty(),
+                "Made new with a null sample");
+    }
+
+    @Test
+    public void testFitSize() {
+        for (int availableWidth : new int[]{5, 40, 300, 1234, 3000}) {
+            // walk the sizes one by one, as it used to be done
+            int expected = 1;
+            for (int size = 1; size <= FontFitter.MAX_SIZE && width(size) <= availableWidth; size++) {
+                expected = size;
+            }
+            assertEquals(expected, fitter.fitSize(FONT, CONTEXT, availableWidth), "Wrong size for " + availableWidth);
+        }
+        assertEquals(1, fitter.fitSize(FONT, CONTEXT, 0), "Size below 1 for no width");
+        assertEquals(FontFitter.MAX_SIZE, fitter.fitSize(FONT, CONTEXT, Integer.MAX_VALUE), "Size beyond the largest");
+    }
+
+    @Test
+    public void testMemo() {
+        int size = fitter.fitSize(FONT, CONTEXT, 500);
+        assertEquals(1, fitter.getMemoisedSizes(), "Size not memoised");
+        assertEquals(size, fitter.fitSize(FONT, CONTEXT, 500), "Other size from the memo");
+        assertEquals(1, fitter.getMemoisedSizes(), "Size memoised twice");
+        fitter.fitSize(FONT, CONTEXT, 501);
+        assertEquals(2, fitter.getMemoisedSizes(), "Other width not memoised");
+
+        Font derived = FontFitter.derive(FONT, Font.PLAIN, 40);
+        assertTrue(derived == FontFitter.derive(FONT, Font.PLAIN, 40), "Derived font not memoised");
+        assertEquals(40, derived.getSize(), "Wrong size of the derived font");
+    }
+
+    /** The window is laid out on the launch thread while the event dispatch thread may already lay
+     * it out as well, so the memos are shared between threads.
+     *
+     * @since 1.0;
+     */
+    @Test
+    public void testConcurrentFitSize() throws InterruptedException {
+        int threads = 4;
+        int widths = 2000;
+        int[][] sizes = new int[threads][widths];
+        Thread[] workers = new Thread[threads];
+        for (int thread = 0; thread < threads; thread++) {
+            int[] found = sizes[thread];
+            workers[thread] = new Thread(() -> {
+                for (int width = 0; width < widths; width++) {
+                    found[width] = fitter.fitSize(FONT, CONTEXT, 100 + width);
+                }
+            });
+            workers[thread].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        FontFitter single = FontFitter.makeNew(SAMPLES, new int[]{1, 2}, new int[]{1, 3}).get();
+        for (int width = 0; width < widths; width += 97) {
+            int expected = single.fitSize(FONT, CONTEXT, 100 + width);
+            for (int thread = 0; thread < threads; thread++) {
+                assertEquals(expected, sizes[thread][width], "Wrong size for " + (100 + width) + " on thread " + thread);
+            }
+        }
+        assertEquals(FontFitter.MEMO_ENTRIES, fitter.getMemoisedSizes(), "Memo not cut to its size");
+    }
+
+    private int width(int size) {
+        Font large = FONT.deriveFont(Font.PLAIN, size);
+        Font small = FONT.deriveFont(Font.PLAIN, 2 * size / 3);
+        return (int) Math.ceil(large.createGlyphVector(CONTEXT, SAMPLES[0]).getLogicalBounds().getWidth())
+                + (int) Math.ceil(small.createGlyphVector(CONTEXT, SAMPLES[1]).getLogicalBounds().getWidth());
+    }
+}
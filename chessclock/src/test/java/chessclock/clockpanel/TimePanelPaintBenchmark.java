@@ -0,0 +1,123 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package chessclock.clockpanel;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+import localization.EnglishLocalization;
+import time.Constants;
+
+/** Measures the time needed for painting a {@link TimePanel time panel} per frame, once with the
+ * whole panel being repainted in each frame, as it used to be, and once with only the damaged area
+ * being repainted. In each frame, the time shown goes down by a tenth of a second. This is not a
+ * unit test, but a program to be run on demand, e.g. via the gradle task {@code paintBenchmark}.
+ * <p>
+ * Before, the time needed for rearranging the panel is measured, for widths never seen before and
+ * for the same widths once more, when the font sizes are known already.
+ * <p>
+ * Arguments, all optional: the width and the height of the time panel in pixels, and the number of
+ * frames painted per measurement.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public class TimePanelPaintBenchmark {
+
+    /** Default width, about half of a 4K screen. */
+    private static final int DEFAULT_WIDTH = 1800;
+    /** Default height. */
+    private static final int DEFAULT_HEIGHT = 900;
+    /** Default number of frames. */
+    private static final int DEFAULT_FRAMES = 3000;
+    /** Number of measurements of each kind, alternating. */
+    private static final int ROUNDS = 5;
+    /** Number of widths the panel is rearranged to. */
+    private static final int WIDTHS = 200;
+
+    public static void main(String[] args) {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_WIDTH;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_HEIGHT;
+        int frames = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_FRAMES;
+
+        TimePanel panel = new TimePanel("999:99", new Font(Font.SANS_SERIF, Font.PLAIN, 12), ".9",
+                new Font(Font.SANS_SERIF, Font.PLAIN, 12), "999:99.9", new Font(Font.SANS_SERIF, Font.PLAIN, 12),
+                new EnglishLocalization());
+        panel.setReferenceFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
+        System.out.printf("rearranging, new widths: %.1f us, known widths: %.1f us%n",
+                measureRearrange(panel, width, height) / 1000, measureRearrange(panel, width, height) / 1000);
+        panel.rearrange(width, height);
+        panel.setActive(true);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+        System.out.println("panel: " + width + " x " + height + " pixels, " + frames + " frames per measurement");
+        System.out.println("repainted area | paint time per frame [us]");
+        for (int round = 0; round < ROUNDS; round++) {
+            System.out.printf("%14s | %25.1f%n", "whole panel", measure(panel, image, frames, false) / 1000);
+            System.out.printf("%14s | %25.1f%n", "damage only", measure(panel, image, frames, true) / 1000);
+        }
+    }
+
+    /** Rearranges the panel to a number of widths just below the given one.
+     *
+     * @since 1.0;
+     * @param panel The time panel.
+     * @param width The largest width.
+     * @param height The height.
+     * @return Average time for rearranging the panel, in nanoseconds.
+     */
+    private static double measureRearrange(TimePanel panel, int width, int height) {
+        long start = System.nanoTime();
+        for (int step = 1; step <= WIDTHS; step++) {
+            panel.rearrange(width - step, height);
+        }
+        return (double) (System.nanoTime() - start) / WIDTHS;
+    }
+
+    /** Counts the time down frame by frame and paints each frame.
+     *
+     * @since 1.0;
+     * @param panel The time panel.
+     * @param image Image painted into.
+     * @param frames Number of frames.
+     * @param damageOnly Repaint only the damaged area, rather than the whole panel?
+     * @return Average time for painting a frame, in nanoseconds.
+     */
+    private static double measure(TimePanel panel, BufferedImage image, int frames, boolean damageOnly) {
+        Rectangle whole = new Rectangle(0, 0, panel.getWidth(), panel.getHeight());
+        long time = 90 * 60 * Constants.NANOSEC_PER_SEC;
+        long painting = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            time -= Constants.NANOSEC_PER_TENS_OF_SEC;
+            panel.setClockTime(time);
+            Rectangle clip = damageOnly ? panel.getDamage() : whole;
+
+            long start = System.nanoTime();
+            Graphics2D g2d = image.createGraphics();
+            g2d.setClip(clip);
+            panel.paintComponent(g2d);
+            g2d.dispose();
+            painting += System.nanoTime() - start;
+
+            panel.clearDamage();
+        }
+        return (double) painting / frames;
+    }
+}
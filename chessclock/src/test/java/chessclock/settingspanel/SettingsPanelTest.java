@@ -22,6 +22,7 @@ import java.lang.reflect.Field;
 import java.util.Optional;
 
 import javax.swing.JButton;
+import javax.swing.JTabbedPane;
 
 import additionalTesting.TestUtils;
 import chessclock.MasterFrame;
@@ -31,6 +32,8 @@ import localization.Loc;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import org.junit.jupiter.api.BeforeAll;
@@ -147,4 +150,30 @@ public class SettingsPanelTest {
         assertEquals(height, panel.getHeight(), "Not the right height");
     }
 
+    @Test
+    public void testLazyAboutPanel() {
+        Field fieldAboutPanel;
+        JTabbedPane tabbedPane;
+        try {
+            fieldAboutPanel = TestUtils.getFieldAccessible(SettingsPanel.class, "aboutPanel");
+            tabbedPane = (JTabbedPane) TestUtils.getFieldAccessible(SettingsPanel.class, "tabbedPane").get(panel);
+            assertNull(fieldAboutPanel.get(panel), "About panel built before its tab has been selected");
+        } catch (Exception e) {
+            fail("Could not access fields: " + e.getClass().getSimpleName());
+            return;
+        }
+
+        Loc loc = new EnglishLocalization();
+        panel.updateLocalization(loc);
+        tabbedPane.setSelectedIndex(1);
+        try {
+            Object aboutPanel = fieldAboutPanel.get(panel);
+            assertNotNull(aboutPanel, "About panel not built when its tab is selected");
+            assertEquals(aboutPanel, tabbedPane.getComponentAt(1), "About panel not in its tab");
+        } catch (IllegalAccessException e) {
+            fail("Could not access aboutPanel");
+            return;
+        }
+        assertEquals(loc.retrieveString(Loc.ABOUT), tabbedPane.getTitleAt(1), "Title of the tab lost");
+    }
 }
@@ -0,0 +1,222 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package localization;
+
+import additionalTesting.TestUtils;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import time.Constants;
+
+public class LocTest {
+
+    private static final long SEC = Constants.NANOSEC_PER_SEC;
+    private static final long TENTH = Constants.NANOSEC_PER_TENS_OF_SEC;
+    private Loc loc;
+
+    @BeforeAll
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterAll
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        loc = new EnglishLocalization();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        loc = null;
+    }
+
+    @Test
+    public void testGetTimeStrings() {
+        assertArrayEquals(new String[]{"0:00", ".0"}, loc.getTimeStrings(0), "Wrong strings for zero");
+        assertArrayEquals(new String[]{"0:00", ".1"}, loc.getTimeStrings(1), "Not ceiled");
+        assertArrayEquals(new String[]{"1:05", ".3"}, loc.getTimeStrings(65 * SEC + 3 * TENTH), "Wrong strings");
+        assertArrayEquals(new String[]{"90:00", ".0"}, loc.getTimeStrings(5400 * SEC), "Wrong strings for 90 min");
+        assertArrayEquals(new String[]{"0:10", ".0"}, loc.getTimeStrings(10 * SEC - TENTH / 2),
+                "Not ceiled to the next second");
+        assertArrayEquals(new String[]{"0:00", ".0"}, loc.getTimeStrings(-SEC), "Negative time shown");
+    }
+
+    @Test
+    public void testFormatTime() {
+        TimeChars minutesSeconds = new TimeChars();
+        TimeChars tenths = new TimeChars();
+        TimeChars all = new TimeChars();
+
+        loc.formatTime(123 * 60 * SEC + 4 * SEC + 5 * TENTH, minutesSeconds, tenths);
+        assertEquals("123:04", minutesSeconds.toString(), "Wrong minutes and seconds");
+        assertEquals(".5", tenths.toString(), "Wrong tenths");
+        assertTrue(minutesSeconds.contentEquals("123:04"), "Content not equal");
+
+        loc.formatTime(59 * SEC + 9 * TENTH, all);
+        assertEquals("0:59.9", all.toString(), "Wrong time in one buffer");
+
+        loc.formatTime(Long.MAX_VALUE, all);
+        assertEquals("0:59.9".length() - 1 + String.valueOf(Long.MAX_VALUE / SEC / 60).length(), all.length(),
+                "Wrong length of the largest time");
+    }
+
+    @Test
+    public void testCustomTimeFormat() {
+        TimeChars minutesSeconds = new TimeChars();
+        TimeChars tenths = new TimeChars();
+        TimeChars all = new TimeChars();
+
+        Loc separators = new EmptyLocalization() {
+            @Override
+            protected char getDecimalSeparator() {
+                return ',';
+            }
+        };
+        separators.formatTime(65 * SEC + 3 * TENTH, all);
+        assertEquals("1:05,3", all.toString(), "Decimal separator not overwritten");
+        assertArrayEquals(new String[]{"1:05", ",3"}, separators.getTimeStrings(65 * SEC + 3 * TENTH),
+                "Decimal separator not overwritten in strings");
+
+        Loc seconds = new EmptyLocalization() {
+            @Override
+            protected void appendTime(long time, TimeChars minutesSeconds, TimeChars tenths) {
+                minutesSeconds.appendNumber(Math.max(time, 0) / SEC);
+            }
+        };
+        seconds.formatTime(65 * SEC + 3 * TENTH, minutesSeconds, tenths);
+        assertEquals("65", minutesSeconds.toString(), "Time format not overwritten");
+        assertEquals("", tenths.toString(), "Time format not overwritten for the tenths");
+
+        Loc strings = new EmptyLocalization() {
+            @Override
+            public String[] getTimeStrings(long time) {
+                String[] strings = super.getTimeStrings(time);
+                return new String[]{"[" + strings[0] + "]", strings[1]};
+            }
+        };
+        strings.formatTime(65 * SEC + 3 * TENTH, minutesSeconds, tenths);
+        assertEquals("[1:05]", minutesSeconds.toString(), "Overwritten time strings ignored");
+        assertEquals(".3", tenths.toString(), "Overwritten time strings ignored for the tenths");
+        strings.formatTime(65 * SEC + 3 * TENTH, all);
+        assertEquals("[1:05].3", all.toString(), "Overwritten time strings ignored in one buffer");
+    }
+
+    @Test
+    public void testFormatTimeAllocation() {
+        TimeChars minutesSeconds = new TimeChars();
+        TimeChars tenths = new TimeChars();
+        long time = 90 * 60 * SEC;
+        // warm up
+        for (int tick = 0; tick < 100000; tick++) {
+            loc.formatTime(time - tick * TENTH / 10, minutesSeconds, tenths);
+        }
+
+        long before = TestUtils.getCurrentThreadAllocatedBytes();
+        if (before < 0) {
+            return; // the JVM does not tell
+        }
+        for (int tick = 0; tick < 100000; tick++) {
+            loc.formatTime(time - tick * TENTH / 10, minutesSeconds, tenths);
+        }
+        long allocated = TestUtils.getCurrentThreadAllocatedBytes() - before;
+        // the measurement itself may allocate a little, but nothing is allocated per call
+        assertTrue(allocated < 100000, "Allocated " + allocated + " bytes in 100000 calls");
+    }
+
+    @Test
+    public void testRetrieveString() {
+        assertEquals(loc.retrieveString(Loc.INITIAL_NAME), loc.retrieveString(LocKeys.findId(Loc.INITIAL_NAME)),
+                "String keys and ids disagree");
+        assertEquals("Enter name", loc.retrieveString(Loc.INITIAL_NAME), "Wrong string");
+        assertEquals("<no such key>", loc.retrieveString("no such key"), "Wrong fallback for unknown key");
+        assertEquals(LocKeys.NO_ID, LocKeys.findId("no such key"), "Unknown key registered by retrieving");
+
+        int unset = LocKeys.getId("test_unset_key");
+        assertEquals("<test_unset_key>", loc.retrieveString(unset), "Wrong fallback for missing string");
+        assertEquals("<" + LocKeys.NO_ID + ">", loc.retrieveString(LocKeys.NO_ID), "Wrong fallback for no id");
+    }
+
+    @Test
+    public void testBundleLocalization() throws IOException, NoSuchFieldException, IllegalAccessException {
+        Path directory = Files.createTempDirectory("bundles");
+        try {
+            checkBundleLocalization(directory);
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    private void checkBundleLocalization(Path directory) throws IOException, NoSuchFieldException,
+            IllegalAccessException {
+        Path file = directory.resolve("xx-yy" + BundleLocalization.EXTENSION);
+        Files.write(file, List.of(
+                "# a comment",
+                "",
+                "initial_name = Namen eingeben\\\\ändern",
+                "frame_title=Schachuhr\\nzwei",
+                "no_such_key_in_the_tree=ignored",
+                "line without separator"
+        ), StandardCharsets.UTF_8);
+
+        Optional<BundleLocalization> opt = BundleLocalization.makeNew(file);
+        assertTrue(opt.isPresent(), "Bundle not loaded");
+        BundleLocalization bundle = opt.get();
+        assertEquals("xx-yy", bundle.getLanguageCode(), "Wrong language code");
+        assertEquals(LocKeys.NO_ID, LocKeys.findId("no_such_key_in_the_tree"), "Unknown key registered");
+
+        int initialName = LocKeys.findId(Loc.INITIAL_NAME);
+        String[] strings = (String[]) TestUtils.getFieldAccessible(Loc.class, "strings").get(bundle);
+        assertNull(strings[initialName], "Value decoded before it has been retrieved");
+        assertEquals("Namen eingeben\\ändern", bundle.retrieveString(Loc.INITIAL_NAME), "Wrong value");
+        strings = (String[]) TestUtils.getFieldAccessible(Loc.class, "strings").get(bundle);
+        assertEquals("Namen eingeben\\ändern", strings[initialName], "Decoded value not kept");
+        assertEquals("Schachuhr\nzwei", bundle.retrieveString(Loc.FRAME_TITLE), "Escapes not replaced");
+        assertEquals(loc.retrieveString(Loc.EXCEPTION_TITLE), bundle.retrieveString(Loc.EXCEPTION_TITLE),
+                "No English fallback");
+
+        assertFalse(BundleLocalization.makeNew(directory.resolve("missing.lang")).isPresent(), "Missing file loaded");
+        assertFalse(BundleLocalization.makeNew(directory.resolve("xx-yy.txt")).isPresent(), "Wrong extension loaded");
+        assertFalse(BundleLocalization.makeNew(null).isPresent(), "Null loaded");
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        List<Path> paths;
+        try (var stream = Files.walk(directory)) {
+            paths = stream.sorted(Comparator.reverseOrder()).toList();
+        }
+        for (Path path : paths) {
+            Files.delete(path);
+        }
+    }
+}
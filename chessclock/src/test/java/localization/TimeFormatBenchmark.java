@@ -0,0 +1,91 @@
+/*
+ * PhasedChessClock - GUI
+ * Copyright (C) 2022 Dragonstb
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package localization;
+
+import additionalTesting.TestUtils;
+import time.Constants;
+
+/** Compares the time and the memory needed for formatting a time with
+ * {@link Loc#getTimeStrings(long)} and with {@link Loc#formatTime(long, TimeChars, TimeChars)}.
+ * This is not a unit test, but a program to be run on demand, e.g. via the gradle task
+ * {@code timeFormatBenchmark}.
+ * <p>
+ * Argument, optional: the number of calls per measurement.
+ *
+ * @author Dragonstb
+ * @since 1.0;
+ */
+public class TimeFormatBenchmark {
+
+    /** Default number of calls per measurement. */
+    private static final int DEFAULT_CALLS = 10000000;
+    /** Number of measurements of each kind, alternating. */
+    private static final int ROUNDS = 5;
+    /** Keeps the results alive, so that the formatting is not optimised away. */
+    private static long sink;
+
+    public static void main(String[] args) {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CALLS;
+        Loc loc = new EnglishLocalization();
+        TimeChars minutesSeconds = new TimeChars();
+        TimeChars tenths = new TimeChars();
+
+        System.out.println(calls + " calls per measurement");
+        System.out.println("       method | time per call [ns] | allocated per call [bytes]");
+        for (int round = 0; round < ROUNDS; round++) {
+            long bytes = TestUtils.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int call = 0; call < calls; call++) {
+                String[] strings = loc.getTimeStrings(time(call));
+                sink += strings[0].length() + strings[1].length();
+            }
+            print("getTimeStrings", calls, System.nanoTime() - start, TestUtils.getCurrentThreadAllocatedBytes() - bytes);
+
+            bytes = TestUtils.getCurrentThreadAllocatedBytes();
+            start = System.nanoTime();
+            for (int call = 0; call < calls; call++) {
+                loc.formatTime(time(call), minutesSeconds, tenths);
+                sink += minutesSeconds.length() + tenths.length();
+            }
+            print("formatTime", calls, System.nanoTime() - start, TestUtils.getCurrentThreadAllocatedBytes() - bytes);
+        }
+        System.out.println("(" + sink + ")");
+    }
+
+    /** Returns the time formatted in a call: counting down from 90 minutes in steps of a millisecond.
+     *
+     * @since 1.0;
+     * @param call Number of the call.
+     * @return The time, in nanoseconds.
+     */
+    private static long time(int call) {
+        return 5400 * Constants.NANOSEC_PER_SEC - (call % 5400000) * 1000000L;
+    }
+
+    /** Prints a line of the results.
+     *
+     * @since 1.0;
+     * @param method Name of the method measured.
+     * @param calls Number of calls.
+     * @param nanos Time taken, in nanoseconds.
+     * @param bytes Bytes allocated.
+     */
+    private static void print(String method, int calls, long nanos, long bytes) {
+        System.out.printf("%14s | %18.1f | %26.1f%n", method, (double) nanos / calls, (double) bytes / calls);
+    }
+}